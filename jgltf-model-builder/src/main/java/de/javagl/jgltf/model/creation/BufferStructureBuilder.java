@@ -31,10 +31,13 @@ import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import de.javagl.jgltf.model.AccessorData;
@@ -71,6 +74,11 @@ import de.javagl.jgltf.model.io.Buffers;
  * BufferStructure bufferStructure = b.build();
  * </code></pre>
  * <br>
+ * Vertex attribute accessors that have the same number of elements may 
+ * also be combined into an interleaved buffer view, by calling
+ * {@link #createInterleavedArrayBufferViewModel(String)} instead of
+ * {@link #createArrayBufferViewModel(String)}.<br>
+ * <br>
  * <b>Note:</b> Although the methods for creating the models always return
  * the respective model, e.g. an <code>AccessorModel</code> instance, these
  * instances will not be fully initialized until the {@link #build()} 
@@ -84,6 +92,12 @@ public final class BufferStructureBuilder
     private static final Logger logger = 
         Logger.getLogger(BufferStructureBuilder.class.getName());
     
+    /**
+     * The maximum byte stride of a vertex attribute buffer view, as
+     * defined in the glTF specification
+     */
+    private static final int MAX_BYTE_STRIDE = 252;
+    
     /**
      * The {@link BufferStructure} that is created by this instance
      */
@@ -105,6 +119,12 @@ public final class BufferStructureBuilder
      */
     private final List<DefaultBufferViewModel> currentBufferViewModels;
     
+    /**
+     * The set of {@link BufferViewModel} instances that have been created
+     * by calling {@link #createInterleavedArrayBufferViewModel}
+     */
+    private final Set<DefaultBufferViewModel> interleavedBufferViewModels;
+    
     /**
      * Default constructor
      */
@@ -113,6 +133,8 @@ public final class BufferStructureBuilder
         this.bufferStructure = new BufferStructure();
         this.currentAccessorModels = new ArrayList<DefaultAccessorModel>();
         this.currentBufferViewModels = new ArrayList<DefaultBufferViewModel>();
+        this.interleavedBufferViewModels = Collections.newSetFromMap(
+            new IdentityHashMap<DefaultBufferViewModel, Boolean>());
     }
     
     /**
@@ -303,6 +325,53 @@ public final class BufferStructureBuilder
             idPrefix, GltfConstants.GL_ARRAY_BUFFER);
     }
     
+    /**
+     * Create a {@link BufferViewModel} in the {@link BufferStructure} that 
+     * is currently being built, in which the data of the accessors will
+     * be interleaved. The {@link BufferViewModel#getTarget() target} will 
+     * be the GL constant for <code>GL_ARRAY_BUFFER</code>.<br>
+     * <br>
+     * All {@link AccessorModel} instances that have been created until now 
+     * and not yet added to a {@link BufferViewModel} must have the same
+     * {@link AccessorModel#getCount() count}. When the structure is built,
+     * element <code>i</code> of all these accessors will be stored 
+     * consecutively, each starting at a 4-byte aligned offset, and the 
+     * {@link BufferViewModel#getByteStride() byte stride} of the buffer 
+     * view will be the total size of these elements.<br>
+     * <br>
+     * The glTF specification limits the byte stride of vertex attribute
+     * buffer views to 252 bytes. If the total size of the elements 
+     * exceeds this limit, then the accessors will not be interleaved, 
+     * but stored consecutively, as if the buffer view had been created 
+     * with {@link #createArrayBufferViewModel(String)}.
+     * 
+     * @param idPrefix The ID prefix for the {@link BufferViewModel}
+     * @return The {@link BufferViewModel}
+     * @throws IllegalStateException If the current accessors do not all
+     * have the same count
+     */
+    public BufferViewModel createInterleavedArrayBufferViewModel(
+        String idPrefix)
+    {
+        int count = -1;
+        for (DefaultAccessorModel accessorModel : currentAccessorModels)
+        {
+            if (count != -1 && accessorModel.getCount() != count)
+            {
+                throw new IllegalStateException(
+                    "Interleaved accessors must have the same count, "
+                    + "but found counts " + count + " and " 
+                    + accessorModel.getCount());
+            }
+            count = accessorModel.getCount();
+        }
+        DefaultBufferViewModel bufferViewModel =
+            new DefaultBufferViewModel(GltfConstants.GL_ARRAY_BUFFER);
+        interleavedBufferViewModels.add(bufferViewModel);
+        addBufferViewModel(idPrefix, bufferViewModel);
+        return bufferViewModel;
+    }
+    
     /**
      * Create a {@link BufferViewModel} in the {@link BufferStructure} that 
      * is currently being built. The {@link BufferViewModel#getTarget()
@@ -427,8 +496,10 @@ public final class BufferStructureBuilder
      * Internal method to finalize the elements of the current 
      * {@link BufferStructure}: This will compute the byte offsets and 
      * paddings, and create the actual {@link BufferModel#getBufferData()
-     * buffer data}. This does a default construction. A method for
-     * interleaved construction may be added later, in some form. 
+     * buffer data}. The accessors of buffer views that have been created
+     * with {@link #createInterleavedArrayBufferViewModel(String)} will 
+     * be interleaved. The accessors of all other buffer views will be 
+     * stored consecutively.
      */
     private void buildDefault()
     {
@@ -492,6 +563,31 @@ public final class BufferStructureBuilder
             bufferElements.add(ByteBuffer.allocate(paddingBytesForBuffer));
             
             bufferViewModel.setByteOffset(accumulatedBufferBytes);
+            
+            boolean interleaved = 
+                interleavedBufferViewModels.contains(bufferViewModel);
+            if (interleaved)
+            {
+                int interleavedByteStride = 
+                    computeInterleavedByteStride(accessorModels);
+                if (interleavedByteStride > MAX_BYTE_STRIDE)
+                {
+                    logger.warning("The interleaved byte stride would be "
+                        + interleavedByteStride + ", but must be at most "
+                        + MAX_BYTE_STRIDE + " - storing accessors of " 
+                        + bufferViewModel + " without interleaving");
+                    interleaved = false;
+                }
+            }
+            if (interleaved)
+            {
+                ByteBuffer interleavedByteBuffer = 
+                    processInterleavedBufferViewModel(bufferViewModel, 
+                        accessorModels, rawAccessorModelByteBuffers);
+                accumulatedBufferBytes += interleavedByteBuffer.capacity();
+                bufferElements.add(interleavedByteBuffer);
+                continue;
+            }
 
             Integer commonByteStride = null;
             Integer target = bufferViewModel.getTarget();
@@ -590,6 +686,89 @@ public final class BufferStructureBuilder
         bufferModel.setBufferData(bufferData);
     }
     
+    /**
+     * Compute the byte stride that results from interleaving the given
+     * accessors, where each element starts at a 4-byte aligned offset.
+     * 
+     * @param accessorModels The {@link AccessorModel} instances
+     * @return The byte stride
+     */
+    private static int computeInterleavedByteStride(
+        List<DefaultAccessorModel> accessorModels)
+    {
+        int byteStride = 0;
+        for (DefaultAccessorModel accessorModel : accessorModels)
+        {
+            byteStride = Utils.pad(byteStride, 4);
+            byteStride += accessorModel.getPaddedElementSizeInBytes();
+        }
+        return Utils.pad(byteStride, 4);
+    }
+    
+    /**
+     * Process the given interleaved {@link BufferViewModel} during the 
+     * build process. This will compute the byte offsets and the common
+     * byte stride of the given accessors, and create the interleaved 
+     * data for the buffer view.
+     * 
+     * @param bufferViewModel The {@link BufferViewModel}
+     * @param accessorModels The {@link AccessorModel} instances of the
+     * buffer view
+     * @param rawAccessorModelByteBuffers The mapping from accessor models
+     * to the byte buffers that contain their packed data
+     * @return The data for the buffer view
+     */
+    private static ByteBuffer processInterleavedBufferViewModel(
+        DefaultBufferViewModel bufferViewModel, 
+        List<DefaultAccessorModel> accessorModels, 
+        Map<DefaultAccessorModel, ByteBuffer> rawAccessorModelByteBuffers)
+    {
+        // Compute the 4-byte aligned offsets of the elements of 
+        // the accessors, and the resulting common byte stride
+        int byteStride = 0;
+        for (DefaultAccessorModel accessorModel : accessorModels)
+        {
+            byteStride = Utils.pad(byteStride, 4);
+            accessorModel.setByteOffset(byteStride);
+            byteStride += accessorModel.getPaddedElementSizeInBytes();
+        }
+        byteStride = Utils.pad(byteStride, 4);
+        
+        int count = 0;
+        if (!accessorModels.isEmpty())
+        {
+            count = accessorModels.get(0).getCount();
+        }
+        // The interleaved buffer is a heap buffer, so the elements can
+        // be copied directly into its backing array, without creating
+        // intermediate buffer objects for each element
+        ByteBuffer interleavedByteBuffer = 
+            ByteBuffer.allocate(count * byteStride);
+        byte interleavedBytes[] = interleavedByteBuffer.array();
+        for (DefaultAccessorModel accessorModel : accessorModels)
+        {
+            ElementType elementType = accessorModel.getElementType();
+            int componentType = accessorModel.getComponentType();
+            int elementSize = accessorModel.getPaddedElementSizeInBytes();
+            ByteBuffer accessorByteBuffer = applyPadding(
+                rawAccessorModelByteBuffers.get(accessorModel), count, 
+                elementType, componentType, elementSize);
+            ByteBuffer source = accessorByteBuffer.duplicate();
+            source.position(0);
+            int byteOffset = accessorModel.getByteOffset();
+            for (int i = 0; i < count; i++)
+            {
+                source.get(interleavedBytes, 
+                    i * byteStride + byteOffset, elementSize);
+            }
+            accessorModel.setByteStride(byteStride);
+        }
+        
+        bufferViewModel.setByteStride(byteStride);
+        bufferViewModel.setByteLength(interleavedByteBuffer.capacity());
+        return interleavedByteBuffer;
+    }
+    
     /**
      * Read the data from the byte buffer that was created with 
      * {@link AccessorData#createByteBuffer()} and that contains
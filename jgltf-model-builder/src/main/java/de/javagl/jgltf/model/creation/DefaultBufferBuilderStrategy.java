@@ -63,17 +63,22 @@ class DefaultBufferBuilderStrategy implements BufferBuilderStrategy
     private BufferStructure bufferStructure;
     
     /**
-     * Whether the vertex attribute accessors should all refer to
-     * a single buffer view
+     * Whether the vertex attribute accessors of each mesh primitive 
+     * should refer to a single, interleaved buffer view
      */
-    private final boolean useSingleVertexAttributesBufferView = false;
+    private final boolean interleavedVertexAttributes;
     
     /**
-     * Default constructor
+     * Creates a new instance
+     * 
+     * @param interleavedVertexAttributes Whether the vertex attribute 
+     * accessors of each mesh primitive should refer to a single, 
+     * interleaved buffer view
      */
-    DefaultBufferBuilderStrategy()
+    DefaultBufferBuilderStrategy(boolean interleavedVertexAttributes)
     {
-        bufferStructureBuilder = new BufferStructureBuilder(); 
+        this.bufferStructureBuilder = new BufferStructureBuilder(); 
+        this.interleavedVertexAttributes = interleavedVertexAttributes;
     }
     
     @Override
@@ -118,18 +123,22 @@ class DefaultBufferBuilderStrategy implements BufferBuilderStrategy
         }
         Collection<AccessorModel> attributes = 
             meshPrimitiveModel.getAttributes().values();
+        boolean interleaved = interleavedVertexAttributes &&
+            attributes.stream().mapToInt(AccessorModel::getCount)
+                .distinct().count() == 1;
         for (AccessorModel attribute : attributes)
         {
             bufferStructureBuilder.addAccessorModel("attribute", 
                 (DefaultAccessorModel)attribute);
-            if (!useSingleVertexAttributesBufferView)
+            if (!interleaved)
             {
                 bufferStructureBuilder.createArrayBufferViewModel("attribute");
             }
         }
-        if (useSingleVertexAttributesBufferView)
+        if (interleaved)
         {
-            bufferStructureBuilder.createArrayBufferViewModel("attributes");
+            bufferStructureBuilder.createInterleavedArrayBufferViewModel(
+                "attributes");
         }
     }
     
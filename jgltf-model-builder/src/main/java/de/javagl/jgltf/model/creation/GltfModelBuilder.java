@@ -87,8 +87,9 @@ import de.javagl.jgltf.model.v2.MaterialModelV2;
  * The {@link #build()} method will then collect the {@link AccessorModel}
  * objects from all scene elements and create the required 
  * {@link BufferViewModel} and {@link BufferModel} instances. The exact
- * strategy of how these models are created is not yet specified or
- * configurable.<br>
+ * strategy of how these models are created is not yet specified. Whether
+ * the vertex attributes are interleaved can be configured with
+ * {@link #setInterleavedVertexAttributes(boolean)}.<br>
  * <br>
  * TODO: The creation of glTF 1.0 instances with {@link #buildV1()} will
  * probably be refactored soon.
@@ -186,6 +187,22 @@ public class GltfModelBuilder
      */
     private final Set<DefaultBufferModel> bufferModelsSet;
     
+    /**
+     * Whether the vertex attributes of each mesh primitive should be
+     * stored in a single, interleaved buffer view
+     */
+    private boolean interleavedVertexAttributes;
+    
+    /**
+     * Whether the vertex attributes should be quantized
+     */
+    private boolean meshQuantization;
+    
+    /**
+     * Whether any vertex attributes of the meshes have been quantized
+     */
+    private boolean meshesQuantized;
+    
     /**
      * Private constructor
      */
@@ -210,6 +227,54 @@ public class GltfModelBuilder
         
     }
     
+    /**
+     * Set whether the vertex attributes of each mesh primitive should be
+     * stored in a single, interleaved buffer view. By default, each 
+     * vertex attribute is stored in its own buffer view (planar 
+     * layout).<br>
+     * <br>
+     * In the interleaved layout, the elements of all attributes of a
+     * mesh primitive are stored consecutively for each vertex, each 
+     * starting at a 4-byte aligned offset, and the buffer view has a 
+     * common byte stride. If the attributes of a mesh primitive do not
+     * all have the same count, then the planar layout is used for them.
+     * 
+     * @param interleavedVertexAttributes Whether the vertex attributes 
+     * should be interleaved
+     */
+    public void setInterleavedVertexAttributes(
+        boolean interleavedVertexAttributes)
+    {
+        this.interleavedVertexAttributes = interleavedVertexAttributes;
+    }
+    
+    /**
+     * Set whether the vertex attributes of the meshes should be quantized 
+     * when the model is built, as described in the 
+     * <code>KHR_mesh_quantization</code> extension. By default, no 
+     * quantization is applied.<br>
+     * <br>
+     * When this is enabled, then float positions are converted into 
+     * normalized short values, with a dequantization transform that is
+     * stored in a new node between each node and its mesh. Float normals
+     * and tangents are converted into normalized short values, and float
+     * texture coordinates in [0, 1] are converted into normalized unsigned
+     * short values. The <code>KHR_mesh_quantization</code> extension will 
+     * then be added to the required extensions of the resulting model.
+     * Note that the given mesh and node models will be modified 
+     * accordingly.<br>
+     * <br>
+     * The quantization is only supported for glTF 2.0, and ignored in
+     * {@link #buildV1()}.
+     * 
+     * @param meshQuantization Whether the vertex attributes should be 
+     * quantized
+     */
+    public void setMeshQuantization(boolean meshQuantization)
+    {
+        this.meshQuantization = meshQuantization;
+    }
+    
     /**
      * Build the {@link GltfModel} containing all elements that have been
      * added to this builder.
@@ -234,8 +299,18 @@ public class GltfModelBuilder
      */
     public DefaultGltfModel build()
     {
+        if (meshQuantization)
+        {
+            meshesQuantized |= MeshQuantizer.quantize(
+                meshModelsSet, nodeModelsSet, nodeModelsSet::add);
+        }
         DefaultGltfModel gltfModel = new DefaultGltfModel();
         fill(gltfModel);
+        if (meshesQuantized)
+        {
+            gltfModel.getExtensionsModel().addExtensionRequired(
+                MeshQuantizer.EXTENSION_NAME);
+        }
         return gltfModel;
     }
     
@@ -248,7 +323,7 @@ public class GltfModelBuilder
     private void fill(DefaultGltfModel gltfModel)
     {
         BufferBuilderStrategy bufferBuilderStrategy = 
-            new DefaultBufferBuilderStrategy();
+            new DefaultBufferBuilderStrategy(interleavedVertexAttributes);
         
         bufferBuilderStrategy.processMeshModels(meshModelsSet);
         bufferBuilderStrategy.processImageModels(imageModelsSet);
@@ -30,7 +30,10 @@ import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -46,6 +49,20 @@ import de.javagl.jgltf.model.io.Buffers;
  */
 public final class MeshPrimitiveBuilder 
 {
+    /**
+     * The maximum number of vertices that may be referred to with
+     * <code>UNSIGNED_SHORT</code> indices. The index 65535 is not used,
+     * because it may be interpreted as a primitive restart value.
+     */
+    private static final int MAX_NUM_VERTICES_SHORT = 65535;
+    
+    /**
+     * The maximum number of vertices that may be referred to with
+     * <code>UNSIGNED_BYTE</code> indices. The index 255 is not used,
+     * because it may be interpreted as a primitive restart value.
+     */
+    private static final int MAX_NUM_VERTICES_BYTE = 255;
+    
     /**
      * Create a new {@link MeshPrimitiveBuilder}
      * 
@@ -118,6 +135,28 @@ public final class MeshPrimitiveBuilder
         return this;
     }
     
+    /**
+     * Set the {@link MeshPrimitiveModel#getMode() rendering mode} to
+     * the given value, e.g. <code>GL_TRIANGLE_STRIP</code>
+     * 
+     * @param mode The GL constant for the rendering mode
+     * @return This builder
+     * @throws IllegalArgumentException If the given value is not one of
+     * the GL constants for the rendering modes, <code>GL_POINTS</code> 
+     * to <code>GL_TRIANGLE_FAN</code>
+     */
+    public MeshPrimitiveBuilder setMode(int mode)
+    {
+        if (mode < GltfConstants.GL_POINTS || 
+            mode > GltfConstants.GL_TRIANGLE_FAN)
+        {
+            throw new IllegalArgumentException(
+                "Invalid rendering mode: " + mode);
+        }
+        this.mode = mode;
+        return this;
+    }
+    
     /**
      * Set the given indices as the indices for the mesh primitive. 
      * The indices will be of the type "unsigned int"
@@ -229,6 +268,37 @@ public final class MeshPrimitiveBuilder
     }
     
     
+    /**
+     * Set the given indices as the indices for the mesh primitive.
+     * The component type of the indices will be the smallest one that
+     * can represent the largest index, namely <code>GL_UNSIGNED_BYTE</code> 
+     * for indices up to 254, <code>GL_UNSIGNED_SHORT</code> for indices up
+     * to 65534, and <code>GL_UNSIGNED_INT</code> otherwise. (The largest
+     * values of each type are not used, because they may be interpreted
+     * as primitive restart values)
+     * 
+     * @param indices The indices 
+     * @return This builder
+     */
+    public MeshPrimitiveBuilder setIntIndicesAsSmallestType(IntBuffer indices)
+    {
+        int maxIndex = -1;
+        for (int i = 0; i < indices.capacity(); i++)
+        {
+            maxIndex = Math.max(maxIndex, indices.get(i));
+        }
+        int numVertices = maxIndex + 1;
+        if (numVertices <= MAX_NUM_VERTICES_BYTE)
+        {
+            return setIntIndicesAsByte(indices);
+        }
+        if (numVertices <= MAX_NUM_VERTICES_SHORT)
+        {
+            return setIntIndicesAsShort(indices);
+        }
+        return setIntIndices(indices);
+    }
+    
     /**
      * Internal method to set the indices
      * 
@@ -406,5 +476,160 @@ public final class MeshPrimitiveBuilder
         }
         return result;
     }
+    
+    /**
+     * Create the {@link MeshPrimitiveModel} instances containing the 
+     * indices and attributes that have been added, split into parts
+     * so that each part can use <code>GL_UNSIGNED_SHORT</code> indices.<br>
+     * <br>
+     * Each part will refer to at most 65535 vertices. The attributes 
+     * of each part will only contain the vertices that are referred to 
+     * by the part, and the indices will be remapped accordingly. The
+     * primitives (points, lines or triangles) will not be split between
+     * parts. If no indices have been set, then the vertices will be
+     * assumed to be referred to in their natural order.<br>
+     * <br>
+     * Strips, fans and loops can not be split without duplicating 
+     * vertices at the boundaries of the parts. Therefore, primitives 
+     * with the mode <code>GL_TRIANGLE_STRIP</code> or 
+     * <code>GL_TRIANGLE_FAN</code> will be converted into 
+     * <code>GL_TRIANGLES</code>, and primitives with the mode 
+     * <code>GL_LINE_STRIP</code> or <code>GL_LINE_LOOP</code> will 
+     * be converted into <code>GL_LINES</code>. 
+     * 
+     * @return The {@link MeshPrimitiveModel} instances
+     * @throws IllegalStateException If the attributes have different
+     * counts
+     * @throws IllegalArgumentException If the indices do not contain 
+     * integral values, or an index is not smaller than the number of 
+     * vertices
+     */
+    public List<DefaultMeshPrimitiveModel> buildWithShortIndices()
+    {
+        int numVertices = -1;
+        for (DefaultAccessorModel accessorModel : 
+            attributeAccessorModels.values())
+        {
+            int count = accessorModel.getCount();
+            if (numVertices != -1 && numVertices != count)
+            {
+                throw new IllegalStateException(
+                    "The attributes have different counts: Expected " 
+                    + numVertices + " but found " + count);
+            }
+            numVertices = count;
+        }
+        numVertices = Math.max(0, numVertices);
+        int partMode = MeshPrimitiveUtils.toListMode(mode);
+        int indices[] = MeshPrimitiveUtils.toListIndices(mode, 
+            MeshPrimitiveUtils.readIndices(indicesAccessorModel, numVertices));
+        int verticesPerPrimitive = 1;
+        if (partMode == GltfConstants.GL_TRIANGLES)
+        {
+            verticesPerPrimitive = 3;
+        }
+        else if (partMode == GltfConstants.GL_LINES)
+        {
+            verticesPerPrimitive = 2;
+        }
+        int numIndices = indices.length - indices.length % verticesPerPrimitive;
+        
+        Map<DefaultAccessorModel, byte[]> attributeData = 
+            new LinkedHashMap<DefaultAccessorModel, byte[]>();
+        for (DefaultAccessorModel accessorModel : 
+            attributeAccessorModels.values())
+        {
+            attributeData.put(accessorModel, 
+                MeshPrimitiveUtils.readPackedData(accessorModel));
+        }
+        
+        List<DefaultMeshPrimitiveModel> result = 
+            new ArrayList<DefaultMeshPrimitiveModel>();
+        int newVertexIndices[] = new int[numVertices];
+        Arrays.fill(newVertexIndices, -1);
+        int oldVertexIndices[] = new int[MAX_NUM_VERTICES_SHORT];
+        int numPartVertices = 0;
+        int partIndices[] = new int[numIndices];
+        int numPartIndices = 0;
+        for (int i = 0; i < numIndices; i += verticesPerPrimitive)
+        {
+            int numNewVertices = 0;
+            for (int k = 0; k < verticesPerPrimitive; k++)
+            {
+                if (newVertexIndices[indices[i + k]] == -1)
+                {
+                    numNewVertices++;
+                }
+            }
+            if (numPartVertices + numNewVertices > MAX_NUM_VERTICES_SHORT)
+            {
+                result.add(createPart(partMode, attributeData, 
+                    oldVertexIndices, numPartVertices, 
+                    partIndices, numPartIndices));
+                for (int v = 0; v < numPartVertices; v++)
+                {
+                    newVertexIndices[oldVertexIndices[v]] = -1;
+                }
+                numPartVertices = 0;
+                numPartIndices = 0;
+            }
+            for (int k = 0; k < verticesPerPrimitive; k++)
+            {
+                int oldIndex = indices[i + k];
+                if (newVertexIndices[oldIndex] == -1)
+                {
+                    newVertexIndices[oldIndex] = numPartVertices;
+                    oldVertexIndices[numPartVertices] = oldIndex;
+                    numPartVertices++;
+                }
+                partIndices[numPartIndices] = newVertexIndices[oldIndex];
+                numPartIndices++;
+            }
+        }
+        if (numPartIndices > 0 || result.isEmpty())
+        {
+            result.add(createPart(partMode, attributeData, 
+                oldVertexIndices, numPartVertices, 
+                partIndices, numPartIndices));
+        }
+        indicesAccessorModel = null;
+        attributeAccessorModels.clear();
+        return result;
+    }
+    
+    /**
+     * Create one part of the mesh primitive for 
+     * {@link #buildWithShortIndices()}
+     * 
+     * @param partMode The mode of the part
+     * @param attributeData The mapping from the attribute accessors to
+     * their tightly packed data
+     * @param oldVertexIndices The old index of each vertex of the part
+     * @param numVertices The number of vertices of the part
+     * @param indices The indices of the part
+     * @param numIndices The number of indices of the part
+     * @return The {@link DefaultMeshPrimitiveModel}
+     */
+    private DefaultMeshPrimitiveModel createPart(int partMode,
+        Map<DefaultAccessorModel, byte[]> attributeData,
+        int oldVertexIndices[], int numVertices, 
+        int indices[], int numIndices)
+    {
+        DefaultMeshPrimitiveModel result =  
+            new DefaultMeshPrimitiveModel(partMode);
+        result.setIndices(AccessorModels.createUnsignedShortScalar(
+            IntBuffer.wrap(Arrays.copyOf(indices, numIndices))));
+        for (Entry<String, DefaultAccessorModel> entry : 
+            attributeAccessorModels.entrySet())
+        {
+            DefaultAccessorModel accessorModel = entry.getValue();
+            DefaultAccessorModel partAccessorModel = 
+                MeshPrimitiveUtils.createReorderedAccessorModel(
+                    accessorModel, attributeData.get(accessorModel), 
+                    oldVertexIndices, numVertices);
+            result.putAttribute(entry.getKey(), partAccessorModel);
+        }
+        return result;
+    }
 }
 
@@ -0,0 +1,683 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.creation;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.ElementType;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.impl.DefaultAccessorModel;
+import de.javagl.jgltf.model.impl.DefaultMeshPrimitiveModel;
+
+/**
+ * Methods for optimizing {@link MeshPrimitiveModel} instances for
+ * rendering.<br>
+ * <br>
+ * The optimization consists of the following steps:
+ * <ul>
+ *   <li>
+ *     Vertices that have the same bytes in all attributes and morph 
+ *     targets are merged into a single vertex. Triangles that become 
+ *     degenerate are removed.
+ *   </li>
+ *   <li>
+ *     The triangles are reordered to increase the hit rate of the 
+ *     post-transform vertex cache, using the algorithm that was described
+ *     by Tom Forsyth in "Linear-Speed Vertex Cache Optimisation".
+ *   </li>
+ *   <li>
+ *     If the primitive has <code>POSITION</code> attributes with float 
+ *     data, then the clusters of triangles that result from the previous
+ *     step are sorted so that outward-facing clusters are drawn first, 
+ *     to reduce overdraw.
+ *   </li>
+ *   <li>
+ *     The vertices are reordered in the order in which they are first
+ *     referred to by the triangles, to improve the locality of vertex
+ *     fetches. Unused vertices are removed.
+ *   </li>
+ *   <li>
+ *     The indices are stored as <code>UNSIGNED_SHORT</code> values if the
+ *     number of vertices allows it, and as <code>UNSIGNED_INT</code> 
+ *     values otherwise. (<code>UNSIGNED_BYTE</code> indices are not used, 
+ *     because they are not supported natively by many graphics APIs)
+ *   </li>
+ * </ul>
+ * This may, for example, be applied to the mesh primitives that are 
+ * created from OBJ files, where each vertex is often duplicated for each
+ * face that it belongs to.
+ */
+public final class MeshPrimitiveOptimizer
+{
+    /**
+     * The size of the vertex cache that is assumed for the optimization
+     */
+    private static final int CACHE_SIZE = 32;
+    
+    /**
+     * The maximum number of vertices for which <code>UNSIGNED_SHORT</code>
+     * indices are used. The value 65535 is not used as an index, because 
+     * it may be interpreted as a primitive restart value.
+     */
+    private static final int MAX_UNSIGNED_SHORT_VERTICES = 65535;
+    
+    /**
+     * Create an optimized version of the given {@link MeshPrimitiveModel}.
+     * The result will have the same mode, material, extensions and extras
+     * as the given primitive, and will refer to new {@link AccessorModel}
+     * instances for the attributes, indices and morph targets. The given
+     * primitive is not modified.
+     * 
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @return The optimized {@link DefaultMeshPrimitiveModel}
+     * @throws IllegalArgumentException If the mode of the given primitive
+     * is not <code>GL_TRIANGLES</code>, or if it does not have any 
+     * attributes, or if the attributes have different counts
+     */
+    public static DefaultMeshPrimitiveModel optimize(
+        MeshPrimitiveModel meshPrimitiveModel)
+    {
+        if (meshPrimitiveModel.getMode() != GltfConstants.GL_TRIANGLES)
+        {
+            throw new IllegalArgumentException(
+                "Only GL_TRIANGLES primitives can be optimized, but found "
+                + GltfConstants.stringFor(meshPrimitiveModel.getMode()));
+        }
+        
+        // Collect all accessors that contain one element per vertex
+        List<AccessorModel> vertexAccessorModels = 
+            new ArrayList<AccessorModel>();
+        vertexAccessorModels.addAll(
+            meshPrimitiveModel.getAttributes().values());
+        for (Map<String, AccessorModel> target : 
+            meshPrimitiveModel.getTargets())
+        {
+            vertexAccessorModels.addAll(target.values());
+        }
+        if (vertexAccessorModels.isEmpty())
+        {
+            throw new IllegalArgumentException(
+                "The mesh primitive does not have any attributes");
+        }
+        int numVertices = vertexAccessorModels.get(0).getCount();
+        byte vertexData[][] = new byte[vertexAccessorModels.size()][];
+        for (int i = 0; i < vertexAccessorModels.size(); i++)
+        {
+            AccessorModel accessorModel = vertexAccessorModels.get(i);
+            if (accessorModel.getCount() != numVertices)
+            {
+                throw new IllegalArgumentException(
+                    "The attributes have different counts: Expected " 
+                    + numVertices + " but found " + accessorModel.getCount());
+            }
+            vertexData[i] = MeshPrimitiveUtils.readPackedData(accessorModel);
+        }
+        
+        // Read the indices, omitting the remaining ones if their number 
+        // is not divisible by 3
+        int allIndices[] = MeshPrimitiveUtils.readIndices(
+            meshPrimitiveModel.getIndices(), numVertices);
+        int numIndices = allIndices.length - allIndices.length % 3;
+        int indices[] = Arrays.copyOf(allIndices, numIndices);
+        int uniqueVertices[] = computeUniqueVertices(vertexData, numVertices);
+        int weldedIndices[] = 
+            removeDegenerateTriangles(indices, uniqueVertices);
+        int optimizedIndices[] = 
+            optimizeVertexCache(weldedIndices, numVertices);
+        AccessorModel positions = 
+            meshPrimitiveModel.getAttributes().get("POSITION");
+        if (positions != null && 
+            positions.getAccessorData() instanceof AccessorFloatData &&
+            positions.getElementType() == ElementType.VEC3)
+        {
+            AccessorFloatData positionsData = 
+                (AccessorFloatData) positions.getAccessorData();
+            optimizedIndices = 
+                optimizeOverdraw(optimizedIndices, positionsData);
+        }
+        
+        // Assign the new vertex indices in the order of their first use
+        int newVertexIndices[] = new int[numVertices];
+        Arrays.fill(newVertexIndices, -1);
+        int oldVertexIndices[] = new int[numVertices];
+        int numNewVertices = 0;
+        for (int i = 0; i < optimizedIndices.length; i++)
+        {
+            int oldIndex = optimizedIndices[i];
+            if (newVertexIndices[oldIndex] == -1)
+            {
+                newVertexIndices[oldIndex] = numNewVertices;
+                oldVertexIndices[numNewVertices] = oldIndex;
+                numNewVertices++;
+            }
+            optimizedIndices[i] = newVertexIndices[oldIndex];
+        }
+        
+        DefaultMeshPrimitiveModel result = 
+            new DefaultMeshPrimitiveModel(GltfConstants.GL_TRIANGLES);
+        Map<AccessorModel, DefaultAccessorModel> newAccessorModels = 
+            new IdentityHashMap<AccessorModel, DefaultAccessorModel>();
+        for (int i = 0; i < vertexAccessorModels.size(); i++)
+        {
+            AccessorModel accessorModel = vertexAccessorModels.get(i);
+            if (!newAccessorModels.containsKey(accessorModel))
+            {
+                DefaultAccessorModel newAccessorModel = 
+                    MeshPrimitiveUtils.createReorderedAccessorModel(
+                        accessorModel, vertexData[i], oldVertexIndices, 
+                        numNewVertices);
+                newAccessorModels.put(accessorModel, newAccessorModel);
+            }
+        }
+        for (Entry<String, AccessorModel> entry : 
+            meshPrimitiveModel.getAttributes().entrySet())
+        {
+            result.putAttribute(entry.getKey(), 
+                newAccessorModels.get(entry.getValue()));
+        }
+        for (Map<String, AccessorModel> target : 
+            meshPrimitiveModel.getTargets())
+        {
+            Map<String, AccessorModel> newTarget = 
+                new LinkedHashMap<String, AccessorModel>();
+            for (Entry<String, AccessorModel> entry : target.entrySet())
+            {
+                newTarget.put(entry.getKey(), 
+                    newAccessorModels.get(entry.getValue()));
+            }
+            result.addTarget(newTarget);
+        }
+        IntBuffer indicesBuffer = IntBuffer.wrap(optimizedIndices);
+        if (numNewVertices <= MAX_UNSIGNED_SHORT_VERTICES)
+        {
+            result.setIndices(
+                AccessorModels.createUnsignedShortScalar(indicesBuffer));
+        }
+        else
+        {
+            result.setIndices(
+                AccessorModels.createUnsignedIntScalar(indicesBuffer));
+        }
+        if (meshPrimitiveModel.getMaterialModel() != null)
+        {
+            result.setMaterialModel(meshPrimitiveModel.getMaterialModel());
+        }
+        result.setExtensions(meshPrimitiveModel.getExtensions());
+        result.setExtras(meshPrimitiveModel.getExtras());
+        return result;
+    }
+    
+    /**
+     * Compute the mapping from each vertex to the first vertex that has 
+     * the same bytes in all the given vertex data arrays. 
+     * 
+     * @param vertexData The vertex data arrays, each containing the
+     * tightly packed data of one accessor
+     * @param numVertices The number of vertices
+     * @return The mapping
+     */
+    private static int[] computeUniqueVertices(
+        byte vertexData[][], int numVertices)
+    {
+        int tableSize = Integer.highestOneBit(Math.max(1, numVertices)) * 4;
+        int mask = tableSize - 1;
+        int table[] = new int[tableSize];
+        Arrays.fill(table, -1);
+        int uniqueVertices[] = new int[numVertices];
+        for (int v = 0; v < numVertices; v++)
+        {
+            int slot = computeVertexHash(vertexData, numVertices, v) & mask;
+            while (true)
+            {
+                int other = table[slot];
+                if (other == -1)
+                {
+                    table[slot] = v;
+                    uniqueVertices[v] = v;
+                    break;
+                }
+                if (verticesEqual(vertexData, numVertices, v, other))
+                {
+                    uniqueVertices[v] = other;
+                    break;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+        return uniqueVertices;
+    }
+    
+    /**
+     * Compute a hash code for the bytes of the specified vertex
+     * 
+     * @param vertexData The vertex data arrays
+     * @param numVertices The number of vertices
+     * @param v The vertex
+     * @return The hash code
+     */
+    private static int computeVertexHash(
+        byte vertexData[][], int numVertices, int v)
+    {
+        int hash = 0x811C9DC5;
+        for (byte data[] : vertexData)
+        {
+            int elementSize = data.length / numVertices;
+            int offset = v * elementSize;
+            for (int i = 0; i < elementSize; i++)
+            {
+                hash ^= data[offset + i] & 0xFF;
+                hash *= 0x01000193;
+            }
+        }
+        return hash ^ (hash >>> 16);
+    }
+    
+    /**
+     * Returns whether the specified vertices have the same bytes in all
+     * the given vertex data arrays
+     * 
+     * @param vertexData The vertex data arrays
+     * @param numVertices The number of vertices
+     * @param v0 The first vertex
+     * @param v1 The second vertex
+     * @return Whether the vertices are equal
+     */
+    private static boolean verticesEqual(
+        byte vertexData[][], int numVertices, int v0, int v1)
+    {
+        for (byte data[] : vertexData)
+        {
+            int elementSize = data.length / numVertices;
+            int offset0 = v0 * elementSize;
+            int offset1 = v1 * elementSize;
+            for (int i = 0; i < elementSize; i++)
+            {
+                if (data[offset0 + i] != data[offset1 + i])
+                {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Map the given indices to the unique vertices, and remove all 
+     * triangles that refer to the same vertex more than once
+     * 
+     * @param indices The indices
+     * @param uniqueVertices The mapping to unique vertices
+     * @return The new indices
+     */
+    private static int[] removeDegenerateTriangles(
+        int indices[], int uniqueVertices[])
+    {
+        int result[] = new int[indices.length];
+        int n = 0;
+        for (int i = 0; i < indices.length; i += 3)
+        {
+            int a = uniqueVertices[indices[i + 0]];
+            int b = uniqueVertices[indices[i + 1]];
+            int c = uniqueVertices[indices[i + 2]];
+            if (a != b && b != c && a != c)
+            {
+                result[n + 0] = a;
+                result[n + 1] = b;
+                result[n + 2] = c;
+                n += 3;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+    
+    /**
+     * Reorder the triangles that are given by the indices, to increase
+     * the hit rate of the post-transform vertex cache
+     * 
+     * @param indices The indices
+     * @param numVertices The number of vertices
+     * @return The reordered indices
+     */
+    private static int[] optimizeVertexCache(int indices[], int numVertices)
+    {
+        int numTriangles = indices.length / 3;
+        
+        // Compute the triangles that each vertex belongs to
+        int numLiveTriangles[] = new int[numVertices];
+        for (int i = 0; i < indices.length; i++)
+        {
+            numLiveTriangles[indices[i]]++;
+        }
+        int adjacencyOffsets[] = new int[numVertices + 1];
+        for (int v = 0; v < numVertices; v++)
+        {
+            adjacencyOffsets[v + 1] = 
+                adjacencyOffsets[v] + numLiveTriangles[v];
+        }
+        int adjacency[] = new int[indices.length];
+        int fill[] = Arrays.copyOf(adjacencyOffsets, numVertices);
+        for (int i = 0; i < indices.length; i++)
+        {
+            int v = indices[i];
+            adjacency[fill[v]] = i / 3;
+            fill[v]++;
+        }
+        
+        int cachePositions[] = new int[numVertices];
+        Arrays.fill(cachePositions, -1);
+        float vertexScores[] = new float[numVertices];
+        for (int v = 0; v < numVertices; v++)
+        {
+            vertexScores[v] = computeVertexScore(-1, numLiveTriangles[v]);
+        }
+        boolean emitted[] = new boolean[numTriangles];
+        int cache[] = new int[CACHE_SIZE + 3];
+        int cacheCount = 0;
+        int newCache[] = new int[CACHE_SIZE + 3];
+        
+        int result[] = new int[indices.length];
+        int bestTriangle = -1;
+        int cursor = 0;
+        for (int t = 0; t < numTriangles; t++)
+        {
+            if (bestTriangle == -1)
+            {
+                while (emitted[cursor])
+                {
+                    cursor++;
+                }
+                bestTriangle = cursor;
+            }
+            emitted[bestTriangle] = true;
+            
+            // Emit the triangle, and remove it from the adjacency
+            // information of its vertices
+            int newCacheCount = 0;
+            for (int k = 0; k < 3; k++)
+            {
+                int v = indices[bestTriangle * 3 + k];
+                result[t * 3 + k] = v;
+                newCache[newCacheCount] = v;
+                newCacheCount++;
+                
+                int start = adjacencyOffsets[v];
+                int end = start + numLiveTriangles[v];
+                for (int a = start; a < end; a++)
+                {
+                    if (adjacency[a] == bestTriangle)
+                    {
+                        adjacency[a] = adjacency[end - 1];
+                        break;
+                    }
+                }
+                numLiveTriangles[v]--;
+            }
+            
+            // Move the vertices of the triangle to the front of the cache
+            for (int c = 0; c < cacheCount; c++)
+            {
+                int v = cache[c];
+                if (v != newCache[0] && v != newCache[1] && v != newCache[2])
+                {
+                    newCache[newCacheCount] = v;
+                    newCacheCount++;
+                }
+            }
+            
+            // Update the scores of all vertices that were in the cache,
+            // including the ones that have been evicted
+            for (int c = 0; c < newCacheCount; c++)
+            {
+                int v = newCache[c];
+                int cachePosition = c < CACHE_SIZE ? c : -1;
+                cachePositions[v] = cachePosition;
+                vertexScores[v] = 
+                    computeVertexScore(cachePosition, numLiveTriangles[v]);
+            }
+            
+            // Find the best triangle among the ones that refer to a
+            // vertex that is in the cache
+            bestTriangle = -1;
+            float bestScore = -Float.MAX_VALUE;
+            cacheCount = Math.min(newCacheCount, CACHE_SIZE);
+            for (int c = 0; c < cacheCount; c++)
+            {
+                int v = newCache[c];
+                cache[c] = v;
+                int start = adjacencyOffsets[v];
+                int end = start + numLiveTriangles[v];
+                for (int a = start; a < end; a++)
+                {
+                    int triangle = adjacency[a];
+                    float score = 
+                        vertexScores[indices[triangle * 3 + 0]] +
+                        vertexScores[indices[triangle * 3 + 1]] +
+                        vertexScores[indices[triangle * 3 + 2]];
+                    if (score > bestScore)
+                    {
+                        bestScore = score;
+                        bestTriangle = triangle;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Compute the score of a vertex for the vertex cache optimization
+     * 
+     * @param cachePosition The position of the vertex in the cache, or -1
+     * if it is not in the cache
+     * @param numLiveTriangles The number of triangles that refer to the
+     * vertex and have not been emitted yet
+     * @return The score
+     */
+    private static float computeVertexScore(
+        int cachePosition, int numLiveTriangles)
+    {
+        if (numLiveTriangles == 0)
+        {
+            return -1.0f;
+        }
+        float score = 0.0f;
+        if (cachePosition >= 0)
+        {
+            if (cachePosition < 3)
+            {
+                // The vertices of the last triangle receive a fixed score,
+                // so that strips are not preferred over fans
+                score = 0.75f;
+            }
+            else
+            {
+                float scale = 1.0f / (CACHE_SIZE - 3);
+                float s = 1.0f - (cachePosition - 3) * scale;
+                score = (float) Math.pow(s, 1.5);
+            }
+        }
+        // Prefer vertices with few remaining triangles, to avoid
+        // leaving single triangles behind
+        score += 2.0f * (float) Math.pow(numLiveTriangles, -0.5);
+        return score;
+    }
+    
+    /**
+     * Sort the clusters of triangles that are given by the indices, so 
+     * that the clusters that face outwards are drawn first. The clusters
+     * are the sequences of triangles that start with a triangle where
+     * none of the vertices is in the vertex cache. The order of the 
+     * triangles within each cluster is not changed, so that the hit rate
+     * of the vertex cache is only affected at the cluster boundaries.
+     * 
+     * @param indices The indices
+     * @param positions The vertex positions
+     * @return The reordered indices
+     */
+    private static int[] optimizeOverdraw(
+        int indices[], AccessorFloatData positions)
+    {
+        int numTriangles = indices.length / 3;
+        if (numTriangles == 0)
+        {
+            return indices;
+        }
+        
+        // Simulate a FIFO vertex cache to find the cluster boundaries
+        List<Integer> clusterStarts = new ArrayList<Integer>();
+        int cacheTimestamps[] = new int[positions.getNumElements()];
+        int timestamp = CACHE_SIZE + 1;
+        for (int t = 0; t < numTriangles; t++)
+        {
+            int misses = 0;
+            for (int k = 0; k < 3; k++)
+            {
+                int v = indices[t * 3 + k];
+                if (timestamp - cacheTimestamps[v] > CACHE_SIZE)
+                {
+                    cacheTimestamps[v] = timestamp;
+                    timestamp++;
+                    misses++;
+                }
+            }
+            if (t == 0 || misses == 3)
+            {
+                clusterStarts.add(t);
+            }
+        }
+        int numClusters = clusterStarts.size();
+        clusterStarts.add(numTriangles);
+        
+        // Compute the centroid of the mesh and the area-weighted centroid
+        // and normal of each cluster
+        float meshCentroid[] = new float[3];
+        float meshArea = 0.0f;
+        float clusterCentroids[][] = new float[numClusters][3];
+        float clusterNormals[][] = new float[numClusters][3];
+        for (int c = 0; c < numClusters; c++)
+        {
+            float clusterArea = 0.0f;
+            float centroid[] = clusterCentroids[c];
+            float normal[] = clusterNormals[c];
+            for (int t = clusterStarts.get(c); t < clusterStarts.get(c + 1); t++)
+            {
+                int a = indices[t * 3 + 0];
+                int b = indices[t * 3 + 1];
+                int d = indices[t * 3 + 2];
+                float e0x = positions.get(b, 0) - positions.get(a, 0);
+                float e0y = positions.get(b, 1) - positions.get(a, 1);
+                float e0z = positions.get(b, 2) - positions.get(a, 2);
+                float e1x = positions.get(d, 0) - positions.get(a, 0);
+                float e1y = positions.get(d, 1) - positions.get(a, 1);
+                float e1z = positions.get(d, 2) - positions.get(a, 2);
+                float nx = e0y * e1z - e0z * e1y;
+                float ny = e0z * e1x - e0x * e1z;
+                float nz = e0x * e1y - e0y * e1x;
+                float area = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+                normal[0] += nx;
+                normal[1] += ny;
+                normal[2] += nz;
+                for (int i = 0; i < 3; i++)
+                {
+                    float center = (positions.get(a, i) 
+                        + positions.get(b, i) + positions.get(d, i)) / 3.0f;
+                    centroid[i] += center * area;
+                    meshCentroid[i] += center * area;
+                }
+                clusterArea += area;
+            }
+            if (clusterArea > 0.0f)
+            {
+                for (int i = 0; i < 3; i++)
+                {
+                    centroid[i] /= clusterArea;
+                }
+            }
+            meshArea += clusterArea;
+        }
+        if (meshArea > 0.0f)
+        {
+            for (int i = 0; i < 3; i++)
+            {
+                meshCentroid[i] /= meshArea;
+            }
+        }
+        
+        // Sort the clusters by the distance of their centroid from the
+        // mesh centroid, along the cluster normal
+        float sortKeys[] = new float[numClusters];
+        Integer clusterOrder[] = new Integer[numClusters];
+        for (int c = 0; c < numClusters; c++)
+        {
+            float normal[] = clusterNormals[c];
+            float length = (float) Math.sqrt(normal[0] * normal[0] 
+                + normal[1] * normal[1] + normal[2] * normal[2]);
+            float key = 0.0f;
+            if (length > 0.0f)
+            {
+                for (int i = 0; i < 3; i++)
+                {
+                    float delta = clusterCentroids[c][i] - meshCentroid[i];
+                    key += delta * normal[i] / length;
+                }
+            }
+            sortKeys[c] = key;
+            clusterOrder[c] = c;
+        }
+        Arrays.sort(clusterOrder, 
+            (c0, c1) -> Float.compare(sortKeys[c1], sortKeys[c0]));
+        
+        int result[] = new int[indices.length];
+        int n = 0;
+        for (int c : clusterOrder)
+        {
+            int start = clusterStarts.get(c) * 3;
+            int end = clusterStarts.get(c + 1) * 3;
+            System.arraycopy(indices, start, result, n, end - start);
+            n += end - start;
+        }
+        return result;
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private MeshPrimitiveOptimizer()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
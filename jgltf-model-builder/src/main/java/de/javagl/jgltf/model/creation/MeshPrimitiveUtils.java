@@ -0,0 +1,220 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.creation;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import de.javagl.jgltf.model.AccessorDatas;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.impl.DefaultAccessorModel;
+import de.javagl.jgltf.model.io.Buffers;
+
+/**
+ * Utility methods for the index and vertex data of mesh primitives,
+ * shared by the {@link MeshPrimitiveBuilder} and the 
+ * {@link MeshPrimitiveOptimizer}
+ */
+class MeshPrimitiveUtils
+{
+    /**
+     * Read the indices from the given {@link AccessorModel}. If the given
+     * accessor is <code>null</code>, then an array containing the values
+     * 0...numVertices-1 will be returned.
+     * 
+     * @param indicesAccessorModel The {@link AccessorModel}
+     * @param numVertices The number of vertices
+     * @return The indices
+     * @throws IllegalArgumentException If the indices do not contain 
+     * integral values, or contain an index that is not smaller than
+     * the number of vertices
+     */
+    static int[] readIndices(
+        AccessorModel indicesAccessorModel, int numVertices)
+    {
+        if (indicesAccessorModel == null)
+        {
+            int indices[] = new int[numVertices];
+            for (int i = 0; i < numVertices; i++)
+            {
+                indices[i] = i;
+            }
+            return indices;
+        }
+        int indices[] = 
+            AccessorDatas.readInts(indicesAccessorModel.getAccessorData());
+        for (int index : indices)
+        {
+            if (index < 0 || index >= numVertices)
+            {
+                throw new IllegalArgumentException(
+                    "Invalid index " + index + " for " 
+                    + numVertices + " vertices");
+            }
+        }
+        return indices;
+    }
+    
+    /**
+     * Returns the list mode that corresponds to the given mode. This is
+     * <code>GL_TRIANGLES</code> for <code>GL_TRIANGLE_STRIP</code> and
+     * <code>GL_TRIANGLE_FAN</code>, and <code>GL_LINES</code> for 
+     * <code>GL_LINE_STRIP</code> and <code>GL_LINE_LOOP</code>. All
+     * other modes are returned unmodified.
+     * 
+     * @param mode The mode
+     * @return The list mode
+     */
+    static int toListMode(int mode)
+    {
+        switch (mode)
+        {
+            case GltfConstants.GL_TRIANGLE_STRIP:
+            case GltfConstants.GL_TRIANGLE_FAN:
+                return GltfConstants.GL_TRIANGLES;
+                
+            case GltfConstants.GL_LINE_STRIP:
+            case GltfConstants.GL_LINE_LOOP:
+                return GltfConstants.GL_LINES;
+                
+            default:
+                break;
+        }
+        return mode;
+    }
+    
+    /**
+     * Convert the given indices for the given mode into the indices for
+     * the respective {@link #toListMode(int) list mode}. Degenerate 
+     * triangles of triangle strips and fans will be omitted. For all 
+     * other modes, the given array is returned unmodified.
+     * 
+     * @param mode The mode
+     * @param indices The indices
+     * @return The indices for the list mode
+     */
+    static int[] toListIndices(int mode, int indices[])
+    {
+        int n = indices.length;
+        switch (mode)
+        {
+            case GltfConstants.GL_TRIANGLE_STRIP:
+            case GltfConstants.GL_TRIANGLE_FAN:
+            {
+                boolean fan = mode == GltfConstants.GL_TRIANGLE_FAN;
+                int result[] = new int[Math.max(0, n - 2) * 3];
+                int numResultIndices = 0;
+                for (int i = 0; i < n - 2; i++)
+                {
+                    // Every second triangle of a strip has the opposite
+                    // winding order, and is flipped here
+                    int i0 = fan ? indices[0] : indices[i + (i & 1)];
+                    int i1 = fan ? indices[i + 1] : indices[i + 1 - (i & 1)];
+                    int i2 = indices[i + 2];
+                    if (i0 == i1 || i1 == i2 || i2 == i0)
+                    {
+                        continue;
+                    }
+                    result[numResultIndices++] = i0;
+                    result[numResultIndices++] = i1;
+                    result[numResultIndices++] = i2;
+                }
+                return Arrays.copyOf(result, numResultIndices);
+            }
+            
+            case GltfConstants.GL_LINE_STRIP:
+            case GltfConstants.GL_LINE_LOOP:
+            {
+                boolean loop = mode == GltfConstants.GL_LINE_LOOP && n > 1;
+                int numLines = Math.max(0, n - 1) + (loop ? 1 : 0);
+                int result[] = new int[numLines * 2];
+                for (int i = 0; i < numLines; i++)
+                {
+                    result[i * 2 + 0] = indices[i];
+                    result[i * 2 + 1] = indices[(i + 1) % n];
+                }
+                return result;
+            }
+            
+            default:
+                break;
+        }
+        return indices;
+    }
+    
+    /**
+     * Returns the tightly packed data of the given {@link AccessorModel}
+     * 
+     * @param accessorModel The {@link AccessorModel}
+     * @return The data
+     */
+    static byte[] readPackedData(AccessorModel accessorModel)
+    {
+        ByteBuffer byteBuffer = 
+            accessorModel.getAccessorData().createByteBuffer();
+        byte data[] = new byte[byteBuffer.capacity()];
+        byteBuffer.get(data);
+        return data;
+    }
+    
+    /**
+     * Create a new {@link AccessorModel} that has the same structure as 
+     * the given one, and contains the elements of the given data in the 
+     * specified order
+     * 
+     * @param accessorModel The {@link AccessorModel}
+     * @param data The tightly packed data of the accessor
+     * @param oldVertexIndices The old index of each new vertex
+     * @param numNewVertices The number of new vertices
+     * @return The new {@link AccessorModel}
+     */
+    static DefaultAccessorModel createReorderedAccessorModel(
+        AccessorModel accessorModel, byte data[], int oldVertexIndices[],
+        int numNewVertices)
+    {
+        int count = accessorModel.getCount();
+        int elementSize = count == 0 ? 0 : data.length / count;
+        byte newData[] = new byte[numNewVertices * elementSize];
+        for (int v = 0; v < numNewVertices; v++)
+        {
+            System.arraycopy(data, oldVertexIndices[v] * elementSize, 
+                newData, v * elementSize, elementSize);
+        }
+        return AccessorModels.create(accessorModel.getComponentType(), 
+            accessorModel.getElementType().toString(), 
+            accessorModel.isNormalized(), Buffers.create(newData));
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private MeshPrimitiveUtils()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,497 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.creation;
+
+import java.nio.ByteBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import de.javagl.jgltf.model.AccessorData;
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.ElementType;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.MeshModel;
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.impl.DefaultAccessorModel;
+import de.javagl.jgltf.model.impl.DefaultMeshModel;
+import de.javagl.jgltf.model.impl.DefaultMeshPrimitiveModel;
+import de.javagl.jgltf.model.impl.DefaultNodeModel;
+import de.javagl.jgltf.model.io.Buffers;
+
+/**
+ * Methods for quantizing the vertex attributes of meshes, as described
+ * in the <code>KHR_mesh_quantization</code> extension.<br>
+ * <br>
+ * The following attributes are quantized, if they contain float data:
+ * <ul>
+ *   <li>
+ *     <code>POSITION</code> attributes are converted into normalized 
+ *     <code>SHORT</code> values. All primitives of one mesh share a common
+ *     bounding cube. The dequantization transform (a translation and a 
+ *     uniform scaling) is stored in a new node that is inserted as a 
+ *     child of each node that refers to the mesh, and the mesh is moved 
+ *     to this node. The positions of meshes that are not attached to any 
+ *     node, that are attached to nodes with a skin, that have morph 
+ *     targets, or that share mesh primitives with other meshes are not 
+ *     quantized. When multiple meshes refer to the same position 
+ *     accessor, then a separate quantized accessor is created for each 
+ *     distinct dequantization transform.
+ *   </li>
+ *   <li>
+ *     <code>NORMAL</code> and <code>TANGENT</code> attributes are 
+ *     converted into normalized <code>SHORT</code> values
+ *   </li>
+ *   <li>
+ *     <code>TEXCOORD_n</code> attributes are converted into normalized
+ *     <code>UNSIGNED_SHORT</code> values, if all their values are in 
+ *     [0, 1]
+ *   </li>
+ * </ul>
+ * Attributes that also appear in the morph targets of a mesh primitive 
+ * are not quantized.
+ */
+class MeshQuantizer
+{
+    /**
+     * The name of the extension that is required for the quantized data
+     */
+    static final String EXTENSION_NAME = "KHR_mesh_quantization";
+    
+    /**
+     * Quantize the vertex attributes of the given {@link MeshModel} 
+     * instances. The given nodes are the nodes that the meshes may be
+     * attached to. If the positions of a mesh are quantized, then new 
+     * nodes will be created for the dequantization transform, and passed
+     * to the given consumer.
+     * 
+     * @param meshModels The {@link MeshModel} instances
+     * @param nodeModels The node models
+     * @param createdNodeModelConsumer The consumer for the nodes that
+     * are created
+     * @return Whether any attribute was quantized
+     */
+    static boolean quantize(
+        Collection<? extends DefaultMeshModel> meshModels,
+        Collection<? extends DefaultNodeModel> nodeModels,
+        Consumer<? super DefaultNodeModel> createdNodeModelConsumer)
+    {
+        Map<MeshModel, List<DefaultNodeModel>> meshNodeModels = 
+            new IdentityHashMap<MeshModel, List<DefaultNodeModel>>();
+        for (DefaultNodeModel nodeModel : nodeModels)
+        {
+            for (MeshModel meshModel : nodeModel.getMeshModels())
+            {
+                meshNodeModels.computeIfAbsent(meshModel, 
+                    m -> new ArrayList<DefaultNodeModel>()).add(nodeModel);
+            }
+        }
+        
+        // Mesh primitives that are shared by multiple meshes can not
+        // receive positions that are quantized for one of the meshes
+        Set<MeshPrimitiveModel> sharedMeshPrimitiveModels = 
+            Collections.newSetFromMap(
+                new IdentityHashMap<MeshPrimitiveModel, Boolean>());
+        Set<MeshPrimitiveModel> visitedMeshPrimitiveModels = 
+            Collections.newSetFromMap(
+                new IdentityHashMap<MeshPrimitiveModel, Boolean>());
+        for (DefaultMeshModel meshModel : meshModels)
+        {
+            for (MeshPrimitiveModel meshPrimitiveModel : 
+                meshModel.getMeshPrimitiveModels())
+            {
+                if (!visitedMeshPrimitiveModels.add(meshPrimitiveModel))
+                {
+                    sharedMeshPrimitiveModels.add(meshPrimitiveModel);
+                }
+            }
+        }
+        
+        Map<AccessorModel, Map<List<Float>, DefaultAccessorModel>> 
+            quantizedPositionAccessorModels = new IdentityHashMap<
+                AccessorModel, Map<List<Float>, DefaultAccessorModel>>();
+        Map<AccessorModel, DefaultAccessorModel> quantizedAccessorModels =
+            new IdentityHashMap<AccessorModel, DefaultAccessorModel>();
+        boolean quantized = false;
+        for (DefaultMeshModel meshModel : meshModels)
+        {
+            List<DefaultNodeModel> nodeModelsOfMesh = 
+                meshNodeModels.get(meshModel);
+            quantized |= quantizePositions(meshModel, nodeModelsOfMesh, 
+                sharedMeshPrimitiveModels, quantizedPositionAccessorModels, 
+                createdNodeModelConsumer);
+            quantized |= quantizeAttributes(meshModel, 
+                quantizedAccessorModels);
+        }
+        return quantized;
+    }
+    
+    /**
+     * Quantize the <code>POSITION</code> attributes of the given 
+     * {@link MeshModel}, if possible
+     * 
+     * @param meshModel The {@link MeshModel}
+     * @param nodeModels The nodes that the mesh is attached to. May be
+     * <code>null</code>.
+     * @param sharedMeshPrimitiveModels The mesh primitives that are 
+     * shared by multiple meshes
+     * @param quantizedPositionAccessorModels The mapping from original 
+     * position accessors to the quantized ones, for each dequantization
+     * transform, given as the list of the offset components and the scale
+     * @param createdNodeModelConsumer The consumer for created nodes
+     * @return Whether the positions have been quantized
+     */
+    private static boolean quantizePositions(MeshModel meshModel, 
+        List<DefaultNodeModel> nodeModels, 
+        Set<MeshPrimitiveModel> sharedMeshPrimitiveModels,
+        Map<AccessorModel, Map<List<Float>, DefaultAccessorModel>> 
+            quantizedPositionAccessorModels,
+        Consumer<? super DefaultNodeModel> createdNodeModelConsumer)
+    {
+        if (nodeModels == null)
+        {
+            return false;
+        }
+        for (DefaultNodeModel nodeModel : nodeModels)
+        {
+            if (nodeModel.getSkinModel() != null)
+            {
+                return false;
+            }
+        }
+        List<DefaultMeshPrimitiveModel> meshPrimitiveModels = 
+            new ArrayList<DefaultMeshPrimitiveModel>();
+        for (MeshPrimitiveModel meshPrimitiveModel : 
+            meshModel.getMeshPrimitiveModels())
+        {
+            if (!(meshPrimitiveModel instanceof DefaultMeshPrimitiveModel) ||
+                !meshPrimitiveModel.getTargets().isEmpty() ||
+                sharedMeshPrimitiveModels.contains(meshPrimitiveModel))
+            {
+                return false;
+            }
+            AccessorModel positions = 
+                meshPrimitiveModel.getAttributes().get("POSITION");
+            if (positions == null)
+            {
+                continue;
+            }
+            if (!isFloat(positions, ElementType.VEC3))
+            {
+                return false;
+            }
+            meshPrimitiveModels.add(
+                (DefaultMeshPrimitiveModel) meshPrimitiveModel);
+        }
+        if (meshPrimitiveModels.isEmpty())
+        {
+            return false;
+        }
+        
+        // Compute the bounding box of all positions of the mesh, and 
+        // derive the center and a uniform scaling, so that the 
+        // dequantization transform does not distort the normals
+        float min[] = { Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE };
+        float max[] = { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+        for (DefaultMeshPrimitiveModel meshPrimitiveModel : meshPrimitiveModels)
+        {
+            AccessorModel positions = 
+                meshPrimitiveModel.getAttributes().get("POSITION");
+            AccessorFloatData data = 
+                (AccessorFloatData) positions.getAccessorData();
+            for (int e = 0; e < data.getNumElements(); e++)
+            {
+                for (int c = 0; c < 3; c++)
+                {
+                    float value = data.get(e, c);
+                    min[c] = Math.min(min[c], value);
+                    max[c] = Math.max(max[c], value);
+                }
+            }
+        }
+        float offset[] = new float[3];
+        float scale = 0.0f;
+        for (int c = 0; c < 3; c++)
+        {
+            offset[c] = (min[c] + max[c]) * 0.5f;
+            scale = Math.max(scale, (max[c] - min[c]) * 0.5f);
+        }
+        if (scale == 0.0f || min[0] > max[0])
+        {
+            scale = 1.0f;
+        }
+        
+        // A position accessor that is shared with other meshes can only
+        // be reused when it was quantized with the same transform
+        List<Float> transformKey = 
+            Arrays.asList(offset[0], offset[1], offset[2], scale);
+        for (DefaultMeshPrimitiveModel meshPrimitiveModel : meshPrimitiveModels)
+        {
+            AccessorModel positions = 
+                meshPrimitiveModel.getAttributes().get("POSITION");
+            Map<List<Float>, DefaultAccessorModel> quantizedPositionsMap =
+                quantizedPositionAccessorModels.computeIfAbsent(positions, 
+                    p -> new HashMap<List<Float>, DefaultAccessorModel>());
+            DefaultAccessorModel quantizedPositions = 
+                quantizedPositionsMap.get(transformKey);
+            if (quantizedPositions == null)
+            {
+                quantizedPositions = quantizeSigned(positions, offset, scale);
+                quantizedPositionsMap.put(transformKey, quantizedPositions);
+            }
+            meshPrimitiveModel.putAttribute("POSITION", quantizedPositions);
+        }
+        
+        for (DefaultNodeModel nodeModel : nodeModels)
+        {
+            DefaultNodeModel dequantizationNodeModel = new DefaultNodeModel();
+            dequantizationNodeModel.setTranslation(offset.clone());
+            dequantizationNodeModel.setScale(
+                new float[] { scale, scale, scale });
+            nodeModel.removeMeshModel(meshModel);
+            dequantizationNodeModel.addMeshModel(meshModel);
+            nodeModel.addChild(dequantizationNodeModel);
+            createdNodeModelConsumer.accept(dequantizationNodeModel);
+        }
+        return true;
+    }
+    
+    /**
+     * Quantize the <code>NORMAL</code>, <code>TANGENT</code> and 
+     * <code>TEXCOORD_n</code> attributes of the given {@link MeshModel}
+     * 
+     * @param meshModel The {@link MeshModel}
+     * @param quantizedAccessorModels The mapping from original accessors
+     * to quantized ones
+     * @return Whether any attribute has been quantized
+     */
+    private static boolean quantizeAttributes(MeshModel meshModel, 
+        Map<AccessorModel, DefaultAccessorModel> quantizedAccessorModels)
+    {
+        boolean quantized = false;
+        for (MeshPrimitiveModel meshPrimitiveModel : 
+            meshModel.getMeshPrimitiveModels())
+        {
+            if (!(meshPrimitiveModel instanceof DefaultMeshPrimitiveModel))
+            {
+                continue;
+            }
+            DefaultMeshPrimitiveModel defaultMeshPrimitiveModel = 
+                (DefaultMeshPrimitiveModel) meshPrimitiveModel;
+            Map<String, AccessorModel> attributes = 
+                new LinkedHashMap<String, AccessorModel>();
+            for (Entry<String, AccessorModel> entry : 
+                meshPrimitiveModel.getAttributes().entrySet())
+            {
+                String name = entry.getKey();
+                if (!isTargetAttribute(meshPrimitiveModel, name))
+                {
+                    attributes.put(name, entry.getValue());
+                }
+            }
+            for (Entry<String, AccessorModel> entry : attributes.entrySet())
+            {
+                String name = entry.getKey();
+                AccessorModel accessorModel = entry.getValue();
+                DefaultAccessorModel quantizedAccessorModel = 
+                    quantizedAccessorModels.get(accessorModel);
+                if (quantizedAccessorModel == null)
+                {
+                    quantizedAccessorModel = quantizeAttribute(
+                        name, accessorModel);
+                }
+                if (quantizedAccessorModel != null)
+                {
+                    quantizedAccessorModels.put(
+                        accessorModel, quantizedAccessorModel);
+                    defaultMeshPrimitiveModel.putAttribute(
+                        name, quantizedAccessorModel);
+                    quantized = true;
+                }
+            }
+        }
+        return quantized;
+    }
+    
+    /**
+     * Quantize the given attribute, if it is a <code>NORMAL</code>, 
+     * <code>TANGENT</code> or <code>TEXCOORD_n</code> attribute with
+     * float data that can be quantized
+     * 
+     * @param name The attribute name
+     * @param accessorModel The {@link AccessorModel}
+     * @return The quantized {@link AccessorModel}, or <code>null</code>
+     */
+    private static DefaultAccessorModel quantizeAttribute(
+        String name, AccessorModel accessorModel)
+    {
+        if (name.equals("NORMAL") && 
+            isFloat(accessorModel, ElementType.VEC3))
+        {
+            return quantizeSigned(accessorModel, new float[3], 1.0f);
+        }
+        if (name.equals("TANGENT") && 
+            isFloat(accessorModel, ElementType.VEC4))
+        {
+            return quantizeSigned(accessorModel, new float[4], 1.0f);
+        }
+        if (name.startsWith("TEXCOORD_") &&
+            isFloat(accessorModel, ElementType.VEC2))
+        {
+            return quantizeUnsigned(accessorModel);
+        }
+        return null;
+    }
+    
+    /**
+     * Returns whether the given attribute appears in any morph target
+     * of the given {@link MeshPrimitiveModel}
+     * 
+     * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
+     * @param name The attribute name
+     * @return Whether the attribute is a target attribute
+     */
+    private static boolean isTargetAttribute(
+        MeshPrimitiveModel meshPrimitiveModel, String name)
+    {
+        for (Map<String, AccessorModel> target : 
+            meshPrimitiveModel.getTargets())
+        {
+            if (target.containsKey(name))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns whether the given {@link AccessorModel} contains 
+     * non-normalized float data with the given {@link ElementType}
+     * 
+     * @param accessorModel The {@link AccessorModel}
+     * @param elementType The {@link ElementType}
+     * @return Whether the accessor contains float data
+     */
+    private static boolean isFloat(
+        AccessorModel accessorModel, ElementType elementType)
+    {
+        AccessorData accessorData = accessorModel.getAccessorData();
+        return accessorData instanceof AccessorFloatData &&
+            accessorModel.getElementType() == elementType;
+    }
+    
+    /**
+     * Create a normalized <code>SHORT</code> accessor that contains the 
+     * values <code>(v - offset) / scale</code> of the given float 
+     * accessor
+     * 
+     * @param accessorModel The input {@link AccessorModel}
+     * @param offset The offset for each component
+     * @param scale The scale
+     * @return The quantized {@link AccessorModel}
+     */
+    private static DefaultAccessorModel quantizeSigned(
+        AccessorModel accessorModel, float offset[], float scale)
+    {
+        AccessorFloatData data = 
+            (AccessorFloatData) accessorModel.getAccessorData();
+        int numElements = data.getNumElements();
+        int numComponents = data.getNumComponentsPerElement();
+        short quantized[] = new short[numElements * numComponents];
+        int index = 0;
+        for (int e = 0; e < numElements; e++)
+        {
+            for (int c = 0; c < numComponents; c++)
+            {
+                float value = (data.get(e, c) - offset[c]) / scale;
+                float clamped = Math.max(-1.0f, Math.min(1.0f, value));
+                quantized[index] = (short) Math.round(clamped * 32767.0f);
+                index++;
+            }
+        }
+        ByteBuffer byteBuffer = 
+            Buffers.createByteBufferFrom(ShortBuffer.wrap(quantized));
+        return AccessorModels.create(GltfConstants.GL_SHORT, 
+            accessorModel.getElementType().toString(), true, byteBuffer);
+    }
+    
+    /**
+     * Create a normalized <code>UNSIGNED_SHORT</code> accessor that 
+     * contains the values of the given float accessor, if all values 
+     * are in [0, 1]
+     * 
+     * @param accessorModel The input {@link AccessorModel}
+     * @return The quantized {@link AccessorModel}, or <code>null</code>
+     */
+    private static DefaultAccessorModel quantizeUnsigned(
+        AccessorModel accessorModel)
+    {
+        AccessorFloatData data = 
+            (AccessorFloatData) accessorModel.getAccessorData();
+        int numElements = data.getNumElements();
+        int numComponents = data.getNumComponentsPerElement();
+        short quantized[] = new short[numElements * numComponents];
+        int index = 0;
+        for (int e = 0; e < numElements; e++)
+        {
+            for (int c = 0; c < numComponents; c++)
+            {
+                float value = data.get(e, c);
+                if (!(value >= 0.0f && value <= 1.0f))
+                {
+                    return null;
+                }
+                quantized[index] = (short) Math.round(value * 65535.0f);
+                index++;
+            }
+        }
+        ByteBuffer byteBuffer = 
+            Buffers.createByteBufferFrom(ShortBuffer.wrap(quantized));
+        return AccessorModels.create(GltfConstants.GL_UNSIGNED_SHORT, 
+            accessorModel.getElementType().toString(), true, byteBuffer);
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private MeshQuantizer()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,162 @@
+package de.javagl.jgltf.model.creation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.AccessorByteData;
+import de.javagl.jgltf.model.AccessorDatas;
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.BufferViewModel;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.impl.DefaultAccessorModel;
+import de.javagl.jgltf.model.impl.DefaultBufferViewModel;
+import de.javagl.jgltf.model.impl.DefaultMeshModel;
+import de.javagl.jgltf.model.impl.DefaultMeshPrimitiveModel;
+
+@SuppressWarnings("javadoc")
+public class BufferStructureBuilderInterleavedTest
+{
+    @Test
+    public void testInterleavedVertexAttributes()
+    {
+        BufferStructureBuilder b = new BufferStructureBuilder();
+        
+        float positions[] = 
+        { 
+            0.0f, 1.0f, 2.0f, 
+            3.0f, 4.0f, 5.0f 
+        };
+        byte colors[] = 
+        { 
+            10, 11, 12, 
+            13, 14, 15 
+        };
+        
+        b.createAccessorModel("positions", positions, "VEC3");
+        b.createAccessorModel("colors", colors, "VEC3");
+        b.createInterleavedArrayBufferViewModel("attributes");
+        b.createBufferModel("buffer", "example.bin");
+        BufferStructure bufferStructure = b.build();
+        
+        // The positions take 12 bytes, and the colors take 3 bytes,
+        // starting at a 4-byte aligned offset, so the byte stride
+        // is 12 + 4 = 16
+        List<DefaultBufferViewModel> bufferViewModels = 
+            bufferStructure.getBufferViewModels();
+        assertEquals(1, bufferViewModels.size());
+        BufferViewModel bufferViewModel = bufferViewModels.get(0);
+        assertEquals(Integer.valueOf(16), bufferViewModel.getByteStride());
+        assertEquals(32, bufferViewModel.getByteLength());
+        
+        List<DefaultAccessorModel> accessorModels = 
+            bufferStructure.getAccessorModels();
+        AccessorModel amPositions = accessorModels.get(0);
+        AccessorModel amColors = accessorModels.get(1);
+        assertEquals(0, amPositions.getByteOffset());
+        assertEquals(12, amColors.getByteOffset());
+        assertEquals(16, amPositions.getByteStride());
+        assertEquals(16, amColors.getByteStride());
+        
+        AccessorFloatData positionsData = 
+            (AccessorFloatData) AccessorDatas.create(amPositions);
+        float actualPositions[] = new float[positions.length];
+        positionsData.readElements(0, 2, actualPositions, 0);
+        assertArrayEquals(positions, actualPositions, 0.0f);
+        
+        AccessorByteData colorsData = 
+            (AccessorByteData) AccessorDatas.create(amColors);
+        byte actualColors[] = new byte[colors.length];
+        colorsData.readElements(0, 2, actualColors, 0);
+        assertArrayEquals(colors, actualColors);
+    }
+    
+    @Test
+    public void testInterleavedFallsBackForLargeByteStride()
+    {
+        BufferStructureBuilder b = new BufferStructureBuilder();
+        
+        // Five MAT4 float accessors would require a byte stride
+        // of 5 * 64 = 320, which exceeds the limit of 252
+        int numAccessors = 5;
+        float data[][] = new float[numAccessors][32];
+        for (int a = 0; a < numAccessors; a++)
+        {
+            for (int i = 0; i < data[a].length; i++)
+            {
+                data[a][i] = a * 100 + i;
+            }
+            b.createAccessorModel("a" + a, data[a], "MAT4");
+        }
+        b.createInterleavedArrayBufferViewModel("attributes");
+        b.createBufferModel("buffer", "example.bin");
+        BufferStructure bufferStructure = b.build();
+        
+        List<DefaultBufferViewModel> bufferViewModels = 
+            bufferStructure.getBufferViewModels();
+        assertEquals(1, bufferViewModels.size());
+        BufferViewModel bufferViewModel = bufferViewModels.get(0);
+        assertEquals(Integer.valueOf(64), bufferViewModel.getByteStride());
+        assertEquals(numAccessors * 128, bufferViewModel.getByteLength());
+        
+        List<DefaultAccessorModel> accessorModels = 
+            bufferStructure.getAccessorModels();
+        for (int a = 0; a < numAccessors; a++)
+        {
+            AccessorModel accessorModel = accessorModels.get(a);
+            assertEquals(a * 128, accessorModel.getByteOffset());
+            assertEquals(64, accessorModel.getByteStride());
+            
+            AccessorFloatData accessorData = 
+                (AccessorFloatData) AccessorDatas.create(accessorModel);
+            float actual[] = new float[data[a].length];
+            accessorData.readElements(0, 2, actual, 0);
+            assertArrayEquals(data[a], actual, 0.0f);
+        }
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testInterleavedRequiresSameCount()
+    {
+        BufferStructureBuilder b = new BufferStructureBuilder();
+        b.createAccessorModel("a", new float[6], "VEC3");
+        b.createAccessorModel("b", new float[9], "VEC3");
+        b.createInterleavedArrayBufferViewModel("attributes");
+    }
+    
+    @Test
+    public void testGltfModelBuilderInterleavedOption()
+    {
+        GltfModel planarModel = createModel(false);
+        assertEquals(2, planarModel.getBufferViewModels().size());
+        assertNull(planarModel.getBufferViewModels().get(0).getByteStride());
+        
+        GltfModel interleavedModel = createModel(true);
+        assertEquals(1, interleavedModel.getBufferViewModels().size());
+        assertEquals(Integer.valueOf(24), 
+            interleavedModel.getBufferViewModels().get(0).getByteStride());
+    }
+    
+    private static GltfModel createModel(boolean interleaved)
+    {
+        DefaultMeshPrimitiveModel meshPrimitiveModel = 
+            MeshPrimitiveBuilder.create()
+                .setTriangles()
+                .addPositions3D(FloatBuffer.wrap(new float[9]))
+                .addNormals3D(FloatBuffer.wrap(new float[9]))
+                .build();
+        DefaultMeshModel meshModel = new DefaultMeshModel();
+        meshModel.addMeshPrimitiveModel(meshPrimitiveModel);
+        
+        GltfModelBuilder gltfModelBuilder = GltfModelBuilder.create();
+        gltfModelBuilder.setInterleavedVertexAttributes(interleaved);
+        gltfModelBuilder.addMeshModel(meshModel);
+        return gltfModelBuilder.build();
+    }
+}
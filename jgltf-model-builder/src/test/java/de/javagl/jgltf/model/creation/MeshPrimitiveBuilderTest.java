@@ -0,0 +1,160 @@
+package de.javagl.jgltf.model.creation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.AccessorShortData;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.impl.DefaultMeshPrimitiveModel;
+
+@SuppressWarnings("javadoc")
+public class MeshPrimitiveBuilderTest
+{
+    @Test
+    public void testSmallestIndicesComponentType()
+    {
+        assertEquals(GltfConstants.GL_UNSIGNED_BYTE, 
+            buildWithMaxIndex(254).getIndices().getComponentType());
+        assertEquals(GltfConstants.GL_UNSIGNED_SHORT, 
+            buildWithMaxIndex(255).getIndices().getComponentType());
+        assertEquals(GltfConstants.GL_UNSIGNED_SHORT, 
+            buildWithMaxIndex(65534).getIndices().getComponentType());
+        assertEquals(GltfConstants.GL_UNSIGNED_INT, 
+            buildWithMaxIndex(65535).getIndices().getComponentType());
+    }
+    
+    private static DefaultMeshPrimitiveModel buildWithMaxIndex(int maxIndex)
+    {
+        return MeshPrimitiveBuilder.create()
+            .setTriangles()
+            .setIntIndicesAsSmallestType(
+                IntBuffer.wrap(new int[] { 0, maxIndex, 1 }))
+            .build();
+    }
+    
+    @Test
+    public void testBuildWithShortIndices()
+    {
+        int numTriangles = 30000;
+        int numVertices = numTriangles * 3;
+        float positions[] = new float[numVertices * 3];
+        for (int i = 0; i < positions.length; i++)
+        {
+            positions[i] = i;
+        }
+        int indices[] = new int[numVertices];
+        for (int i = 0; i < numVertices; i++)
+        {
+            indices[i] = numVertices - 1 - i;
+        }
+        List<DefaultMeshPrimitiveModel> meshPrimitiveModels = 
+            MeshPrimitiveBuilder.create()
+                .setTriangles()
+                .setIntIndices(IntBuffer.wrap(indices))
+                .addPositions3D(FloatBuffer.wrap(positions))
+                .buildWithShortIndices();
+        
+        assertEquals(2, meshPrimitiveModels.size());
+        int index = 0;
+        for (DefaultMeshPrimitiveModel meshPrimitiveModel : meshPrimitiveModels)
+        {
+            AccessorModel partIndices = meshPrimitiveModel.getIndices();
+            assertEquals(GltfConstants.GL_UNSIGNED_SHORT, 
+                partIndices.getComponentType());
+            assertEquals(0, partIndices.getCount() % 3);
+            AccessorModel partPositions = 
+                meshPrimitiveModel.getAttributes().get("POSITION");
+            assertTrue(partPositions.getCount() <= 65535);
+            AccessorShortData partIndicesData = 
+                (AccessorShortData) partIndices.getAccessorData();
+            AccessorFloatData partPositionsData = 
+                (AccessorFloatData) partPositions.getAccessorData();
+            for (int i = 0; i < partIndices.getCount(); i++)
+            {
+                int partIndex = partIndicesData.getInt(i);
+                for (int c = 0; c < 3; c++)
+                {
+                    assertEquals(positions[indices[index] * 3 + c], 
+                        partPositionsData.get(partIndex, c), 0.0f);
+                }
+                index++;
+            }
+        }
+        assertEquals(numVertices, index);
+    }
+    
+    @Test
+    public void testBuildWithShortIndicesForTriangleStrip()
+    {
+        int numVertices = 100000;
+        float positions[] = new float[numVertices * 3];
+        for (int i = 0; i < positions.length; i++)
+        {
+            positions[i] = i;
+        }
+        List<DefaultMeshPrimitiveModel> meshPrimitiveModels = 
+            MeshPrimitiveBuilder.create()
+                .setMode(GltfConstants.GL_TRIANGLE_STRIP)
+                .addPositions3D(FloatBuffer.wrap(positions))
+                .buildWithShortIndices();
+        
+        // The strip is converted into triangles, where every second
+        // triangle is flipped to preserve the winding order
+        assertEquals(2, meshPrimitiveModels.size());
+        int triangle = 0;
+        for (DefaultMeshPrimitiveModel meshPrimitiveModel : meshPrimitiveModels)
+        {
+            assertEquals(GltfConstants.GL_TRIANGLES, 
+                meshPrimitiveModel.getMode());
+            AccessorModel partIndices = meshPrimitiveModel.getIndices();
+            AccessorShortData partIndicesData = 
+                (AccessorShortData) partIndices.getAccessorData();
+            AccessorModel partPositions = 
+                meshPrimitiveModel.getAttributes().get("POSITION");
+            assertTrue(partPositions.getCount() <= 65535);
+            AccessorFloatData partPositionsData = 
+                (AccessorFloatData) partPositions.getAccessorData();
+            for (int i = 0; i < partIndices.getCount(); i += 3)
+            {
+                int expected[] = (triangle % 2 == 0) ?
+                    new int[] { triangle, triangle + 1, triangle + 2 } :
+                    new int[] { triangle + 1, triangle, triangle + 2 };
+                for (int k = 0; k < 3; k++)
+                {
+                    int partIndex = partIndicesData.getInt(i + k);
+                    assertEquals(positions[expected[k] * 3], 
+                        partPositionsData.get(partIndex, 0), 0.0f);
+                }
+                triangle++;
+            }
+        }
+        assertEquals(numVertices - 2, triangle);
+    }
+    
+    @Test
+    public void testBuildWithShortIndicesForLineLoop()
+    {
+        List<DefaultMeshPrimitiveModel> meshPrimitiveModels = 
+            MeshPrimitiveBuilder.create()
+                .setMode(GltfConstants.GL_LINE_LOOP)
+                .addPositions3D(FloatBuffer.wrap(new float[9]))
+                .buildWithShortIndices();
+        assertEquals(1, meshPrimitiveModels.size());
+        DefaultMeshPrimitiveModel meshPrimitiveModel = 
+            meshPrimitiveModels.get(0);
+        assertEquals(GltfConstants.GL_LINES, meshPrimitiveModel.getMode());
+        AccessorShortData indicesData = (AccessorShortData) 
+            meshPrimitiveModel.getIndices().getAccessorData();
+        assertEquals(6, indicesData.getNumElements());
+        assertEquals(2, indicesData.getInt(4));
+        assertEquals(0, indicesData.getInt(5));
+    }
+}
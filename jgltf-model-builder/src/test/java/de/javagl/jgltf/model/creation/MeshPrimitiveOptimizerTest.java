@@ -0,0 +1,193 @@
+package de.javagl.jgltf.model.creation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.AccessorShortData;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.impl.DefaultMeshPrimitiveModel;
+
+@SuppressWarnings("javadoc")
+public class MeshPrimitiveOptimizerTest
+{
+    @Test
+    public void testWeldUnindexedQuad()
+    {
+        float positions[] = 
+        {
+            0.0f, 0.0f, 0.0f, 
+            1.0f, 0.0f, 0.0f, 
+            1.0f, 1.0f, 0.0f, 
+            0.0f, 0.0f, 0.0f, 
+            1.0f, 1.0f, 0.0f, 
+            0.0f, 1.0f, 0.0f 
+        };
+        DefaultMeshPrimitiveModel meshPrimitiveModel = 
+            MeshPrimitiveBuilder.create()
+                .setTriangles()
+                .addPositions3D(FloatBuffer.wrap(positions))
+                .build();
+        
+        DefaultMeshPrimitiveModel optimized = 
+            MeshPrimitiveOptimizer.optimize(meshPrimitiveModel);
+        
+        AccessorModel optimizedPositions = 
+            optimized.getAttributes().get("POSITION");
+        assertEquals(4, optimizedPositions.getCount());
+        AccessorModel indices = optimized.getIndices();
+        assertEquals(GltfConstants.GL_UNSIGNED_SHORT, 
+            indices.getComponentType());
+        assertEquals(6, indices.getCount());
+        
+        Set<List<Float>> expectedTriangles = 
+            collectTriangles(meshPrimitiveModel);
+        Set<List<Float>> actualTriangles = collectTriangles(optimized);
+        assertEquals(expectedTriangles, actualTriangles);
+    }
+    
+    @Test
+    public void testVertexCacheOptimization()
+    {
+        int size = 40;
+        float positions[] = new float[size * size * 3];
+        for (int y = 0; y < size; y++)
+        {
+            for (int x = 0; x < size; x++)
+            {
+                int index = (y * size + x) * 3;
+                positions[index + 0] = x;
+                positions[index + 1] = y;
+            }
+        }
+        List<int[]> triangles = new ArrayList<int[]>();
+        for (int y = 0; y < size - 1; y++)
+        {
+            for (int x = 0; x < size - 1; x++)
+            {
+                int i00 = y * size + x;
+                int i10 = i00 + 1;
+                int i01 = i00 + size;
+                int i11 = i01 + 1;
+                triangles.add(new int[] { i00, i10, i11 });
+                triangles.add(new int[] { i00, i11, i01 });
+            }
+        }
+        Collections.shuffle(triangles, new Random(0));
+        int indices[] = new int[triangles.size() * 3];
+        for (int t = 0; t < triangles.size(); t++)
+        {
+            System.arraycopy(triangles.get(t), 0, indices, t * 3, 3);
+        }
+        DefaultMeshPrimitiveModel meshPrimitiveModel = 
+            MeshPrimitiveBuilder.create()
+                .setTriangles()
+                .setIntIndicesAsShort(IntBuffer.wrap(indices))
+                .addPositions3D(FloatBuffer.wrap(positions))
+                .build();
+        
+        DefaultMeshPrimitiveModel optimized = 
+            MeshPrimitiveOptimizer.optimize(meshPrimitiveModel);
+        
+        double acmrBefore = computeAcmr(readIndices(meshPrimitiveModel));
+        double acmrAfter = computeAcmr(readIndices(optimized));
+        assertTrue("Expected ACMR " + acmrAfter + " to be below 1.0", 
+            acmrAfter < 1.0);
+        assertTrue(acmrAfter < acmrBefore * 0.5);
+        assertEquals(collectTriangles(meshPrimitiveModel), 
+            collectTriangles(optimized));
+    }
+    
+    private static int[] readIndices(MeshPrimitiveModel meshPrimitiveModel)
+    {
+        AccessorShortData data = (AccessorShortData) 
+            meshPrimitiveModel.getIndices().getAccessorData();
+        int indices[] = new int[data.getNumElements()];
+        for (int i = 0; i < indices.length; i++)
+        {
+            indices[i] = data.getInt(i);
+        }
+        return indices;
+    }
+    
+    private static double computeAcmr(int indices[])
+    {
+        int cacheSize = 16;
+        List<Integer> cache = new ArrayList<Integer>();
+        int misses = 0;
+        for (int index : indices)
+        {
+            if (!cache.contains(index))
+            {
+                misses++;
+                cache.add(index);
+                if (cache.size() > cacheSize)
+                {
+                    cache.remove(0);
+                }
+            }
+        }
+        return (double) misses / (indices.length / 3);
+    }
+    
+    private static Set<List<Float>> collectTriangles(
+        MeshPrimitiveModel meshPrimitiveModel)
+    {
+        AccessorFloatData positions = (AccessorFloatData) 
+            meshPrimitiveModel.getAttributes().get("POSITION")
+                .getAccessorData();
+        int indices[];
+        if (meshPrimitiveModel.getIndices() == null)
+        {
+            indices = new int[positions.getNumElements()];
+            for (int i = 0; i < indices.length; i++)
+            {
+                indices[i] = i;
+            }
+        }
+        else
+        {
+            indices = readIndices(meshPrimitiveModel);
+        }
+        Set<List<Float>> triangles = new HashSet<List<Float>>();
+        for (int t = 0; t < indices.length; t += 3)
+        {
+            // Store each triangle with the rotation that has the smallest
+            // string representation, so that the triangles can be 
+            // compared independent of the rotation of their vertices
+            List<Float> triangle = null;
+            for (int start = 0; start < 3; start++)
+            {
+                List<Float> rotated = new ArrayList<Float>();
+                for (int k = 0; k < 3; k++)
+                {
+                    int index = indices[t + (start + k) % 3];
+                    for (int c = 0; c < 3; c++)
+                    {
+                        rotated.add(positions.get(index, c));
+                    }
+                }
+                if (triangle == null || 
+                    rotated.toString().compareTo(triangle.toString()) < 0)
+                {
+                    triangle = rotated;
+                }
+            }
+            triangles.add(triangle);
+        }
+        return triangles;
+    }
+}
@@ -0,0 +1,233 @@
+package de.javagl.jgltf.model.creation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.AccessorShortData;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.NodeModel;
+import de.javagl.jgltf.model.impl.DefaultMeshModel;
+import de.javagl.jgltf.model.impl.DefaultMeshPrimitiveModel;
+import de.javagl.jgltf.model.impl.DefaultNodeModel;
+import de.javagl.jgltf.model.impl.DefaultSceneModel;
+
+@SuppressWarnings("javadoc")
+public class MeshQuantizerTest
+{
+    @Test
+    public void testQuantization()
+    {
+        float positions[] = 
+        {
+            1.0f, 2.0f, 3.0f, 
+            5.0f, 2.0f, 3.0f, 
+            1.0f, 4.0f, 4.0f 
+        };
+        float normals[] = 
+        {
+            0.0f, 0.0f, 1.0f, 
+            0.0f, 1.0f, 0.0f, 
+            -1.0f, 0.0f, 0.0f 
+        };
+        float texCoords[] = 
+        {
+            0.0f, 0.0f, 
+            1.0f, 0.0f, 
+            0.5f, 1.0f 
+        };
+        DefaultMeshPrimitiveModel meshPrimitiveModel = 
+            MeshPrimitiveBuilder.create()
+                .setTriangles()
+                .addPositions3D(FloatBuffer.wrap(positions))
+                .addNormals3D(FloatBuffer.wrap(normals))
+                .addTexCoords02D(FloatBuffer.wrap(texCoords))
+                .build();
+        DefaultMeshModel meshModel = new DefaultMeshModel();
+        meshModel.addMeshPrimitiveModel(meshPrimitiveModel);
+        DefaultNodeModel nodeModel = new DefaultNodeModel();
+        nodeModel.addMeshModel(meshModel);
+        DefaultSceneModel sceneModel = new DefaultSceneModel();
+        sceneModel.addNode(nodeModel);
+        
+        GltfModelBuilder gltfModelBuilder = GltfModelBuilder.create();
+        gltfModelBuilder.setMeshQuantization(true);
+        gltfModelBuilder.addSceneModel(sceneModel);
+        GltfModel gltfModel = gltfModelBuilder.build();
+        
+        assertEquals(Arrays.asList(MeshQuantizer.EXTENSION_NAME), 
+            gltfModel.getExtensionsModel().getExtensionsRequired());
+        assertEquals(2, gltfModel.getNodeModels().size());
+        
+        // The mesh is moved into a child node that contains the
+        // dequantization transform
+        assertTrue(nodeModel.getMeshModels().isEmpty());
+        NodeModel dequantizationNodeModel = nodeModel.getChildren().get(0);
+        assertSame(meshModel, dequantizationNodeModel.getMeshModels().get(0));
+        assertArrayEquals(new float[] { 3.0f, 3.0f, 3.5f }, 
+            dequantizationNodeModel.getTranslation(), 0.0f);
+        assertArrayEquals(new float[] { 2.0f, 2.0f, 2.0f }, 
+            dequantizationNodeModel.getScale(), 0.0f);
+        
+        Map<String, AccessorModel> attributes = 
+            meshPrimitiveModel.getAttributes();
+        AccessorModel quantizedPositions = attributes.get("POSITION");
+        assertEquals(GltfConstants.GL_SHORT, 
+            quantizedPositions.getComponentType());
+        assertTrue(quantizedPositions.isNormalized());
+        AccessorShortData positionsData = 
+            (AccessorShortData) quantizedPositions.getAccessorData();
+        float translation[] = dequantizationNodeModel.getTranslation();
+        float scale[] = dequantizationNodeModel.getScale();
+        for (int e = 0; e < 3; e++)
+        {
+            for (int c = 0; c < 3; c++)
+            {
+                float q = Math.max(positionsData.get(e, c) / 32767.0f, -1.0f);
+                float dequantized = translation[c] + scale[c] * q;
+                assertEquals(positions[e * 3 + c], dequantized, 1e-3f);
+            }
+        }
+        
+        AccessorModel quantizedNormals = attributes.get("NORMAL");
+        assertEquals(GltfConstants.GL_SHORT, 
+            quantizedNormals.getComponentType());
+        AccessorShortData normalsData = 
+            (AccessorShortData) quantizedNormals.getAccessorData();
+        assertEquals(32767, normalsData.get(0, 2));
+        assertEquals(-32767, normalsData.get(2, 0));
+        
+        AccessorModel quantizedTexCoords = attributes.get("TEXCOORD_0");
+        assertEquals(GltfConstants.GL_UNSIGNED_SHORT, 
+            quantizedTexCoords.getComponentType());
+        AccessorShortData texCoordsData = 
+            (AccessorShortData) quantizedTexCoords.getAccessorData();
+        assertEquals(65535, texCoordsData.getInt(1, 0));
+        assertEquals(32768, texCoordsData.getInt(2, 0));
+    }
+    
+    @Test
+    public void testSharedPositionAccessorWithDifferentBounds()
+    {
+        float sharedPositions[] = 
+        {
+            0.0f, 0.0f, 0.0f, 
+            1.0f, 0.0f, 0.0f, 
+            0.0f, 1.0f, 0.0f 
+        };
+        float otherPositions[] = 
+        {
+            10.0f, 0.0f, 0.0f, 
+            11.0f, 0.0f, 0.0f, 
+            10.0f, 1.0f, 0.0f 
+        };
+        
+        // The first mesh only contains the shared positions. The
+        // second mesh also contains other positions, so that its
+        // bounding box is different
+        DefaultMeshPrimitiveModel meshPrimitiveModel0 = 
+            MeshPrimitiveBuilder.create()
+                .setTriangles()
+                .addPositions3D(FloatBuffer.wrap(sharedPositions))
+                .build();
+        AccessorModel sharedPositionsAccessorModel = 
+            meshPrimitiveModel0.getAttributes().get("POSITION");
+        DefaultMeshModel meshModel0 = new DefaultMeshModel();
+        meshModel0.addMeshPrimitiveModel(meshPrimitiveModel0);
+        
+        DefaultMeshPrimitiveModel meshPrimitiveModel1a = 
+            new DefaultMeshPrimitiveModel(GltfConstants.GL_TRIANGLES);
+        meshPrimitiveModel1a.putAttribute(
+            "POSITION", sharedPositionsAccessorModel);
+        DefaultMeshPrimitiveModel meshPrimitiveModel1b = 
+            MeshPrimitiveBuilder.create()
+                .setTriangles()
+                .addPositions3D(FloatBuffer.wrap(otherPositions))
+                .build();
+        DefaultMeshModel meshModel1 = new DefaultMeshModel();
+        meshModel1.addMeshPrimitiveModel(meshPrimitiveModel1a);
+        meshModel1.addMeshPrimitiveModel(meshPrimitiveModel1b);
+        
+        DefaultNodeModel nodeModel0 = new DefaultNodeModel();
+        nodeModel0.addMeshModel(meshModel0);
+        DefaultNodeModel nodeModel1 = new DefaultNodeModel();
+        nodeModel1.addMeshModel(meshModel1);
+        DefaultSceneModel sceneModel = new DefaultSceneModel();
+        sceneModel.addNode(nodeModel0);
+        sceneModel.addNode(nodeModel1);
+        
+        GltfModelBuilder gltfModelBuilder = GltfModelBuilder.create();
+        gltfModelBuilder.setMeshQuantization(true);
+        gltfModelBuilder.addSceneModel(sceneModel);
+        gltfModelBuilder.build();
+        
+        AccessorModel quantized0 = 
+            meshPrimitiveModel0.getAttributes().get("POSITION");
+        AccessorModel quantized1 = 
+            meshPrimitiveModel1a.getAttributes().get("POSITION");
+        assertNotSame(quantized0, quantized1);
+        
+        assertDequantized(sharedPositions, quantized0, 
+            nodeModel0.getChildren().get(0));
+        assertDequantized(sharedPositions, quantized1, 
+            nodeModel1.getChildren().get(0));
+        assertDequantized(otherPositions, 
+            meshPrimitiveModel1b.getAttributes().get("POSITION"), 
+            nodeModel1.getChildren().get(0));
+    }
+    
+    private static void assertDequantized(float expected[], 
+        AccessorModel quantizedPositions, NodeModel dequantizationNodeModel)
+    {
+        AccessorShortData positionsData = 
+            (AccessorShortData) quantizedPositions.getAccessorData();
+        float translation[] = dequantizationNodeModel.getTranslation();
+        float scale[] = dequantizationNodeModel.getScale();
+        for (int e = 0; e < positionsData.getNumElements(); e++)
+        {
+            for (int c = 0; c < 3; c++)
+            {
+                float q = Math.max(positionsData.get(e, c) / 32767.0f, -1.0f);
+                float dequantized = translation[c] + scale[c] * q;
+                assertEquals(expected[e * 3 + c], dequantized, 1e-3f);
+            }
+        }
+    }
+    
+    @Test
+    public void testTexCoordsOutsideUnitRangeAreNotQuantized()
+    {
+        DefaultMeshPrimitiveModel meshPrimitiveModel = 
+            MeshPrimitiveBuilder.create()
+                .setTriangles()
+                .addTexCoords02D(FloatBuffer.wrap(new float[] 
+                { 
+                    0.0f, 0.0f, 
+                    2.0f, 0.0f, 
+                    0.0f, 1.0f 
+                }))
+                .build();
+        DefaultMeshModel meshModel = new DefaultMeshModel();
+        meshModel.addMeshPrimitiveModel(meshPrimitiveModel);
+        
+        GltfModelBuilder gltfModelBuilder = GltfModelBuilder.create();
+        gltfModelBuilder.setMeshQuantization(true);
+        gltfModelBuilder.addMeshModel(meshModel);
+        GltfModel gltfModel = gltfModelBuilder.build();
+        
+        assertEquals(GltfConstants.GL_FLOAT, meshPrimitiveModel
+            .getAttributes().get("TEXCOORD_0").getComponentType());
+        assertTrue(gltfModel.getExtensionsModel()
+            .getExtensionsRequired().isEmpty());
+    }
+}
@@ -70,6 +70,18 @@ abstract class AbstractAccessorData implements AccessorData
      * The stride, in number of bytes, between two consecutive elements 
      */
     private final int byteStridePerElement;
+    
+    /**
+     * The offsets, in bytes, of the components inside one element,
+     * including possible padding for matrix columns
+     */
+    private final int componentByteOffsets[];
+    
+    /**
+     * Whether the elements are tightly packed, without any padding 
+     * between the components or the elements
+     */
+    private final boolean packed;
 
     /**
      * Default constructor
@@ -110,6 +122,19 @@ abstract class AbstractAccessorData implements AccessorData
         {
             this.byteStridePerElement = byteStride;
         }
+        int numComponents = elementType.getNumComponents();
+        this.componentByteOffsets = new int[numComponents];
+        boolean componentsPacked = true;
+        for (int c = 0; c < numComponents; c++)
+        {
+            componentByteOffsets[c] = getByteIndex(0, c) - byteOffset;
+            if (componentByteOffsets[c] != c * numBytesPerComponent)
+            {
+                componentsPacked = false;
+            }
+        }
+        this.packed = componentsPacked && 
+            byteStridePerElement == numComponents * numBytesPerComponent;
     }
     
     @Override
@@ -136,6 +161,21 @@ abstract class AbstractAccessorData implements AccessorData
         return numElements * getNumComponentsPerElement();
     }
     
+    /**
+     * Returns whether the elements of this data are tightly packed. 
+     * This is the case when there is no padding between the components
+     * of one element, and no padding between consecutive elements.<br>
+     * <br>
+     * For packed data, the bulk access methods can copy the data
+     * directly, and views of the data can be created.
+     * 
+     * @return Whether the data is packed
+     */
+    public final boolean isPacked()
+    {
+        return packed;
+    }
+    
     /**
      * Returns the index of the byte in the byte buffer where the specified
      * component starts
@@ -190,6 +230,72 @@ abstract class AbstractAccessorData implements AccessorData
     }
     
     
+    /**
+     * Returns the offsets of the components inside one element, in bytes,
+     * including possible padding for matrix columns. The returned array 
+     * may not be modified.
+     * 
+     * @return The component byte offsets
+     */
+    final int[] getComponentByteOffsets()
+    {
+        return componentByteOffsets;
+    }
+    
+    /**
+     * Make sure that the specified range of elements is valid for this
+     * data, and that the specified range of the array that receives or
+     * provides the components of these elements is valid.
+     * 
+     * @param startElement The start element index
+     * @param numElements The number of elements
+     * @param arrayLength The length of the array
+     * @param arrayOffset The offset inside the array
+     * @throws IndexOutOfBoundsException If any of the ranges is not valid
+     */
+    final void checkElementRange(int startElement, int numElements, 
+        int arrayLength, int arrayOffset)
+    {
+        if (startElement < 0 || numElements < 0 || 
+            startElement > this.numElements - numElements)
+        {
+            throw new IndexOutOfBoundsException(
+                "Elements " + startElement + " to " 
+                + ((long) startElement + numElements) 
+                + " are not in [0, " + this.numElements + "]");
+        }
+        long numComponents = 
+            (long) numElements * getNumComponentsPerElement();
+        if (arrayOffset < 0 || arrayOffset + numComponents > arrayLength)
+        {
+            throw new IndexOutOfBoundsException(
+                "Cannot access " + numComponents + " components at offset "
+                + arrayOffset + " of an array with length " + arrayLength);
+        }
+    }
+    
+    /**
+     * Creates a slice of the underlying byte buffer that contains the 
+     * specified elements, with the same byte order as the underlying
+     * byte buffer. This may only be called when the data is 
+     * {@link #isPacked() packed}.
+     * 
+     * @param startElement The start element index
+     * @param numElements The number of elements
+     * @return The slice
+     */
+    final ByteBuffer createPackedSlice(int startElement, int numElements)
+    {
+        int start = byteOffset + startElement * byteStridePerElement;
+        int end = start + numElements * byteStridePerElement;
+        ByteBuffer duplicate = bufferViewByteBuffer.duplicate();
+        duplicate.limit(end);
+        duplicate.position(start);
+        ByteBuffer slice = duplicate.slice();
+        slice.order(bufferViewByteBuffer.order());
+        return slice;
+    }
+    
     /**
      * Returns the underlying byte buffer
      * 
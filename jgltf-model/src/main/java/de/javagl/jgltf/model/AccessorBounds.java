@@ -0,0 +1,354 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The minimum and maximum component values of an {@link AccessorData}.<br>
+ * <br>
+ * The values are stored in primitive arrays: For float data, they are 
+ * stored as <code>float</code> values. For byte, short and int data, 
+ * they are stored as <code>long</code> values, so that the values of
+ * unsigned int data can be represented as well.<br>
+ * <br>
+ * Instances of this class are immutable. They are usually obtained
+ * from {@link AccessorStatistics#getBounds()} or 
+ * {@link AccessorModel#getBounds()}.
+ */
+public final class AccessorBounds
+{
+    /**
+     * The component data type, e.g. <code>float.class</code>
+     */
+    private final Class<?> componentDataType;
+    
+    /**
+     * The minimum values, for float data
+     */
+    private final float floatMin[];
+    
+    /**
+     * The maximum values, for float data
+     */
+    private final float floatMax[];
+    
+    /**
+     * The minimum values, for integer data
+     */
+    private final long longMin[];
+    
+    /**
+     * The maximum values, for integer data
+     */
+    private final long longMax[];
+    
+    /**
+     * Private constructor
+     * 
+     * @param componentDataType The component data type
+     * @param floatMin The float minimum
+     * @param floatMax The float maximum
+     * @param longMin The long minimum
+     * @param longMax The long maximum
+     */
+    private AccessorBounds(Class<?> componentDataType, 
+        float floatMin[], float floatMax[], long longMin[], long longMax[])
+    {
+        this.componentDataType = componentDataType;
+        this.floatMin = floatMin;
+        this.floatMax = floatMax;
+        this.longMin = longMin;
+        this.longMax = longMax;
+    }
+    
+    /**
+     * Creates new bounds for float data. The given arrays will be 
+     * stored as copies.
+     * 
+     * @param min The minimum values
+     * @param max The maximum values
+     * @return The {@link AccessorBounds}
+     * @throws NullPointerException If any argument is <code>null</code>
+     * @throws IllegalArgumentException If the arrays have different lengths
+     */
+    public static AccessorBounds createFloat(float min[], float max[])
+    {
+        Objects.requireNonNull(min, "The min may not be null");
+        Objects.requireNonNull(max, "The max may not be null");
+        validateLengths(min.length, max.length);
+        return new AccessorBounds(float.class, 
+            min.clone(), max.clone(), null, null);
+    }
+    
+    /**
+     * Creates new bounds for integer data. The given arrays will be 
+     * stored as copies.
+     * 
+     * @param componentDataType The component data type. This must be
+     * <code>byte.class</code>, <code>short.class</code> or
+     * <code>int.class</code>
+     * @param min The minimum values
+     * @param max The maximum values
+     * @return The {@link AccessorBounds}
+     * @throws NullPointerException If any argument is <code>null</code>
+     * @throws IllegalArgumentException If the arrays have different 
+     * lengths, or the component data type is not valid
+     */
+    public static AccessorBounds createLong(
+        Class<?> componentDataType, long min[], long max[])
+    {
+        Objects.requireNonNull(min, "The min may not be null");
+        Objects.requireNonNull(max, "The max may not be null");
+        if (componentDataType != byte.class && 
+            componentDataType != short.class && 
+            componentDataType != int.class)
+        {
+            throw new IllegalArgumentException(
+                "Invalid component data type: " + componentDataType);
+        }
+        validateLengths(min.length, max.length);
+        return new AccessorBounds(componentDataType, 
+            null, null, min.clone(), max.clone());
+    }
+    
+    /**
+     * Make sure that the given lengths are equal
+     * 
+     * @param minLength The length of the minimum array
+     * @param maxLength The length of the maximum array
+     * @throws IllegalArgumentException If the lengths are not equal
+     */
+    private static void validateLengths(int minLength, int maxLength)
+    {
+        if (minLength != maxLength)
+        {
+            throw new IllegalArgumentException(
+                "The min has length " + minLength + 
+                ", but the max has length " + maxLength);
+        }
+    }
+    
+    /**
+     * Returns the component data type, which is one of 
+     * <code>byte.class</code>, <code>short.class</code>,
+     * <code>int.class</code> or <code>float.class</code>
+     * 
+     * @return The component data type
+     */
+    public Class<?> getComponentDataType()
+    {
+        return componentDataType;
+    }
+    
+    /**
+     * Returns whether these are the bounds of float data
+     * 
+     * @return Whether these are float bounds
+     */
+    public boolean isFloat()
+    {
+        return floatMin != null;
+    }
+    
+    /**
+     * Returns the number of components
+     * 
+     * @return The number of components
+     */
+    public int getNumComponents()
+    {
+        return isFloat() ? floatMin.length : longMin.length;
+    }
+    
+    /**
+     * Returns the specified minimum component, as a double value
+     * 
+     * @param componentIndex The component index
+     * @return The value
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    public double getMin(int componentIndex)
+    {
+        return isFloat() ? floatMin[componentIndex] : longMin[componentIndex];
+    }
+    
+    /**
+     * Returns the specified maximum component, as a double value
+     * 
+     * @param componentIndex The component index
+     * @return The value
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    public double getMax(int componentIndex)
+    {
+        return isFloat() ? floatMax[componentIndex] : longMax[componentIndex];
+    }
+    
+    /**
+     * Returns a copy of the minimum values of float bounds
+     * 
+     * @return The minimum values
+     * @throws IllegalStateException If these are not float bounds
+     */
+    public float[] getFloatMin()
+    {
+        validateFloat(true);
+        return floatMin.clone();
+    }
+    
+    /**
+     * Returns a copy of the maximum values of float bounds
+     * 
+     * @return The maximum values
+     * @throws IllegalStateException If these are not float bounds
+     */
+    public float[] getFloatMax()
+    {
+        validateFloat(true);
+        return floatMax.clone();
+    }
+    
+    /**
+     * Returns a copy of the minimum values of integer bounds
+     * 
+     * @return The minimum values
+     * @throws IllegalStateException If these are float bounds
+     */
+    public long[] getLongMin()
+    {
+        validateFloat(false);
+        return longMin.clone();
+    }
+    
+    /**
+     * Returns a copy of the maximum values of integer bounds
+     * 
+     * @return The maximum values
+     * @throws IllegalStateException If these are float bounds
+     */
+    public long[] getLongMax()
+    {
+        validateFloat(false);
+        return longMax.clone();
+    }
+    
+    /**
+     * Make sure that these bounds have the expected type
+     * 
+     * @param expectedFloat Whether float bounds are expected
+     * @throws IllegalStateException If the bounds have a different type
+     */
+    private void validateFloat(boolean expectedFloat)
+    {
+        if (isFloat() != expectedFloat)
+        {
+            throw new IllegalStateException(
+                "The bounds have component type " + componentDataType);
+        }
+    }
+    
+    /**
+     * Creates a new array containing the minimum values as numbers. These
+     * will be <code>Integer</code> values for byte and short data, 
+     * <code>Long</code> values for int data, and <code>Float</code> 
+     * values for float data.<br>
+     * <br>
+     * This is only intended for passing the values to APIs that require
+     * number objects, like the glTF JSON classes.
+     * 
+     * @return The minimum values
+     */
+    public Number[] createMinNumbers()
+    {
+        return isFloat() ? asNumbers(floatMin) : asNumbers(longMin);
+    }
+    
+    /**
+     * Creates a new array containing the maximum values as numbers. See
+     * {@link #createMinNumbers()} for details.
+     * 
+     * @return The maximum values
+     */
+    public Number[] createMaxNumbers()
+    {
+        return isFloat() ? asNumbers(floatMax) : asNumbers(longMax);
+    }
+    
+    /**
+     * Convert the given values into numbers
+     * 
+     * @param values The values
+     * @return The numbers
+     */
+    private static Number[] asNumbers(float values[])
+    {
+        Number result[] = new Number[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            result[i] = values[i];
+        }
+        return result;
+    }
+    
+    /**
+     * Convert the given values into numbers, depending on the 
+     * component data type
+     * 
+     * @param values The values
+     * @return The numbers
+     */
+    private Number[] asNumbers(long values[])
+    {
+        Number result[] = new Number[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            if (componentDataType == int.class)
+            {
+                result[i] = values[i];
+            }
+            else
+            {
+                result[i] = (int) values[i];
+            }
+        }
+        return result;
+    }
+    
+    @Override
+    public String toString()
+    {
+        if (isFloat())
+        {
+            return "AccessorBounds[min=" + Arrays.toString(floatMin) + 
+                ", max=" + Arrays.toString(floatMax) + "]";
+        }
+        return "AccessorBounds[min=" + Arrays.toString(longMin) + 
+            ", max=" + Arrays.toString(longMax) + "]";
+    }
+}
@@ -193,6 +193,123 @@ public final class AccessorByteData
         return unsigned ? Byte.toUnsignedInt(value) : value;
     }
     
+    /**
+     * Read the components of the specified elements into the given array.
+     * <br>
+     * <br>
+     * The components of the elements will be written into the given
+     * array, consecutively, starting at the given offset. For 
+     * {@link #isPacked() packed} data, the components will be copied
+     * with a single bulk operation. Otherwise, they will be read element
+     * by element, without computing the position of each component 
+     * individually.
+     * 
+     * @param startElement The index of the first element
+     * @param numElements The number of elements
+     * @param dst The array that will receive the components
+     * @param dstOffset The offset in the array
+     * @throws IndexOutOfBoundsException If the elements are not valid
+     * for this data, or the array is not large enough to store the
+     * components, starting at the given offset
+     */
+    public void readElements(int startElement, int numElements, 
+        byte dst[], int dstOffset)
+    {
+        checkElementRange(startElement, numElements, dst.length, dstOffset);
+        int nc = getNumComponentsPerElement();
+        if (isPacked())
+        {
+            ByteBuffer slice = createPackedSlice(startElement, numElements);
+            slice.get(dst, dstOffset, numElements * nc);
+            return;
+        }
+        ByteBuffer byteBuffer = getBufferViewByteBuffer();
+        int componentByteOffsets[] = getComponentByteOffsets();
+        int byteStride = getByteStridePerElement();
+        int elementByteIndex = getByteIndex(startElement, 0);
+        int d = dstOffset;
+        for (int e = 0; e < numElements; e++)
+        {
+            for (int c = 0; c < nc; c++)
+            {
+                dst[d] = byteBuffer.get(
+                    elementByteIndex + componentByteOffsets[c]);
+                d++;
+            }
+            elementByteIndex += byteStride;
+        }
+    }
+    
+    /**
+     * Write the components of the specified elements from the given array.
+     * <br>
+     * <br>
+     * This is the counterpart of 
+     * {@link #readElements(int, int, byte[], int)}: The components 
+     * will be read from the given array, consecutively, starting at the 
+     * given offset, and written into the specified elements.
+     * 
+     * @param startElement The index of the first element
+     * @param numElements The number of elements
+     * @param src The array that provides the components
+     * @param srcOffset The offset in the array
+     * @throws IndexOutOfBoundsException If the elements are not valid
+     * for this data, or the array does not contain enough components,
+     * starting at the given offset
+     */
+    public void writeElements(int startElement, int numElements, 
+        byte src[], int srcOffset)
+    {
+        checkElementRange(startElement, numElements, src.length, srcOffset);
+        int nc = getNumComponentsPerElement();
+        if (isPacked())
+        {
+            ByteBuffer slice = createPackedSlice(startElement, numElements);
+            slice.put(src, srcOffset, numElements * nc);
+            return;
+        }
+        ByteBuffer byteBuffer = getBufferViewByteBuffer();
+        int componentByteOffsets[] = getComponentByteOffsets();
+        int byteStride = getByteStridePerElement();
+        int elementByteIndex = getByteIndex(startElement, 0);
+        int s = srcOffset;
+        for (int e = 0; e < numElements; e++)
+        {
+            for (int c = 0; c < nc; c++)
+            {
+                byteBuffer.put(
+                    elementByteIndex + componentByteOffsets[c], src[s]);
+                s++;
+            }
+            elementByteIndex += byteStride;
+        }
+    }
+    
+    /**
+     * Returns a view on the data of this accessor. The view will be a
+     * slice of the underlying byte buffer, so changes in the view will 
+     * be visible in this data, and vice versa. This is only possible
+     * when the data is {@link #isPacked() packed}.<br>
+     * <br>
+     * Note that the values in the returned buffer will not be converted
+     * into unsigned values, regardless of whether the data 
+     * {@link #isUnsigned() is unsigned}.
+     * 
+     * @return The view
+     * @throws IllegalStateException If the data is not packed
+     */
+    public ByteBuffer asByteBuffer()
+    {
+        if (!isPacked())
+        {
+            throw new IllegalStateException(
+                "The data is not packed. It has a byte stride of " 
+                + getByteStridePerElement() + " for elements with " 
+                + getNumComponentsPerElement() + " components.");
+        }
+        return createPackedSlice(0, getNumElements());
+    }
+    
     /**
      * Returns an array containing the minimum component values of all elements 
      * of this accessor data. This will be an array whose length is the 
@@ -42,6 +42,8 @@ import java.nio.ByteBuffer;
  *   <li>For <code>float.class</code>, the implementation is an 
  *   {@link AccessorFloatData}</li>
  * </ul>
+ * The only exception is the {@link SparseAccessorData}, which represents
+ * the data of a sparse accessor without storing the dense data.
  */
 public interface AccessorData
 {
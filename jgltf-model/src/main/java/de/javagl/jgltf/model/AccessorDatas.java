@@ -459,8 +459,9 @@ public class AccessorDatas
     static void validateCapacity(int byteOffset, int numElements,
         int numBytesPerElement, int byteStridePerElement, int bufferCapacity)
     {
-        int expectedCapacity = 
-            (numElements - 1) * byteStridePerElement + numBytesPerElement;
+        long expectedCapacity = 
+            (long) (numElements - 1) * byteStridePerElement 
+            + numBytesPerElement;
         if (expectedCapacity > bufferCapacity)
         {
             throw new IllegalArgumentException(
@@ -474,9 +475,27 @@ public class AccessorDatas
     }
     
     
+    /**
+     * Compute the minimum and maximum component values of the given
+     * {@link AccessorData}, in a single pass, and return them as
+     * {@link AccessorBounds}, which store the values in primitive arrays.
+     * 
+     * @param accessorData The {@link AccessorData}
+     * @return The {@link AccessorBounds}
+     * @throws IllegalArgumentException If the given data has an unknown type
+     */
+    public static AccessorBounds computeBounds(AccessorData accessorData)
+    {
+        return AccessorStatistics.compute(accessorData).getBounds();
+    }
+    
     /**
      * Compute the the minimum component values of the given 
-     * {@link AccessorData}
+     * {@link AccessorData}.<br>
+     * <br>
+     * When both the minimum and the maximum values are required, then 
+     * {@link #computeBounds(AccessorData)} should be used, which computes 
+     * both in a single pass, without creating number objects.
      * 
      * @param accessorData The {@link AccessorData}
      * @return The minimum values
@@ -484,78 +503,145 @@ public class AccessorDatas
      */
     public static Number[] computeMin(AccessorData accessorData)
     {
-        if (accessorData instanceof AccessorByteData) 
+        return AccessorStatistics.compute(accessorData).getMinNumbers();
+    }
+    
+    /**
+     * Compute the the maximum component values of the given 
+     * {@link AccessorData}.<br>
+     * <br>
+     * When both the minimum and the maximum values are required, then 
+     * {@link #computeBounds(AccessorData)} should be used, which computes 
+     * both in a single pass, without creating number objects.
+     * 
+     * @param accessorData The {@link AccessorData}
+     * @return The maximum values
+     * @throws IllegalArgumentException If the given model has an unknown type
+     */
+    public static Number[] computeMax(AccessorData accessorData)
+    {
+        return AccessorStatistics.compute(accessorData).getMaxNumbers();
+    }
+    
+    /**
+     * Read all components of the given {@link AccessorData} as integer
+     * values. This is intended for reading the indices of mesh primitives.
+     * Unsigned byte and short values are returned as non-negative values.
+     * 
+     * @param accessorData The {@link AccessorData}
+     * @return The values
+     * @throws IllegalArgumentException If the given data does not have
+     * an integral type
+     */
+    public static int[] readInts(AccessorData accessorData)
+    {
+        int values[] = new int[accessorData.getTotalNumComponents()];
+        if (accessorData instanceof AccessorByteData)
         {
             AccessorByteData accessorByteData = 
                 (AccessorByteData) accessorData;
-            return NumberArrays.asNumbers(
-                accessorByteData.computeMinInt());
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = accessorByteData.getInt(i);
+            }
         }
-        if (accessorData instanceof AccessorShortData) 
+        else if (accessorData instanceof AccessorShortData)
         {
             AccessorShortData accessorShortData = 
                 (AccessorShortData) accessorData;
-            return NumberArrays.asNumbers(
-                accessorShortData.computeMinInt());
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = accessorShortData.getInt(i);
+            }
         }
-        if (accessorData instanceof AccessorIntData) 
+        else if (accessorData instanceof AccessorIntData)
         {
             AccessorIntData accessorIntData = 
                 (AccessorIntData) accessorData;
-            return NumberArrays.asNumbers(
-                accessorIntData.computeMinLong());
+            for (int i = 0; i < values.length; i++)
+            {
+                values[i] = accessorIntData.get(i);
+            }
         }
-        if (accessorData instanceof AccessorFloatData) 
+        else
         {
-            AccessorFloatData accessorFloatData = 
-                (AccessorFloatData) accessorData;
-            return NumberArrays.asNumbers(
-                accessorFloatData.computeMin());
+            throw new IllegalArgumentException(
+                "Invalid data type for integer values: " 
+                + accessorData.getComponentType());
         }
-        throw new IllegalArgumentException(
-            "Invalid data type: " + accessorData);
+        return values;
     }
     
     /**
-     * Compute the the maximum component values of the given 
-     * {@link AccessorData}
+     * Read all components of the given {@link AccessorModel} as float 
+     * values. Float values are returned as they are. Integral values
+     * are converted into float values. If the accessor is 
+     * {@link AccessorModel#isNormalized() normalized}, then they are 
+     * mapped to [0, 1] or [-1, 1], as described for normalized 
+     * attributes in the glTF specification. This allows reading 
+     * positions that have been quantized as described in the
+     * <code>KHR_mesh_quantization</code> extension.
      * 
-     * @param accessorData The {@link AccessorData}
-     * @return The maximum values
-     * @throws IllegalArgumentException If the given model has an unknown type
+     * @param accessorModel The {@link AccessorModel}
+     * @return The values
      */
-    public static Number[] computeMax(AccessorData accessorData)
+    public static float[] readFloats(AccessorModel accessorModel)
     {
-        if (accessorData instanceof AccessorByteData) 
+        AccessorData accessorData = accessorModel.getAccessorData();
+        if (accessorData instanceof AccessorFloatData)
         {
-            AccessorByteData accessorByteData = 
-                (AccessorByteData) accessorData;
-            return NumberArrays.asNumbers(
-                accessorByteData.computeMaxInt());
+            AccessorFloatData accessorFloatData = 
+                (AccessorFloatData) accessorData;
+            int numElements = accessorFloatData.getNumElements();
+            float values[] = new float[accessorData.getTotalNumComponents()];
+            accessorFloatData.readElements(0, numElements, values, 0);
+            return values;
         }
-        if (accessorData instanceof AccessorShortData) 
+        int componentType = accessorModel.getComponentType();
+        boolean normalized = accessorModel.isNormalized();
+        int intValues[] = readInts(accessorData);
+        float values[] = new float[intValues.length];
+        for (int i = 0; i < values.length; i++)
         {
-            AccessorShortData accessorShortData = 
-                (AccessorShortData) accessorData;
-            return NumberArrays.asNumbers(
-                accessorShortData.computeMaxInt());
+            values[i] = toFloat(componentType, normalized, intValues[i]);
         }
-        if (accessorData instanceof AccessorIntData) 
+        return values;
+    }
+    
+    /**
+     * Convert the given value of an accessor with the given component
+     * type into a float value, taking into account whether the accessor 
+     * is normalized
+     * 
+     * @param componentType The component type
+     * @param normalized Whether the accessor is normalized
+     * @param value The value
+     * @return The float value
+     */
+    static float toFloat(int componentType, boolean normalized, double value)
+    {
+        if (!normalized)
         {
-            AccessorIntData accessorIntData = 
-                (AccessorIntData) accessorData;
-            return NumberArrays.asNumbers(
-                accessorIntData.computeMaxLong());
+            return (float) value;
         }
-        if (accessorData instanceof AccessorFloatData) 
+        switch (componentType)
         {
-            AccessorFloatData accessorFloatData = 
-                (AccessorFloatData) accessorData;
-            return NumberArrays.asNumbers(
-                accessorFloatData.computeMax());
+            case GltfConstants.GL_BYTE:
+                return (float) Math.max(value / 127.0, -1.0);
+                
+            case GltfConstants.GL_UNSIGNED_BYTE:
+                return (float) (value / 255.0);
+                
+            case GltfConstants.GL_SHORT:
+                return (float) Math.max(value / 32767.0, -1.0);
+                
+            case GltfConstants.GL_UNSIGNED_SHORT:
+                return (float) (value / 65535.0);
+                
+            default:
+                break;
         }
-        throw new IllegalArgumentException(
-            "Invalid data type: " + accessorData);
+        return (float) value;
     }
     
     /**
@@ -155,11 +155,68 @@ public interface AccessorModel extends NamedModelElement
      */
     AccessorData getAccessorData();
     
+    /**
+     * Returns the {@link SparseAccessorData} if this accessor is a sparse
+     * accessor, or <code>null</code> if it is not sparse.<br>
+     * <br>
+     * The sparse data allows accessing the values of a sparse accessor 
+     * without creating the dense data. Note that calling 
+     * {@link #getAccessorData()} for a sparse accessor will still
+     * create the dense data.<br>
+     * <br>
+     * The default implementation returns <code>null</code>.
+     * 
+     * @return The {@link SparseAccessorData}, or <code>null</code>
+     */
+    default SparseAccessorData getSparseAccessorData()
+    {
+        return null;
+    }
+    
+    /**
+     * Returns the {@link AccessorSparseModel} that describes the storage
+     * of the sparse indices and values, if this accessor is a sparse 
+     * accessor, or <code>null</code> if it is not sparse.<br>
+     * <br>
+     * The default implementation returns <code>null</code>.
+     * 
+     * @return The {@link AccessorSparseModel}, or <code>null</code>
+     */
+    default AccessorSparseModel getAccessorSparseModel()
+    {
+        return null;
+    }
+    
+    /**
+     * Returns the minimum and maximum components of the 
+     * {@link AccessorData}, as {@link AccessorBounds} that store the 
+     * values in primitive arrays. The number of components will match 
+     * the {@link ElementType#getNumComponents() number of components 
+     * per element}.<br>
+     * <br>
+     * Implementations may compute the bounds once and cache them. The
+     * cached bounds do not reflect changes that are made to the data
+     * in-place, for example, via the buffer view data or the setters of
+     * the {@link AccessorData}. The glTF creators therefore always 
+     * compute the <code>min</code> and <code>max</code> values that are
+     * written from the current data.<br>
+     * <br>
+     * The default implementation computes the bounds from the 
+     * {@link #getAccessorData() accessor data} each time it is called.
+     * 
+     * @return The {@link AccessorBounds}
+     */
+    default AccessorBounds getBounds()
+    {
+        return AccessorDatas.computeBounds(getAccessorData());
+    }
+    
     /**
      * Returns the minimum components of the {@link AccessorData}. The 
-     * returned array will be a clone of the array that is stored internally,
-     * and have a length that matches the {@link ElementType#getNumComponents()
-     * number of components per element}.
+     * returned array will be a new array that is created from the 
+     * {@link #getBounds() bounds}, and have a length that matches the 
+     * {@link ElementType#getNumComponents() number of components per 
+     * element}.
      *  
      * @return The minimum components
      */
@@ -167,9 +224,10 @@ public interface AccessorModel extends NamedModelElement
     
     /**
      * Returns the maximum components of the {@link AccessorData}. The 
-     * returned array will be a clone of the array that is stored internally,
-     * and have a length that matches the {@link ElementType#getNumComponents()
-     * number of components per element}.
+     * returned array will be a new array that is created from the 
+     * {@link #getBounds() bounds}, and have a length that matches the 
+     * {@link ElementType#getNumComponents() number of components per 
+     * element}.
      *  
      * @return The maximum components
      */
@@ -0,0 +1,106 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model;
+
+/**
+ * Interface for the storage of the sparse data of an {@link AccessorModel}.
+ * This corresponds to the <code>accessor.sparse</code> property of a 
+ * glTF 2.0 accessor, and describes where the sparse indices and values
+ * are stored.<br>
+ * <br>
+ * Note that the {@link AccessorModel#getBufferViewModel() buffer view
+ * model} of a sparse accessor is a buffer view that contains the dense
+ * data. The buffer view that contains the base data, as referred to 
+ * by the accessor in the glTF asset, is given by the 
+ * {@link #getBaseBufferViewModel() base buffer view model}. 
+ */
+public interface AccessorSparseModel
+{
+    /**
+     * Returns the number of elements that are defined by the sparse
+     * indices and values
+     * 
+     * @return The number of sparse elements
+     */
+    int getCount();
+    
+    /**
+     * Returns the component type of the sparse indices, as a GL constant.
+     * This is <code>GL_UNSIGNED_BYTE</code>, <code>GL_UNSIGNED_SHORT</code>
+     * or <code>GL_UNSIGNED_INT</code>.
+     * 
+     * @return The indices component type
+     */
+    int getIndicesComponentType();
+    
+    /**
+     * Returns the {@link BufferViewModel} that contains the sparse indices
+     * 
+     * @return The {@link BufferViewModel}
+     */
+    BufferViewModel getIndicesBufferViewModel();
+    
+    /**
+     * Returns the offset of the sparse indices, referring to the
+     * {@link #getIndicesBufferViewModel() indices buffer view model}
+     * 
+     * @return The offset, in bytes
+     */
+    int getIndicesByteOffset();
+    
+    /**
+     * Returns the {@link BufferViewModel} that contains the sparse values
+     * 
+     * @return The {@link BufferViewModel}
+     */
+    BufferViewModel getValuesBufferViewModel();
+    
+    /**
+     * Returns the offset of the sparse values, referring to the
+     * {@link #getValuesBufferViewModel() values buffer view model}
+     * 
+     * @return The offset, in bytes
+     */
+    int getValuesByteOffset();
+    
+    /**
+     * Returns the {@link BufferViewModel} that contains the base data that 
+     * the sparse values are applied to. If this is <code>null</code>, then 
+     * the base data consists of zeros.
+     * 
+     * @return The base {@link BufferViewModel}, or <code>null</code>
+     */
+    BufferViewModel getBaseBufferViewModel();
+    
+    /**
+     * Returns the offset of the base data, referring to the
+     * {@link #getBaseBufferViewModel() base buffer view model}
+     * 
+     * @return The offset, in bytes
+     */
+    int getBaseByteOffset();
+}
@@ -0,0 +1,684 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Statistics about the components of an {@link AccessorData}.<br>
+ * <br>
+ * Instances of this class are created with {@link #compute(AccessorData)}
+ * or {@link #compute(AccessorData, ForkJoinPool)}. The minimum, maximum 
+ * and sum of each component, as well as the number of NaN and infinite 
+ * values, are computed in a single pass over the data. Large data is 
+ * split into ranges of elements that are processed in parallel.<br>
+ * <br>
+ * The values of integer components are interpreted as unsigned values
+ * when the respective accessor data is unsigned. NaN values are ignored 
+ * for the minimum, maximum and sum, and only counted.
+ */
+public final class AccessorStatistics
+{
+    /**
+     * The minimum number of elements for which the computation will be
+     * split into parallel tasks
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    
+    /**
+     * The number of elements that are read with one bulk operation
+     */
+    private static final int CHUNK_SIZE = 1024;
+    
+    /**
+     * The component type of the accessor data
+     */
+    private final Class<?> componentType;
+    
+    /**
+     * Whether the integer components are unsigned
+     */
+    private final boolean unsigned;
+    
+    /**
+     * The number of elements
+     */
+    private final int numElements;
+    
+    /**
+     * The accumulated values
+     */
+    private final Accumulator accumulator;
+    
+    /**
+     * Creates a new instance
+     * 
+     * @param componentType The component type
+     * @param unsigned Whether the components are unsigned
+     * @param numElements The number of elements
+     * @param accumulator The accumulated values
+     */
+    private AccessorStatistics(Class<?> componentType, boolean unsigned,
+        int numElements, Accumulator accumulator)
+    {
+        this.componentType = componentType;
+        this.unsigned = unsigned;
+        this.numElements = numElements;
+        this.accumulator = accumulator;
+    }
+    
+    /**
+     * Compute the {@link AccessorStatistics} for the given 
+     * {@link AccessorData}. If the data is large, then the computation 
+     * will be split into tasks that are executed in the common 
+     * fork-join pool.
+     * 
+     * @param accessorData The {@link AccessorData}
+     * @return The {@link AccessorStatistics}
+     * @throws IllegalArgumentException If the given data has an 
+     * unknown type
+     */
+    public static AccessorStatistics compute(AccessorData accessorData)
+    {
+        return compute(accessorData, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Compute the {@link AccessorStatistics} for the given 
+     * {@link AccessorData}. If the data is large and the given pool is 
+     * not <code>null</code>, then the computation will be split into 
+     * tasks that are executed in the given pool. Otherwise, the 
+     * computation will be performed in the calling thread.
+     * 
+     * @param accessorData The {@link AccessorData}
+     * @param pool The optional fork-join pool
+     * @return The {@link AccessorStatistics}
+     * @throws IllegalArgumentException If the given data has an 
+     * unknown type
+     */
+    public static AccessorStatistics compute(
+        AccessorData accessorData, ForkJoinPool pool)
+    {
+        Objects.requireNonNull(accessorData, 
+            "The accessorData may not be null");
+        boolean unsigned;
+        if (accessorData instanceof AccessorByteData)
+        {
+            unsigned = ((AccessorByteData) accessorData).isUnsigned();
+        }
+        else if (accessorData instanceof AccessorShortData)
+        {
+            unsigned = ((AccessorShortData) accessorData).isUnsigned();
+        }
+        else if (accessorData instanceof AccessorIntData)
+        {
+            unsigned = ((AccessorIntData) accessorData).isUnsigned();
+        }
+        else if (accessorData instanceof AccessorFloatData)
+        {
+            unsigned = false;
+        }
+        else
+        {
+            throw new IllegalArgumentException(
+                "Invalid data type: " + accessorData);
+        }
+        int numElements = accessorData.getNumElements();
+        Accumulator accumulator;
+        if (pool == null || numElements < PARALLEL_THRESHOLD)
+        {
+            accumulator = accumulate(accessorData, 0, numElements);
+        }
+        else
+        {
+            accumulator = pool.invoke(
+                new AccumulateTask(accessorData, 0, numElements));
+        }
+        return new AccessorStatistics(accessorData.getComponentType(), 
+            unsigned, numElements, accumulator);
+    }
+    
+    /**
+     * Returns the number of elements that the statistics have been 
+     * computed for
+     * 
+     * @return The number of elements
+     */
+    public int getNumElements()
+    {
+        return numElements;
+    }
+    
+    /**
+     * Returns the number of components per element
+     * 
+     * @return The number of components per element
+     */
+    public int getNumComponentsPerElement()
+    {
+        return accumulator.min.length;
+    }
+    
+    /**
+     * Returns a copy of the minimum component values.<br>
+     * <br>
+     * If there are no elements (or only NaN values for a component), 
+     * then the respective value will be the maximum value of the 
+     * component type.
+     * 
+     * @return The minimum values
+     */
+    public double[] getMin()
+    {
+        return accumulator.min.clone();
+    }
+    
+    /**
+     * Returns a copy of the maximum component values.<br>
+     * <br>
+     * If there are no elements (or only NaN values for a component), 
+     * then the respective value will be the minimum value of the 
+     * component type.
+     * 
+     * @return The maximum values
+     */
+    public double[] getMax()
+    {
+        return accumulator.max.clone();
+    }
+    
+    /**
+     * Returns a copy of the sums of the component values. NaN values
+     * are not included in the sum.
+     * 
+     * @return The sums
+     */
+    public double[] getSum()
+    {
+        return accumulator.sum.clone();
+    }
+    
+    /**
+     * Returns the number of components that have been NaN
+     * 
+     * @return The number of NaN components
+     */
+    public long getNaNCount()
+    {
+        return accumulator.nanCount;
+    }
+    
+    /**
+     * Returns the number of components that have been infinite
+     * 
+     * @return The number of infinite components
+     */
+    public long getInfiniteCount()
+    {
+        return accumulator.infiniteCount;
+    }
+    
+    /**
+     * Returns the minimum and maximum component values as 
+     * {@link AccessorBounds}, which store the values in primitive arrays
+     * 
+     * @return The {@link AccessorBounds}
+     */
+    public AccessorBounds getBounds()
+    {
+        double min[] = accumulator.min;
+        double max[] = accumulator.max;
+        int n = min.length;
+        if (componentType == float.class)
+        {
+            float floatMin[] = new float[n];
+            float floatMax[] = new float[n];
+            for (int i = 0; i < n; i++)
+            {
+                floatMin[i] = (float) min[i];
+                floatMax[i] = (float) max[i];
+            }
+            return AccessorBounds.createFloat(floatMin, floatMax);
+        }
+        long longMin[] = new long[n];
+        long longMax[] = new long[n];
+        for (int i = 0; i < n; i++)
+        {
+            longMin[i] = (long) min[i];
+            longMax[i] = (long) max[i];
+        }
+        return AccessorBounds.createLong(componentType, longMin, longMax);
+    }
+    
+    /**
+     * Returns the minimum component values, as numbers of the type that
+     * is used by {@link AccessorDatas#computeMin(AccessorData)}: These
+     * will be <code>Integer</code> values for byte and short data, 
+     * <code>Long</code> values for int data, and <code>Float</code> 
+     * values for float data.<br>
+     * <br>
+     * Clients that do not require number objects should use 
+     * {@link #getBounds()} instead.
+     * 
+     * @return The minimum values
+     */
+    public Number[] getMinNumbers()
+    {
+        return getBounds().createMinNumbers();
+    }
+    
+    /**
+     * Returns the maximum component values, as numbers of the type that
+     * is used by {@link AccessorDatas#computeMax(AccessorData)}. See
+     * {@link #getMinNumbers()} for details.
+     * 
+     * @return The maximum values
+     */
+    public Number[] getMaxNumbers()
+    {
+        return getBounds().createMaxNumbers();
+    }
+    
+    /**
+     * Returns the minimum component values, converted into the values 
+     * that they represent when the accessor is <code>normalized</code>.
+     * For example, for unsigned byte data, the values will be divided 
+     * by 255. For int and float data, the values will be the same as 
+     * the ones returned by {@link #getMin()}.
+     * 
+     * @return The normalized minimum values
+     */
+    public double[] getNormalizedMin()
+    {
+        return normalize(accumulator.min);
+    }
+    
+    /**
+     * Returns the maximum component values, converted into the values 
+     * that they represent when the accessor is <code>normalized</code>.
+     * See {@link #getNormalizedMin()} for details.
+     * 
+     * @return The normalized maximum values
+     */
+    public double[] getNormalizedMax()
+    {
+        return normalize(accumulator.max);
+    }
+    
+    /**
+     * Normalize the given values, depending on the component type
+     * 
+     * @param values The values
+     * @return The normalized values
+     */
+    private double[] normalize(double values[])
+    {
+        double divisor;
+        if (componentType == byte.class)
+        {
+            divisor = unsigned ? 255.0 : 127.0;
+        }
+        else if (componentType == short.class)
+        {
+            divisor = unsigned ? 65535.0 : 32767.0;
+        }
+        else
+        {
+            return values.clone();
+        }
+        double result[] = new double[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            result[i] = Math.max(values[i] / divisor, -1.0);
+        }
+        return result;
+    }
+    
+    /**
+     * Accumulate the values of the specified elements of the given data
+     * 
+     * @param accessorData The {@link AccessorData}
+     * @param startElement The start element
+     * @param numElements The number of elements
+     * @return The {@link Accumulator}
+     */
+    private static Accumulator accumulate(
+        AccessorData accessorData, int startElement, int numElements)
+    {
+        if (accessorData instanceof AccessorByteData)
+        {
+            return accumulateByte((AccessorByteData) accessorData, 
+                startElement, numElements);
+        }
+        if (accessorData instanceof AccessorShortData)
+        {
+            return accumulateShort((AccessorShortData) accessorData, 
+                startElement, numElements);
+        }
+        if (accessorData instanceof AccessorIntData)
+        {
+            return accumulateInt((AccessorIntData) accessorData, 
+                startElement, numElements);
+        }
+        return accumulateFloat((AccessorFloatData) accessorData, 
+            startElement, numElements);
+    }
+    
+    /**
+     * Accumulate the values of the specified elements of the given data
+     * 
+     * @param data The data
+     * @param startElement The start element
+     * @param numElements The number of elements
+     * @return The {@link Accumulator}
+     */
+    private static Accumulator accumulateByte(
+        AccessorByteData data, int startElement, int numElements)
+    {
+        int nc = data.getNumComponentsPerElement();
+        int mask = data.isUnsigned() ? 0xFF : 0xFFFFFFFF;
+        Accumulator accumulator = new Accumulator(nc, 
+            Integer.MAX_VALUE, Integer.MIN_VALUE);
+        byte chunk[] = new byte[Math.min(numElements, CHUNK_SIZE) * nc];
+        int end = startElement + numElements;
+        for (int e = startElement; e < end; e += CHUNK_SIZE)
+        {
+            int n = Math.min(CHUNK_SIZE, end - e);
+            data.readElements(e, n, chunk, 0);
+            int i = 0;
+            for (int j = 0; j < n; j++)
+            {
+                for (int c = 0; c < nc; c++)
+                {
+                    accumulator.add(c, chunk[i] & mask);
+                    i++;
+                }
+            }
+        }
+        return accumulator;
+    }
+    
+    /**
+     * Accumulate the values of the specified elements of the given data
+     * 
+     * @param data The data
+     * @param startElement The start element
+     * @param numElements The number of elements
+     * @return The {@link Accumulator}
+     */
+    private static Accumulator accumulateShort(
+        AccessorShortData data, int startElement, int numElements)
+    {
+        int nc = data.getNumComponentsPerElement();
+        int mask = data.isUnsigned() ? 0xFFFF : 0xFFFFFFFF;
+        Accumulator accumulator = new Accumulator(nc, 
+            Integer.MAX_VALUE, Integer.MIN_VALUE);
+        short chunk[] = new short[Math.min(numElements, CHUNK_SIZE) * nc];
+        int end = startElement + numElements;
+        for (int e = startElement; e < end; e += CHUNK_SIZE)
+        {
+            int n = Math.min(CHUNK_SIZE, end - e);
+            data.readElements(e, n, chunk, 0);
+            int i = 0;
+            for (int j = 0; j < n; j++)
+            {
+                for (int c = 0; c < nc; c++)
+                {
+                    accumulator.add(c, chunk[i] & mask);
+                    i++;
+                }
+            }
+        }
+        return accumulator;
+    }
+    
+    /**
+     * Accumulate the values of the specified elements of the given data
+     * 
+     * @param data The data
+     * @param startElement The start element
+     * @param numElements The number of elements
+     * @return The {@link Accumulator}
+     */
+    private static Accumulator accumulateInt(
+        AccessorIntData data, int startElement, int numElements)
+    {
+        int nc = data.getNumComponentsPerElement();
+        boolean unsigned = data.isUnsigned();
+        Accumulator accumulator = new Accumulator(nc, 
+            Long.MAX_VALUE, Long.MIN_VALUE);
+        int chunk[] = new int[Math.min(numElements, CHUNK_SIZE) * nc];
+        int end = startElement + numElements;
+        for (int e = startElement; e < end; e += CHUNK_SIZE)
+        {
+            int n = Math.min(CHUNK_SIZE, end - e);
+            data.readElements(e, n, chunk, 0);
+            int i = 0;
+            for (int j = 0; j < n; j++)
+            {
+                for (int c = 0; c < nc; c++)
+                {
+                    long value = unsigned ? 
+                        Integer.toUnsignedLong(chunk[i]) : chunk[i];
+                    accumulator.add(c, value);
+                    i++;
+                }
+            }
+        }
+        return accumulator;
+    }
+    
+    /**
+     * Accumulate the values of the specified elements of the given data
+     * 
+     * @param data The data
+     * @param startElement The start element
+     * @param numElements The number of elements
+     * @return The {@link Accumulator}
+     */
+    private static Accumulator accumulateFloat(
+        AccessorFloatData data, int startElement, int numElements)
+    {
+        int nc = data.getNumComponentsPerElement();
+        Accumulator accumulator = new Accumulator(nc, 
+            Float.MAX_VALUE, -Float.MAX_VALUE);
+        float chunk[] = new float[Math.min(numElements, CHUNK_SIZE) * nc];
+        int end = startElement + numElements;
+        for (int e = startElement; e < end; e += CHUNK_SIZE)
+        {
+            int n = Math.min(CHUNK_SIZE, end - e);
+            data.readElements(e, n, chunk, 0);
+            int i = 0;
+            for (int j = 0; j < n; j++)
+            {
+                for (int c = 0; c < nc; c++)
+                {
+                    float value = chunk[i];
+                    i++;
+                    if (Float.isNaN(value))
+                    {
+                        accumulator.nanCount++;
+                        continue;
+                    }
+                    if (Float.isInfinite(value))
+                    {
+                        accumulator.infiniteCount++;
+                    }
+                    accumulator.add(c, value);
+                }
+            }
+        }
+        return accumulator;
+    }
+    
+    /**
+     * A task that accumulates the values of a range of elements, splitting
+     * the range into two halves if it is large
+     */
+    private static final class AccumulateTask 
+        extends RecursiveTask<Accumulator>
+    {
+        /**
+         * Serial UID
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The {@link AccessorData}
+         */
+        private final AccessorData accessorData;
+        
+        /**
+         * The start element
+         */
+        private final int startElement;
+        
+        /**
+         * The number of elements
+         */
+        private final int numElements;
+
+        /**
+         * Creates a new task
+         * 
+         * @param accessorData The {@link AccessorData}
+         * @param startElement The start element
+         * @param numElements The number of elements
+         */
+        AccumulateTask(AccessorData accessorData, 
+            int startElement, int numElements)
+        {
+            this.accessorData = accessorData;
+            this.startElement = startElement;
+            this.numElements = numElements;
+        }
+        
+        @Override
+        protected Accumulator compute()
+        {
+            if (numElements < PARALLEL_THRESHOLD)
+            {
+                return accumulate(accessorData, startElement, numElements);
+            }
+            int half = numElements / 2;
+            AccumulateTask first = 
+                new AccumulateTask(accessorData, startElement, half);
+            AccumulateTask second = new AccumulateTask(accessorData, 
+                startElement + half, numElements - half);
+            first.fork();
+            Accumulator result = second.compute();
+            result.combine(first.join());
+            return result;
+        }
+    }
+    
+    /**
+     * The accumulated minimum, maximum and sum values of the components
+     */
+    private static final class Accumulator
+    {
+        /**
+         * The minimum values
+         */
+        final double min[];
+        
+        /**
+         * The maximum values
+         */
+        final double max[];
+        
+        /**
+         * The sums
+         */
+        final double sum[];
+        
+        /**
+         * The number of NaN values
+         */
+        long nanCount;
+        
+        /**
+         * The number of infinite values
+         */
+        long infiniteCount;
+        
+        /**
+         * Creates a new accumulator
+         * 
+         * @param numComponents The number of components
+         * @param initialMin The initial minimum value
+         * @param initialMax The initial maximum value
+         */
+        Accumulator(int numComponents, double initialMin, double initialMax)
+        {
+            min = new double[numComponents];
+            max = new double[numComponents];
+            sum = new double[numComponents];
+            Arrays.fill(min, initialMin);
+            Arrays.fill(max, initialMax);
+        }
+        
+        /**
+         * Add the given value for the specified component
+         * 
+         * @param c The component index
+         * @param value The value
+         */
+        void add(int c, double value)
+        {
+            if (value < min[c])
+            {
+                min[c] = value;
+            }
+            if (value > max[c])
+            {
+                max[c] = value;
+            }
+            sum[c] += value;
+        }
+        
+        /**
+         * Combine the given accumulated values into this one
+         * 
+         * @param other The other accumulator
+         */
+        void combine(Accumulator other)
+        {
+            for (int c = 0; c < min.length; c++)
+            {
+                min[c] = Math.min(min[c], other.min[c]);
+                max[c] = Math.max(max[c], other.max[c]);
+                sum[c] += other.sum[c];
+            }
+            nanCount += other.nanCount;
+            infiniteCount += other.infiniteCount;
+        }
+    }
+}
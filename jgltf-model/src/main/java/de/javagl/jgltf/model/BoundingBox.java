@@ -109,6 +109,17 @@ class BoundingBox
         maxZ = Math.max(maxZ, other.getMaxZ());
     }
 
+    /**
+     * Returns whether this bounding box is empty, meaning that it was
+     * not combined with any point yet
+     * 
+     * @return Whether this bounding box is empty
+     */
+    boolean isEmpty()
+    {
+        return minX > maxX || minY > maxY || minZ > maxZ;
+    }
+    
     /**
      * Returns the x-coordinate of the center
      *
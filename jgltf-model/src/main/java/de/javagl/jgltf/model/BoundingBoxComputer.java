@@ -26,12 +26,28 @@
  */
 package de.javagl.jgltf.model;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.logging.Logger;
 
 /**
- * A (package-private!) utility class to compute bounding volumes
+ * A (package-private!) utility class to compute bounding volumes.<br>
+ * <br>
+ * By default, the bounding box of each {@link MeshModel} is computed
+ * once, from the {@link AccessorModel#getBounds() bounds} of the 
+ * <code>"POSITION"</code> accessors of its primitives, and the eight 
+ * corners of this box are transformed with the global transform of 
+ * each node that the mesh is attached to. The resulting bounding box 
+ * may be larger than the actual bounding box of the transformed vertices
+ * when the nodes are rotated. In the exact mode, each vertex is 
+ * transformed individually instead.<br>
+ * <br>
+ * When a fork-join pool is given, then the subtrees of the scene graph
+ * and the vertices of large mesh primitives are processed in parallel.
  */
 class BoundingBoxComputer
 {
@@ -41,19 +57,53 @@ class BoundingBoxComputer
     private static final Logger logger =
         Logger.getLogger(BoundingBoxComputer.class.getName());
     
+    /**
+     * The minimum number of vertices for which the exact computation of
+     * the bounding box of a mesh primitive will be split into parallel 
+     * tasks
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+    
+    /**
+     * The number of vertices that are read with one bulk operation
+     */
+    private static final int CHUNK_SIZE = 1024;
+    
     /**
      * The {@link GltfModel} 
      */
     private final GltfModel gltfModel;
     
+    /**
+     * Whether each vertex should be transformed individually
+     */
+    private final boolean exact;
+    
+    /**
+     * The optional fork-join pool
+     */
+    private final ForkJoinPool pool;
+    
+    /**
+     * The local bounding boxes of the {@link MeshModel} instances, which
+     * are computed once when the exact mode is not used
+     */
+    private final Map<MeshModel, BoundingBox> meshBoundingBoxes;
+    
     /**
      * Create a new bounding box computer for the given {@link GltfModel}
      * 
      * @param gltfModel The {@link GltfModel}
+     * @param exact Whether each vertex should be transformed individually
+     * @param pool The optional fork-join pool. If this is <code>null</code>,
+     * then the computation will be performed in the calling thread.
      */
-    BoundingBoxComputer(GltfModel gltfModel)
+    BoundingBoxComputer(GltfModel gltfModel, boolean exact, ForkJoinPool pool)
     {
         this.gltfModel = gltfModel;
+        this.exact = exact;
+        this.pool = pool;
+        this.meshBoundingBoxes = new IdentityHashMap<MeshModel, BoundingBox>();
     }
     
     /**
@@ -63,138 +113,412 @@ class BoundingBoxComputer
      */
     BoundingBox compute()
     {
+        if (!exact)
+        {
+            // Compute the local bounding boxes of all meshes in advance, 
+            // so that the map is only read during the traversal
+            for (MeshModel meshModel : gltfModel.getMeshModels())
+            {
+                meshBoundingBoxes.put(meshModel, 
+                    computeLocalMeshBoundingBox(meshModel));
+            }
+        }
+        
+        float rootTransform[] = MathUtils.createIdentity4x4();
         BoundingBox boundingBox = new BoundingBox();
         List<SceneModel> sceneModels = gltfModel.getSceneModels();
+        if (pool == null)
+        {
+            for (SceneModel sceneModel : sceneModels)
+            {
+                for (NodeModel nodeModel : sceneModel.getNodeModels())
+                {
+                    computeNodeBoundingBox(
+                        nodeModel, rootTransform, boundingBox);
+                }
+            }
+            return boundingBox;
+        }
+        List<NodeTask> tasks = new ArrayList<NodeTask>();
         for (SceneModel sceneModel : sceneModels)
         {
-            float rootTransform[] = MathUtils.createIdentity4x4();
-            computeSceneBoundingBox(sceneModel, rootTransform, boundingBox);
+            for (NodeModel nodeModel : sceneModel.getNodeModels())
+            {
+                tasks.add(new NodeTask(nodeModel, rootTransform));
+            }
+        }
+        for (NodeTask task : tasks)
+        {
+            pool.execute(task);
+        }
+        for (NodeTask task : tasks)
+        {
+            boundingBox.combine(task.join());
         }
         return boundingBox;
     }
     
     /**
-     * Recursively compute the bounding box of the {@link MeshPrimitiveModel}
-     * objects of all {@link MeshModel} objects in the given {@link SceneModel} 
-     * (including the respective global node transforms). 
-     * If the given result is <code>null</code>, then a new bounding box
-     * will be created and returned.
-     * 
-     * @param sceneModel The {@link SceneModel}
-     * @param transform The root transform, as a column major 4x4 matrix
-     * @param boundingBox The optional bounding box that will store the result 
-     * @return The result
+     * A task for computing the bounding box of the {@link MeshModel}
+     * objects of a {@link NodeModel} and its descendants, processing
+     * the children in parallel
      */
-    private BoundingBox computeSceneBoundingBox(
-        SceneModel sceneModel, float transform[], BoundingBox boundingBox)
+    private class NodeTask extends RecursiveTask<BoundingBox>
     {
-        BoundingBox localResult = boundingBox;
-        if (localResult == null)
+        /**
+         * Serial UID
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The {@link NodeModel}
+         */
+        private final NodeModel nodeModel;
+        
+        /**
+         * The global transform of the parent node
+         */
+        private final float parentTransform[];
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param nodeModel The {@link NodeModel}
+         * @param parentTransform The global transform of the parent node
+         */
+        NodeTask(NodeModel nodeModel, float parentTransform[])
         {
-            localResult = new BoundingBox();
+            this.nodeModel = nodeModel;
+            this.parentTransform = parentTransform;
         }
-        List<NodeModel> nodeModels = sceneModel.getNodeModels();
-        for (NodeModel nodeModel : nodeModels)
+        
+        @Override
+        protected BoundingBox compute()
         {
-            computeNodeBoundingBox(nodeModel, transform, localResult);
+            BoundingBox result = new BoundingBox();
+            float transform[] = computeTransform(nodeModel, parentTransform);
+            for (MeshModel meshModel : nodeModel.getMeshModels())
+            {
+                computeMeshBoundingBox(meshModel, transform, result);
+            }
+            List<NodeTask> tasks = new ArrayList<NodeTask>();
+            for (NodeModel child : nodeModel.getChildren())
+            {
+                tasks.add(new NodeTask(child, transform));
+            }
+            invokeAll(tasks);
+            for (NodeTask task : tasks)
+            {
+                result.combine(task.join());
+            }
+            return result;
         }
-        return localResult;
     }
     
-    
     /**
      * Recursively compute the bounding box of the {@link MeshPrimitiveModel}
      * objects of all {@link MeshModel} objects in the given {@link NodeModel} 
-     * and its children (including the respective global node transforms). 
-     * If the given result is <code>null</code>, then a new bounding box
-     * will be created and returned.
+     * and its children (including the respective global node transforms),
+     * and combine it with the given result. 
      * 
      * @param nodeModel The {@link NodeModel}
      * @param parentTransform The transform, as a column major 4x4 matrix
-     * @param boundingBox The optional bounding box that will store the result 
-     * @return The result
+     * @param result The bounding box that will store the result 
      */
-    private BoundingBox computeNodeBoundingBox(
-        NodeModel nodeModel, float parentTransform[], BoundingBox boundingBox) 
+    private void computeNodeBoundingBox(
+        NodeModel nodeModel, float parentTransform[], BoundingBox result) 
     {
-        BoundingBox result = boundingBox;
-        if (result == null)
+        float transform[] = computeTransform(nodeModel, parentTransform);
+        for (MeshModel meshModel : nodeModel.getMeshModels())
         {
-            result = new BoundingBox();
+            computeMeshBoundingBox(meshModel, transform, result);
         }
-
+        for (NodeModel child : nodeModel.getChildren())
+        {
+            computeNodeBoundingBox(child, transform, result);
+        }
+    }
+    
+    /**
+     * Compute the global transform of the given {@link NodeModel}
+     * 
+     * @param nodeModel The {@link NodeModel}
+     * @param parentTransform The global transform of the parent node
+     * @return The global transform
+     */
+    private static float[] computeTransform(
+        NodeModel nodeModel, float parentTransform[])
+    {
         float[] localTransform = nodeModel.computeLocalTransform(null);
         float[] transform = new float[16];
         MathUtils.mul4x4(parentTransform, localTransform, transform);
+        return transform;
+    }
+
+    /**
+     * Compute the bounding box of the given {@link MeshModel}, under
+     * the given transform, and combine it with the given result.
+     * 
+     * @param meshModel The {@link MeshModel}
+     * @param transform The transform
+     * @param result The bounding box that will store the result 
+     */
+    private void computeMeshBoundingBox(
+        MeshModel meshModel, float transform[], BoundingBox result)
+    {
+        if (!exact)
+        {
+            BoundingBox localBoundingBox = meshBoundingBoxes.get(meshModel);
+            if (localBoundingBox == null)
+            {
+                localBoundingBox = computeLocalMeshBoundingBox(meshModel);
+            }
+            combineTransformedCorners(localBoundingBox, transform, result);
+            return;
+        }
+        for (MeshPrimitiveModel meshPrimitiveModel : 
+            meshModel.getMeshPrimitiveModels())
+        {
+            AccessorModel accessorModel = getPositions(meshPrimitiveModel);
+            if (accessorModel == null)
+            {
+                continue;
+            }
+            AccessorData accessorData = accessorModel.getAccessorData();
+            if (!(accessorData instanceof AccessorFloatData))
+            {
+                // Quantized positions are only handled via their bounds
+                BoundingBox localBoundingBox = new BoundingBox();
+                combineLocalBounds(accessorModel, localBoundingBox);
+                combineTransformedCorners(
+                    localBoundingBox, transform, result);
+                continue;
+            }
+            AccessorFloatData accessorFloatData = 
+                (AccessorFloatData) accessorData;
+            int numElements = accessorFloatData.getNumElements();
+            if (pool != null && numElements >= PARALLEL_THRESHOLD)
+            {
+                result.combine(new VerticesTask(
+                    accessorFloatData, transform, 0, numElements).invoke());
+            }
+            else
+            {
+                combineTransformedVertices(accessorFloatData, transform, 
+                    0, numElements, result);
+            }
+        }
+    }
+    
+    /**
+     * A task for computing the bounding box of a range of transformed 
+     * vertices, splitting the range into parallel tasks if it is large
+     */
+    private static class VerticesTask extends RecursiveTask<BoundingBox>
+    {
+        /**
+         * Serial UID
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The vertex positions
+         */
+        private final AccessorFloatData positions;
         
-        List<MeshModel> meshModels = nodeModel.getMeshModels();
-        for (MeshModel meshModel : meshModels)
+        /**
+         * The transform
+         */
+        private final float transform[];
+        
+        /**
+         * The start element, inclusive
+         */
+        private final int min;
+        
+        /**
+         * The end element, exclusive
+         */
+        private final int max;
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param positions The vertex positions
+         * @param transform The transform
+         * @param min The start element, inclusive
+         * @param max The end element, exclusive
+         */
+        VerticesTask(AccessorFloatData positions, float transform[],
+            int min, int max)
         {
-            BoundingBox meshBoundingBox =
-                computeMeshBoundingBox(
-                    meshModel, transform, result);
-            result.combine(meshBoundingBox);
+            this.positions = positions;
+            this.transform = transform;
+            this.min = min;
+            this.max = max;
         }
         
-        List<NodeModel> children = nodeModel.getChildren();
-        for (NodeModel child : children)
+        @Override
+        protected BoundingBox compute()
         {
-            computeNodeBoundingBox(child, transform, result);
+            if (max - min < PARALLEL_THRESHOLD)
+            {
+                BoundingBox result = new BoundingBox();
+                combineTransformedVertices(
+                    positions, transform, min, max, result);
+                return result;
+            }
+            int center = (min + max) >>> 1;
+            VerticesTask left = 
+                new VerticesTask(positions, transform, min, center);
+            VerticesTask right = 
+                new VerticesTask(positions, transform, center, max);
+            left.fork();
+            BoundingBox result = right.compute();
+            result.combine(left.join());
+            return result;
         }
-        return result;
     }
-
+    
     /**
-     * Compute the bounding box of the given {@link MeshModel}, under
-     * the given transform.
-     * If the given result is <code>null</code>, then a new bounding box
-     * will be created and returned.
+     * Transform the specified range of the given vertex positions with
+     * the given transform, and combine them with the given result
      * 
-     * @param meshModel The {@link MeshModel}
-     * @param transform The optional transform. If this is <code>null</code>,
-     * then the identity matrix will be assumed.
-     * @param boundingBox The optional bounding box that will store the result 
-     * @return The result
+     * @param positions The vertex positions
+     * @param transform The transform
+     * @param min The start element, inclusive
+     * @param max The end element, exclusive
+     * @param result The bounding box that will store the result 
      */
-    private BoundingBox computeMeshBoundingBox(
-        MeshModel meshModel, float transform[], BoundingBox boundingBox)
+    private static void combineTransformedVertices(
+        AccessorFloatData positions, float transform[], 
+        int min, int max, BoundingBox result)
     {
-        BoundingBox result = boundingBox;
-        if (result == null)
+        int numComponents = positions.getNumComponentsPerElement();
+        float chunk[] = new float[CHUNK_SIZE * numComponents];
+        float point[] = new float[3];
+        float transformedPoint[] = new float[3];
+        for (int start = min; start < max; start += CHUNK_SIZE)
         {
-            result = new BoundingBox();
+            int n = Math.min(CHUNK_SIZE, max - start);
+            positions.readElements(start, n, chunk, 0);
+            for (int e = 0; e < n; e++)
+            {
+                int offset = e * numComponents;
+                point[0] = chunk[offset + 0];
+                point[1] = chunk[offset + 1];
+                point[2] = chunk[offset + 2];
+                MathUtils.transformPoint3D(transform, point, transformedPoint);
+                result.combine(
+                    transformedPoint[0], 
+                    transformedPoint[1], 
+                    transformedPoint[2]);
+            }
         }
-        
-        List<MeshPrimitiveModel> primitives = 
-            meshModel.getMeshPrimitiveModels();
-        for (MeshPrimitiveModel meshPrimitiveModel : primitives)
+    }
+    
+    /**
+     * Transform the eight corners of the given bounding box with the
+     * given transform, and combine them with the given result. If the
+     * given bounding box is empty, then nothing is done.
+     * 
+     * @param boundingBox The bounding box
+     * @param transform The transform
+     * @param result The bounding box that will store the result 
+     */
+    private static void combineTransformedCorners(
+        BoundingBox boundingBox, float transform[], BoundingBox result)
+    {
+        if (boundingBox.isEmpty())
+        {
+            return;
+        }
+        float point[] = new float[3];
+        float transformedPoint[] = new float[3];
+        for (int i = 0; i < 8; i++)
         {
-            BoundingBox meshPrimitiveBoundingBox =
-                computeBoundingBox(meshPrimitiveModel, transform);
-            if (meshPrimitiveBoundingBox != null)
+            point[0] = (i & 1) == 0 ? 
+                boundingBox.getMinX() : boundingBox.getMaxX();
+            point[1] = (i & 2) == 0 ? 
+                boundingBox.getMinY() : boundingBox.getMaxY();
+            point[2] = (i & 4) == 0 ? 
+                boundingBox.getMinZ() : boundingBox.getMaxZ();
+            MathUtils.transformPoint3D(transform, point, transformedPoint);
+            result.combine(
+                transformedPoint[0], 
+                transformedPoint[1], 
+                transformedPoint[2]);
+        }
+    }
+    
+    /**
+     * Compute the local bounding box of the given {@link MeshModel}, 
+     * from the bounds of the <code>"POSITION"</code> accessors of its
+     * primitives
+     * 
+     * @param meshModel The {@link MeshModel}
+     * @return The bounding box
+     */
+    private static BoundingBox computeLocalMeshBoundingBox(MeshModel meshModel)
+    {
+        BoundingBox result = new BoundingBox();
+        for (MeshPrimitiveModel meshPrimitiveModel : 
+            meshModel.getMeshPrimitiveModels())
+        {
+            AccessorModel accessorModel = getPositions(meshPrimitiveModel);
+            if (accessorModel != null)
             {
-                result.combine(meshPrimitiveBoundingBox);
+                combineLocalBounds(accessorModel, result);
             }
         }
         return result;
     }
     
     /**
-     * Compute the bounding box of the given {@link MeshPrimitiveModel}, under
-     * the given transform.
+     * Combine the given result with the bounds of the given 
+     * <code>"POSITION"</code> accessor. If the accessor is normalized,
+     * then the bounds will be converted into the range that is implied
+     * by the component type.
+     * 
+     * @param accessorModel The {@link AccessorModel}
+     * @param result The bounding box that will store the result 
+     */
+    private static void combineLocalBounds(
+        AccessorModel accessorModel, BoundingBox result)
+    {
+        if (accessorModel.getCount() == 0)
+        {
+            return;
+        }
+        AccessorBounds bounds = accessorModel.getBounds();
+        int componentType = accessorModel.getComponentType();
+        boolean normalized = accessorModel.isNormalized();
+        float min[] = new float[3];
+        float max[] = new float[3];
+        for (int c = 0; c < 3; c++)
+        {
+            min[c] = AccessorDatas.toFloat(componentType, normalized, 
+                bounds.getMin(c));
+            max[c] = AccessorDatas.toFloat(componentType, normalized, 
+                bounds.getMax(c));
+        }
+        result.combine(min[0], min[1], min[2]);
+        result.combine(max[0], max[1], max[2]);
+    }
+    
+    /**
+     * Returns the {@link AccessorModel} of the <code>"POSITION"</code> 
+     * attribute of the given {@link MeshPrimitiveModel}.
      * 
      * @param meshPrimitiveModel The {@link MeshPrimitiveModel}
-     * @param transform The optional transform. If this is <code>null</code>,
-     * then the identity matrix will be assumed.
-     * @return The {@link BoundingBox}, or <code>null</code> if the given
-     * {@link MeshPrimitiveModel} does not refer to an {@link AccessorModel} 
-     * with its <code>"POSITION"</code> attribute. If if refers to
-     * an {@link AccessorModel} that does not contain 3D float elements,
-     * then a warning will be printed and <code>null</code> will be
-     * returned. 
+     * @return The {@link AccessorModel}, or <code>null</code> if the given
+     * {@link MeshPrimitiveModel} does not have a <code>"POSITION"</code>
+     * attribute. If the attribute refers to an {@link AccessorModel} that 
+     * does not contain 3D or 4D elements, then a warning will be printed 
+     * and <code>null</code> will be returned. 
      */
-    private BoundingBox computeBoundingBox(
-        MeshPrimitiveModel meshPrimitiveModel, float transform[])
+    private static AccessorModel getPositions(
+        MeshPrimitiveModel meshPrimitiveModel)
     {
         Map<String, AccessorModel> attributes = 
             meshPrimitiveModel.getAttributes();
@@ -204,7 +528,6 @@ class BoundingBoxComputer
         {
             return null;
         }
-        
         ElementType accessorType = accessorModel.getElementType();
         int numComponents = accessorType.getNumComponents();
         if (numComponents < 3)
@@ -214,46 +537,7 @@ class BoundingBoxComputer
                 " - expected \"VEC3\" or \"VEC4\"");
             return null;
         }
-        Class<?> componentDataType = accessorModel.getComponentDataType();
-        if (!componentDataType.equals(float.class))
-        {
-            logger.warning("Mesh primitive " + positionsAttributeName + 
-                " attribute refers to an accessor with component type " + 
-                GltfConstants.stringFor(accessorModel.getComponentType()) + 
-                " - expected GL_FLOAT");
-        }
-        
-        AccessorData accessorData = accessorModel.getAccessorData();
-        AccessorFloatData accessorFloatData = (AccessorFloatData)accessorData;
-        
-        float point[] = new float[3];
-        float transformedPoint[];
-        if (transform != null)
-        {
-            transformedPoint = new float[3];
-        }
-        else
-        {
-            transformedPoint = point;
-        }
-        
-        BoundingBox boundingBox = new BoundingBox();
-        for (int e = 0; e < accessorData.getNumElements(); e++)
-        {
-            for (int c = 0; c < 3; c++)
-            {
-                point[c] = accessorFloatData.get(e, c);
-            }
-            if (transform != null)
-            {
-                MathUtils.transformPoint3D(transform, point, transformedPoint);
-            }
-            boundingBox.combine(
-                transformedPoint[0], 
-                transformedPoint[1], 
-                transformedPoint[2]);
-        }
-        return boundingBox;
+        return accessorModel;
     }
     
 }
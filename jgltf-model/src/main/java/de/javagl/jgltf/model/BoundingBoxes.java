@@ -27,6 +27,7 @@
 package de.javagl.jgltf.model;
 
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Utility methods for computing bounding boxes.<br>
@@ -38,17 +39,66 @@ public class BoundingBoxes
 {
     /**
      * Compute the bounding box of the given {@link GltfModel}. The result
-     * will be an array <code>[minX, minY, minZ, maxX, maxY, maxZ]</code>.
+     * will be an array <code>[minX, minY, minZ, maxX, maxY, maxZ]</code>.<br>
+     * <br>
+     * The result is computed by transforming the corners of the local
+     * bounding box of each mesh with the global transform of each node 
+     * that the mesh is attached to. This is fast, but when nodes are 
+     * rotated, then the result may be larger than the bounding box of
+     * the transformed vertices. To compute the exact bounding box, 
+     * {@link #computeBoundingBoxMinMax(GltfModel, boolean)} can be used.
      * 
      * @param gltfModel The {@link GltfModel}
      * @return The bounding box
      */
     public static float[] computeBoundingBoxMinMax(GltfModel gltfModel)
+    {
+        return computeBoundingBoxMinMax(gltfModel, false);
+    }
+    
+    /**
+     * Compute the bounding box of the given {@link GltfModel}. The result
+     * will be an array <code>[minX, minY, minZ, maxX, maxY, maxZ]</code>.<br>
+     * <br>
+     * If <code>exact</code> is <code>true</code>, then each vertex will be 
+     * transformed with the global transform of each node that it is 
+     * attached to. Otherwise, only the corners of the local bounding box 
+     * of each mesh will be transformed, which may cause the result to be 
+     * larger than the exact bounding box.<br>
+     * <br>
+     * The computation will be performed in the common fork-join pool.
+     * 
+     * @param gltfModel The {@link GltfModel}
+     * @param exact Whether the exact bounding box should be computed
+     * @return The bounding box
+     */
+    public static float[] computeBoundingBoxMinMax(
+        GltfModel gltfModel, boolean exact)
+    {
+        return computeBoundingBoxMinMax(
+            gltfModel, exact, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Compute the bounding box of the given {@link GltfModel}, as described
+     * in {@link #computeBoundingBoxMinMax(GltfModel, boolean)}. If the given
+     * pool is not <code>null</code>, then the subtrees of the scene graph 
+     * and the vertices of large mesh primitives will be processed in
+     * parallel, in the given pool. Otherwise, the computation will be
+     * performed in the calling thread.
+     * 
+     * @param gltfModel The {@link GltfModel}
+     * @param exact Whether the exact bounding box should be computed
+     * @param pool The optional fork-join pool
+     * @return The bounding box
+     */
+    public static float[] computeBoundingBoxMinMax(
+        GltfModel gltfModel, boolean exact, ForkJoinPool pool)
     {
         Objects.requireNonNull(gltfModel, "The gltfModel may not be null");
         
         BoundingBoxComputer boundingBoxComputer =
-            new BoundingBoxComputer(gltfModel);
+            new BoundingBoxComputer(gltfModel, exact, pool);
         BoundingBox boundingBox = boundingBoxComputer.compute();
         
         float result[] = {
@@ -60,7 +110,6 @@ public class BoundingBoxes
             boundingBox.getMaxZ()
         };
         return result;
-        
     }
     
     /**
@@ -29,7 +29,11 @@ package de.javagl.jgltf.model;
 import java.nio.ByteBuffer;
 
 /**
- * Interface for a buffer of a glTF asset
+ * Interface for a buffer of a glTF asset.<br>
+ * <br>
+ * The data of a buffer is stored in a single <code>ByteBuffer</code>, 
+ * and its length is an <code>int</code> value. So the size of a buffer
+ * is limited to <code>Integer.MAX_VALUE</code> bytes. 
  */
 public interface BufferModel extends NamedModelElement
 {
@@ -0,0 +1,646 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+import de.javagl.jgltf.model.AnimationModel.Channel;
+import de.javagl.jgltf.model.AnimationModel.Sampler;
+import de.javagl.jgltf.model.animation.AnimationBatch;
+import de.javagl.jgltf.model.animation.InterpolatorType;
+
+/**
+ * A class for evaluating all channels of a set of {@link AnimationModel}
+ * instances at once, writing the results into a single node transform 
+ * buffer.<br>
+ * <br>
+ * Each animated {@link NodeModel} is assigned a 
+ * {@link #getNodeModels() node index}. The transform buffer contains
+ * {@value #TRANSFORM_SIZE} elements for each node, starting at 
+ * <code>nodeIndex * TRANSFORM_SIZE</code>: The translation (starting at
+ * {@link #TRANSLATION_OFFSET}), the rotation quaternion (starting at 
+ * {@link #ROTATION_OFFSET}), and the scale (starting at
+ * {@link #SCALE_OFFSET}). The morph target weights of the nodes follow 
+ * after the transforms of all nodes, at the 
+ * {@link #getWeightsOffset(int) weights offset} of each node.<br>
+ * <br>
+ * The properties that are not animated keep the values that the nodes
+ * had when this batch was created.<br>
+ * <br>
+ * Calling {@link #update(float)} only writes into the transform buffer.
+ * Clients that can consume the buffer directly (for example, to fill
+ * GPU buffers) do not have to touch the node models at all. Clients that
+ * need the node models to be updated can call {@link #applyToNodeModels()}
+ * afterwards.<br>
+ * <br>
+ * This class is not thread-safe.
+ */
+public final class GltfAnimationBatch
+{
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger = 
+        Logger.getLogger(GltfAnimationBatch.class.getName());
+    
+    /**
+     * The offset of the translation in the transform of a node
+     */
+    public static final int TRANSLATION_OFFSET = 0;
+    
+    /**
+     * The offset of the rotation in the transform of a node
+     */
+    public static final int ROTATION_OFFSET = 3;
+    
+    /**
+     * The offset of the scale in the transform of a node
+     */
+    public static final int SCALE_OFFSET = 7;
+    
+    /**
+     * The number of elements of the transform of a node
+     */
+    public static final int TRANSFORM_SIZE = 10;
+    
+    /**
+     * The flag indicating an animated translation
+     */
+    private static final int TRANSLATION = 1;
+    
+    /**
+     * The flag indicating an animated rotation
+     */
+    private static final int ROTATION = 2;
+    
+    /**
+     * The flag indicating an animated scale
+     */
+    private static final int SCALE = 4;
+    
+    /**
+     * The flag indicating animated weights
+     */
+    private static final int WEIGHTS = 8;
+    
+    /**
+     * The data of a single animation channel
+     */
+    private static final class ChannelData
+    {
+        /**
+         * The node model
+         */
+        NodeModel nodeModel;
+        
+        /**
+         * The property flag
+         */
+        int property;
+        
+        /**
+         * The key frame times
+         */
+        float timesS[];
+        
+        /**
+         * The values
+         */
+        float values[];
+        
+        /**
+         * The number of components
+         */
+        int numComponents;
+        
+        /**
+         * The interpolator type
+         */
+        InterpolatorType interpolatorType;
+    }
+    
+    /**
+     * The animated node models
+     */
+    private final List<NodeModel> nodeModels;
+    
+    /**
+     * The flags indicating the animated properties of each node
+     */
+    private final int animatedProperties[];
+    
+    /**
+     * The offset of the weights of each node in the transform buffer,
+     * or -1 if the weights of the node are not animated
+     */
+    private final int weightsOffsets[];
+    
+    /**
+     * The number of weights of each node
+     */
+    private final int numWeights[];
+    
+    /**
+     * The transform buffer
+     */
+    private final float transformBuffer[];
+    
+    /**
+     * The animation batch that evaluates all channels
+     */
+    private final AnimationBatch animationBatch;
+    
+    /**
+     * Create a new batch for all channels of the given 
+     * {@link AnimationModel} instances. If there is any error or
+     * inconsistency in the data of a channel, then a warning will be 
+     * printed and the channel will be skipped.
+     * 
+     * @param animationModels The {@link AnimationModel} instances
+     * @return The {@link GltfAnimationBatch}
+     */
+    public static GltfAnimationBatch create(
+        Iterable<? extends AnimationModel> animationModels)
+    {
+        Objects.requireNonNull(animationModels, 
+            "The animationModels may not be null");
+        List<ChannelData> channelDatas = new ArrayList<ChannelData>();
+        for (AnimationModel animationModel : animationModels)
+        {
+            for (Channel channel : animationModel.getChannels())
+            {
+                ChannelData channelData = createChannelData(channel);
+                if (channelData != null)
+                {
+                    channelDatas.add(channelData);
+                }
+            }
+        }
+        return new GltfAnimationBatch(channelDatas);
+    }
+    
+    /**
+     * Creates a new instance
+     * 
+     * @param channelDatas The channel data
+     */
+    private GltfAnimationBatch(List<ChannelData> channelDatas)
+    {
+        // Assign the node indices and the numbers of weights
+        Map<NodeModel, Integer> nodeIndices = 
+            new IdentityHashMap<NodeModel, Integer>();
+        List<NodeModel> nodes = new ArrayList<NodeModel>();
+        for (ChannelData channelData : channelDatas)
+        {
+            if (!nodeIndices.containsKey(channelData.nodeModel))
+            {
+                nodeIndices.put(channelData.nodeModel, nodes.size());
+                nodes.add(channelData.nodeModel);
+            }
+        }
+        int numNodes = nodes.size();
+        this.nodeModels = Collections.unmodifiableList(nodes);
+        this.animatedProperties = new int[numNodes];
+        this.weightsOffsets = new int[numNodes];
+        this.numWeights = new int[numNodes];
+        for (ChannelData channelData : channelDatas)
+        {
+            int nodeIndex = nodeIndices.get(channelData.nodeModel);
+            animatedProperties[nodeIndex] |= channelData.property;
+            if (channelData.property == WEIGHTS)
+            {
+                numWeights[nodeIndex] = Math.max(
+                    numWeights[nodeIndex], channelData.numComponents);
+            }
+        }
+        
+        // Compute the layout of the weights, after all transforms
+        int size = numNodes * TRANSFORM_SIZE;
+        for (int i = 0; i < numNodes; i++)
+        {
+            if (numWeights[i] > 0)
+            {
+                weightsOffsets[i] = size;
+                size += numWeights[i];
+            }
+            else
+            {
+                weightsOffsets[i] = -1;
+            }
+        }
+        this.transformBuffer = new float[size];
+        for (int i = 0; i < numNodes; i++)
+        {
+            initialize(i);
+        }
+        
+        this.animationBatch = new AnimationBatch();
+        for (ChannelData channelData : channelDatas)
+        {
+            int nodeIndex = nodeIndices.get(channelData.nodeModel);
+            int outputOffset = computeOutputOffset(
+                nodeIndex, channelData.property);
+            animationBatch.addChannel(channelData.timesS, channelData.values,
+                channelData.numComponents, channelData.interpolatorType, 
+                outputOffset);
+        }
+    }
+    
+    /**
+     * Initialize the transform buffer for the specified node with the 
+     * current values of the node
+     * 
+     * @param nodeIndex The node index
+     */
+    private void initialize(int nodeIndex)
+    {
+        NodeModel nodeModel = nodeModels.get(nodeIndex);
+        int offset = nodeIndex * TRANSFORM_SIZE;
+        initialize(nodeModel.getTranslation(), 
+            new float[] { 0.0f, 0.0f, 0.0f }, 
+            offset + TRANSLATION_OFFSET);
+        initialize(nodeModel.getRotation(), 
+            new float[] { 0.0f, 0.0f, 0.0f, 1.0f }, 
+            offset + ROTATION_OFFSET);
+        initialize(nodeModel.getScale(), 
+            new float[] { 1.0f, 1.0f, 1.0f }, 
+            offset + SCALE_OFFSET);
+        int n = numWeights[nodeIndex];
+        if (n > 0)
+        {
+            float weights[] = nodeModel.getWeights();
+            if (weights == null)
+            {
+                for (MeshModel meshModel : nodeModel.getMeshModels())
+                {
+                    if (meshModel.getWeights() != null)
+                    {
+                        weights = meshModel.getWeights();
+                        break;
+                    }
+                }
+            }
+            initialize(weights, new float[n], weightsOffsets[nodeIndex]);
+        }
+    }
+    
+    /**
+     * Write the given values into the transform buffer, at the given 
+     * offset. If the given values are <code>null</code>, then the 
+     * given default values will be written.
+     * 
+     * @param values The optional values
+     * @param defaultValues The default values
+     * @param offset The offset in the transform buffer
+     */
+    private void initialize(float values[], float defaultValues[], int offset)
+    {
+        float source[] = values;
+        if (source == null || source.length < defaultValues.length)
+        {
+            source = defaultValues;
+        }
+        System.arraycopy(source, 0, 
+            transformBuffer, offset, defaultValues.length);
+    }
+    
+    /**
+     * Compute the offset in the transform buffer for the given property
+     * of the specified node
+     * 
+     * @param nodeIndex The node index
+     * @param property The property flag
+     * @return The offset
+     */
+    private int computeOutputOffset(int nodeIndex, int property)
+    {
+        int offset = nodeIndex * TRANSFORM_SIZE;
+        switch (property)
+        {
+            case TRANSLATION:
+                return offset + TRANSLATION_OFFSET;
+                
+            case ROTATION:
+                return offset + ROTATION_OFFSET;
+                
+            case SCALE:
+                return offset + SCALE_OFFSET;
+                
+            default:
+                break;
+        }
+        return weightsOffsets[nodeIndex];
+    }
+    
+    /**
+     * Create the {@link ChannelData} for the given channel. If there is 
+     * any error or inconsistency in the data, then a warning will be 
+     * printed and <code>null</code> will be returned.
+     * 
+     * @param channel The {@link AnimationModel.Channel}
+     * @return The {@link ChannelData}, or <code>null</code>
+     */
+    private static ChannelData createChannelData(Channel channel)
+    {
+        Sampler sampler = channel.getSampler();
+        NodeModel nodeModel = channel.getNodeModel();
+        String path = channel.getPath();
+        if (nodeModel == null)
+        {
+            return null;
+        }
+        int property = propertyForPath(path);
+        if (property == 0)
+        {
+            logger.warning("Animation channel target path must be "
+                + "\"translation\", \"rotation\", \"scale\" or  \"weights\", "
+                + "but is " + path);
+            return null;
+        }
+        
+        AccessorData inputData = sampler.getInput().getAccessorData();
+        if (!(inputData instanceof AccessorFloatData))
+        {
+            logger.warning("Input data is not an AccessorFloatData, but "
+                + inputData.getClass());
+            return null;
+        }
+        AccessorFloatData inputFloatData = (AccessorFloatData) inputData;
+        
+        AccessorData outputData = sampler.getOutput().getAccessorData();
+        if (!(outputData instanceof AccessorFloatData))
+        {
+            logger.warning("Output data is not an AccessorFloatData, but "
+                + outputData.getClass());
+            return null;
+        }
+        AccessorFloatData outputFloatData = (AccessorFloatData) outputData;
+        
+        InterpolatorType interpolatorType = GltfAnimations
+            .typeForInterpolation(sampler.getInterpolation(), path);
+        int numKeys = inputFloatData.getNumElements();
+        if (numKeys == 0)
+        {
+            logger.warning("Animation channel does not contain key frames");
+            return null;
+        }
+        float timesS[] = new float[numKeys];
+        inputFloatData.readElements(0, numKeys, timesS, 0);
+        
+        // As in GltfAnimations#createAnimation, the number of components 
+        // is computed from the total number of components, to handle 
+        // morph target weights
+        int numValueElements = numKeys;
+        if (interpolatorType == InterpolatorType.CUBICSPLINE ||
+            interpolatorType == InterpolatorType.CUBICSPLINE_QUATERNION)
+        {
+            numValueElements = numKeys * 3;
+        }
+        int numComponents = 
+            outputFloatData.getTotalNumComponents() / numValueElements;
+        int expectedNumComponents = numComponentsForProperty(property);
+        if (numComponents == 0 || 
+            (expectedNumComponents != 0 && 
+            numComponents != expectedNumComponents))
+        {
+            logger.warning("Animation channel for " + path 
+                + " has an invalid number of components: " + numComponents);
+            return null;
+        }
+        float values[] = new float[outputFloatData.getTotalNumComponents()];
+        outputFloatData.readElements(
+            0, outputFloatData.getNumElements(), values, 0);
+        
+        ChannelData channelData = new ChannelData();
+        channelData.nodeModel = nodeModel;
+        channelData.property = property;
+        channelData.timesS = timesS;
+        channelData.values = Arrays.copyOf(
+            values, numValueElements * numComponents);
+        channelData.numComponents = numComponents;
+        channelData.interpolatorType = interpolatorType;
+        return channelData;
+    }
+    
+    /**
+     * Returns the property flag for the given path, or 0 if the path
+     * is not valid
+     * 
+     * @param path The path
+     * @return The property flag
+     */
+    private static int propertyForPath(String path)
+    {
+        switch (path)
+        {
+            case "translation":
+                return TRANSLATION;
+                
+            case "rotation":
+                return ROTATION;
+                
+            case "scale":
+                return SCALE;
+                
+            case "weights":
+                return WEIGHTS;
+                
+            default:
+                break;
+        }
+        return 0;
+    }
+    
+    /**
+     * Returns the number of components for the given property, or 0 if 
+     * the number of components is not fixed
+     * 
+     * @param property The property flag
+     * @return The number of components
+     */
+    private static int numComponentsForProperty(int property)
+    {
+        switch (property)
+        {
+            case TRANSLATION:
+                return 3;
+                
+            case ROTATION:
+                return 4;
+                
+            case SCALE:
+                return 3;
+                
+            default:
+                break;
+        }
+        return 0;
+    }
+    
+    /**
+     * Returns an unmodifiable list containing the animated 
+     * {@link NodeModel} instances. The index of a node in this list
+     * is the node index that determines the location of the node 
+     * transform in the {@link #getTransformBuffer() transform buffer}.
+     * 
+     * @return The node models
+     */
+    public List<NodeModel> getNodeModels()
+    {
+        return nodeModels;
+    }
+    
+    /**
+     * Returns a reference to the transform buffer. The layout of this 
+     * buffer is described in the class documentation. Callers should 
+     * not modify the returned array.
+     * 
+     * @return The transform buffer
+     */
+    public float[] getTransformBuffer()
+    {
+        return transformBuffer;
+    }
+    
+    /**
+     * Returns the offset of the morph target weights of the specified 
+     * node in the {@link #getTransformBuffer() transform buffer}, or -1
+     * if the weights of the node are not animated
+     * 
+     * @param nodeIndex The node index
+     * @return The weights offset
+     * @throws IndexOutOfBoundsException If the index is negative or not 
+     * smaller than the number of nodes
+     */
+    public int getWeightsOffset(int nodeIndex)
+    {
+        return weightsOffsets[nodeIndex];
+    }
+    
+    /**
+     * Returns the maximum end time of all channels, in seconds
+     * 
+     * @return The end time
+     */
+    public float getEndTimeS()
+    {
+        return animationBatch.getEndTimeS();
+    }
+    
+    /**
+     * Evaluate all channels for the given time, and write the results
+     * into the {@link #getTransformBuffer() transform buffer}. If there 
+     * are many channels, then they will be evaluated in parallel, using 
+     * the common fork-join pool.
+     * 
+     * @param timeS The time, in seconds
+     */
+    public void update(float timeS)
+    {
+        animationBatch.evaluate(timeS, transformBuffer);
+    }
+    
+    /**
+     * Evaluate all channels for the given time, and write the results
+     * into the {@link #getTransformBuffer() transform buffer}. If the 
+     * given pool is not <code>null</code> and there are many channels, 
+     * then they will be evaluated in parallel, using the given pool.
+     * 
+     * @param timeS The time, in seconds
+     * @param pool The optional fork-join pool
+     */
+    public void update(float timeS, ForkJoinPool pool)
+    {
+        animationBatch.evaluate(timeS, transformBuffer, pool);
+    }
+    
+    /**
+     * Write the animated properties from the 
+     * {@link #getTransformBuffer() transform buffer} into the 
+     * {@link NodeModel} instances. When the nodes already contain arrays
+     * for the animated properties, then the values will be written into
+     * these arrays, and no new arrays will be allocated.
+     */
+    public void applyToNodeModels()
+    {
+        for (int i = 0; i < animatedProperties.length; i++)
+        {
+            NodeModel nodeModel = nodeModels.get(i);
+            int properties = animatedProperties[i];
+            int offset = i * TRANSFORM_SIZE;
+            if ((properties & TRANSLATION) != 0)
+            {
+                nodeModel.setTranslation(copy(nodeModel.getTranslation(), 
+                    offset + TRANSLATION_OFFSET, 3));
+            }
+            if ((properties & ROTATION) != 0)
+            {
+                nodeModel.setRotation(copy(nodeModel.getRotation(), 
+                    offset + ROTATION_OFFSET, 4));
+            }
+            if ((properties & SCALE) != 0)
+            {
+                nodeModel.setScale(copy(nodeModel.getScale(), 
+                    offset + SCALE_OFFSET, 3));
+            }
+            if ((properties & WEIGHTS) != 0)
+            {
+                nodeModel.setWeights(copy(nodeModel.getWeights(), 
+                    weightsOffsets[i], numWeights[i]));
+            }
+        }
+    }
+    
+    /**
+     * Copy the specified range of the transform buffer into the given
+     * target array. If the given array is <code>null</code> or does not
+     * have the given length, then a new array will be created.
+     * 
+     * @param target The optional target array
+     * @param offset The offset in the transform buffer
+     * @param length The length
+     * @return The target array
+     */
+    private float[] copy(float target[], int offset, int length)
+    {
+        float result[] = target;
+        if (result == null || result.length != length)
+        {
+            result = new float[length];
+        }
+        System.arraycopy(transformBuffer, offset, result, 0, length);
+        return result;
+    }
+}
@@ -176,7 +176,7 @@ public class GltfAnimations
      * @param path The path
      * @return The {@link InterpolatorType}
      */
-    private static InterpolatorType typeForInterpolation(
+    static InterpolatorType typeForInterpolation(
         Interpolation interpolation, String path)
     {
         switch (interpolation)
@@ -196,9 +196,13 @@ public class GltfAnimations
             
             case CUBICSPLINE:
             {
+                if (path.equals("rotation")) 
+                {
+                    return InterpolatorType.CUBICSPLINE_QUATERNION;
+                }
+                return InterpolatorType.CUBICSPLINE;
             }
             default:
-                logger.warning("This interpolation type is not supported yet");
                 break;
         }
         logger.warning(
@@ -214,7 +218,9 @@ public class GltfAnimations
      * 
      * @param timeData The (1D) {@link AccessorFloatData} containing the
      * time key frames
-     * @param outputData The output data that contains the value key frames
+     * @param outputData The output data that contains the value key frames.
+     * For cubic spline interpolation, this contains the in-tangent, the 
+     * value, and the out-tangent for each key frame.
      * @param interpolatorType The {@link InterpolatorType} that should
      * be used
      * @return The {@link Animation}
@@ -239,14 +245,23 @@ public class GltfAnimations
         // in the output data by the number of time elements. 
         // (For all animations except morph targets, the result will be 
         // equal to outputData.getNumComponentsPerElement(), though...)
+        // For cubic splines, there are three value elements for each
+        // time element: The in-tangent, the value, and the out-tangent.
+        int numValueElements = numKeyElements;
+        if (interpolatorType == InterpolatorType.CUBICSPLINE ||
+            interpolatorType == InterpolatorType.CUBICSPLINE_QUATERNION)
+        {
+            numValueElements = numKeyElements * 3;
+        }
         int totalNumValueComponents = 
             outputData.getTotalNumComponents();
         int numComponentsPerElement = 
-            totalNumValueComponents / numKeyElements;
-        float values[][] = new float[numKeyElements][numComponentsPerElement];
+            totalNumValueComponents / numValueElements;
+        float values[][] = 
+            new float[numValueElements][numComponentsPerElement];
         for (int c = 0; c < numComponentsPerElement; c++)
         {
-            for (int e = 0; e < numKeyElements; e++)
+            for (int e = 0; e < numValueElements; e++)
             {
                 // Access the data using the global index, computed manually 
                 // based on the computed number of components per element
@@ -317,6 +332,10 @@ public class GltfAnimations
             else
             {
                 System.arraycopy(values, 0, translation, 0, values.length);
+                
+                // Set the modified array again, so that the node can 
+                // update its cached transforms
+                nodeModel.setTranslation(translation);
             }
         };
     }
@@ -343,6 +362,10 @@ public class GltfAnimations
             else
             {
                 System.arraycopy(values, 0, rotation, 0, values.length);
+                
+                // Set the modified array again, so that the node can 
+                // update its cached transforms
+                nodeModel.setRotation(rotation);
             }
         };
     }
@@ -369,6 +392,10 @@ public class GltfAnimations
             else
             {
                 System.arraycopy(values, 0, scale, 0, values.length);
+                
+                // Set the modified array again, so that the node can 
+                // update its cached transforms
+                nodeModel.setScale(scale);
             }
         };
     }
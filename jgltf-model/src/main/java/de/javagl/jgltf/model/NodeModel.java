@@ -195,6 +195,25 @@ public interface NodeModel extends NamedModelElement
      * @return The result array
      */
     float[] computeGlobalTransform(float result[]);
+    
+    /**
+     * Notify this node that its transform has changed.<br>
+     * <br>
+     * Implementations may cache the global transform of nodes. The 
+     * setters for the matrix, translation, rotation and scale take care
+     * of updating this cache. Implementations that cache the global 
+     * transform must also detect when the contents of the arrays that 
+     * are returned by {@link #getMatrix()}, {@link #getTranslation()}, 
+     * {@link #getRotation()} or {@link #getScale()} are modified directly.
+     * Calling this method after such a modification is not required, but
+     * allows implementations to discard cached data early.<br>
+     * <br>
+     * The default implementation does nothing.
+     */
+    default void invalidate()
+    {
+        // Nothing to do by default
+    }
 
     /**
      * Creates a supplier for the global transform matrix of this node 
@@ -0,0 +1,716 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Implementation of an {@link AccessorData} that represents the data of
+ * a sparse accessor.<br>
+ * <br>
+ * This class does not store the dense data. Queries for single components
+ * are answered based on the sparse indices and values, using a binary
+ * search in the sorted indices. For all elements that are not contained
+ * in the sparse indices, the values are taken from the optional base
+ * {@link AccessorData}, or are zero if there is no base data.<br>
+ * <br>
+ * Dense data is only created when it is explicitly requested, by calling
+ * {@link #createByteBuffer()}, {@link #createDenseAccessorData()} or
+ * {@link #writeInto(AccessorData)}.<br>
+ * <br>
+ * Note that this class does not implement the type-specific interfaces 
+ * like {@link AccessorFloatData}. Clients that require these have to
+ * create the dense data.
+ */
+public final class SparseAccessorData implements AccessorData
+{
+    /**
+     * The number of elements that are copied from the base data at once
+     * when the dense data is created
+     */
+    private static final int CHUNK_SIZE = 1024;
+    
+    /**
+     * The component type, as a GL constant
+     */
+    private final int componentType;
+    
+    /**
+     * The {@link ElementType}
+     */
+    private final ElementType elementType;
+    
+    /**
+     * The number of elements
+     */
+    private final int numElements;
+    
+    /**
+     * The optional base {@link AccessorData}
+     */
+    private final AccessorData baseAccessorData;
+    
+    /**
+     * The sparse indices, sorted in ascending order and without duplicates
+     */
+    private final int indices[];
+    
+    /**
+     * The indices of the elements in the values {@link AccessorData}
+     * that correspond to the {@link #indices}. This is <code>null</code>
+     * if the given indices already had been sorted and unique.
+     */
+    private final int valueIndices[];
+    
+    /**
+     * The {@link AccessorData} containing the sparse values
+     */
+    private final AccessorData valuesAccessorData;
+    
+    /**
+     * Creates a new instance.<br>
+     * <br>
+     * The given indices are the element indices of the elements that are
+     * defined by the given values: The element with index 
+     * <code>indices[i]</code> will have the value of the element
+     * <code>i</code> of the values {@link AccessorData}. The glTF 
+     * specification requires the indices to be strictly increasing. 
+     * If they are not, then they will be sorted, and for duplicate 
+     * indices, the last occurrence will be used.<br>
+     * <br>
+     * The given {@link AccessorData} objects will be stored and used
+     * internally. They must not be modified while they are in use 
+     * by this instance.
+     * 
+     * @param componentType The component type, as a GL constant
+     * @param elementType The {@link ElementType}
+     * @param numElements The number of elements
+     * @param baseAccessorData The optional base {@link AccessorData}. If 
+     * this is <code>null</code>, then all elements that are not contained
+     * in the sparse indices will be zero.
+     * @param indices The sparse indices
+     * @param valuesAccessorData The {@link AccessorData} containing the 
+     * sparse values
+     * @throws IllegalArgumentException If the component type is not a
+     * valid GL component type, if the component type of the given 
+     * {@link AccessorData} objects does not match the given component 
+     * type, if the base data has fewer elements than the given number of 
+     * elements, if the values data has fewer elements than the number of
+     * indices, or if any index is not in [0, numElements)
+     */
+    public SparseAccessorData(int componentType, ElementType elementType,
+        int numElements, AccessorData baseAccessorData, int indices[], 
+        AccessorData valuesAccessorData)
+    {
+        Class<?> dataType = 
+            Accessors.getDataTypeForAccessorComponentType(componentType);
+        if (valuesAccessorData.getComponentType() != dataType)
+        {
+            throw new IllegalArgumentException(
+                "Expected values with component type " + dataType 
+                + ", but found " + valuesAccessorData.getComponentType());
+        }
+        if (valuesAccessorData.getNumElements() < indices.length)
+        {
+            throw new IllegalArgumentException(
+                "Expected at least " + indices.length + " values, but found " 
+                + valuesAccessorData.getNumElements());
+        }
+        if (baseAccessorData != null)
+        {
+            if (baseAccessorData.getComponentType() != dataType)
+            {
+                throw new IllegalArgumentException(
+                    "Expected base data with component type " + dataType 
+                    + ", but found " + baseAccessorData.getComponentType());
+            }
+            if (baseAccessorData.getNumElements() < numElements)
+            {
+                throw new IllegalArgumentException(
+                    "Expected at least " + numElements + " base elements, "
+                    + "but found " + baseAccessorData.getNumElements());
+            }
+        }
+        boolean sortedAndUnique = true;
+        for (int i = 0; i < indices.length; i++)
+        {
+            int index = indices[i];
+            if (index < 0 || index >= numElements)
+            {
+                throw new IllegalArgumentException(
+                    "The sparse index " + index + " at position " + i 
+                    + " is not in [0," + numElements + ")");
+            }
+            if (i > 0 && index <= indices[i - 1])
+            {
+                sortedAndUnique = false;
+            }
+        }
+        this.componentType = componentType;
+        this.elementType = elementType;
+        this.numElements = numElements;
+        this.baseAccessorData = baseAccessorData;
+        this.valuesAccessorData = valuesAccessorData;
+        if (sortedAndUnique)
+        {
+            this.indices = indices.clone();
+            this.valueIndices = null;
+        }
+        else
+        {
+            // Sort the positions of the indices (stable, so that the 
+            // last occurrence of a duplicate index comes last), and
+            // keep only the last occurrence of each index
+            Integer positions[] = new Integer[indices.length];
+            for (int i = 0; i < indices.length; i++)
+            {
+                positions[i] = i;
+            }
+            Arrays.sort(positions, (p0, p1) -> 
+                Integer.compare(indices[p0], indices[p1]));
+            int sortedIndices[] = new int[indices.length];
+            int sortedValueIndices[] = new int[indices.length];
+            int n = 0;
+            for (int i = 0; i < positions.length; i++)
+            {
+                int position = positions[i];
+                if (n > 0 && sortedIndices[n - 1] == indices[position])
+                {
+                    n--;
+                }
+                sortedIndices[n] = indices[position];
+                sortedValueIndices[n] = position;
+                n++;
+            }
+            this.indices = Arrays.copyOf(sortedIndices, n);
+            this.valueIndices = Arrays.copyOf(sortedValueIndices, n);
+        }
+    }
+    
+    @Override
+    public Class<?> getComponentType()
+    {
+        return valuesAccessorData.getComponentType();
+    }
+    
+    @Override
+    public int getNumElements()
+    {
+        return numElements;
+    }
+    
+    @Override
+    public int getNumComponentsPerElement()
+    {
+        return elementType.getNumComponents();
+    }
+    
+    @Override
+    public int getTotalNumComponents()
+    {
+        return numElements * getNumComponentsPerElement();
+    }
+    
+    /**
+     * Returns the {@link ElementType} of this data
+     * 
+     * @return The {@link ElementType}
+     */
+    public ElementType getElementType()
+    {
+        return elementType;
+    }
+    
+    /**
+     * Returns the optional base {@link AccessorData}
+     * 
+     * @return The base {@link AccessorData}, or <code>null</code> if all
+     * elements that are not contained in the sparse indices are zero
+     */
+    public AccessorData getBaseAccessorData()
+    {
+        return baseAccessorData;
+    }
+    
+    /**
+     * Returns the number of elements that are defined by the sparse
+     * indices and values
+     * 
+     * @return The number of sparse elements
+     */
+    public int getNumSparseElements()
+    {
+        return indices.length;
+    }
+    
+    /**
+     * Returns the element index of the sparse element with the given
+     * index. The returned indices are strictly increasing for increasing
+     * sparse indices.
+     * 
+     * @param sparseIndex The index of the sparse element, in 
+     * [0, {@link #getNumSparseElements()})
+     * @return The element index
+     * @throws IndexOutOfBoundsException If the index is out of bounds
+     */
+    public int getSparseElementIndex(int sparseIndex)
+    {
+        return indices[sparseIndex];
+    }
+    
+    /**
+     * Returns the index of the sparse element that defines the element
+     * with the given index, or -1 if the element with the given index
+     * is not defined by the sparse values.
+     * 
+     * @param elementIndex The element index
+     * @return The sparse index, or -1
+     */
+    public int getSparseIndex(int elementIndex)
+    {
+        int sparseIndex = Arrays.binarySearch(indices, elementIndex);
+        if (sparseIndex < 0)
+        {
+            return -1;
+        }
+        return sparseIndex;
+    }
+    
+    /**
+     * Returns the value of the specified component of the specified 
+     * sparse element, as a <code>float</code>. Integral values will be
+     * converted as described in {@link #getFloat(int, int)}.
+     * 
+     * @param sparseIndex The index of the sparse element, in 
+     * [0, {@link #getNumSparseElements()})
+     * @param componentIndex The component index
+     * @return The value
+     * @throws IndexOutOfBoundsException If the indices are out of bounds
+     */
+    public float getSparseFloat(int sparseIndex, int componentIndex)
+    {
+        return getFloat(valuesAccessorData, 
+            getValueIndex(sparseIndex), componentIndex);
+    }
+    
+    /**
+     * Returns the value of the specified component of the specified 
+     * sparse element, as an <code>int</code>. This is only supported
+     * for integral component types.
+     * 
+     * @param sparseIndex The index of the sparse element, in 
+     * [0, {@link #getNumSparseElements()})
+     * @param componentIndex The component index
+     * @return The value
+     * @throws IndexOutOfBoundsException If the indices are out of bounds
+     * @throws IllegalStateException If the component type is not 
+     * integral
+     */
+    public int getSparseInt(int sparseIndex, int componentIndex)
+    {
+        return getInt(valuesAccessorData, 
+            getValueIndex(sparseIndex), componentIndex);
+    }
+    
+    /**
+     * Returns the value of the specified component of the specified 
+     * element, as a <code>float</code>. For integral component types, 
+     * this will be the <code>int</code> value that is returned by 
+     * {@link #getInt(int, int)}, converted to <code>float</code>.
+     * 
+     * @param elementIndex The element index
+     * @param componentIndex The component index
+     * @return The value
+     * @throws IndexOutOfBoundsException If the indices are out of bounds
+     */
+    public float getFloat(int elementIndex, int componentIndex)
+    {
+        int sparseIndex = getSparseIndex(elementIndex);
+        if (sparseIndex != -1)
+        {
+            return getSparseFloat(sparseIndex, componentIndex);
+        }
+        checkIndices(elementIndex, componentIndex);
+        if (baseAccessorData == null)
+        {
+            return 0.0f;
+        }
+        return getFloat(baseAccessorData, elementIndex, componentIndex);
+    }
+    
+    /**
+     * Returns the value of the specified component of the specified 
+     * element, as an <code>int</code>. This is only supported for 
+     * integral component types. Unsigned <code>byte</code> and 
+     * <code>short</code> values will be returned as their unsigned 
+     * <code>int</code> values.
+     * 
+     * @param elementIndex The element index
+     * @param componentIndex The component index
+     * @return The value
+     * @throws IndexOutOfBoundsException If the indices are out of bounds
+     * @throws IllegalStateException If the component type is not 
+     * integral
+     */
+    public int getInt(int elementIndex, int componentIndex)
+    {
+        int sparseIndex = getSparseIndex(elementIndex);
+        if (sparseIndex != -1)
+        {
+            return getSparseInt(sparseIndex, componentIndex);
+        }
+        checkIndices(elementIndex, componentIndex);
+        if (baseAccessorData == null)
+        {
+            if (getComponentType() == float.class)
+            {
+                throw new IllegalStateException(
+                    "The component type is not integral");
+            }
+            return 0;
+        }
+        return getInt(baseAccessorData, elementIndex, componentIndex);
+    }
+    
+    /**
+     * Make sure that the given indices are valid for this data 
+     * 
+     * @param elementIndex The element index
+     * @param componentIndex The component index
+     * @throws IndexOutOfBoundsException If the indices are out of bounds
+     */
+    private void checkIndices(int elementIndex, int componentIndex)
+    {
+        if (elementIndex < 0 || elementIndex >= numElements)
+        {
+            throw new IndexOutOfBoundsException(
+                "Element index " + elementIndex + " is not in [0,"
+                + numElements + ")");
+        }
+        int numComponentsPerElement = getNumComponentsPerElement();
+        if (componentIndex < 0 || componentIndex >= numComponentsPerElement)
+        {
+            throw new IndexOutOfBoundsException(
+                "Component index " + componentIndex + " is not in [0,"
+                + numComponentsPerElement + ")");
+        }
+    }
+    
+    /**
+     * Returns the index of the element in the values {@link AccessorData}
+     * for the given sparse index
+     * 
+     * @param sparseIndex The sparse index
+     * @return The value index
+     */
+    private int getValueIndex(int sparseIndex)
+    {
+        if (valueIndices == null)
+        {
+            return sparseIndex;
+        }
+        return valueIndices[sparseIndex];
+    }
+    
+    /**
+     * Returns the specified value from the given {@link AccessorData},
+     * as a <code>float</code>
+     * 
+     * @param accessorData The {@link AccessorData}
+     * @param elementIndex The element index
+     * @param componentIndex The component index
+     * @return The value
+     */
+    private static float getFloat(AccessorData accessorData, 
+        int elementIndex, int componentIndex)
+    {
+        if (accessorData.getComponentType() == float.class)
+        {
+            AccessorFloatData accessorFloatData = 
+                (AccessorFloatData)accessorData;
+            return accessorFloatData.get(elementIndex, componentIndex);
+        }
+        return getInt(accessorData, elementIndex, componentIndex);
+    }
+
+    /**
+     * Returns the specified value from the given {@link AccessorData},
+     * as an <code>int</code>
+     * 
+     * @param accessorData The {@link AccessorData}
+     * @param elementIndex The element index
+     * @param componentIndex The component index
+     * @return The value
+     * @throws IllegalStateException If the component type is not 
+     * integral
+     */
+    private static int getInt(AccessorData accessorData, 
+        int elementIndex, int componentIndex)
+    {
+        if (accessorData.getComponentType() == byte.class)
+        {
+            AccessorByteData accessorByteData = 
+                (AccessorByteData)accessorData;
+            return accessorByteData.getInt(elementIndex, componentIndex);
+        }
+        if (accessorData.getComponentType() == short.class)
+        {
+            AccessorShortData accessorShortData = 
+                (AccessorShortData)accessorData;
+            return accessorShortData.getInt(elementIndex, componentIndex);
+        }
+        if (accessorData.getComponentType() == int.class)
+        {
+            AccessorIntData accessorIntData = 
+                (AccessorIntData)accessorData;
+            return accessorIntData.get(elementIndex, componentIndex);
+        }
+        throw new IllegalStateException(
+            "The component type is not integral");
+    }
+    
+    /**
+     * Creates a new, dense {@link AccessorData} that contains the data 
+     * of this sparse accessor data. The elements of the returned data 
+     * will be tightly packed.
+     * 
+     * @return The dense {@link AccessorData}
+     */
+    public AccessorData createDenseAccessorData()
+    {
+        ByteBuffer byteBuffer = allocateDenseByteBuffer();
+        AccessorData denseAccessorData = createAccessorData(byteBuffer);
+        writeInto(denseAccessorData);
+        return denseAccessorData;
+    }
+    
+    @Override
+    public ByteBuffer createByteBuffer()
+    {
+        ByteBuffer byteBuffer = allocateDenseByteBuffer();
+        AccessorData denseAccessorData = createAccessorData(byteBuffer);
+        writeInto(denseAccessorData);
+        return byteBuffer;
+    }
+    
+    /**
+     * Allocate a byte buffer that can hold the tightly packed, dense data
+     * 
+     * @return The byte buffer
+     */
+    private ByteBuffer allocateDenseByteBuffer()
+    {
+        int totalBytes = getTotalNumComponents() * 
+            Accessors.getNumBytesForAccessorComponentType(componentType);
+        return ByteBuffer.allocateDirect(totalBytes)
+            .order(ByteOrder.nativeOrder());
+    }
+    
+    /**
+     * Create an {@link AccessorData} with the tightly packed elements from
+     * the given byte buffer
+     * 
+     * @param byteBuffer The byte buffer
+     * @return The {@link AccessorData}
+     */
+    private AccessorData createAccessorData(ByteBuffer byteBuffer)
+    {
+        int elementSizeInBytes = getNumComponentsPerElement() * 
+            Accessors.getNumBytesForAccessorComponentType(componentType);
+        return AccessorDatas.create(componentType, byteBuffer, 0, 
+            numElements, elementType, elementSizeInBytes);
+    }
+    
+    /**
+     * Write the dense data that is represented by this sparse accessor 
+     * data into the given {@link AccessorData}. All elements of the given
+     * data will be overwritten: Elements that are not defined by the 
+     * sparse values will receive the value from the base data, or zero
+     * if there is no base data.
+     * 
+     * @param denseAccessorData The target {@link AccessorData}. This must
+     * be one of the type-specific implementations like 
+     * {@link AccessorFloatData}.
+     * @throws IllegalArgumentException If the given data does not have 
+     * the same component type, number of elements and number of 
+     * components per element as this data
+     */
+    public void writeInto(AccessorData denseAccessorData)
+    {
+        if (denseAccessorData.getComponentType() != getComponentType() ||
+            denseAccessorData.getNumElements() != numElements ||
+            denseAccessorData.getNumComponentsPerElement() != 
+                getNumComponentsPerElement())
+        {
+            throw new IllegalArgumentException(
+                "The target data does not match the sparse data");
+        }
+        Class<?> dataType = getComponentType();
+        if (dataType == byte.class)
+        {
+            writeInto((AccessorByteData)denseAccessorData);
+        }
+        else if (dataType == short.class)
+        {
+            writeInto((AccessorShortData)denseAccessorData);
+        }
+        else if (dataType == int.class)
+        {
+            writeInto((AccessorIntData)denseAccessorData);
+        }
+        else
+        {
+            writeInto((AccessorFloatData)denseAccessorData);
+        }
+    }
+
+    /**
+     * Implementation of {@link #writeInto(AccessorData)} for byte data
+     * 
+     * @param denseAccessorData The target {@link AccessorData}
+     */
+    private void writeInto(AccessorByteData denseAccessorData)
+    {
+        AccessorByteData base = (AccessorByteData)baseAccessorData;
+        int numComponents = getNumComponentsPerElement();
+        byte chunk[] = new byte[Math.min(numElements, CHUNK_SIZE) * 
+            numComponents];
+        for (int e = 0; e < numElements; e += CHUNK_SIZE)
+        {
+            int n = Math.min(CHUNK_SIZE, numElements - e);
+            if (base != null)
+            {
+                base.readElements(e, n, chunk, 0);
+            }
+            denseAccessorData.writeElements(e, n, chunk, 0);
+        }
+        AccessorByteData values = (AccessorByteData)valuesAccessorData;
+        for (int i = 0; i < indices.length; i++)
+        {
+            int valueIndex = getValueIndex(i);
+            for (int c = 0; c < numComponents; c++)
+            {
+                denseAccessorData.set(indices[i], c, values.get(valueIndex, c));
+            }
+        }
+    }
+
+    /**
+     * Implementation of {@link #writeInto(AccessorData)} for short data
+     * 
+     * @param denseAccessorData The target {@link AccessorData}
+     */
+    private void writeInto(AccessorShortData denseAccessorData)
+    {
+        AccessorShortData base = (AccessorShortData)baseAccessorData;
+        int numComponents = getNumComponentsPerElement();
+        short chunk[] = new short[Math.min(numElements, CHUNK_SIZE) * 
+            numComponents];
+        for (int e = 0; e < numElements; e += CHUNK_SIZE)
+        {
+            int n = Math.min(CHUNK_SIZE, numElements - e);
+            if (base != null)
+            {
+                base.readElements(e, n, chunk, 0);
+            }
+            denseAccessorData.writeElements(e, n, chunk, 0);
+        }
+        AccessorShortData values = (AccessorShortData)valuesAccessorData;
+        for (int i = 0; i < indices.length; i++)
+        {
+            int valueIndex = getValueIndex(i);
+            for (int c = 0; c < numComponents; c++)
+            {
+                denseAccessorData.set(indices[i], c, values.get(valueIndex, c));
+            }
+        }
+    }
+
+    /**
+     * Implementation of {@link #writeInto(AccessorData)} for int data
+     * 
+     * @param denseAccessorData The target {@link AccessorData}
+     */
+    private void writeInto(AccessorIntData denseAccessorData)
+    {
+        AccessorIntData base = (AccessorIntData)baseAccessorData;
+        int numComponents = getNumComponentsPerElement();
+        int chunk[] = new int[Math.min(numElements, CHUNK_SIZE) * 
+            numComponents];
+        for (int e = 0; e < numElements; e += CHUNK_SIZE)
+        {
+            int n = Math.min(CHUNK_SIZE, numElements - e);
+            if (base != null)
+            {
+                base.readElements(e, n, chunk, 0);
+            }
+            denseAccessorData.writeElements(e, n, chunk, 0);
+        }
+        AccessorIntData values = (AccessorIntData)valuesAccessorData;
+        for (int i = 0; i < indices.length; i++)
+        {
+            int valueIndex = getValueIndex(i);
+            for (int c = 0; c < numComponents; c++)
+            {
+                denseAccessorData.set(indices[i], c, values.get(valueIndex, c));
+            }
+        }
+    }
+
+    /**
+     * Implementation of {@link #writeInto(AccessorData)} for float data
+     * 
+     * @param denseAccessorData The target {@link AccessorData}
+     */
+    private void writeInto(AccessorFloatData denseAccessorData)
+    {
+        AccessorFloatData base = (AccessorFloatData)baseAccessorData;
+        int numComponents = getNumComponentsPerElement();
+        float chunk[] = new float[Math.min(numElements, CHUNK_SIZE) * 
+            numComponents];
+        for (int e = 0; e < numElements; e += CHUNK_SIZE)
+        {
+            int n = Math.min(CHUNK_SIZE, numElements - e);
+            if (base != null)
+            {
+                base.readElements(e, n, chunk, 0);
+            }
+            denseAccessorData.writeElements(e, n, chunk, 0);
+        }
+        AccessorFloatData values = (AccessorFloatData)valuesAccessorData;
+        for (int i = 0; i < indices.length; i++)
+        {
+            int valueIndex = getValueIndex(i);
+            for (int c = 0; c < numComponents; c++)
+            {
+                denseAccessorData.set(indices[i], c, values.get(valueIndex, c));
+            }
+        }
+    }
+}
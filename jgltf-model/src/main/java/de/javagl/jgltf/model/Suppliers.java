@@ -26,6 +26,7 @@
  */
 package de.javagl.jgltf.model;
 
+import java.lang.ref.SoftReference;
 import java.util.function.BiConsumer;
 import java.util.function.Supplier;
 
@@ -69,6 +70,89 @@ public class Suppliers
         };
     }
 
+    /**
+     * Create a supplier that obtains its value from the given delegate 
+     * when it is called for the first time, and returns the same value
+     * for all subsequent calls.<br>
+     * <br>
+     * If the delegate returns <code>null</code>, then this value will
+     * not be cached, and the delegate will be called again on the 
+     * next access.<br>
+     * <br>
+     * The returned supplier is thread-safe.
+     * 
+     * @param <T> The value type
+     * 
+     * @param delegate The delegate supplier
+     * @return The supplier
+     */
+    public static <T> Supplier<T> createCaching(
+        Supplier<? extends T> delegate)
+    {
+        return new Supplier<T>()
+        {
+            /**
+             * The cached value
+             */
+            private T value;
+            
+            @Override
+            public synchronized T get()
+            {
+                if (value == null)
+                {
+                    value = delegate.get();
+                }
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Create a supplier that obtains its value from the given delegate 
+     * when it is called for the first time, and keeps the value in a 
+     * soft reference. The value will thus be kept as long as there is 
+     * enough memory, and only be obtained again from the delegate after 
+     * it was garbage collected.<br>
+     * <br>
+     * If the delegate returns <code>null</code>, then this value will
+     * not be cached, and the delegate will be called again on the 
+     * next access.<br>
+     * <br>
+     * The returned supplier is thread-safe.
+     * 
+     * @param <T> The value type
+     * 
+     * @param delegate The delegate supplier
+     * @return The supplier
+     */
+    public static <T> Supplier<T> createSoftCaching(
+        Supplier<? extends T> delegate)
+    {
+        return new Supplier<T>()
+        {
+            /**
+             * The reference to the cached value
+             */
+            private SoftReference<T> reference;
+            
+            @Override
+            public synchronized T get()
+            {
+                T value = reference == null ? null : reference.get();
+                if (value == null)
+                {
+                    value = delegate.get();
+                    if (value != null)
+                    {
+                        reference = new SoftReference<T>(value);
+                    }
+                }
+                return value;
+            }
+        };
+    }
+    
     
     /**
      * Private constructor to prevent instantiation
@@ -46,15 +46,22 @@ public final class Animation
     
     /**
      * The values. Each element of this array corresponds to one key
-     * frame time
+     * frame time. This is <code>null</code> for cubic spline animations.
      */
     private final float values[][];
     
     /**
-     * The interpolator for the values
+     * The interpolator for the values. This is <code>null</code> for
+     * cubic spline animations.
      */
     private final Interpolator interpolator;
     
+    /**
+     * The interpolator for cubic spline animations. This is 
+     * <code>null</code> for all other animations.
+     */
+    private final CubicSplineInterpolator cubicSplineInterpolator;
+    
     /**
      * A pre-allocated array of the output values that will be passed
      * to the listeners. The listeners are not allowed to store or
@@ -70,7 +77,12 @@ public final class Animation
     
     /**
      * Creates a new animation with the given time key frames and the 
-     * corresponding values.
+     * corresponding values.<br>
+     * <br>
+     * For the {@link InterpolatorType#CUBICSPLINE} and 
+     * {@link InterpolatorType#CUBICSPLINE_QUATERNION} types, the values
+     * must contain three elements for each key frame time, namely the 
+     * in-tangent, the value, and the out-tangent.
      *  
      * @param timesS The time key frames, in seconds
      * @param values The values. Each element of this array consists of the
@@ -82,8 +94,9 @@ public final class Animation
      * elements
      * @throws IllegalArgumentException If any of the given arrays has a
      * length of 0
-     * @throws IllegalArgumentException If any of the given values arrays
-     * has a length that is different from the length of the times array. 
+     * @throws IllegalArgumentException If the given values array has a 
+     * length that is different from the length of the times array (or 
+     * three times the length of the times array, for cubic splines)
      */
     public Animation(
         float timesS[],
@@ -97,20 +110,34 @@ public final class Animation
             throw new IllegalArgumentException(
                 "The keys may not have a length of 0");
         }
-        if (values.length != timesS.length)
+        this.timesS = timesS.clone();
+        if (interpolatorType == InterpolatorType.CUBICSPLINE ||
+            interpolatorType == InterpolatorType.CUBICSPLINE_QUATERNION)
         {
-            throw new IllegalArgumentException(
-                "The values must have a length of "+timesS.length+", " + 
-                "but have a length of "+values.length);
+            boolean normalize = 
+                interpolatorType == InterpolatorType.CUBICSPLINE_QUATERNION;
+            this.values = null;
+            this.interpolator = null;
+            this.cubicSplineInterpolator = 
+                new CubicSplineInterpolator(timesS, values, normalize);
         }
-        this.timesS = timesS.clone();
-        this.values = new float[values.length][];
-        for (int i=0; i<values.length; i++)
+        else
         {
-            this.values[i] = values[i].clone();
+            if (values.length != timesS.length)
+            {
+                throw new IllegalArgumentException(
+                    "The values must have a length of "+timesS.length+", " + 
+                    "but have a length of "+values.length);
+            }
+            this.values = new float[values.length][];
+            for (int i=0; i<values.length; i++)
+            {
+                this.values[i] = values[i].clone();
+            }
+            this.interpolator = Interpolators.create(interpolatorType);
+            this.cubicSplineInterpolator = null;
         }
         this.outputValues = new float[values[0].length];
-        this.interpolator = Interpolators.create(interpolatorType);
         this.listeners = new CopyOnWriteArrayList<AnimationListener>();
     }
     
@@ -175,8 +202,14 @@ public final class Animation
     void update(float timeS)
     {
         int index0 = InterpolatorKeys.computeIndex(timeS, timesS);
-        int index1 = Math.min(timesS.length - 1, index0 + 1);
         float alpha = InterpolatorKeys.computeAlpha(timeS, timesS, index0);
+        if (cubicSplineInterpolator != null)
+        {
+            cubicSplineInterpolator.interpolate(index0, alpha, outputValues);
+            informListeners(timeS);
+            return;
+        }
+        int index1 = Math.min(timesS.length - 1, index0 + 1);
 
         //System.out.println("For "+timeS+" in "+Arrays.toString(timesS));
         //System.out.println("index0 "+index0);
@@ -186,6 +219,16 @@ public final class Animation
         float a[] = values[index0];
         float b[] = values[index1];
         interpolator.interpolate(a, b, alpha, outputValues);
+        informListeners(timeS);
+    }
+    
+    /**
+     * Inform all registered listeners about the current output values
+     * 
+     * @param timeS The time, in seconds
+     */
+    private void informListeners(float timeS)
+    {
         for (AnimationListener listener : listeners)
         {
             listener.animationUpdated(this, timeS, outputValues);
@@ -0,0 +1,608 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.animation;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A class for evaluating many animation channels at once.<br>
+ * <br>
+ * In contrast to a set of {@link Animation} instances, which store their
+ * values in individual arrays and pass the results to listeners, an
+ * animation batch stores the key frame times and values of all channels
+ * in flat arrays, and writes the results of all channels directly into
+ * a single output array, at the output offsets that are given when the
+ * channels are {@link #addChannel added}. The evaluation does not 
+ * allocate any memory.<br>
+ * <br>
+ * Each channel stores the index of the key frame segment that was used
+ * in the previous evaluation. For coherent playback, where the time 
+ * advances by small steps, this avoids the binary search of the key 
+ * frame times.<br>
+ * <br>
+ * This class is not thread-safe. Channels may not be added while the
+ * batch is evaluated. When a fork-join pool is given to the 
+ * {@link #evaluate(float, float[], ForkJoinPool) evaluate} method, 
+ * then the channels will be evaluated in parallel, in the given pool.
+ */
+public final class AnimationBatch
+{
+    /**
+     * The number of channels for which the evaluation will be performed
+     * in parallel, if a fork-join pool is given
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 11;
+    
+    /**
+     * The number of channels that will be evaluated by a single task
+     */
+    private static final int CHUNK_SIZE = 1 << 9;
+    
+    /**
+     * The initial capacity for the channels
+     */
+    private static final int INITIAL_CAPACITY = 16;
+    
+    /**
+     * The key frame times of all channels
+     */
+    private float times[];
+    
+    /**
+     * The number of elements of the {@link #times} that are used
+     */
+    private int timesSize;
+    
+    /**
+     * The values of all channels. For channels with cubic spline 
+     * interpolation, these are the polynomial coefficients of all 
+     * segments, followed by the value of the last key frame. 
+     */
+    private float values[];
+    
+    /**
+     * The number of elements of the {@link #values} that are used
+     */
+    private int valuesSize;
+    
+    /**
+     * The number of channels
+     */
+    private int numChannels;
+    
+    /**
+     * The offset of the first key frame time of each channel 
+     */
+    private int timesOffsets[];
+    
+    /**
+     * The number of key frames of each channel
+     */
+    private int numKeys[];
+    
+    /**
+     * The offset of the first value of each channel 
+     */
+    private int valuesOffsets[];
+    
+    /**
+     * The number of components of each channel
+     */
+    private int numComponents[];
+    
+    /**
+     * The {@link InterpolatorType} of each channel
+     */
+    private InterpolatorType interpolatorTypes[];
+    
+    /**
+     * The offset in the output array for each channel
+     */
+    private int outputOffsets[];
+    
+    /**
+     * The index of the segment that was found in the previous evaluation
+     * of each channel
+     */
+    private int lastSegments[];
+    
+    /**
+     * The maximum end time of all channels
+     */
+    private float endTimeS;
+    
+    /**
+     * Creates a new, empty animation batch
+     */
+    public AnimationBatch()
+    {
+        this.times = new float[INITIAL_CAPACITY];
+        this.values = new float[INITIAL_CAPACITY];
+        this.timesOffsets = new int[INITIAL_CAPACITY];
+        this.numKeys = new int[INITIAL_CAPACITY];
+        this.valuesOffsets = new int[INITIAL_CAPACITY];
+        this.numComponents = new int[INITIAL_CAPACITY];
+        this.interpolatorTypes = new InterpolatorType[INITIAL_CAPACITY];
+        this.outputOffsets = new int[INITIAL_CAPACITY];
+        this.lastSegments = new int[INITIAL_CAPACITY];
+        this.endTimeS = 0.0f;
+    }
+    
+    /**
+     * Add a new channel to this batch.<br>
+     * <br>
+     * The given values must contain <code>numComponents</code> elements
+     * for each key frame time. For the {@link InterpolatorType#CUBICSPLINE}
+     * and {@link InterpolatorType#CUBICSPLINE_QUATERNION} types, they
+     * must contain <code>3 * numComponents</code> elements for each key 
+     * frame time, namely the in-tangent, the value, and the out-tangent.
+     * For the {@link InterpolatorType#SLERP} type, the number of 
+     * components must be 4.<br>
+     * <br>
+     * The results of the channel will be written into the output array
+     * that is given to the <code>evaluate</code> methods, starting at the
+     * given offset.
+     * 
+     * @param timesS The key frame times, in seconds
+     * @param channelValues The values
+     * @param numComponents The number of components
+     * @param interpolatorType The {@link InterpolatorType}. If this is 
+     * <code>null</code>, then {@link InterpolatorType#LINEAR} will be used
+     * @param outputOffset The offset in the output array
+     * @return The index of the channel
+     * @throws NullPointerException If the times or values are 
+     * <code>null</code>
+     * @throws IllegalArgumentException If the times have a length of 0,
+     * or the number of values does not match the number of times and
+     * components, or the number of components is not 4 for the 
+     * {@link InterpolatorType#SLERP} type, or the output offset is 
+     * negative
+     */
+    public int addChannel(float timesS[], float channelValues[], 
+        int numComponents, InterpolatorType interpolatorType, 
+        int outputOffset)
+    {
+        Objects.requireNonNull(timesS, "The times may not be null");
+        Objects.requireNonNull(channelValues, "The values may not be null");
+        InterpolatorType type = interpolatorType == null ? 
+            InterpolatorType.LINEAR : interpolatorType;
+        if (timesS.length == 0)
+        {
+            throw new IllegalArgumentException(
+                "The times may not have a length of 0");
+        }
+        if (numComponents <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The number of components must be positive, but is " 
+                + numComponents);
+        }
+        if (outputOffset < 0)
+        {
+            throw new IllegalArgumentException(
+                "The output offset may not be negative, but is " 
+                + outputOffset);
+        }
+        if (type == InterpolatorType.SLERP && numComponents != 4)
+        {
+            throw new IllegalArgumentException(
+                "The SLERP interpolation requires 4 components, but " 
+                + "there are " + numComponents);
+        }
+        boolean cubic = isCubic(type);
+        int numKeysForChannel = timesS.length;
+        int expectedNumValues = numKeysForChannel * numComponents;
+        if (cubic)
+        {
+            expectedNumValues *= 3;
+        }
+        if (channelValues.length != expectedNumValues)
+        {
+            throw new IllegalArgumentException(
+                "The values must have a length of " + expectedNumValues 
+                + ", but have a length of " + channelValues.length);
+        }
+        
+        int channel = numChannels;
+        ensureChannelCapacity(channel + 1);
+        
+        int timesOffset = timesSize;
+        times = ensureCapacity(times, timesSize + numKeysForChannel);
+        System.arraycopy(timesS, 0, times, timesOffset, numKeysForChannel);
+        timesSize += numKeysForChannel;
+        
+        int valuesOffset = valuesSize;
+        if (cubic)
+        {
+            int numSegments = numKeysForChannel - 1;
+            int numCoefficients = numSegments * numComponents * 4;
+            values = ensureCapacity(values, 
+                valuesSize + numCoefficients + numComponents);
+            CubicSplineInterpolator.computeCoefficients(
+                timesS, channelValues, numComponents, values, valuesOffset);
+            int lastValueOffset = (numSegments * 3 + 1) * numComponents;
+            System.arraycopy(channelValues, lastValueOffset, values, 
+                valuesOffset + numCoefficients, numComponents);
+            valuesSize += numCoefficients + numComponents;
+        }
+        else
+        {
+            values = ensureCapacity(values, 
+                valuesSize + channelValues.length);
+            System.arraycopy(channelValues, 0, 
+                values, valuesOffset, channelValues.length);
+            valuesSize += channelValues.length;
+        }
+        
+        timesOffsets[channel] = timesOffset;
+        numKeys[channel] = numKeysForChannel;
+        valuesOffsets[channel] = valuesOffset;
+        this.numComponents[channel] = numComponents;
+        interpolatorTypes[channel] = type;
+        outputOffsets[channel] = outputOffset;
+        lastSegments[channel] = 0;
+        endTimeS = Math.max(endTimeS, timesS[numKeysForChannel - 1]);
+        numChannels++;
+        return channel;
+    }
+    
+    /**
+     * Returns whether the given type is a cubic spline interpolation
+     * 
+     * @param type The {@link InterpolatorType}
+     * @return Whether the type is a cubic spline type
+     */
+    private static boolean isCubic(InterpolatorType type)
+    {
+        return type == InterpolatorType.CUBICSPLINE ||
+            type == InterpolatorType.CUBICSPLINE_QUATERNION;
+    }
+    
+    /**
+     * Make sure that the channel arrays have at least the given capacity
+     * 
+     * @param capacity The capacity
+     */
+    private void ensureChannelCapacity(int capacity)
+    {
+        if (capacity <= timesOffsets.length)
+        {
+            return;
+        }
+        int newCapacity = Math.max(capacity, timesOffsets.length * 2);
+        timesOffsets = Arrays.copyOf(timesOffsets, newCapacity);
+        numKeys = Arrays.copyOf(numKeys, newCapacity);
+        valuesOffsets = Arrays.copyOf(valuesOffsets, newCapacity);
+        numComponents = Arrays.copyOf(numComponents, newCapacity);
+        interpolatorTypes = Arrays.copyOf(interpolatorTypes, newCapacity);
+        outputOffsets = Arrays.copyOf(outputOffsets, newCapacity);
+        lastSegments = Arrays.copyOf(lastSegments, newCapacity);
+    }
+    
+    /**
+     * Returns an array with at least the given capacity, containing the
+     * elements of the given array
+     * 
+     * @param array The array
+     * @param capacity The capacity
+     * @return The given array, or a larger copy of it 
+     */
+    private static float[] ensureCapacity(float array[], int capacity)
+    {
+        if (capacity <= array.length)
+        {
+            return array;
+        }
+        int newCapacity = Math.max(capacity, array.length * 2);
+        return Arrays.copyOf(array, newCapacity);
+    }
+    
+    /**
+     * Returns the number of channels in this batch
+     * 
+     * @return The number of channels
+     */
+    public int getNumChannels()
+    {
+        return numChannels;
+    }
+    
+    /**
+     * Returns the maximum end time of all channels, in seconds
+     * 
+     * @return The end time
+     */
+    public float getEndTimeS()
+    {
+        return endTimeS;
+    }
+    
+    /**
+     * Returns the minimum size that an output array must have in order 
+     * to store the results of all channels
+     * 
+     * @return The minimum output size
+     */
+    public int getMinimumOutputSize()
+    {
+        int result = 0;
+        for (int channel = 0; channel < numChannels; channel++)
+        {
+            result = Math.max(result, 
+                outputOffsets[channel] + numComponents[channel]);
+        }
+        return result;
+    }
+    
+    /**
+     * Evaluate all channels for the given time, and write the results
+     * into the given array. If there are many channels, then they will be
+     * evaluated in parallel, using the common fork-join pool.
+     * 
+     * @param timeS The time, in seconds
+     * @param output The output array
+     * @throws IndexOutOfBoundsException If the given array is smaller than
+     * the {@link #getMinimumOutputSize() minimum output size}
+     */
+    public void evaluate(float timeS, float output[])
+    {
+        evaluate(timeS, output, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Evaluate all channels for the given time, and write the results
+     * into the given array. If the given pool is not <code>null</code> 
+     * and there are many channels, then they will be evaluated in 
+     * parallel, using the given pool.
+     * 
+     * @param timeS The time, in seconds
+     * @param output The output array
+     * @param pool The optional fork-join pool
+     * @throws IndexOutOfBoundsException If the given array is smaller than
+     * the {@link #getMinimumOutputSize() minimum output size}
+     */
+    public void evaluate(float timeS, float output[], ForkJoinPool pool)
+    {
+        if (pool == null || numChannels < PARALLEL_THRESHOLD)
+        {
+            evaluateChannels(0, numChannels, timeS, output);
+        }
+        else
+        {
+            pool.invoke(new EvaluationTask(0, numChannels, timeS, output));
+        }
+    }
+    
+    /**
+     * Evaluate the channels in the given range
+     * 
+     * @param start The first channel, inclusive
+     * @param end The last channel, exclusive
+     * @param timeS The time, in seconds
+     * @param output The output array
+     */
+    private void evaluateChannels(int start, int end, 
+        float timeS, float output[])
+    {
+        for (int channel = start; channel < end; channel++)
+        {
+            evaluateChannel(channel, timeS, output);
+        }
+    }
+    
+    /**
+     * Evaluate the given channel
+     * 
+     * @param channel The channel
+     * @param timeS The time, in seconds
+     * @param output The output array
+     */
+    private void evaluateChannel(int channel, float timeS, float output[])
+    {
+        int n = numComponents[channel];
+        int k = numKeys[channel];
+        int valuesOffset = valuesOffsets[channel];
+        int outputOffset = outputOffsets[channel];
+        InterpolatorType type = interpolatorTypes[channel];
+        int segment = findSegment(channel, timeS);
+        if (isCubic(type))
+        {
+            if (segment == k - 1)
+            {
+                int lastValueOffset = valuesOffset + (k - 1) * n * 4;
+                System.arraycopy(
+                    values, lastValueOffset, output, outputOffset, n);
+            }
+            else
+            {
+                float alpha = computeAlpha(channel, segment, timeS);
+                CubicSplineInterpolator.evaluate(values, 
+                    valuesOffset + segment * n * 4, n, 
+                    alpha, output, outputOffset);
+            }
+            if (type == InterpolatorType.CUBICSPLINE_QUATERNION)
+            {
+                CubicSplineInterpolator.normalize(output, outputOffset, n);
+            }
+            return;
+        }
+        int offset0 = valuesOffset + segment * n;
+        if (type == InterpolatorType.STEP || segment == k - 1)
+        {
+            System.arraycopy(values, offset0, output, outputOffset, n);
+            return;
+        }
+        float alpha = computeAlpha(channel, segment, timeS);
+        int offset1 = offset0 + n;
+        if (type == InterpolatorType.SLERP)
+        {
+            SlerpQuaternionInterpolator.slerp(
+                values, offset0, values, offset1, alpha, output, outputOffset);
+            return;
+        }
+        for (int c = 0; c < n; c++)
+        {
+            float a = values[offset0 + c];
+            float b = values[offset1 + c];
+            output[outputOffset + c] = a + alpha * (b - a);
+        }
+    }
+    
+    /**
+     * Find the index of the key frame segment of the given channel that 
+     * contains the given time. If the time is not smaller than the last
+     * key frame time, then the index of the last key frame is returned.
+     * If the time is smaller than the first key frame time, then 0 is
+     * returned.<br>
+     * <br>
+     * This will first check the segment that was found in the previous
+     * call, and the segment after that, and only perform a binary search
+     * if the time is in neither of them.
+     * 
+     * @param channel The channel
+     * @param timeS The time, in seconds
+     * @return The segment index
+     */
+    private int findSegment(int channel, float timeS)
+    {
+        int k = numKeys[channel];
+        int timesOffset = timesOffsets[channel];
+        if (k == 1 || timeS <= times[timesOffset])
+        {
+            return 0;
+        }
+        if (timeS >= times[timesOffset + k - 1])
+        {
+            return k - 1;
+        }
+        int segment = lastSegments[channel];
+        int t = timesOffset + segment;
+        if (times[t] <= timeS)
+        {
+            if (timeS < times[t + 1])
+            {
+                return segment;
+            }
+            if (timeS < times[t + 2])
+            {
+                lastSegments[channel] = segment + 1;
+                return segment + 1;
+            }
+        }
+        int index = Arrays.binarySearch(
+            times, timesOffset, timesOffset + k, timeS);
+        if (index < 0)
+        {
+            index = -index - 2;
+        }
+        segment = index - timesOffset;
+        lastSegments[channel] = segment;
+        return segment;
+    }
+    
+    /**
+     * Compute the relative position of the given time in the specified
+     * segment of the given channel, clamped to [0,1]
+     * 
+     * @param channel The channel
+     * @param segment The segment
+     * @param timeS The time, in seconds
+     * @return The relative position
+     */
+    private float computeAlpha(int channel, int segment, float timeS)
+    {
+        int t = timesOffsets[channel] + segment;
+        float t0 = times[t];
+        float t1 = times[t + 1];
+        float alpha = (timeS - t0) / (t1 - t0);
+        return Math.max(0.0f, Math.min(1.0f, alpha));
+    }
+    
+    /**
+     * A task for evaluating a range of channels
+     */
+    private class EvaluationTask extends RecursiveAction
+    {
+        /**
+         * Serial UID
+         */
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * The first channel, inclusive
+         */
+        private final int start;
+        
+        /**
+         * The last channel, exclusive
+         */
+        private final int end;
+        
+        /**
+         * The time, in seconds
+         */
+        private final float timeS;
+        
+        /**
+         * The output array
+         */
+        private final float output[];
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param start The first channel, inclusive
+         * @param end The last channel, exclusive
+         * @param timeS The time, in seconds
+         * @param output The output array
+         */
+        EvaluationTask(int start, int end, float timeS, float output[])
+        {
+            this.start = start;
+            this.end = end;
+            this.timeS = timeS;
+            this.output = output;
+        }
+        
+        @Override
+        protected void compute()
+        {
+            if (end - start <= CHUNK_SIZE)
+            {
+                evaluateChannels(start, end, timeS, output);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(
+                new EvaluationTask(start, middle, timeS, output),
+                new EvaluationTask(middle, end, timeS, output));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.animation;
+
+/**
+ * Package-private class for a cubic Hermite spline interpolation, as 
+ * described for the glTF <code>CUBICSPLINE</code> interpolation.<br>
+ * <br>
+ * The spline is defined by key frame times and, for each key frame, an 
+ * in-tangent, a value, and an out-tangent. The polynomial coefficients
+ * of all segments are computed once, at construction time, so that the
+ * evaluation does not require any allocations.
+ */
+class CubicSplineInterpolator
+{
+    /**
+     * The number of components of each value
+     */
+    private final int numComponents;
+    
+    /**
+     * The number of segments
+     */
+    private final int numSegments;
+    
+    /**
+     * The polynomial coefficients. For each segment and component, this 
+     * contains 4 coefficients <code>c0, c1, c2, c3</code>, so that the 
+     * value for the relative position <code>s</code> in the segment is
+     * <code>c0 + c1 * s + c2 * s^2 + c3 * s^3</code>.
+     */
+    private final float coefficients[];
+    
+    /**
+     * The value of the last key frame
+     */
+    private final float lastValue[];
+    
+    /**
+     * Whether the result should be normalized, as it is required for
+     * quaternions
+     */
+    private final boolean normalize;
+    
+    /**
+     * Creates a new instance.<br>
+     * <br>
+     * The given values must contain 3 elements for each key frame time,
+     * namely the in-tangent, the value, and the out-tangent.
+     * 
+     * @param timesS The key frame times, in seconds
+     * @param values The values
+     * @param normalize Whether the results should be normalized
+     * @throws IllegalArgumentException If the length of the values is not
+     * three times the length of the times
+     */
+    CubicSplineInterpolator(float timesS[], float values[][], 
+        boolean normalize)
+    {
+        int numKeys = timesS.length;
+        if (values.length != numKeys * 3)
+        {
+            throw new IllegalArgumentException(
+                "The values must have a length of " + (numKeys * 3) + ", " 
+                + "but have a length of " + values.length);
+        }
+        this.numComponents = values[0].length;
+        this.numSegments = numKeys - 1;
+        this.coefficients = new float[numSegments * numComponents * 4];
+        this.lastValue = values[(numKeys - 1) * 3 + 1].clone();
+        this.normalize = normalize;
+        float flatValues[] = new float[values.length * numComponents];
+        for (int i = 0; i < values.length; i++)
+        {
+            System.arraycopy(values[i], 0, 
+                flatValues, i * numComponents, numComponents);
+        }
+        computeCoefficients(timesS, flatValues, numComponents, 
+            coefficients, 0);
+    }
+    
+    /**
+     * Compute the polynomial coefficients for all segments of a cubic 
+     * spline.<br>
+     * <br>
+     * The given values must contain <code>3 * numComponents</code> 
+     * elements for each key frame time, namely the in-tangent, the value, 
+     * and the out-tangent. The coefficients will be written into the 
+     * given array, starting at the given offset: For each segment and 
+     * component, 4 coefficients <code>c0, c1, c2, c3</code> will be 
+     * written, so that the value for the relative position <code>s</code>
+     * in the segment is <code>c0 + c1 * s + c2 * s^2 + c3 * s^3</code>.
+     * 
+     * @param timesS The key frame times
+     * @param values The values
+     * @param numComponents The number of components
+     * @param coefficients The array that will store the coefficients
+     * @param offset The offset in the coefficients array
+     */
+    static void computeCoefficients(float timesS[], float values[],
+        int numComponents, float coefficients[], int offset)
+    {
+        int n = numComponents;
+        for (int k = 0; k < timesS.length - 1; k++)
+        {
+            float dt = timesS[k + 1] - timesS[k];
+            int v0 = (k * 3 + 1) * n;
+            int b0 = (k * 3 + 2) * n;
+            int a1 = ((k + 1) * 3 + 0) * n;
+            int v1 = ((k + 1) * 3 + 1) * n;
+            for (int c = 0; c < n; c++)
+            {
+                float p0 = values[v0 + c];
+                float p1 = values[v1 + c];
+                float m0 = dt * values[b0 + c];
+                float m1 = dt * values[a1 + c];
+                int o = offset + (k * n + c) * 4;
+                coefficients[o + 0] = p0;
+                coefficients[o + 1] = m0;
+                coefficients[o + 2] = -3.0f * p0 - 2.0f * m0 + 3.0f * p1 - m1;
+                coefficients[o + 3] = 2.0f * p0 + m0 - 2.0f * p1 + m1;
+            }
+        }
+    }
+    
+    /**
+     * Evaluate the spline in the specified segment, at the given relative
+     * position, and write the result into the given array. If the given 
+     * segment index is not smaller than the number of segments, then the 
+     * value of the last key frame will be written into the result.
+     * 
+     * @param segmentIndex The index of the segment
+     * @param alpha The relative position in the segment, in [0,1]
+     * @param result The array that will store the result
+     */
+    void interpolate(int segmentIndex, float alpha, float result[])
+    {
+        if (segmentIndex >= numSegments)
+        {
+            System.arraycopy(lastValue, 0, result, 0, numComponents);
+        }
+        else
+        {
+            evaluate(coefficients, segmentIndex * numComponents * 4, 
+                numComponents, alpha, result, 0);
+        }
+        if (normalize)
+        {
+            normalize(result, 0, numComponents);
+        }
+    }
+    
+    /**
+     * Evaluate the cubic polynomials with the specified coefficients, as
+     * they are computed by 
+     * {@link #computeCoefficients(float[], float[], int, float[], int)},
+     * at the given relative position, and write the result into the
+     * given array
+     * 
+     * @param coefficients The coefficients
+     * @param offset The offset of the coefficients of the segment
+     * @param numComponents The number of components
+     * @param alpha The relative position in the segment, in [0,1]
+     * @param result The array that will store the result
+     * @param resultOffset The offset in the result array
+     */
+    static void evaluate(float coefficients[], int offset, int numComponents,
+        float alpha, float result[], int resultOffset)
+    {
+        int o = offset;
+        for (int c = 0; c < numComponents; c++)
+        {
+            float c0 = coefficients[o + 0];
+            float c1 = coefficients[o + 1];
+            float c2 = coefficients[o + 2];
+            float c3 = coefficients[o + 3];
+            result[resultOffset + c] = 
+                ((c3 * alpha + c2) * alpha + c1) * alpha + c0;
+            o += 4;
+        }
+    }
+    
+    /**
+     * Normalize the specified vector, if it has a nonzero length
+     * 
+     * @param vector The array containing the vector
+     * @param offset The offset of the vector in the array
+     * @param n The number of components
+     */
+    static void normalize(float vector[], int offset, int n)
+    {
+        float lengthSquared = 0.0f;
+        for (int c = 0; c < n; c++)
+        {
+            float v = vector[offset + c];
+            lengthSquared += v * v;
+        }
+        if (lengthSquared > 0.0f)
+        {
+            float invLength = (float) (1.0 / Math.sqrt(lengthSquared));
+            for (int c = 0; c < n; c++)
+            {
+                vector[offset + c] *= invLength;
+            }
+        }
+    }
+}
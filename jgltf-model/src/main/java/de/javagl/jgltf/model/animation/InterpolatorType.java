@@ -20,5 +20,19 @@ public enum InterpolatorType
     /**
      * A stepwise interpolation
      */
-    STEP
+    STEP,
+    
+    /**
+     * A cubic Hermite spline interpolation. The values for this type 
+     * consist of three elements for each key frame, namely the in-tangent,
+     * the value, and the out-tangent
+     */
+    CUBICSPLINE,
+    
+    /**
+     * A cubic Hermite spline interpolation of quaternions. The values are 
+     * the same as for {@link #CUBICSPLINE}, but each result is normalized
+     * after the interpolation
+     */
+    CUBICSPLINE_QUATERNION
 }
\ No newline at end of file
@@ -35,16 +35,34 @@ class SlerpQuaternionInterpolator implements Interpolator
 
     @Override
     public void interpolate(float[] a, float[] b, float alpha, float[] result)
+    {
+        slerp(a, 0, b, 0, alpha, result, 0);
+    }
+    
+    /**
+     * Perform a spherical linear interpolation between the specified
+     * quaternions, and write the result into the given array
+     * 
+     * @param a The array containing the first quaternion
+     * @param aOffset The offset of the first quaternion
+     * @param b The array containing the second quaternion
+     * @param bOffset The offset of the second quaternion
+     * @param alpha The interpolation value
+     * @param result The array that will store the result
+     * @param resultOffset The offset in the result array
+     */
+    static void slerp(float a[], int aOffset, float b[], int bOffset, 
+        float alpha, float result[], int resultOffset)
     {
         // Adapted from javax.vecmath.Quat4f
-        float ax = a[0];
-        float ay = a[1];
-        float az = a[2];
-        float aw = a[3];
-        float bx = b[0];
-        float by = b[1];
-        float bz = b[2];
-        float bw = b[3];
+        float ax = a[aOffset + 0];
+        float ay = a[aOffset + 1];
+        float az = a[aOffset + 2];
+        float aw = a[aOffset + 3];
+        float bx = b[bOffset + 0];
+        float by = b[bOffset + 1];
+        float bz = b[bOffset + 2];
+        float bw = b[bOffset + 3];
 
         float dot = ax * bx + ay * by + az * bz + aw * bw;
         if (dot < 0)
@@ -73,10 +91,10 @@ class SlerpQuaternionInterpolator implements Interpolator
         float ry = s0 * ay + s1 * by;
         float rz = s0 * az + s1 * bz;
         float rw = s0 * aw + s1 * bw;
-        result[0] = rx;
-        result[1] = ry;
-        result[2] = rz;
-        result[3] = rw;
+        result[resultOffset + 0] = rx;
+        result[resultOffset + 1] = ry;
+        result[resultOffset + 2] = rz;
+        result[resultOffset + 3] = rw;
     }
 
 }
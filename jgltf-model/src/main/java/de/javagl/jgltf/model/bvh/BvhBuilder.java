@@ -0,0 +1,533 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.bvh;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Package-private class for building the nodes of a bounding volume 
+ * hierarchy over a set of triangles, using the surface area heuristic
+ * (SAH) with a fixed number of bins.<br>
+ * <br>
+ * The nodes are stored in flat arrays: 
+ * <ul>
+ *   <li>
+ *     The {@link #nodeBounds} contain the 6 values 
+ *     <code>minX, minY, minZ, maxX, maxY, maxZ</code> for each node
+ *   </li>
+ *   <li>
+ *     For inner nodes, the {@link #nodeCounts} are 0, and the 
+ *     {@link #nodeFirsts} are the indices of the left children. The right 
+ *     children are stored directly after the left children.
+ *   </li>
+ *   <li>
+ *     For leaf nodes, the {@link #nodeCounts} are the numbers of 
+ *     triangles, and the {@link #nodeFirsts} are the indices of the
+ *     first triangles in the {@link #triangleOrder}
+ *   </li>
+ * </ul>
+ * The children of a node always have a larger index than the node 
+ * itself.
+ */
+final class BvhBuilder
+{
+    /**
+     * The number of bins for the evaluation of the SAH
+     */
+    private static final int NUM_BINS = 16;
+    
+    /**
+     * The maximum number of triangles for which a leaf may be created
+     * when splitting the node would be more expensive
+     */
+    private static final int MAX_LEAF_SIZE = 16;
+    
+    /**
+     * The number of triangles up to which a leaf is always created
+     */
+    private static final int MIN_SPLIT_SIZE = 2;
+    
+    /**
+     * The minimum number of triangles in a node for which the children
+     * will be built in parallel
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 12;
+    
+    /**
+     * The triangle vertices, 9 for each triangle
+     */
+    private final float vertices[];
+    
+    /**
+     * The triangle centroids, 3 for each triangle
+     */
+    private final float centroids[];
+    
+    /**
+     * The indices of the triangles, in the order in which they are 
+     * referred to by the leaf nodes
+     */
+    final int triangleOrder[];
+    
+    /**
+     * The bounds of the nodes
+     */
+    final float nodeBounds[];
+    
+    /**
+     * The index of the left child or the first triangle of each node
+     */
+    final int nodeFirsts[];
+    
+    /**
+     * The number of triangles of each leaf node, or 0 for inner nodes
+     */
+    final int nodeCounts[];
+    
+    /**
+     * The number of nodes that have been created
+     */
+    private final AtomicInteger numNodes;
+    
+    /**
+     * The maximum depth of the hierarchy, where the root has depth 0
+     */
+    private final AtomicInteger maxDepth;
+    
+    /**
+     * Creates a new builder for the given triangles
+     * 
+     * @param vertices The triangle vertices, 9 for each triangle
+     */
+    BvhBuilder(float vertices[])
+    {
+        this.vertices = vertices;
+        int numTriangles = vertices.length / 9;
+        this.centroids = new float[numTriangles * 3];
+        for (int t = 0; t < numTriangles; t++)
+        {
+            for (int c = 0; c < 3; c++)
+            {
+                centroids[t * 3 + c] = (vertices[t * 9 + c] 
+                    + vertices[t * 9 + 3 + c] 
+                    + vertices[t * 9 + 6 + c]) / 3.0f;
+            }
+        }
+        this.triangleOrder = new int[numTriangles];
+        for (int t = 0; t < numTriangles; t++)
+        {
+            triangleOrder[t] = t;
+        }
+        int maxNumNodes = Math.max(1, numTriangles * 2 - 1);
+        this.nodeBounds = new float[maxNumNodes * 6];
+        this.nodeFirsts = new int[maxNumNodes];
+        this.nodeCounts = new int[maxNumNodes];
+        this.numNodes = new AtomicInteger(1);
+        this.maxDepth = new AtomicInteger(0);
+    }
+    
+    /**
+     * Build the hierarchy
+     * 
+     * @param pool The optional fork-join pool for building the hierarchy
+     * in parallel
+     */
+    void build(ForkJoinPool pool)
+    {
+        BuildTask task = new BuildTask(0, 0, triangleOrder.length, 0, 
+            pool != null);
+        if (pool != null)
+        {
+            pool.invoke(task);
+        }
+        else
+        {
+            task.buildNode();
+        }
+    }
+    
+    /**
+     * Returns the number of nodes
+     * 
+     * @return The number of nodes
+     */
+    int getNumNodes()
+    {
+        return numNodes.get();
+    }
+    
+    /**
+     * Returns the maximum depth of the hierarchy
+     * 
+     * @return The maximum depth
+     */
+    int getMaxDepth()
+    {
+        return maxDepth.get();
+    }
+    
+    /**
+     * A task for building one node and its descendants
+     */
+    private class BuildTask extends RecursiveAction
+    {
+        /**
+         * Serial UID
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The index of the node
+         */
+        private final int node;
+        
+        /**
+         * The start of the triangle range, inclusive
+         */
+        private final int start;
+        
+        /**
+         * The end of the triangle range, exclusive
+         */
+        private final int end;
+        
+        /**
+         * The depth of the node
+         */
+        private final int depth;
+        
+        /**
+         * Whether large children should be built in parallel
+         */
+        private final boolean parallel;
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param node The index of the node
+         * @param start The start of the triangle range, inclusive
+         * @param end The end of the triangle range, exclusive
+         * @param depth The depth of the node
+         * @param parallel Whether children should be built in parallel
+         */
+        BuildTask(int node, int start, int end, int depth, boolean parallel)
+        {
+            this.node = node;
+            this.start = start;
+            this.end = end;
+            this.depth = depth;
+            this.parallel = parallel;
+        }
+        
+        @Override
+        protected void compute()
+        {
+            buildNode();
+        }
+        
+        /**
+         * Build the node and its descendants
+         */
+        void buildNode()
+        {
+            maxDepth.accumulateAndGet(depth, Math::max);
+            float centroidBounds[] = new float[6];
+            computeBounds(node, start, end, centroidBounds);
+            int count = end - start;
+            int split = -1;
+            if (count > MIN_SPLIT_SIZE)
+            {
+                split = findSplit(node, start, end, centroidBounds, 
+                    count > MAX_LEAF_SIZE);
+            }
+            if (split == -1)
+            {
+                nodeFirsts[node] = start;
+                nodeCounts[node] = count;
+                return;
+            }
+            int left = numNodes.getAndAdd(2);
+            nodeFirsts[node] = left;
+            nodeCounts[node] = 0;
+            BuildTask leftTask = 
+                new BuildTask(left, start, split, depth + 1, parallel);
+            BuildTask rightTask = 
+                new BuildTask(left + 1, split, end, depth + 1, parallel);
+            if (parallel && count >= PARALLEL_THRESHOLD)
+            {
+                invokeAll(leftTask, rightTask);
+            }
+            else
+            {
+                leftTask.buildNode();
+                rightTask.buildNode();
+            }
+        }
+    }
+    
+    /**
+     * Compute the bounds of the given node from the triangles in the
+     * given range, and the bounds of their centroids
+     * 
+     * @param node The node
+     * @param start The start of the triangle range, inclusive
+     * @param end The end of the triangle range, exclusive
+     * @param centroidBounds The array that will store the centroid bounds
+     */
+    private void computeBounds(int node, int start, int end, 
+        float centroidBounds[])
+    {
+        int offset = node * 6;
+        initializeBounds(nodeBounds, offset);
+        initializeBounds(centroidBounds, 0);
+        for (int i = start; i < end; i++)
+        {
+            int t = triangleOrder[i];
+            for (int v = 0; v < 3; v++)
+            {
+                includePoint(nodeBounds, offset, vertices, t * 9 + v * 3);
+            }
+            includePoint(centroidBounds, 0, centroids, t * 3);
+        }
+    }
+    
+    /**
+     * Find the best split of the triangles in the given range, according
+     * to the SAH, and partition the triangles accordingly
+     * 
+     * @param node The node
+     * @param start The start of the triangle range, inclusive
+     * @param end The end of the triangle range, exclusive
+     * @param centroidBounds The bounds of the triangle centroids
+     * @param force Whether a split should be performed even when it
+     * is more expensive than creating a leaf
+     * @return The index where the triangle range was split, or -1 if 
+     * the node should become a leaf
+     */
+    private int findSplit(int node, int start, int end, 
+        float centroidBounds[], boolean force)
+    {
+        int count = end - start;
+        float bestCost = Float.POSITIVE_INFINITY;
+        int bestAxis = -1;
+        int bestBin = -1;
+        int binCounts[] = new int[NUM_BINS];
+        float binBounds[] = new float[NUM_BINS * 6];
+        float rightAreas[] = new float[NUM_BINS];
+        float accumulated[] = new float[6];
+        for (int axis = 0; axis < 3; axis++)
+        {
+            float min = centroidBounds[axis];
+            float extent = centroidBounds[3 + axis] - min;
+            if (!(extent > 0.0f))
+            {
+                continue;
+            }
+            float scale = NUM_BINS / extent;
+            Arrays.fill(binCounts, 0);
+            for (int b = 0; b < NUM_BINS; b++)
+            {
+                initializeBounds(binBounds, b * 6);
+            }
+            for (int i = start; i < end; i++)
+            {
+                int t = triangleOrder[i];
+                int b = computeBin(centroids[t * 3 + axis], min, scale);
+                binCounts[b]++;
+                for (int v = 0; v < 3; v++)
+                {
+                    includePoint(binBounds, b * 6, vertices, t * 9 + v * 3);
+                }
+            }
+            
+            // Sweep from the right, to compute the areas of the
+            // right sides of all splits
+            initializeBounds(accumulated, 0);
+            for (int b = NUM_BINS - 1; b > 0; b--)
+            {
+                includeBounds(accumulated, binBounds, b * 6, binCounts[b]);
+                rightAreas[b] = computeArea(accumulated);
+            }
+            
+            // Sweep from the left, and evaluate the cost of each split
+            initializeBounds(accumulated, 0);
+            int leftCount = 0;
+            for (int b = 0; b < NUM_BINS - 1; b++)
+            {
+                includeBounds(accumulated, binBounds, b * 6, binCounts[b]);
+                leftCount += binCounts[b];
+                int rightCount = count - leftCount;
+                if (leftCount == 0 || rightCount == 0)
+                {
+                    continue;
+                }
+                float cost = leftCount * computeArea(accumulated) 
+                    + rightCount * rightAreas[b + 1];
+                if (cost < bestCost)
+                {
+                    bestCost = cost;
+                    bestAxis = axis;
+                    bestBin = b;
+                }
+            }
+        }
+        if (bestAxis == -1)
+        {
+            return -1;
+        }
+        float nodeArea = computeArea(nodeBounds, node * 6);
+        float leafCost = count * nodeArea;
+        float splitCost = nodeArea + bestCost;
+        if (!force && splitCost >= leafCost)
+        {
+            return -1;
+        }
+        
+        // Partition the triangles so that the ones that belong to the
+        // left side are at the beginning of the range
+        float min = centroidBounds[bestAxis];
+        float scale = NUM_BINS / (centroidBounds[3 + bestAxis] - min);
+        int i = start;
+        int j = end - 1;
+        while (i <= j)
+        {
+            int t = triangleOrder[i];
+            int b = computeBin(centroids[t * 3 + bestAxis], min, scale);
+            if (b <= bestBin)
+            {
+                i++;
+            }
+            else
+            {
+                triangleOrder[i] = triangleOrder[j];
+                triangleOrder[j] = t;
+                j--;
+            }
+        }
+        return i;
+    }
+    
+    /**
+     * Compute the bin for the given centroid coordinate
+     * 
+     * @param value The coordinate
+     * @param min The minimum coordinate
+     * @param scale The scale from coordinates to bins
+     * @return The bin
+     */
+    private static int computeBin(float value, float min, float scale)
+    {
+        int b = (int) ((value - min) * scale);
+        return Math.max(0, Math.min(NUM_BINS - 1, b));
+    }
+    
+    /**
+     * Initialize the specified bounds to be empty
+     * 
+     * @param bounds The bounds array
+     * @param offset The offset in the bounds array
+     */
+    static void initializeBounds(float bounds[], int offset)
+    {
+        for (int c = 0; c < 3; c++)
+        {
+            bounds[offset + c] = Float.POSITIVE_INFINITY;
+            bounds[offset + 3 + c] = Float.NEGATIVE_INFINITY;
+        }
+    }
+    
+    /**
+     * Include the specified point in the specified bounds
+     * 
+     * @param bounds The bounds array
+     * @param offset The offset in the bounds array
+     * @param points The points array
+     * @param pointOffset The offset in the points array
+     */
+    static void includePoint(float bounds[], int offset, 
+        float points[], int pointOffset)
+    {
+        for (int c = 0; c < 3; c++)
+        {
+            float p = points[pointOffset + c];
+            bounds[offset + c] = Math.min(bounds[offset + c], p);
+            bounds[offset + 3 + c] = Math.max(bounds[offset + 3 + c], p);
+        }
+    }
+    
+    /**
+     * Include the specified bounds in the given bounds, if the given 
+     * count is positive
+     * 
+     * @param bounds The bounds
+     * @param other The other bounds array
+     * @param offset The offset in the other bounds array
+     * @param count The number of triangles in the other bounds
+     */
+    private static void includeBounds(float bounds[], 
+        float other[], int offset, int count)
+    {
+        if (count == 0)
+        {
+            return;
+        }
+        for (int c = 0; c < 3; c++)
+        {
+            bounds[c] = Math.min(bounds[c], other[offset + c]);
+            bounds[3 + c] = Math.max(bounds[3 + c], other[offset + 3 + c]);
+        }
+    }
+    
+    /**
+     * Compute the surface area of the given bounds
+     * 
+     * @param bounds The bounds
+     * @return The surface area
+     */
+    private static float computeArea(float bounds[])
+    {
+        return computeArea(bounds, 0);
+    }
+    
+    /**
+     * Compute the surface area of the specified bounds
+     * 
+     * @param bounds The bounds array
+     * @param offset The offset in the bounds array
+     * @return The surface area
+     */
+    private static float computeArea(float bounds[], int offset)
+    {
+        float dx = bounds[offset + 3] - bounds[offset + 0];
+        float dy = bounds[offset + 4] - bounds[offset + 1];
+        float dz = bounds[offset + 5] - bounds[offset + 2];
+        return 2.0f * (dx * dy + dy * dz + dz * dx);
+    }
+}
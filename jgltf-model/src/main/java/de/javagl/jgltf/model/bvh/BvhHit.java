@@ -0,0 +1,149 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.bvh;
+
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.NodeModel;
+
+/**
+ * A result of a query on a {@link SceneBvh}, referring to a single 
+ * triangle of a {@link MeshPrimitiveModel} that is attached to a
+ * {@link NodeModel}
+ */
+public final class BvhHit
+{
+    /**
+     * The node model
+     */
+    private final NodeModel nodeModel;
+    
+    /**
+     * The mesh primitive model
+     */
+    private final MeshPrimitiveModel meshPrimitiveModel;
+    
+    /**
+     * The index of the triangle in the mesh primitive
+     */
+    private final int triangleIndex;
+    
+    /**
+     * The distance of the hit
+     */
+    private final float distance;
+    
+    /**
+     * The point of the hit, in world coordinates
+     */
+    private final float point[];
+    
+    /**
+     * Creates a new instance
+     * 
+     * @param nodeModel The node model
+     * @param meshPrimitiveModel The mesh primitive model
+     * @param triangleIndex The triangle index
+     * @param distance The distance
+     * @param point The point. A reference to this array will be stored.
+     */
+    BvhHit(NodeModel nodeModel, MeshPrimitiveModel meshPrimitiveModel,
+        int triangleIndex, float distance, float point[])
+    {
+        this.nodeModel = nodeModel;
+        this.meshPrimitiveModel = meshPrimitiveModel;
+        this.triangleIndex = triangleIndex;
+        this.distance = distance;
+        this.point = point;
+    }
+    
+    /**
+     * Returns the {@link NodeModel} that the triangle is attached to
+     * 
+     * @return The {@link NodeModel}
+     */
+    public NodeModel getNodeModel()
+    {
+        return nodeModel;
+    }
+    
+    /**
+     * Returns the {@link MeshPrimitiveModel} that contains the triangle
+     * 
+     * @return The {@link MeshPrimitiveModel}
+     */
+    public MeshPrimitiveModel getMeshPrimitiveModel()
+    {
+        return meshPrimitiveModel;
+    }
+    
+    /**
+     * Returns the index of the triangle in the {@link MeshPrimitiveModel}.
+     * This is the index of the triangle in the sequence of triangles that
+     * is described by the indices (or the vertices) of the primitive,
+     * depending on its rendering mode.
+     * 
+     * @return The triangle index
+     */
+    public int getTriangleIndex()
+    {
+        return triangleIndex;
+    }
+    
+    /**
+     * Returns the distance of the hit. For ray casts, this is the distance
+     * between the ray origin and the hit point, in units of the ray 
+     * direction length. For nearest-point queries, this is the distance 
+     * between the query point and the closest point. For box and frustum 
+     * queries, this is <code>NaN</code>.
+     * 
+     * @return The distance
+     */
+    public float getDistance()
+    {
+        return distance;
+    }
+    
+    /**
+     * Returns a copy of the point of the hit, in world coordinates. For
+     * box and frustum queries, this is <code>null</code>.
+     * 
+     * @return The point
+     */
+    public float[] getPoint()
+    {
+        return point == null ? null : point.clone();
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "BvhHit[" 
+            + "nodeModel=" + nodeModel 
+            + ",triangleIndex=" + triangleIndex 
+            + ",distance=" + distance + "]";
+    }
+}
@@ -0,0 +1,481 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.bvh;
+
+/**
+ * Package-private geometric utility methods for the BVH queries.<br>
+ * <br>
+ * Triangles are given as an array that contains the 9 coordinates of
+ * the vertices of each triangle, and an offset into this array. Boxes 
+ * are given as an array that contains the 6 values 
+ * <code>minX, minY, minZ, maxX, maxY, maxZ</code> of each box, and an 
+ * offset into this array.
+ */
+class Intersections
+{
+    /**
+     * The epsilon for detecting rays that are parallel to a triangle
+     */
+    private static final float EPSILON = 1e-12f;
+    
+    /**
+     * Compute the parameter of the intersection of the given ray with the 
+     * specified triangle, using the Möller-Trumbore algorithm. Both sides
+     * of the triangle are considered.
+     * 
+     * @param origin The ray origin
+     * @param direction The ray direction
+     * @param vertices The triangle vertices
+     * @param offset The offset of the triangle in the vertices array
+     * @return The ray parameter of the intersection, or <code>NaN</code>
+     * if the ray does not hit the triangle
+     */
+    static float intersectRayTriangle(
+        float origin[], float direction[], float vertices[], int offset)
+    {
+        float v0x = vertices[offset + 0];
+        float v0y = vertices[offset + 1];
+        float v0z = vertices[offset + 2];
+        float e1x = vertices[offset + 3] - v0x;
+        float e1y = vertices[offset + 4] - v0y;
+        float e1z = vertices[offset + 5] - v0z;
+        float e2x = vertices[offset + 6] - v0x;
+        float e2y = vertices[offset + 7] - v0y;
+        float e2z = vertices[offset + 8] - v0z;
+        
+        float px = direction[1] * e2z - direction[2] * e2y;
+        float py = direction[2] * e2x - direction[0] * e2z;
+        float pz = direction[0] * e2y - direction[1] * e2x;
+        float det = e1x * px + e1y * py + e1z * pz;
+        if (Math.abs(det) < EPSILON)
+        {
+            return Float.NaN;
+        }
+        float invDet = 1.0f / det;
+        float sx = origin[0] - v0x;
+        float sy = origin[1] - v0y;
+        float sz = origin[2] - v0z;
+        float u = (sx * px + sy * py + sz * pz) * invDet;
+        if (u < 0.0f || u > 1.0f)
+        {
+            return Float.NaN;
+        }
+        float qx = sy * e1z - sz * e1y;
+        float qy = sz * e1x - sx * e1z;
+        float qz = sx * e1y - sy * e1x;
+        float v = (direction[0] * qx + direction[1] * qy + direction[2] * qz)
+            * invDet;
+        if (v < 0.0f || u + v > 1.0f)
+        {
+            return Float.NaN;
+        }
+        return (e2x * qx + e2y * qy + e2z * qz) * invDet;
+    }
+    
+    /**
+     * Compute the parameter where the given ray enters the specified box.
+     * 
+     * @param origin The ray origin
+     * @param inverseDirection The component-wise inverse of the ray 
+     * direction
+     * @param bounds The box bounds
+     * @param offset The offset of the box in the bounds array
+     * @param maxT The maximum ray parameter
+     * @return The ray parameter where the ray enters the box (which is 0 
+     * if the origin is inside the box), or positive infinity if the ray 
+     * does not hit the box before the given maximum parameter 
+     */
+    static float intersectRayBox(float origin[], float inverseDirection[], 
+        float bounds[], int offset, float maxT)
+    {
+        float tMin = 0.0f;
+        float tMax = maxT;
+        for (int c = 0; c < 3; c++)
+        {
+            float t0 = (bounds[offset + c] - origin[c]) * inverseDirection[c];
+            float t1 = 
+                (bounds[offset + 3 + c] - origin[c]) * inverseDirection[c];
+            if (t0 > t1)
+            {
+                float t = t0;
+                t0 = t1;
+                t1 = t;
+            }
+            tMin = Math.max(tMin, t0);
+            tMax = Math.min(tMax, t1);
+            if (!(tMin <= tMax))
+            {
+                return Float.POSITIVE_INFINITY;
+            }
+        }
+        return tMin;
+    }
+    
+    /**
+     * Returns whether the specified boxes overlap
+     * 
+     * @param bounds The bounds of the first box
+     * @param offset The offset of the first box in its bounds array
+     * @param min The minimum of the second box
+     * @param max The maximum of the second box
+     * @return Whether the boxes overlap
+     */
+    static boolean overlapsBoxBox(
+        float bounds[], int offset, float min[], float max[])
+    {
+        for (int c = 0; c < 3; c++)
+        {
+            if (bounds[offset + c] > max[c] || bounds[offset + 3 + c] < min[c])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns whether the specified triangle overlaps the given box, using
+     * the separating axis test that was described by Tomas Akenine-Möller 
+     * in "Fast 3D Triangle-Box Overlap Testing"
+     * 
+     * @param vertices The triangle vertices
+     * @param offset The offset of the triangle in the vertices array
+     * @param min The minimum of the box
+     * @param max The maximum of the box
+     * @return Whether the triangle overlaps the box
+     */
+    static boolean overlapsTriangleBox(
+        float vertices[], int offset, float min[], float max[])
+    {
+        float h[] = new float[3];
+        float v[][] = new float[3][3];
+        for (int c = 0; c < 3; c++)
+        {
+            float center = (min[c] + max[c]) * 0.5f;
+            h[c] = (max[c] - min[c]) * 0.5f;
+            for (int i = 0; i < 3; i++)
+            {
+                v[i][c] = vertices[offset + i * 3 + c] - center;
+            }
+        }
+        
+        // The axes of the box
+        for (int c = 0; c < 3; c++)
+        {
+            float vMin = Math.min(v[0][c], Math.min(v[1][c], v[2][c]));
+            float vMax = Math.max(v[0][c], Math.max(v[1][c], v[2][c]));
+            if (vMin > h[c] || vMax < -h[c])
+            {
+                return false;
+            }
+        }
+        
+        // The cross products of the triangle edges and the box axes
+        float edges[][] = new float[3][3];
+        for (int i = 0; i < 3; i++)
+        {
+            for (int c = 0; c < 3; c++)
+            {
+                edges[i][c] = v[(i + 1) % 3][c] - v[i][c];
+            }
+        }
+        float axis[] = new float[3];
+        for (int i = 0; i < 3; i++)
+        {
+            float e[] = edges[i];
+            for (int c = 0; c < 3; c++)
+            {
+                // axis = unit(c) x e
+                int c1 = (c + 1) % 3;
+                int c2 = (c + 2) % 3;
+                axis[c] = 0.0f;
+                axis[c1] = -e[c2];
+                axis[c2] = e[c1];
+                if (isSeparatingAxis(axis, v, h))
+                {
+                    return false;
+                }
+            }
+        }
+        
+        // The triangle normal
+        float e0[] = edges[0];
+        float e1[] = edges[1];
+        axis[0] = e0[1] * e1[2] - e0[2] * e1[1];
+        axis[1] = e0[2] * e1[0] - e0[0] * e1[2];
+        axis[2] = e0[0] * e1[1] - e0[1] * e1[0];
+        return !isSeparatingAxis(axis, v, h);
+    }
+    
+    /**
+     * Returns whether the given axis separates the given triangle and 
+     * the box that is centered at the origin and has the given half sizes
+     * 
+     * @param axis The axis
+     * @param v The triangle vertices
+     * @param h The half sizes of the box
+     * @return Whether the axis is a separating axis
+     */
+    private static boolean isSeparatingAxis(float axis[], float v[][], 
+        float h[])
+    {
+        float p0 = dot(axis, v[0]);
+        float p1 = dot(axis, v[1]);
+        float p2 = dot(axis, v[2]);
+        float r = h[0] * Math.abs(axis[0]) 
+            + h[1] * Math.abs(axis[1]) 
+            + h[2] * Math.abs(axis[2]);
+        float pMin = Math.min(p0, Math.min(p1, p2));
+        float pMax = Math.max(p0, Math.max(p1, p2));
+        return pMin > r || pMax < -r;
+    }
+    
+    /**
+     * Returns whether the specified box is completely on the negative
+     * side of any of the given planes
+     * 
+     * @param bounds The box bounds
+     * @param offset The offset of the box in the bounds array
+     * @param planes The planes, as 4 elements <code>(a,b,c,d)</code> for 
+     * each plane, where the positive side of the plane contains the points
+     * with <code>a*x+b*y+c*z+d &gt;= 0</code>
+     * @return Whether the box is outside of the planes
+     */
+    static boolean isBoxOutside(float bounds[], int offset, float planes[])
+    {
+        for (int p = 0; p < planes.length; p += 4)
+        {
+            // Compute the corner that is farthest in the plane direction
+            float d = planes[p + 3];
+            for (int c = 0; c < 3; c++)
+            {
+                float n = planes[p + c];
+                d += n * (n >= 0.0f ? 
+                    bounds[offset + 3 + c] : bounds[offset + c]);
+            }
+            if (d < 0.0f)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns whether the specified triangle is completely on the 
+     * negative side of any of the given planes
+     * 
+     * @param vertices The triangle vertices
+     * @param offset The offset of the triangle in the vertices array
+     * @param planes The planes, as described in 
+     * {@link #isBoxOutside(float[], int, float[])}
+     * @return Whether the triangle is outside of the planes
+     */
+    static boolean isTriangleOutside(
+        float vertices[], int offset, float planes[])
+    {
+        for (int p = 0; p < planes.length; p += 4)
+        {
+            boolean allOutside = true;
+            for (int i = 0; i < 3 && allOutside; i++)
+            {
+                int o = offset + i * 3;
+                float d = planes[p + 0] * vertices[o + 0]
+                    + planes[p + 1] * vertices[o + 1]
+                    + planes[p + 2] * vertices[o + 2]
+                    + planes[p + 3];
+                allOutside = d < 0.0f;
+            }
+            if (allOutside)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Compute the squared distance between the given point and the 
+     * specified box
+     * 
+     * @param point The point
+     * @param bounds The box bounds
+     * @param offset The offset of the box in the bounds array
+     * @return The squared distance
+     */
+    static float distanceSquaredToBox(float point[], float bounds[], int offset)
+    {
+        float result = 0.0f;
+        for (int c = 0; c < 3; c++)
+        {
+            float p = point[c];
+            float d = 0.0f;
+            if (p < bounds[offset + c])
+            {
+                d = bounds[offset + c] - p;
+            }
+            else if (p > bounds[offset + 3 + c])
+            {
+                d = p - bounds[offset + 3 + c];
+            }
+            result += d * d;
+        }
+        return result;
+    }
+    
+    /**
+     * Compute the point on the specified triangle that is closest to the 
+     * given point, as described by Christer Ericson in "Real-Time 
+     * Collision Detection", section 5.1.5.
+     * 
+     * @param point The point
+     * @param vertices The triangle vertices
+     * @param offset The offset of the triangle in the vertices array
+     * @param result The array that will store the closest point
+     */
+    static void closestPointOnTriangle(float point[], 
+        float vertices[], int offset, float result[])
+    {
+        float ax = vertices[offset + 0];
+        float ay = vertices[offset + 1];
+        float az = vertices[offset + 2];
+        float abx = vertices[offset + 3] - ax;
+        float aby = vertices[offset + 4] - ay;
+        float abz = vertices[offset + 5] - az;
+        float acx = vertices[offset + 6] - ax;
+        float acy = vertices[offset + 7] - ay;
+        float acz = vertices[offset + 8] - az;
+        
+        float apx = point[0] - ax;
+        float apy = point[1] - ay;
+        float apz = point[2] - az;
+        float d1 = abx * apx + aby * apy + abz * apz;
+        float d2 = acx * apx + acy * apy + acz * apz;
+        if (d1 <= 0.0f && d2 <= 0.0f)
+        {
+            set(result, ax, ay, az, 0.0f, 0.0f, abx, aby, abz, acx, acy, acz);
+            return;
+        }
+        
+        float bpx = apx - abx;
+        float bpy = apy - aby;
+        float bpz = apz - abz;
+        float d3 = abx * bpx + aby * bpy + abz * bpz;
+        float d4 = acx * bpx + acy * bpy + acz * bpz;
+        if (d3 >= 0.0f && d4 <= d3)
+        {
+            set(result, ax, ay, az, 1.0f, 0.0f, abx, aby, abz, acx, acy, acz);
+            return;
+        }
+        
+        float vc = d1 * d4 - d3 * d2;
+        if (vc <= 0.0f && d1 >= 0.0f && d3 <= 0.0f)
+        {
+            float v = d1 / (d1 - d3);
+            set(result, ax, ay, az, v, 0.0f, abx, aby, abz, acx, acy, acz);
+            return;
+        }
+        
+        float cpx = apx - acx;
+        float cpy = apy - acy;
+        float cpz = apz - acz;
+        float d5 = abx * cpx + aby * cpy + abz * cpz;
+        float d6 = acx * cpx + acy * cpy + acz * cpz;
+        if (d6 >= 0.0f && d5 <= d6)
+        {
+            set(result, ax, ay, az, 0.0f, 1.0f, abx, aby, abz, acx, acy, acz);
+            return;
+        }
+        
+        float vb = d5 * d2 - d1 * d6;
+        if (vb <= 0.0f && d2 >= 0.0f && d6 <= 0.0f)
+        {
+            float w = d2 / (d2 - d6);
+            set(result, ax, ay, az, 0.0f, w, abx, aby, abz, acx, acy, acz);
+            return;
+        }
+        
+        float va = d3 * d6 - d5 * d4;
+        if (va <= 0.0f && (d4 - d3) >= 0.0f && (d5 - d6) >= 0.0f)
+        {
+            float w = (d4 - d3) / ((d4 - d3) + (d5 - d6));
+            set(result, ax, ay, az, 1.0f - w, w, 
+                abx, aby, abz, acx, acy, acz);
+            return;
+        }
+        
+        float denom = 1.0f / (va + vb + vc);
+        float v = vb * denom;
+        float w = vc * denom;
+        set(result, ax, ay, az, v, w, abx, aby, abz, acx, acy, acz);
+    }
+    
+    /**
+     * Store the point <code>a + v * ab + w * ac</code> in the given result
+     * 
+     * @param result The result
+     * @param ax The x-coordinate of a
+     * @param ay The y-coordinate of a
+     * @param az The z-coordinate of a
+     * @param v The factor for ab
+     * @param w The factor for ac
+     * @param abx The x-coordinate of ab
+     * @param aby The y-coordinate of ab
+     * @param abz The z-coordinate of ab
+     * @param acx The x-coordinate of ac
+     * @param acy The y-coordinate of ac
+     * @param acz The z-coordinate of ac
+     */
+    private static void set(float result[], float ax, float ay, float az, 
+        float v, float w, float abx, float aby, float abz, 
+        float acx, float acy, float acz)
+    {
+        result[0] = ax + v * abx + w * acx;
+        result[1] = ay + v * aby + w * acy;
+        result[2] = az + v * abz + w * acz;
+    }
+    
+    /**
+     * Computes the dot product of the given 3D vectors
+     * 
+     * @param a The first vector
+     * @param b The second vector
+     * @return The dot product
+     */
+    private static float dot(float a[], float b[])
+    {
+        return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private Intersections()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
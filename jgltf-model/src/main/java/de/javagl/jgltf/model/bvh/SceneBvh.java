@@ -0,0 +1,807 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.bvh;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Logger;
+
+import de.javagl.jgltf.model.AccessorData;
+import de.javagl.jgltf.model.AccessorDatas;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.MeshModel;
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.NodeModel;
+import de.javagl.jgltf.model.SceneModel;
+
+/**
+ * A bounding volume hierarchy (BVH) over the triangles of all 
+ * {@link MeshPrimitiveModel} instances in a {@link SceneModel}, in world
+ * coordinates.<br>
+ * <br>
+ * The hierarchy is built with the surface area heuristic, and supports
+ * <ul>
+ *   <li>ray casts, via {@link #raycast(float[], float[], float)}</li>
+ *   <li>box queries, via {@link #queryBox(float[], float[])}</li>
+ *   <li>frustum queries, via {@link #queryFrustum(float[])}</li>
+ *   <li>nearest-point queries, via {@link #findNearest(float[])}</li>
+ * </ul>
+ * When the transforms of nodes change, the hierarchy can be updated with
+ * {@link #refit()}. This only re-transforms the triangles of the nodes
+ * whose global transform changed, and updates the bounds of the existing
+ * hierarchy. When the nodes move significantly, the quality of the 
+ * hierarchy may degrade, and it may be beneficial to create a new one.<br>
+ * <br>
+ * Skinning and morph targets are not taken into account. Mesh primitives
+ * with quantized positions are ignored.<br>
+ * <br>
+ * The query methods may be called concurrently by multiple threads, but
+ * not concurrently with {@link #refit()}.
+ */
+public final class SceneBvh
+{
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger = 
+        Logger.getLogger(SceneBvh.class.getName());
+    
+    /**
+     * The local data of a single mesh primitive
+     */
+    private static final class PrimitiveData
+    {
+        /**
+         * The local vertex positions, 3 for each vertex
+         */
+        float positions[];
+        
+        /**
+         * The vertex indices, 3 for each triangle
+         */
+        int triangles[];
+    }
+    
+    /**
+     * A single mesh primitive that is attached to a node
+     */
+    private static final class Instance
+    {
+        /**
+         * The node model
+         */
+        NodeModel nodeModel;
+        
+        /**
+         * The mesh primitive model
+         */
+        MeshPrimitiveModel meshPrimitiveModel;
+        
+        /**
+         * The local data of the mesh primitive
+         */
+        PrimitiveData primitiveData;
+        
+        /**
+         * The global transform that was used for the current vertices
+         */
+        float transform[];
+    }
+    
+    /**
+     * The instances
+     */
+    private final List<Instance> instances;
+    
+    /**
+     * The world vertices, 9 for each triangle, in the order in which they
+     * are referred to by the leaf nodes
+     */
+    private final float vertices[];
+    
+    /**
+     * The index of the instance of each triangle
+     */
+    private final int triangleInstances[];
+    
+    /**
+     * The index of each triangle in its mesh primitive
+     */
+    private final int triangleIndices[];
+    
+    /**
+     * The bounds of the nodes, 6 for each node
+     */
+    private final float nodeBounds[];
+    
+    /**
+     * The index of the left child or the first triangle of each node
+     */
+    private final int nodeFirsts[];
+    
+    /**
+     * The number of triangles of each leaf node, or 0 for inner nodes
+     */
+    private final int nodeCounts[];
+    
+    /**
+     * The number of nodes
+     */
+    private final int numNodes;
+    
+    /**
+     * The size of the stack that is required for traversals
+     */
+    private final int stackSize;
+    
+    /**
+     * Create a new BVH for the given {@link SceneModel}, using the
+     * common fork-join pool for building the hierarchy
+     * 
+     * @param sceneModel The {@link SceneModel}
+     * @return The {@link SceneBvh}
+     */
+    public static SceneBvh create(SceneModel sceneModel)
+    {
+        return create(sceneModel, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Create a new BVH for the given {@link SceneModel}
+     * 
+     * @param sceneModel The {@link SceneModel}
+     * @param pool The optional fork-join pool for building the hierarchy.
+     * If this is <code>null</code>, then the hierarchy will be built
+     * in the calling thread.
+     * @return The {@link SceneBvh}
+     */
+    public static SceneBvh create(SceneModel sceneModel, ForkJoinPool pool)
+    {
+        List<Instance> instances = new ArrayList<Instance>();
+        Map<MeshPrimitiveModel, PrimitiveData> primitiveDatas = 
+            new IdentityHashMap<MeshPrimitiveModel, PrimitiveData>();
+        for (NodeModel nodeModel : sceneModel.getNodeModels())
+        {
+            collectInstances(nodeModel, primitiveDatas, instances);
+        }
+        return new SceneBvh(instances, pool);
+    }
+    
+    /**
+     * Creates a new instance
+     * 
+     * @param instances The instances
+     * @param pool The optional fork-join pool
+     */
+    private SceneBvh(List<Instance> instances, ForkJoinPool pool)
+    {
+        this.instances = instances;
+        int numTriangles = 0;
+        for (Instance instance : instances)
+        {
+            numTriangles += instance.primitiveData.triangles.length / 3;
+        }
+        float initialVertices[] = new float[numTriangles * 9];
+        int initialInstances[] = new int[numTriangles];
+        int initialIndices[] = new int[numTriangles];
+        int t = 0;
+        for (int i = 0; i < instances.size(); i++)
+        {
+            Instance instance = instances.get(i);
+            int n = instance.primitiveData.triangles.length / 3;
+            for (int j = 0; j < n; j++)
+            {
+                initialInstances[t] = i;
+                initialIndices[t] = j;
+                transformTriangle(instance, j, initialVertices, t * 9);
+                t++;
+            }
+        }
+        
+        BvhBuilder builder = new BvhBuilder(initialVertices);
+        builder.build(pool);
+        this.nodeBounds = builder.nodeBounds;
+        this.nodeFirsts = builder.nodeFirsts;
+        this.nodeCounts = builder.nodeCounts;
+        this.numNodes = builder.getNumNodes();
+        this.stackSize = builder.getMaxDepth() + 2;
+        
+        // Store the triangles in the order of the leaves
+        int order[] = builder.triangleOrder;
+        this.vertices = new float[numTriangles * 9];
+        this.triangleInstances = new int[numTriangles];
+        this.triangleIndices = new int[numTriangles];
+        for (int p = 0; p < numTriangles; p++)
+        {
+            int s = order[p];
+            System.arraycopy(initialVertices, s * 9, vertices, p * 9, 9);
+            triangleInstances[p] = initialInstances[s];
+            triangleIndices[p] = initialIndices[s];
+        }
+    }
+    
+    /**
+     * Collect the instances for the given node and its descendants
+     * 
+     * @param nodeModel The node model
+     * @param primitiveDatas The cache of the data of the mesh primitives
+     * @param instances The instances
+     */
+    private static void collectInstances(NodeModel nodeModel, 
+        Map<MeshPrimitiveModel, PrimitiveData> primitiveDatas,
+        List<Instance> instances)
+    {
+        for (MeshModel meshModel : nodeModel.getMeshModels())
+        {
+            for (MeshPrimitiveModel meshPrimitiveModel : 
+                meshModel.getMeshPrimitiveModels())
+            {
+                PrimitiveData primitiveData = primitiveDatas.computeIfAbsent(
+                    meshPrimitiveModel, SceneBvh::createPrimitiveData);
+                if (primitiveData.triangles.length == 0)
+                {
+                    continue;
+                }
+                Instance instance = new Instance();
+                instance.nodeModel = nodeModel;
+                instance.meshPrimitiveModel = meshPrimitiveModel;
+                instance.primitiveData = primitiveData;
+                instance.transform = nodeModel.computeGlobalTransform(null);
+                instances.add(instance);
+            }
+        }
+        for (NodeModel child : nodeModel.getChildren())
+        {
+            collectInstances(child, primitiveDatas, instances);
+        }
+    }
+    
+    /**
+     * Create the local data for the given mesh primitive. If the mesh 
+     * primitive does not contain triangles, or does not contain 3D 
+     * positions, then the returned data will not contain any triangles.
+     * Positions with integral component types, for example, ones that 
+     * have been quantized as described in the 
+     * <code>KHR_mesh_quantization</code> extension, will be converted
+     * into float values.
+     * 
+     * @param meshPrimitiveModel The mesh primitive model
+     * @return The primitive data
+     */
+    private static PrimitiveData createPrimitiveData(
+        MeshPrimitiveModel meshPrimitiveModel)
+    {
+        PrimitiveData primitiveData = new PrimitiveData();
+        primitiveData.positions = new float[0];
+        primitiveData.triangles = new int[0];
+        int mode = meshPrimitiveModel.getMode();
+        if (mode != GltfConstants.GL_TRIANGLES &&
+            mode != GltfConstants.GL_TRIANGLE_STRIP &&
+            mode != GltfConstants.GL_TRIANGLE_FAN)
+        {
+            return primitiveData;
+        }
+        AccessorModel positionsAccessorModel = 
+            meshPrimitiveModel.getAttributes().get("POSITION");
+        if (positionsAccessorModel == null)
+        {
+            return primitiveData;
+        }
+        AccessorData positionsData = positionsAccessorModel.getAccessorData();
+        if (positionsData.getNumComponentsPerElement() != 3)
+        {
+            logger.warning("Mesh primitive with positions of type "
+                + positionsData.getComponentType() + " and " 
+                + positionsData.getNumComponentsPerElement() 
+                + " components is not supported, ignoring it");
+            return primitiveData;
+        }
+        int numVertices = positionsData.getNumElements();
+        float positions[] = AccessorDatas.readFloats(positionsAccessorModel);
+        
+        AccessorModel indicesAccessorModel = meshPrimitiveModel.getIndices();
+        int indices[];
+        if (indicesAccessorModel == null)
+        {
+            indices = new int[numVertices];
+            Arrays.setAll(indices, i -> i);
+        }
+        else
+        {
+            indices = AccessorDatas.readInts(
+                indicesAccessorModel.getAccessorData());
+        }
+        primitiveData.positions = positions;
+        primitiveData.triangles = createTriangles(mode, indices);
+        return primitiveData;
+    }
+    
+    /**
+     * Create the vertex indices of the triangles that are described by
+     * the given indices, with the given rendering mode
+     * 
+     * @param mode The rendering mode
+     * @param indices The indices
+     * @return The triangle vertex indices, 3 for each triangle
+     */
+    private static int[] createTriangles(int mode, int indices[])
+    {
+        if (mode == GltfConstants.GL_TRIANGLES)
+        {
+            return Arrays.copyOf(indices, indices.length - indices.length % 3);
+        }
+        int numTriangles = Math.max(0, indices.length - 2);
+        int triangles[] = new int[numTriangles * 3];
+        for (int t = 0; t < numTriangles; t++)
+        {
+            if (mode == GltfConstants.GL_TRIANGLE_FAN)
+            {
+                triangles[t * 3 + 0] = indices[0];
+                triangles[t * 3 + 1] = indices[t + 1];
+                triangles[t * 3 + 2] = indices[t + 2];
+            }
+            else if (t % 2 == 0)
+            {
+                triangles[t * 3 + 0] = indices[t];
+                triangles[t * 3 + 1] = indices[t + 1];
+                triangles[t * 3 + 2] = indices[t + 2];
+            }
+            else
+            {
+                triangles[t * 3 + 0] = indices[t + 1];
+                triangles[t * 3 + 1] = indices[t];
+                triangles[t * 3 + 2] = indices[t + 2];
+            }
+        }
+        return triangles;
+    }
+    
+    /**
+     * Transform the specified triangle of the given instance into world
+     * coordinates
+     * 
+     * @param instance The instance
+     * @param triangleIndex The triangle index in the mesh primitive
+     * @param result The array that will store the world vertices
+     * @param offset The offset in the result array
+     */
+    private static void transformTriangle(Instance instance, 
+        int triangleIndex, float result[], int offset)
+    {
+        PrimitiveData primitiveData = instance.primitiveData;
+        float m[] = instance.transform;
+        for (int v = 0; v < 3; v++)
+        {
+            int p = primitiveData.triangles[triangleIndex * 3 + v] * 3;
+            float x = primitiveData.positions[p + 0];
+            float y = primitiveData.positions[p + 1];
+            float z = primitiveData.positions[p + 2];
+            int o = offset + v * 3;
+            result[o + 0] = m[0] * x + m[4] * y + m[ 8] * z + m[12];
+            result[o + 1] = m[1] * x + m[5] * y + m[ 9] * z + m[13];
+            result[o + 2] = m[2] * x + m[6] * y + m[10] * z + m[14];
+        }
+    }
+    
+    /**
+     * Returns the number of triangles in this hierarchy
+     * 
+     * @return The number of triangles
+     */
+    public int getNumTriangles()
+    {
+        return triangleInstances.length;
+    }
+    
+    /**
+     * Update this hierarchy after the transforms of nodes have changed.
+     * This will re-transform the triangles of all nodes whose global 
+     * transform changed since the hierarchy was created or last refitted,
+     * and update the bounds of the hierarchy nodes. The structure of the
+     * hierarchy remains unchanged.
+     * 
+     * @return Whether any global transform changed
+     */
+    public boolean refit()
+    {
+        int numInstances = instances.size();
+        boolean changed[] = new boolean[numInstances];
+        boolean anyChanged = false;
+        float transform[] = new float[16];
+        for (int i = 0; i < numInstances; i++)
+        {
+            Instance instance = instances.get(i);
+            instance.nodeModel.computeGlobalTransform(transform);
+            if (!Arrays.equals(transform, instance.transform))
+            {
+                System.arraycopy(transform, 0, instance.transform, 0, 16);
+                changed[i] = true;
+                anyChanged = true;
+            }
+        }
+        if (!anyChanged)
+        {
+            return false;
+        }
+        int numTriangles = triangleInstances.length;
+        for (int p = 0; p < numTriangles; p++)
+        {
+            int i = triangleInstances[p];
+            if (changed[i])
+            {
+                transformTriangle(instances.get(i), 
+                    triangleIndices[p], vertices, p * 9);
+            }
+        }
+        if (numTriangles == 0)
+        {
+            return true;
+        }
+        
+        // The children always have a larger index than their parent, 
+        // so the bounds can be updated bottom-up in reverse order 
+        for (int n = numNodes - 1; n >= 0; n--)
+        {
+            int offset = n * 6;
+            BvhBuilder.initializeBounds(nodeBounds, offset);
+            int count = nodeCounts[n];
+            int first = nodeFirsts[n];
+            if (count == 0)
+            {
+                for (int c = 0; c < 3; c++)
+                {
+                    int l = first * 6;
+                    int r = (first + 1) * 6;
+                    nodeBounds[offset + c] = 
+                        Math.min(nodeBounds[l + c], nodeBounds[r + c]);
+                    nodeBounds[offset + 3 + c] = 
+                        Math.max(nodeBounds[l + 3 + c], nodeBounds[r + 3 + c]);
+                }
+            }
+            else
+            {
+                for (int k = first * 3; k < (first + count) * 3; k++)
+                {
+                    BvhBuilder.includePoint(
+                        nodeBounds, offset, vertices, k * 3);
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Compute the closest intersection of the given ray with the triangles
+     * of this hierarchy.<br>
+     * <br>
+     * The distance of the resulting {@link BvhHit} will be the ray 
+     * parameter <code>t</code> so that the hit point is 
+     * <code>origin + t * direction</code>.
+     * 
+     * @param origin The ray origin, with 3 elements
+     * @param direction The ray direction, with 3 elements. This does not
+     * have to be normalized.
+     * @param maxDistance The maximum ray parameter
+     * @return The {@link BvhHit}, or <code>null</code> if the ray does
+     * not hit any triangle
+     */
+    public BvhHit raycast(float origin[], float direction[], float maxDistance)
+    {
+        if (triangleInstances.length == 0)
+        {
+            return null;
+        }
+        float inverseDirection[] = new float[3];
+        for (int c = 0; c < 3; c++)
+        {
+            inverseDirection[c] = 1.0f / direction[c];
+        }
+        int nodeStack[] = new int[stackSize];
+        float distanceStack[] = new float[stackSize];
+        int stackTop = 0;
+        float closestT = maxDistance;
+        int closestTriangle = -1;
+        float rootT = Intersections.intersectRayBox(
+            origin, inverseDirection, nodeBounds, 0, closestT);
+        if (rootT == Float.POSITIVE_INFINITY)
+        {
+            return null;
+        }
+        nodeStack[stackTop] = 0;
+        distanceStack[stackTop] = rootT;
+        stackTop++;
+        while (stackTop > 0)
+        {
+            stackTop--;
+            if (distanceStack[stackTop] > closestT)
+            {
+                continue;
+            }
+            int n = nodeStack[stackTop];
+            int count = nodeCounts[n];
+            int first = nodeFirsts[n];
+            if (count > 0)
+            {
+                for (int p = first; p < first + count; p++)
+                {
+                    float t = Intersections.intersectRayTriangle(
+                        origin, direction, vertices, p * 9);
+                    if (t >= 0.0f && t <= closestT)
+                    {
+                        closestT = t;
+                        closestTriangle = p;
+                    }
+                }
+                continue;
+            }
+            float tl = Intersections.intersectRayBox(
+                origin, inverseDirection, nodeBounds, first * 6, closestT);
+            float tr = Intersections.intersectRayBox(
+                origin, inverseDirection, nodeBounds, (first + 1) * 6, 
+                closestT);
+            int near = first;
+            int far = first + 1;
+            if (tr < tl)
+            {
+                float t = tl;
+                tl = tr;
+                tr = t;
+                near = first + 1;
+                far = first;
+            }
+            if (tr != Float.POSITIVE_INFINITY)
+            {
+                nodeStack[stackTop] = far;
+                distanceStack[stackTop] = tr;
+                stackTop++;
+            }
+            if (tl != Float.POSITIVE_INFINITY)
+            {
+                nodeStack[stackTop] = near;
+                distanceStack[stackTop] = tl;
+                stackTop++;
+            }
+        }
+        if (closestTriangle == -1)
+        {
+            return null;
+        }
+        float point[] = new float[3];
+        for (int c = 0; c < 3; c++)
+        {
+            point[c] = origin[c] + closestT * direction[c];
+        }
+        return createHit(closestTriangle, closestT, point);
+    }
+    
+    /**
+     * Compute all triangles of this hierarchy that overlap the given 
+     * axis-aligned box.
+     * 
+     * @param min The minimum of the box, with 3 elements
+     * @param max The maximum of the box, with 3 elements
+     * @return The list of {@link BvhHit} objects, in unspecified order
+     */
+    public List<BvhHit> queryBox(float min[], float max[])
+    {
+        if (triangleInstances.length == 0)
+        {
+            return Collections.emptyList();
+        }
+        List<BvhHit> result = new ArrayList<BvhHit>();
+        int nodeStack[] = new int[stackSize];
+        int stackTop = 0;
+        nodeStack[stackTop++] = 0;
+        while (stackTop > 0)
+        {
+            int n = nodeStack[--stackTop];
+            if (!Intersections.overlapsBoxBox(nodeBounds, n * 6, min, max))
+            {
+                continue;
+            }
+            int count = nodeCounts[n];
+            int first = nodeFirsts[n];
+            if (count > 0)
+            {
+                for (int p = first; p < first + count; p++)
+                {
+                    if (Intersections.overlapsTriangleBox(
+                        vertices, p * 9, min, max))
+                    {
+                        result.add(createHit(p, Float.NaN, null));
+                    }
+                }
+            }
+            else
+            {
+                nodeStack[stackTop++] = first + 1;
+                nodeStack[stackTop++] = first;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Compute all triangles of this hierarchy that are inside of the
+     * given frustum.<br>
+     * <br>
+     * The frustum is given as a set of planes, with 4 elements 
+     * <code>(a,b,c,d)</code> for each plane, where the inside of the 
+     * frustum contains the points with <code>a*x+b*y+c*z+d &gt;= 0</code>
+     * for all planes.<br>
+     * <br>
+     * The test is conservative: It only excludes triangles that are 
+     * completely outside of one of the planes. This means that triangles
+     * that are close to the corners or edges of the frustum may be 
+     * reported even though they are outside of the frustum. 
+     * 
+     * @param planes The planes
+     * @return The list of {@link BvhHit} objects, in unspecified order
+     */
+    public List<BvhHit> queryFrustum(float planes[])
+    {
+        if (triangleInstances.length == 0)
+        {
+            return Collections.emptyList();
+        }
+        List<BvhHit> result = new ArrayList<BvhHit>();
+        int nodeStack[] = new int[stackSize];
+        int stackTop = 0;
+        nodeStack[stackTop++] = 0;
+        while (stackTop > 0)
+        {
+            int n = nodeStack[--stackTop];
+            if (Intersections.isBoxOutside(nodeBounds, n * 6, planes))
+            {
+                continue;
+            }
+            int count = nodeCounts[n];
+            int first = nodeFirsts[n];
+            if (count > 0)
+            {
+                for (int p = first; p < first + count; p++)
+                {
+                    if (!Intersections.isTriangleOutside(
+                        vertices, p * 9, planes))
+                    {
+                        result.add(createHit(p, Float.NaN, null));
+                    }
+                }
+            }
+            else
+            {
+                nodeStack[stackTop++] = first + 1;
+                nodeStack[stackTop++] = first;
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * Compute the point on the triangles of this hierarchy that is 
+     * closest to the given point.
+     * 
+     * @param point The point, with 3 elements
+     * @return The {@link BvhHit}, or <code>null</code> if this hierarchy
+     * does not contain any triangles
+     */
+    public BvhHit findNearest(float point[])
+    {
+        if (triangleInstances.length == 0)
+        {
+            return null;
+        }
+        int nodeStack[] = new int[stackSize];
+        float distanceStack[] = new float[stackSize];
+        int stackTop = 0;
+        float closestDistanceSquared = Float.POSITIVE_INFINITY;
+        int closestTriangle = -1;
+        float closestPoint[] = new float[3];
+        float candidate[] = new float[3];
+        nodeStack[stackTop] = 0;
+        distanceStack[stackTop] = 
+            Intersections.distanceSquaredToBox(point, nodeBounds, 0);
+        stackTop++;
+        while (stackTop > 0)
+        {
+            stackTop--;
+            if (distanceStack[stackTop] >= closestDistanceSquared)
+            {
+                continue;
+            }
+            int n = nodeStack[stackTop];
+            int count = nodeCounts[n];
+            int first = nodeFirsts[n];
+            if (count > 0)
+            {
+                for (int p = first; p < first + count; p++)
+                {
+                    Intersections.closestPointOnTriangle(
+                        point, vertices, p * 9, candidate);
+                    float dx = candidate[0] - point[0];
+                    float dy = candidate[1] - point[1];
+                    float dz = candidate[2] - point[2];
+                    float d = dx * dx + dy * dy + dz * dz;
+                    if (d < closestDistanceSquared)
+                    {
+                        closestDistanceSquared = d;
+                        closestTriangle = p;
+                        System.arraycopy(candidate, 0, closestPoint, 0, 3);
+                    }
+                }
+                continue;
+            }
+            float dl = Intersections.distanceSquaredToBox(
+                point, nodeBounds, first * 6);
+            float dr = Intersections.distanceSquaredToBox(
+                point, nodeBounds, (first + 1) * 6);
+            int near = first;
+            int far = first + 1;
+            if (dr < dl)
+            {
+                float d = dl;
+                dl = dr;
+                dr = d;
+                near = first + 1;
+                far = first;
+            }
+            nodeStack[stackTop] = far;
+            distanceStack[stackTop] = dr;
+            stackTop++;
+            nodeStack[stackTop] = near;
+            distanceStack[stackTop] = dl;
+            stackTop++;
+        }
+        if (closestTriangle == -1)
+        {
+            return null;
+        }
+        float distance = (float) Math.sqrt(closestDistanceSquared);
+        return createHit(closestTriangle, distance, closestPoint);
+    }
+    
+    /**
+     * Create a {@link BvhHit} for the triangle at the given position
+     * 
+     * @param p The position of the triangle
+     * @param distance The distance
+     * @param point The optional point
+     * @return The {@link BvhHit}
+     */
+    private BvhHit createHit(int p, float distance, float point[])
+    {
+        Instance instance = instances.get(triangleInstances[p]);
+        return new BvhHit(instance.nodeModel, instance.meshPrimitiveModel, 
+            triangleIndices[p], distance, point);
+    }
+}
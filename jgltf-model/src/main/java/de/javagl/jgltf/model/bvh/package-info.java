@@ -0,0 +1,5 @@
+/**
+ * Classes for spatial queries on the triangles of glTF scenes, based on
+ * a bounding volume hierarchy (BVH).
+ */
+package de.javagl.jgltf.model.bvh;
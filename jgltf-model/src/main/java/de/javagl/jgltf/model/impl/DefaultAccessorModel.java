@@ -26,12 +26,17 @@
  */
 package de.javagl.jgltf.model.impl;
 
+import java.util.function.Supplier;
+
+import de.javagl.jgltf.model.AccessorBounds;
 import de.javagl.jgltf.model.AccessorData;
 import de.javagl.jgltf.model.AccessorDatas;
 import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.AccessorSparseModel;
 import de.javagl.jgltf.model.Accessors;
 import de.javagl.jgltf.model.BufferViewModel;
 import de.javagl.jgltf.model.ElementType;
+import de.javagl.jgltf.model.SparseAccessorData;
 
 /**
  * Implementation of an {@link AccessorModel}
@@ -80,14 +85,19 @@ public final class DefaultAccessorModel extends AbstractNamedModelElement
     private AccessorData accessorData;
     
     /**
-     * The minimum components
+     * The optional supplier for the {@link SparseAccessorData}
      */
-    private Number[] max;
+    private Supplier<? extends SparseAccessorData> sparseAccessorDataSupplier;
     
     /**
-     * The maximum components
+     * The optional {@link AccessorSparseModel}
      */
-    private Number[] min;
+    private AccessorSparseModel accessorSparseModel;
+    
+    /**
+     * The minimum and maximum components
+     */
+    private AccessorBounds bounds;
     
     /**
      * Creates a new instance
@@ -216,40 +226,103 @@ public final class DefaultAccessorModel extends AbstractNamedModelElement
     }
     
     /**
-     * Set the {@link AccessorData} for this accessor
+     * Set the {@link AccessorData} for this accessor. This will cause
+     * the {@link #getBounds() bounds} to be computed again when they
+     * are requested the next time.
      * 
      * @param accessorData The {@link AccessorData}
      */
     public void setAccessorData(AccessorData accessorData)
     {
         this.accessorData = accessorData;
+        this.bounds = null;
     }
     
+    /**
+     * Returns the {@link AccessorData} for this accessor.<br>
+     * <br>
+     * If no accessor data was set explicitly, but this accessor already
+     * refers to a {@link BufferViewModel}, then the accessor data will be
+     * created from the buffer view data when this method is called for
+     * the first time.
+     * 
+     * @return The {@link AccessorData}
+     */
     @Override
     public AccessorData getAccessorData()
     {
+        if (accessorData == null && bufferViewModel != null)
+        {
+            accessorData = AccessorDatas.create(this);
+        }
         return accessorData;
     }
     
     
+    /**
+     * Set the supplier for the {@link SparseAccessorData}. This should
+     * only be set when this accessor is a sparse accessor. The supplier
+     * will be called each time that {@link #getSparseAccessorData()} is 
+     * called. Callers may want to pass in a caching supplier, so that 
+     * the sparse data is only created once, when it is accessed for
+     * the first time.
+     * 
+     * @param sparseAccessorDataSupplier The supplier
+     */
+    public void setSparseAccessorDataSupplier(
+        Supplier<? extends SparseAccessorData> sparseAccessorDataSupplier)
+    {
+        this.sparseAccessorDataSupplier = sparseAccessorDataSupplier;
+    }
+    
     @Override
-    public Number[] getMin()
+    public SparseAccessorData getSparseAccessorData()
     {
-        if (min == null)
+        if (sparseAccessorDataSupplier == null)
         {
-            min = AccessorDatas.computeMin(getAccessorData());
+            return null;
         }
-        return min.clone();
+        return sparseAccessorDataSupplier.get();
+    }
+
+    /**
+     * Set the {@link AccessorSparseModel} that describes the storage of
+     * the sparse data. This should only be set when this accessor is a 
+     * sparse accessor.
+     * 
+     * @param accessorSparseModel The {@link AccessorSparseModel}
+     */
+    public void setAccessorSparseModel(AccessorSparseModel accessorSparseModel)
+    {
+        this.accessorSparseModel = accessorSparseModel;
     }
     
     @Override
-    public Number[] getMax()
+    public AccessorSparseModel getAccessorSparseModel()
     {
-        if (max == null)
+        return accessorSparseModel;
+    }
+
+    @Override
+    public AccessorBounds getBounds()
+    {
+        if (bounds == null)
         {
-            max = AccessorDatas.computeMax(getAccessorData());
+            bounds = AccessorDatas.computeBounds(getAccessorData());
         }
-        return max.clone();
+        return bounds;
+    }
+    
+    @Override
+    public Number[] getMin()
+    {
+        return getBounds().createMinNumbers();
+    }
+    
+    @Override
+    public Number[] getMax()
+    {
+        return getBounds().createMaxNumbers();
     }
     
 }
@@ -0,0 +1,214 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.impl;
+
+import de.javagl.jgltf.model.AccessorSparseModel;
+import de.javagl.jgltf.model.BufferViewModel;
+
+/**
+ * Implementation of an {@link AccessorSparseModel}
+ */
+public final class DefaultAccessorSparseModel implements AccessorSparseModel
+{
+    /**
+     * The number of sparse elements
+     */
+    private int count;
+    
+    /**
+     * The component type of the indices, as a GL constant
+     */
+    private int indicesComponentType;
+    
+    /**
+     * The {@link BufferViewModel} for the indices
+     */
+    private BufferViewModel indicesBufferViewModel;
+    
+    /**
+     * The byte offset of the indices
+     */
+    private int indicesByteOffset;
+    
+    /**
+     * The {@link BufferViewModel} for the values
+     */
+    private BufferViewModel valuesBufferViewModel;
+    
+    /**
+     * The byte offset of the values
+     */
+    private int valuesByteOffset;
+    
+    /**
+     * The optional {@link BufferViewModel} for the base data
+     */
+    private BufferViewModel baseBufferViewModel;
+    
+    /**
+     * The byte offset of the base data
+     */
+    private int baseByteOffset;
+    
+    /**
+     * Creates a new instance
+     */
+    public DefaultAccessorSparseModel()
+    {
+        // Default constructor
+    }
+    
+    /**
+     * Set the number of sparse elements
+     * 
+     * @param count The number of sparse elements
+     */
+    public void setCount(int count)
+    {
+        this.count = count;
+    }
+    
+    /**
+     * Set the component type of the indices, as a GL constant
+     * 
+     * @param indicesComponentType The component type
+     */
+    public void setIndicesComponentType(int indicesComponentType)
+    {
+        this.indicesComponentType = indicesComponentType;
+    }
+    
+    /**
+     * Set the {@link BufferViewModel} for the indices
+     * 
+     * @param indicesBufferViewModel The {@link BufferViewModel}
+     */
+    public void setIndicesBufferViewModel(
+        BufferViewModel indicesBufferViewModel)
+    {
+        this.indicesBufferViewModel = indicesBufferViewModel;
+    }
+    
+    /**
+     * Set the byte offset of the indices
+     * 
+     * @param indicesByteOffset The byte offset
+     */
+    public void setIndicesByteOffset(int indicesByteOffset)
+    {
+        this.indicesByteOffset = indicesByteOffset;
+    }
+    
+    /**
+     * Set the {@link BufferViewModel} for the values
+     * 
+     * @param valuesBufferViewModel The {@link BufferViewModel}
+     */
+    public void setValuesBufferViewModel(
+        BufferViewModel valuesBufferViewModel)
+    {
+        this.valuesBufferViewModel = valuesBufferViewModel;
+    }
+    
+    /**
+     * Set the byte offset of the values
+     * 
+     * @param valuesByteOffset The byte offset
+     */
+    public void setValuesByteOffset(int valuesByteOffset)
+    {
+        this.valuesByteOffset = valuesByteOffset;
+    }
+    
+    /**
+     * Set the optional {@link BufferViewModel} for the base data
+     * 
+     * @param baseBufferViewModel The {@link BufferViewModel}
+     */
+    public void setBaseBufferViewModel(BufferViewModel baseBufferViewModel)
+    {
+        this.baseBufferViewModel = baseBufferViewModel;
+    }
+    
+    /**
+     * Set the byte offset of the base data
+     * 
+     * @param baseByteOffset The byte offset
+     */
+    public void setBaseByteOffset(int baseByteOffset)
+    {
+        this.baseByteOffset = baseByteOffset;
+    }
+    
+    @Override
+    public int getCount()
+    {
+        return count;
+    }
+    
+    @Override
+    public int getIndicesComponentType()
+    {
+        return indicesComponentType;
+    }
+    
+    @Override
+    public BufferViewModel getIndicesBufferViewModel()
+    {
+        return indicesBufferViewModel;
+    }
+    
+    @Override
+    public int getIndicesByteOffset()
+    {
+        return indicesByteOffset;
+    }
+    
+    @Override
+    public BufferViewModel getValuesBufferViewModel()
+    {
+        return valuesBufferViewModel;
+    }
+    
+    @Override
+    public int getValuesByteOffset()
+    {
+        return valuesByteOffset;
+    }
+    
+    @Override
+    public BufferViewModel getBaseBufferViewModel()
+    {
+        return baseBufferViewModel;
+    }
+    
+    @Override
+    public int getBaseByteOffset()
+    {
+        return baseByteOffset;
+    }
+}
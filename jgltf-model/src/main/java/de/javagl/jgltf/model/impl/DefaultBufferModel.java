@@ -27,6 +27,7 @@
 package de.javagl.jgltf.model.impl;
 
 import java.nio.ByteBuffer;
+import java.util.function.Supplier;
 
 import de.javagl.jgltf.model.BufferModel;
 import de.javagl.jgltf.model.io.Buffers;
@@ -47,6 +48,17 @@ public final class DefaultBufferModel extends AbstractNamedModelElement
      */
     private ByteBuffer bufferData;
     
+    /**
+     * The optional supplier for the buffer data, for the case that the
+     * data is loaded lazily
+     */
+    private Supplier<? extends ByteBuffer> bufferDataSupplier;
+    
+    /**
+     * The byte length that was declared for the lazily loaded data
+     */
+    private int declaredByteLength;
+    
     /**
      * Creates a new instance
      */
@@ -73,6 +85,30 @@ public final class DefaultBufferModel extends AbstractNamedModelElement
     public void setBufferData(ByteBuffer bufferData)
     {
         this.bufferData = bufferData;
+        this.bufferDataSupplier = null;
+    }
+    
+    /**
+     * Set the supplier for the data of this buffer. This may be used for
+     * loading the buffer data lazily: The supplier will only be called 
+     * when the {@link #getBufferData() buffer data} is actually accessed.
+     * Until then, the {@link #getByteLength() byte length} will be the
+     * given (declared) byte length.<br>
+     * <br>
+     * The supplier may be called more than once. It is responsible for
+     * caching the data, if desired. Note that in this case, modifications 
+     * of the buffer data may be lost when the supplier returns a new 
+     * buffer on a later call.
+     * 
+     * @param bufferDataSupplier The buffer data supplier
+     * @param byteLength The declared byte length of the buffer data
+     */
+    public void setBufferDataSupplier(
+        Supplier<? extends ByteBuffer> bufferDataSupplier, int byteLength)
+    {
+        this.bufferData = null;
+        this.bufferDataSupplier = bufferDataSupplier;
+        this.declaredByteLength = byteLength;
     }
     
     @Override
@@ -84,12 +120,20 @@ public final class DefaultBufferModel extends AbstractNamedModelElement
     @Override
     public int getByteLength()
     {
+        if (bufferDataSupplier != null)
+        {
+            return declaredByteLength;
+        }
         return bufferData.capacity();
     }
     
     @Override
     public ByteBuffer getBufferData()
     {
+        if (bufferDataSupplier != null)
+        {
+            return Buffers.createSlice(bufferDataSupplier.get());
+        }
         return Buffers.createSlice(bufferData);
     }
     
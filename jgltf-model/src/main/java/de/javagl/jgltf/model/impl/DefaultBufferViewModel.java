@@ -95,7 +95,15 @@ public final class DefaultBufferViewModel extends AbstractNamedModelElement
      * obtained for the first time.
      *  
      * @param sparseSubstitutionCallback The callback
+     * @deprecated The data of sparse accessors is no longer substituted
+     * in the buffer view data. It is provided by the 
+     * {@link de.javagl.jgltf.model.AccessorModel#getSparseAccessorData()
+     * sparse accessor data}, and written into the dense data of the 
+     * accessor when this data is accessed for the first time. This 
+     * method is no longer called by the model creators, and will be 
+     * removed in a future version.
      */
+    @Deprecated
     public void setSparseSubstitutionCallback(
         Consumer<? super ByteBuffer> sparseSubstitutionCallback)
     {
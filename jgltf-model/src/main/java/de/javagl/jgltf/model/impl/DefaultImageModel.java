@@ -27,6 +27,7 @@
 package de.javagl.jgltf.model.impl;
 
 import java.nio.ByteBuffer;
+import java.util.function.Supplier;
 
 import de.javagl.jgltf.model.BufferViewModel;
 import de.javagl.jgltf.model.ImageModel;
@@ -58,6 +59,12 @@ public class DefaultImageModel extends AbstractNamedModelElement
      */
     private ByteBuffer imageData;
     
+    /**
+     * The optional supplier for the image data, for the case that the
+     * data is loaded lazily
+     */
+    private Supplier<? extends ByteBuffer> imageDataSupplier;
+    
     /**
      * Creates a new instance
      */
@@ -104,6 +111,23 @@ public class DefaultImageModel extends AbstractNamedModelElement
     public void setImageData(ByteBuffer imageData)
     {
         this.imageData = imageData;
+        this.imageDataSupplier = null;
+    }
+    
+    /**
+     * Set the supplier for the image data. This may be used for loading 
+     * the image data lazily: The supplier will only be called when the
+     * {@link #getImageData() image data} is actually accessed. It may be 
+     * called more than once, and is responsible for caching the data, 
+     * if desired.
+     * 
+     * @param imageDataSupplier The image data supplier
+     */
+    public void setImageDataSupplier(
+        Supplier<? extends ByteBuffer> imageDataSupplier)
+    {
+        this.imageData = null;
+        this.imageDataSupplier = imageDataSupplier;
     }
     
     @Override
@@ -127,6 +151,10 @@ public class DefaultImageModel extends AbstractNamedModelElement
     @Override
     public ByteBuffer getImageData()
     {
+        if (imageDataSupplier != null)
+        {
+            return Buffers.createSlice(imageDataSupplier.get());
+        }
         if (imageData == null)
         {
             return bufferViewModel.getBufferViewData();
@@ -27,25 +27,57 @@
 package de.javagl.jgltf.model.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 
 import de.javagl.jgltf.model.CameraModel;
 import de.javagl.jgltf.model.MathUtils;
 import de.javagl.jgltf.model.MeshModel;
 import de.javagl.jgltf.model.NodeModel;
+import de.javagl.jgltf.model.Optionals;
 import de.javagl.jgltf.model.SkinModel;
 import de.javagl.jgltf.model.Suppliers;
 import de.javagl.jgltf.model.Utils;
 
 /**
- * Implementation of a {@link NodeModel} 
+ * Implementation of a {@link NodeModel}.<br>
+ * <br>
+ * The global transform of the node is cached. Each node has a version
+ * number that is updated when the matrix, translation, rotation or 
+ * scale of the node is set, when the node is attached to a new parent, 
+ * or when {@link #invalidate()} is called. The cached global transform
+ * is recomputed lazily when it is requested and the version of the 
+ * node or one of its ancestors has changed.<br>
+ * <br>
+ * The arrays that are returned by {@link #getMatrix()}, 
+ * {@link #getTranslation()}, {@link #getRotation()} and 
+ * {@link #getScale()} are references to the stored arrays, and may be 
+ * modified directly. Each node keeps a copy of the values that its 
+ * cached local transform was computed from. When the global transform
+ * is requested, these copies are compared to the current values of 
+ * the node and its ancestors, and the version of a node is updated 
+ * when they differ.<br>
+ * <br>
+ * The transform properties may be set by one thread (for example, an 
+ * animation thread) while the global transform is computed in another 
+ * thread (for example, a rendering thread). The global transform that
+ * is computed after a transform property was changed will reflect 
+ * this change. 
  */
 public class DefaultNodeModel extends AbstractNamedModelElement
     implements NodeModel
 {
+    /**
+     * The counter for the {@link #version} numbers. Using one counter
+     * for all nodes ensures that a change of any ancestor of a node
+     * increases the maximum version along the path to the root.
+     */
+    private static final AtomicLong VERSION_COUNTER = new AtomicLong();
+    
     /**
      * A thread-local, temporary 16-element matrix
      */
@@ -108,6 +140,53 @@ public class DefaultNodeModel extends AbstractNamedModelElement
      */
     private float weights[];
     
+    /**
+     * The version of the local transform and parent of this node
+     */
+    private volatile long version;
+    
+    /**
+     * The cached global transform. This is <code>null</code> until the
+     * global transform is computed for the first time.
+     */
+    private volatile CachedTransform cachedGlobalTransform;
+    
+    /**
+     * The copies of the matrix, translation, rotation and scale that 
+     * have been used for the last check in {@link #checkLocalChanges()}.
+     * This is <code>null</code> until the first check.
+     */
+    private volatile float localValues[][];
+    
+    /**
+     * A global transform matrix, together with the maximum version of 
+     * the node and its ancestors for which it was computed
+     */
+    private static final class CachedTransform
+    {
+        /**
+         * The version for which the matrix was computed
+         */
+        private final long version;
+        
+        /**
+         * The matrix. This array is not modified after construction.
+         */
+        private final float matrix[];
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param version The version
+         * @param matrix The matrix
+         */
+        CachedTransform(long version, float matrix[])
+        {
+            this.version = version;
+            this.matrix = matrix;
+        }
+    }
+    
     /**
      * Creates a new instance 
      */
@@ -115,12 +194,16 @@ public class DefaultNodeModel extends AbstractNamedModelElement
     {
         this.children = new ArrayList<NodeModel>();
         this.meshModels = new ArrayList<MeshModel>();
+        this.version = VERSION_COUNTER.incrementAndGet();
     }
     
     /**
      * Copy constructor that creates a shallow copy with <i>references</i>
      * to the elements of the given model, except for the children and
      * {@link MeshModel} instances (which will be empty in the copy).
+     * The matrix, translation, rotation, scale and weights arrays are 
+     * copied, so that modifications of these arrays in one node do not
+     * affect the other node.
      * 
      * @param other The other {@link NodeModel}
      */
@@ -128,24 +211,33 @@ public class DefaultNodeModel extends AbstractNamedModelElement
     {
         this.cameraModel = other.getCameraModel();
         this.children = new ArrayList<NodeModel>();
-        this.matrix = other.getMatrix();
+        this.matrix = Optionals.clone(other.getMatrix());
         this.meshModels = new ArrayList<MeshModel>();
         this.parent = other.getParent();
-        this.rotation = other.getRotation();
-        this.scale = other.getScale();
+        this.rotation = Optionals.clone(other.getRotation());
+        this.scale = Optionals.clone(other.getScale());
         this.skinModel = other.getSkinModel();
-        this.translation = other.getTranslation();
-        this.weights = other.getWeights();
+        this.translation = Optionals.clone(other.getTranslation());
+        this.weights = Optionals.clone(other.getWeights());
+        this.version = VERSION_COUNTER.incrementAndGet();
     }
     
     /**
-     * Set the parent of this node
+     * Set the parent of this node.<br>
+     * <br>
+     * Note that this does not add this node to the children of the 
+     * given parent. This can be done with 
+     * {@link #addChild(DefaultNodeModel)}, which also sets the parent.
+     * The global transform of this node will always take the current 
+     * transform of the given parent into account, regardless of whether
+     * this node was added as a child.
      * 
      * @param parent The parent node
      */
     public void setParent(DefaultNodeModel parent)
     {
         this.parent = parent;
+        invalidate();
     }
     
     /**
@@ -171,6 +263,17 @@ public class DefaultNodeModel extends AbstractNamedModelElement
         meshModels.add(meshModel);
     }
     
+    /**
+     * Remove the given {@link MeshModel} 
+     * 
+     * @param meshModel The {@link MeshModel}
+     * @return Whether the {@link MeshModel} was attached to this node
+     */
+    public boolean removeMeshModel(MeshModel meshModel)
+    {
+        return meshModels.remove(meshModel);
+    }
+    
     /**
      * Set the {@link SkinModel} 
      * 
@@ -225,6 +328,7 @@ public class DefaultNodeModel extends AbstractNamedModelElement
     public void setMatrix(float[] matrix)
     {
         this.matrix = check(matrix, 16);
+        invalidate();
     }
     
     @Override
@@ -237,6 +341,7 @@ public class DefaultNodeModel extends AbstractNamedModelElement
     public void setTranslation(float[] translation)
     {
         this.translation = check(translation, 3);
+        invalidate();
     }
 
     @Override
@@ -249,6 +354,7 @@ public class DefaultNodeModel extends AbstractNamedModelElement
     public void setRotation(float[] rotation)
     {
         this.rotation = check(rotation, 4);
+        invalidate();
     }
 
     @Override
@@ -261,6 +367,7 @@ public class DefaultNodeModel extends AbstractNamedModelElement
     public void setScale(float[] scale)
     {
         this.scale = check(scale, 3);
+        invalidate();
     }
 
     @Override
@@ -291,7 +398,117 @@ public class DefaultNodeModel extends AbstractNamedModelElement
     @Override
     public float[] computeGlobalTransform(float result[])
     {
-        return computeGlobalTransform(this, result);
+        float cachedGlobalTransform[] = getGlobalTransform();
+        if (cachedGlobalTransform == null)
+        {
+            return computeGlobalTransform(this, result);
+        }
+        float localResult[] = Utils.validate(result, 16);
+        System.arraycopy(cachedGlobalTransform, 0, localResult, 0, 16);
+        return localResult;
+    }
+    
+    /**
+     * Returns the cached global transform of this node, recomputing it
+     * if necessary. The global transforms of all ancestors that are
+     * not up to date will be recomputed as well, once per node.<br>
+     * <br>
+     * The returned array is never modified after it was returned. 
+     * When the transform of this node or one of its ancestors changes,
+     * then a new array is computed.<br>
+     * <br>
+     * If any ancestor of this node is not a {@link DefaultNodeModel},
+     * then the global transform cannot be cached, and <code>null</code>
+     * is returned.
+     * 
+     * @return The global transform, or <code>null</code>
+     */
+    private float[] getGlobalTransform()
+    {
+        // Fast path: Check whether the cached transform was computed 
+        // for the current version of this node and all its ancestors
+        long globalVersion = 0;
+        NodeModel currentNode = this;
+        while (currentNode != null)
+        {
+            if (!(currentNode instanceof DefaultNodeModel))
+            {
+                return null;
+            }
+            DefaultNodeModel node = (DefaultNodeModel) currentNode;
+            node.checkLocalChanges();
+            globalVersion = Math.max(globalVersion, node.version);
+            currentNode = node.getParent();
+        }
+        CachedTransform cached = cachedGlobalTransform;
+        if (cached != null && cached.version == globalVersion)
+        {
+            return cached.matrix;
+        }
+        
+        // Collect this node and all its ancestors, starting with this node
+        List<DefaultNodeModel> nodes = new ArrayList<DefaultNodeModel>();
+        currentNode = this;
+        while (currentNode != null)
+        {
+            nodes.add((DefaultNodeModel) currentNode);
+            currentNode = currentNode.getParent();
+        }
+        
+        // Recompute the global transforms that are not up to date, 
+        // starting at the topmost node
+        long nodeGlobalVersion = 0;
+        float parentGlobalTransform[] = null;
+        for (int i = nodes.size() - 1; i >= 0; i--)
+        {
+            DefaultNodeModel node = nodes.get(i);
+            nodeGlobalVersion = Math.max(nodeGlobalVersion, node.version);
+            CachedTransform nodeCached = node.cachedGlobalTransform;
+            if (nodeCached == null || nodeCached.version != nodeGlobalVersion)
+            {
+                float matrix[] = computeLocalTransform(node, new float[16]);
+                if (parentGlobalTransform != null)
+                {
+                    MathUtils.mul4x4(parentGlobalTransform, matrix, matrix);
+                }
+                nodeCached = new CachedTransform(nodeGlobalVersion, matrix);
+                node.cachedGlobalTransform = nodeCached;
+            }
+            parentGlobalTransform = nodeCached.matrix;
+        }
+        return parentGlobalTransform;
+    }
+    
+    /**
+     * Check whether the matrix, translation, rotation or scale of this 
+     * node have been modified directly since the last check, and update
+     * the version of this node if this is the case
+     */
+    private void checkLocalChanges()
+    {
+        float values[][] = localValues;
+        if (values != null &&
+            Arrays.equals(values[0], matrix) &&
+            Arrays.equals(values[1], translation) &&
+            Arrays.equals(values[2], rotation) &&
+            Arrays.equals(values[3], scale))
+        {
+            return;
+        }
+        localValues = new float[][] 
+        {
+            Optionals.clone(matrix),
+            Optionals.clone(translation),
+            Optionals.clone(rotation),
+            Optionals.clone(scale)
+        };
+        invalidate();
+    }
+    
+    @Override
+    public void invalidate()
+    {
+        version = VERSION_COUNTER.incrementAndGet();
     }
     
     @Override
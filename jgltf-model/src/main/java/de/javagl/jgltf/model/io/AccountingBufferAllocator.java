@@ -0,0 +1,243 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link BufferAllocator} that keeps track of the number of bytes that
+ * have been allocated and not yet been released.<br>
+ * <br>
+ * Instances of this class are created with 
+ * {@link BufferAllocators#createAccounting(BufferAllocator, long)}. They
+ * may be used for observing the memory that is used for reading a 
+ * certain glTF asset, and for limiting this memory: When an allocation 
+ * would cause the number of bytes in flight to exceed the maximum number,
+ * then an <code>IllegalStateException</code> will be thrown.<br>
+ * <br>
+ * Only buffers that have been allocated with this allocator are counted.
+ * They are no longer counted as being in flight when they are 
+ * {@link #release(ByteBuffer) released}, or when they have been garbage
+ * collected. Releasing buffers that have not been allocated with this 
+ * allocator does not affect the counts. This allocator only refers to
+ * the buffers weakly. Buffers that become unreachable are detected 
+ * lazily, during the next call to one of the methods of this allocator, 
+ * after the garbage collector has cleared them. Until then, they are 
+ * still counted as being in flight.<br>
+ * <br>
+ * Readers do not release the buffers that they return as part of an 
+ * asset or model (see {@link BufferAllocator} for details). In order to
+ * have a deterministic budget for reading multiple models, each model 
+ * may be read with a {@link ScopedBufferAllocator} that has this 
+ * allocator as its delegate, and that is closed when the model is no 
+ * longer needed:
+ * <pre><code>
+ * AccountingBufferAllocator budget = 
+ *     BufferAllocators.createAccounting(BufferAllocators.direct(), max);
+ * try (ScopedBufferAllocator allocator = 
+ *     BufferAllocators.createScoped(budget))
+ * {
+ *     gltfModelReader.setBufferAllocator(allocator);
+ *     process(gltfModelReader.read(path));
+ * }
+ * </code></pre>
+ * This class is thread-safe.
+ */
+public final class AccountingBufferAllocator implements BufferAllocator
+{
+    /**
+     * The delegate
+     */
+    private final BufferAllocator delegate;
+    
+    /**
+     * The maximum number of bytes in flight
+     */
+    private final long maxBytesInFlight;
+    
+    /**
+     * The number of bytes that have been allocated and not released
+     */
+    private final AtomicLong bytesInFlight;
+    
+    /**
+     * The maximum number of bytes that have been in flight 
+     */
+    private final AtomicLong peakBytesInFlight;
+    
+    /**
+     * The total number of bytes that have been allocated
+     */
+    private final AtomicLong totalBytesAllocated;
+    
+    /**
+     * The capacities of the buffers that have been allocated and not
+     * released. Access to this map is synchronized on this map. 
+     */
+    private final WeakBufferMap<Integer> allocatedBuffers;
+    
+    /**
+     * Creates a new instance
+     * 
+     * @param delegate The delegate
+     * @param maxBytesInFlight The maximum number of bytes in flight. If 
+     * this is not positive, then the number of bytes is not limited.
+     */
+    AccountingBufferAllocator(BufferAllocator delegate, long maxBytesInFlight)
+    {
+        this.delegate = Objects.requireNonNull(delegate, 
+            "The delegate may not be null");
+        this.maxBytesInFlight = 
+            maxBytesInFlight <= 0 ? Long.MAX_VALUE : maxBytesInFlight;
+        this.bytesInFlight = new AtomicLong();
+        this.peakBytesInFlight = new AtomicLong();
+        this.totalBytesAllocated = new AtomicLong();
+        this.allocatedBuffers = new WeakBufferMap<Integer>();
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalStateException If the allocation would cause the
+     * maximum number of bytes in flight to be exceeded
+     */
+    @Override
+    public ByteBuffer allocate(int capacity)
+    {
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException(
+                "The capacity may not be negative, but is " + capacity);
+        }
+        expungeStaleEntries();
+        long newBytesInFlight = bytesInFlight.addAndGet(capacity);
+        if (newBytesInFlight > maxBytesInFlight)
+        {
+            bytesInFlight.addAndGet(-capacity);
+            throw new IllegalStateException("Cannot allocate " + capacity 
+                + " bytes: There are already " 
+                + (newBytesInFlight - capacity) + " bytes in flight, "
+                + "and the maximum is " + maxBytesInFlight);
+        }
+        ByteBuffer byteBuffer;
+        try
+        {
+            byteBuffer = delegate.allocate(capacity);
+        }
+        catch (RuntimeException | Error e)
+        {
+            bytesInFlight.addAndGet(-capacity);
+            throw e;
+        }
+        synchronized (allocatedBuffers)
+        {
+            allocatedBuffers.put(byteBuffer, capacity);
+        }
+        totalBytesAllocated.addAndGet(capacity);
+        peakBytesInFlight.accumulateAndGet(newBytesInFlight, Math::max);
+        return byteBuffer;
+    }
+    
+    /**
+     * {@inheritDoc}<br>
+     * <br>
+     * Buffers that have not been allocated with this allocator, or that
+     * have already been released, are passed to the delegate without 
+     * affecting the number of bytes in flight.
+     */
+    @Override
+    public void release(ByteBuffer byteBuffer)
+    {
+        Integer capacity;
+        synchronized (allocatedBuffers)
+        {
+            capacity = allocatedBuffers.remove(byteBuffer);
+        }
+        if (capacity != null)
+        {
+            bytesInFlight.addAndGet(-capacity);
+        }
+        delegate.release(byteBuffer);
+    }
+    
+    /**
+     * Remove the buffers that have been garbage collected from the 
+     * number of bytes in flight
+     */
+    private void expungeStaleEntries()
+    {
+        synchronized (allocatedBuffers)
+        {
+            allocatedBuffers.expungeStaleEntries(
+                capacity -> bytesInFlight.addAndGet(-capacity));
+        }
+    }
+    
+    /**
+     * Returns the number of bytes that have been allocated and not yet
+     * been released
+     * 
+     * @return The number of bytes in flight
+     */
+    public long getBytesInFlight()
+    {
+        expungeStaleEntries();
+        return bytesInFlight.get();
+    }
+    
+    /**
+     * Returns the maximum number of bytes that have been in flight at 
+     * the same time
+     * 
+     * @return The peak number of bytes in flight
+     */
+    public long getPeakBytesInFlight()
+    {
+        return peakBytesInFlight.get();
+    }
+    
+    /**
+     * Returns the total number of bytes that have been allocated
+     * 
+     * @return The total number of bytes
+     */
+    public long getTotalBytesAllocated()
+    {
+        return totalBytesAllocated.get();
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "AccountingBufferAllocator[" 
+            + "bytesInFlight=" + getBytesInFlight() + ","
+            + "peakBytesInFlight=" + getPeakBytesInFlight() + ","
+            + "totalBytesAllocated=" + getTotalBytesAllocated() + "]";
+    }
+}
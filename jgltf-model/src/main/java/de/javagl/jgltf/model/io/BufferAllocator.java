@@ -0,0 +1,95 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interface for classes that allocate the byte buffers that are used 
+ * for storing the data of glTF assets and models.<br>
+ * <br>
+ * Instances of this interface may be created with the 
+ * {@link BufferAllocators} class, and may be passed to the 
+ * {@link GltfAssetReader#setBufferAllocator(BufferAllocator)} and
+ * {@link GltfModelReader#setBufferAllocator(BufferAllocator)} methods.
+ * Readers that do not have an explicit allocator, and the 
+ * {@link Buffers} class, always allocate direct buffers.<br>
+ * <br>
+ * The ownership of the buffers that are allocated by a reader is as 
+ * follows:
+ * <ul>
+ *   <li>
+ *     The buffers that contain the binary data and the data of the 
+ *     external references of an asset are owned by the caller of the
+ *     reader. The reader never releases them, because they are used
+ *     by the returned asset or model. The caller may release them when
+ *     the model is no longer used. Since the model may only refer to
+ *     slices of these buffers, the easiest way to do this is to read 
+ *     each model with its own {@link ScopedBufferAllocator}, and close 
+ *     it when the model is no longer used.
+ *   </li>
+ *   <li>
+ *     Buffers that are only used temporarily while reading, like the 
+ *     contents of a JSON file, are released by the reader.
+ *   </li>
+ *   <li>
+ *     When reading fails, then the reader releases all buffers that it
+ *     allocated for the asset.
+ *   </li>
+ * </ul>
+ */
+public interface BufferAllocator
+{
+    /**
+     * Allocate a byte buffer with the given capacity. The position of 
+     * the returned buffer will be 0, and its limit will be its capacity.
+     * The byte order and the contents of the returned buffer are not 
+     * specified. Callers are responsible for setting the byte order
+     * that they require.
+     * 
+     * @param capacity The capacity
+     * @return The byte buffer
+     * @throws IllegalArgumentException If the capacity is negative
+     */
+    ByteBuffer allocate(int capacity);
+    
+    /**
+     * Release the given byte buffer. This indicates that the given buffer
+     * that was returned by {@link #allocate(int)} is no longer used by 
+     * the caller. Implementations may use this to keep track of the 
+     * memory that is in use, or to reuse the buffer. The given buffer 
+     * may not be used by the caller after it was released.<br>
+     * <br>
+     * The default implementation does nothing.
+     * 
+     * @param byteBuffer The byte buffer
+     */
+    default void release(ByteBuffer byteBuffer)
+    {
+        // The default implementation does nothing
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Methods to create {@link BufferAllocator} instances
+ */
+public class BufferAllocators
+{
+    /**
+     * The {@link BufferAllocator} that allocates heap buffers
+     */
+    private static final BufferAllocator HEAP = ByteBuffer::allocate;
+    
+    /**
+     * The {@link BufferAllocator} that allocates direct buffers
+     */
+    private static final BufferAllocator DIRECT = ByteBuffer::allocateDirect;
+    
+    /**
+     * Returns a {@link BufferAllocator} that allocates buffers on the 
+     * Java heap. The memory of these buffers is managed by the garbage
+     * collector, like any other object.
+     * 
+     * @return The {@link BufferAllocator}
+     */
+    public static BufferAllocator heap()
+    {
+        return HEAP;
+    }
+    
+    /**
+     * Returns a {@link BufferAllocator} that allocates direct buffers.
+     * The memory of these buffers is not part of the Java heap, and is
+     * limited by the <code>-XX:MaxDirectMemorySize</code> setting. This 
+     * is the allocator that is used by readers that do not have an 
+     * explicit allocator.
+     * 
+     * @return The {@link BufferAllocator}
+     */
+    public static BufferAllocator direct()
+    {
+        return DIRECT;
+    }
+    
+    /**
+     * Creates a {@link BufferAllocator} that keeps track of the number 
+     * of bytes that have been allocated with the given delegate and not 
+     * yet been released, and fails when the given maximum number of bytes
+     * would be exceeded. See {@link AccountingBufferAllocator} for 
+     * details.
+     * 
+     * @param delegate The delegate {@link BufferAllocator}
+     * @param maxBytesInFlight The maximum number of bytes that may be 
+     * allocated and not released at the same time. If this is not positive,
+     * then the number of bytes is not limited.
+     * @return The {@link AccountingBufferAllocator}
+     */
+    public static AccountingBufferAllocator createAccounting(
+        BufferAllocator delegate, long maxBytesInFlight)
+    {
+        return new AccountingBufferAllocator(delegate, maxBytesInFlight);
+    }
+    
+    /**
+     * Creates a {@link BufferAllocator} that keeps buffers that have been
+     * released, and returns them for later allocations.<br>
+     * <br>
+     * The buffers are kept in buckets of power-of-two sizes: A request 
+     * for a certain capacity is served with a buffer from the delegate
+     * whose capacity is the next power of two, so that buffers can be 
+     * reused for requests with slightly different capacities. The 
+     * returned buffers are slices of these buffers, with exactly the
+     * requested capacity, and will be filled with zeros. At most the 
+     * given number of released buffers will be kept. Buffers that 
+     * cannot be kept will be released to the given delegate.<br>
+     * <br>
+     * Only buffers that are released are reused. The allocator does not 
+     * keep strong references to the buffers that it returned, so buffers
+     * that are never released (like the buffers of an asset that was 
+     * read successfully) are garbage collected as usual.<br>
+     * <br>
+     * The returned allocator is thread-safe.
+     * 
+     * @param delegate The delegate {@link BufferAllocator}
+     * @param maxPooledBuffers The maximum number of buffers that are kept
+     * @return The {@link BufferAllocator}
+     * @throws IllegalArgumentException If the given number is negative
+     */
+    public static BufferAllocator createPooled(
+        BufferAllocator delegate, int maxPooledBuffers)
+    {
+        return new PooledBufferAllocator(delegate, maxPooledBuffers);
+    }
+    
+    /**
+     * Creates a {@link ScopedBufferAllocator} that releases all buffers
+     * that have been allocated with it when it is closed. See 
+     * {@link ScopedBufferAllocator} for details.
+     * 
+     * @param delegate The delegate {@link BufferAllocator}
+     * @return The {@link ScopedBufferAllocator}
+     */
+    public static ScopedBufferAllocator createScoped(BufferAllocator delegate)
+    {
+        return new ScopedBufferAllocator(delegate);
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private BufferAllocators()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -26,12 +26,16 @@
  */
 package de.javagl.jgltf.model.io;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 
 /**
@@ -166,6 +170,90 @@ public class Buffers
         return byteBuffer;
     }
     
+    /**
+     * Create a new byte buffer with the given size, and little-endian
+     * byte order, using the given {@link BufferAllocator}
+     * 
+     * @param size The size of the buffer
+     * @param bufferAllocator The {@link BufferAllocator}
+     * @return The byte buffer
+     * @throws IllegalArgumentException If the given size is negative
+     */
+    static ByteBuffer create(int size, BufferAllocator bufferAllocator)
+    {
+        ByteBuffer byteBuffer = bufferAllocator.allocate(size);
+        byteBuffer.order(ByteOrder.LITTLE_ENDIAN);
+        return byteBuffer;
+    }
+    
+    /**
+     * Creates a new byte buffer that contains the given data, with 
+     * little-endian byte order, using the given {@link BufferAllocator}
+     *  
+     * @param data The data
+     * @param bufferAllocator The {@link BufferAllocator}
+     * @return The byte buffer
+     */
+    static ByteBuffer create(byte data[], BufferAllocator bufferAllocator)
+    {
+        ByteBuffer byteBuffer = create(data.length, bufferAllocator);
+        byteBuffer.put(data);
+        byteBuffer.position(0);
+        return byteBuffer;
+    }
+    
+    /**
+     * Read the contents of the given file into a new byte buffer that 
+     * has the size of the file, and little-endian byte order, using 
+     * the given {@link BufferAllocator}.<br>
+     * <br>
+     * The size of the file is limited to 2GB, because the data of a 
+     * single glTF buffer is stored in a single byte buffer, and the 
+     * <code>byteLength</code> of a glTF buffer is an <code>int</code>
+     * value. If the buffer is allocated, but the file cannot be read
+     * completely, then the buffer will be released.
+     * 
+     * @param path The path of the file
+     * @param bufferAllocator The {@link BufferAllocator} for the buffer
+     * @return The byte buffer
+     * @throws IOException If an IO error occurs, or the file is larger
+     * than 2GB
+     */
+    static ByteBuffer readFile(
+        Path path, BufferAllocator bufferAllocator) throws IOException
+    {
+        try (FileChannel fileChannel = 
+            FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = fileChannel.size();
+            if (size > Integer.MAX_VALUE)
+            {
+                throw new IOException("The file " + path + " has a size of " 
+                    + size + " bytes, which is larger than the maximum "
+                    + "size of a single buffer (" + Integer.MAX_VALUE + ")");
+            }
+            ByteBuffer data = create((int) size, bufferAllocator);
+            try
+            {
+                while (data.hasRemaining())
+                {
+                    if (fileChannel.read(data) < 0)
+                    {
+                        throw new IOException(
+                            "Unexpected end of file " + path);
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                bufferAllocator.release(data);
+                throw e;
+            }
+            data.position(0);
+            return data;
+        }
+    }
+    
     /**
      * Create an input stream from the given byte buffer, starting at its
      * current position, up to its current limit. Reading the returned
@@ -0,0 +1,328 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Implementation of a {@link ResourceFetcher} that caches the data that
+ * is fetched by a delegate. See 
+ * {@link ResourceFetchers#createCaching(ResourceFetcher, long, Path)} 
+ * for details.
+ */
+final class CachingResourceFetcher implements ResourceFetcher
+{
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger = 
+        Logger.getLogger(CachingResourceFetcher.class.getName());
+    
+    /**
+     * The delegate
+     */
+    private final ResourceFetcher delegate;
+    
+    /**
+     * The maximum total size of the data in the in-memory cache
+     */
+    private final long maxCacheSize;
+    
+    /**
+     * The optional directory for data that was evicted from the cache
+     */
+    private final Path spillDirectory;
+    
+    /**
+     * The in-memory cache, in access order. Access to this map, to the
+     * {@link #cacheSize} and to the {@link #spilledFiles} is 
+     * synchronized on this map.
+     */
+    private final Map<URI, ByteBuffer> cache;
+    
+    /**
+     * The total size of the data in the in-memory cache
+     */
+    private long cacheSize;
+    
+    /**
+     * The mapping from URIs to the files that contain the data that was
+     * evicted from the in-memory cache
+     */
+    private final Map<URI, Path> spilledFiles;
+    
+    /**
+     * The futures for the data that is currently fetched by the delegate
+     */
+    private final ConcurrentHashMap<URI, CompletableFuture<ByteBuffer>> 
+        inFlight;
+    
+    /**
+     * Creates a new instance
+     * 
+     * @param delegate The delegate 
+     * @param maxCacheSize The maximum total size of the cached data
+     * @param spillDirectory The optional spill directory
+     * @throws IllegalArgumentException If the given size is negative
+     */
+    CachingResourceFetcher(ResourceFetcher delegate, long maxCacheSize, 
+        Path spillDirectory)
+    {
+        this.delegate = Objects.requireNonNull(delegate, 
+            "The delegate may not be null");
+        if (maxCacheSize < 0)
+        {
+            throw new IllegalArgumentException(
+                "The maxCacheSize may not be negative, but is " 
+                + maxCacheSize);
+        }
+        this.maxCacheSize = maxCacheSize;
+        this.spillDirectory = spillDirectory;
+        this.cache = new LinkedHashMap<URI, ByteBuffer>(16, 0.75f, true);
+        this.spilledFiles = new LinkedHashMap<URI, Path>();
+        this.inFlight = 
+            new ConcurrentHashMap<URI, CompletableFuture<ByteBuffer>>();
+    }
+
+    @Override
+    public CompletableFuture<ByteBuffer> fetch(URI uri)
+    {
+        ByteBuffer cached = getCached(uri);
+        if (cached != null)
+        {
+            return CompletableFuture.completedFuture(createView(cached));
+        }
+        CompletableFuture<ByteBuffer> future = 
+            new CompletableFuture<ByteBuffer>();
+        CompletableFuture<ByteBuffer> existing = 
+            inFlight.putIfAbsent(uri, future);
+        if (existing != null)
+        {
+            return existing.thenApply(CachingResourceFetcher::createView);
+        }
+        
+        // The data may have been put into the cache by another thread 
+        // after the initial check
+        cached = getCached(uri);
+        if (cached != null)
+        {
+            inFlight.remove(uri, future);
+            future.complete(cached);
+            return future.thenApply(CachingResourceFetcher::createView);
+        }
+        
+        CompletableFuture<ByteBuffer> delegateFuture;
+        try
+        {
+            delegateFuture = delegate.fetch(uri);
+        }
+        catch (RuntimeException e)
+        {
+            delegateFuture = new CompletableFuture<ByteBuffer>();
+            delegateFuture.completeExceptionally(e);
+        }
+        delegateFuture.whenComplete((data, throwable) -> 
+        {
+            if (throwable == null && data != null)
+            {
+                put(uri, data);
+            }
+            inFlight.remove(uri, future);
+            if (throwable != null)
+            {
+                Throwable cause = throwable;
+                if (cause instanceof CompletionException && 
+                    cause.getCause() != null)
+                {
+                    cause = cause.getCause();
+                }
+                future.completeExceptionally(cause);
+            }
+            else if (data == null)
+            {
+                future.completeExceptionally(
+                    new IOException("No data was fetched for " + uri));
+            }
+            else
+            {
+                future.complete(data);
+            }
+        });
+        return future.thenApply(CachingResourceFetcher::createView);
+    }
+    
+    /**
+     * Returns the cached data for the given URI, or <code>null</code> if
+     * there is no cached data for the given URI. If the data was evicted 
+     * into a spill file, then it will be read from this file, and put 
+     * into the in-memory cache again.
+     * 
+     * @param uri The URI
+     * @return The cached data
+     */
+    private ByteBuffer getCached(URI uri)
+    {
+        Path spilledFile = null;
+        synchronized (cache)
+        {
+            ByteBuffer data = cache.get(uri);
+            if (data != null)
+            {
+                return data;
+            }
+            spilledFile = spilledFiles.get(uri);
+        }
+        if (spilledFile == null)
+        {
+            return null;
+        }
+        try
+        {
+            ByteBuffer data = Buffers.readFile(
+                spilledFile, BufferAllocators.direct());
+            put(uri, data);
+            return data;
+        }
+        catch (IOException e)
+        {
+            logger.warning("Could not read cached data for " + uri 
+                + " from " + spilledFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+    
+    /**
+     * Put the given data into the in-memory cache, and evict the least
+     * recently used entries if the maximum cache size is exceeded
+     * 
+     * @param uri The URI
+     * @param data The data
+     */
+    private void put(URI uri, ByteBuffer data)
+    {
+        List<Entry<URI, ByteBuffer>> evicted = 
+            new ArrayList<Entry<URI, ByteBuffer>>();
+        synchronized (cache)
+        {
+            ByteBuffer old = cache.put(uri, data);
+            if (old != null)
+            {
+                cacheSize -= old.capacity();
+            }
+            cacheSize += data.capacity();
+            Iterator<Entry<URI, ByteBuffer>> iterator = 
+                cache.entrySet().iterator();
+            while (cacheSize > maxCacheSize && iterator.hasNext())
+            {
+                Entry<URI, ByteBuffer> entry = iterator.next();
+                if (!spilledFiles.containsKey(entry.getKey()))
+                {
+                    evicted.add(entry);
+                }
+                cacheSize -= entry.getValue().capacity();
+                iterator.remove();
+            }
+        }
+        if (spillDirectory != null)
+        {
+            for (Entry<URI, ByteBuffer> entry : evicted)
+            {
+                spill(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+    
+    /**
+     * Write the given data into a file in the spill directory
+     * 
+     * @param uri The URI
+     * @param data The data
+     */
+    private void spill(URI uri, ByteBuffer data)
+    {
+        try
+        {
+            Files.createDirectories(spillDirectory);
+            Path file = Files.createTempFile(
+                spillDirectory, "resource", ".bin");
+            file.toFile().deleteOnExit();
+            try (FileChannel fileChannel = FileChannel.open(file, 
+                StandardOpenOption.WRITE))
+            {
+                ByteBuffer slice = data.duplicate();
+                slice.position(0);
+                slice.limit(slice.capacity());
+                while (slice.hasRemaining())
+                {
+                    fileChannel.write(slice);
+                }
+            }
+            synchronized (cache)
+            {
+                spilledFiles.put(uri, file);
+            }
+        }
+        catch (IOException e)
+        {
+            logger.warning("Could not write cached data for " + uri 
+                + " into " + spillDirectory + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Create a read-only slice of the given cached data, with the same
+     * byte order as the given data
+     * 
+     * @param data The data
+     * @return The view
+     */
+    private static ByteBuffer createView(ByteBuffer data)
+    {
+        ByteBuffer readOnly = data.asReadOnlyBuffer();
+        readOnly.order(data.order());
+        readOnly.position(0);
+        readOnly.limit(readOnly.capacity());
+        return Buffers.createSlice(readOnly);
+    }
+}
@@ -31,7 +31,9 @@ import java.io.InputStream;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.concurrent.Executor;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 import de.javagl.jgltf.model.GltfModel;
 import de.javagl.jgltf.model.GltfModels;
@@ -62,7 +64,35 @@ public final class GltfAssetReader
      * A consumer for {@link JsonError}s that may occur while reading
      * the glTF JSON
      */
-    private Consumer<? super JsonError> jsonErrorConsumer;
+    private Consumer<? super JsonError> jsonErrorConsumer = 
+        JsonErrorConsumers.createLogging();
+    
+    /**
+     * The {@link GltfJsonContext} for the current {@link JsonError} consumer.
+     * This is created lazily, and reused for all assets that are read.
+     */
+    private GltfJsonContext jsonContext;
+    
+    /**
+     * Whether files should be memory-mapped when they are read from a path
+     */
+    private boolean memoryMapping;
+    
+    /**
+     * The optional executor for resolving external references concurrently
+     */
+    private Executor referenceExecutor;
+    
+    /**
+     * The optional {@link ResourceFetcher} for external references
+     */
+    private ResourceFetcher resourceFetcher;
+    
+    /**
+     * The optional {@link BufferAllocator} for the data of external 
+     * references
+     */
+    private BufferAllocator bufferAllocator;
     
     /**
      * Creates a new instance
@@ -82,6 +112,119 @@ public final class GltfAssetReader
         Consumer<? super JsonError> jsonErrorConsumer)
     {
         this.jsonErrorConsumer = jsonErrorConsumer;
+        this.jsonContext = null;
+    }
+    
+    /**
+     * Set whether files that are read with {@link #read(Path)} should be
+     * memory-mapped.<br>
+     * <br>
+     * When this is <code>true</code>, then the file will not be copied 
+     * into memory. Instead, the {@link GltfAsset#getBinaryData() binary 
+     * data} of a binary glTF will be a read-only slice of the mapped file,
+     * so that the buffer data of the model is loaded on demand by the 
+     * operating system. The default value is <code>false</code>.
+     * 
+     * @param memoryMapping Whether files should be memory-mapped
+     */
+    public void setMemoryMapping(boolean memoryMapping)
+    {
+        this.memoryMapping = memoryMapping;
+    }
+    
+    /**
+     * Returns whether files that are read with {@link #read(Path)} will
+     * be memory-mapped.
+     * 
+     * @return Whether files will be memory-mapped
+     * @see #setMemoryMapping(boolean)
+     */
+    public boolean isMemoryMapping()
+    {
+        return memoryMapping;
+    }
+    
+    /**
+     * Set the executor that should be used for resolving the external 
+     * references in {@link #read(URI)} and {@link #read(Path)}.<br>
+     * <br>
+     * If this is <code>null</code> (which is the default), then the 
+     * references will be resolved one after another, in the calling 
+     * thread, and references that cannot be resolved will only cause
+     * a warning to be printed. Otherwise, the references will be 
+     * resolved concurrently with the given executor, and reading will 
+     * fail with an <code>IOException</code> if any reference cannot be 
+     * resolved. See 
+     * {@link GltfReferenceResolver#resolveAll(Iterable, 
+     * java.util.function.Function, Executor)} for details.
+     * 
+     * @param referenceExecutor The executor
+     */
+    public void setReferenceExecutor(Executor referenceExecutor)
+    {
+        this.referenceExecutor = referenceExecutor;
+    }
+    
+    /**
+     * Set the {@link ResourceFetcher} that should be used for fetching
+     * the data of external references in {@link #read(URI)} and 
+     * {@link #read(Path)}.<br>
+     * <br>
+     * If this is not <code>null</code>, then it takes precedence over 
+     * the {@link #setReferenceExecutor(Executor) reference executor}.
+     * The references will be resolved against the base URI of the asset,
+     * and reading will fail with an <code>IOException</code> if any 
+     * reference cannot be resolved. A fetcher that was created with 
+     * {@link ResourceFetchers#createCaching(ResourceFetcher, long)} may 
+     * be shared between multiple readers, so that resources that are 
+     * referred to by multiple assets are only read once.
+     * 
+     * @param resourceFetcher The {@link ResourceFetcher}
+     */
+    public void setResourceFetcher(ResourceFetcher resourceFetcher)
+    {
+        this.resourceFetcher = resourceFetcher;
+    }
+    
+    /**
+     * Set the {@link BufferAllocator} that should be used for allocating
+     * the buffers for the binary data of binary glTF assets, and for the 
+     * data of external references that are read in {@link #read(URI)} 
+     * and {@link #read(Path)}. If this is <code>null</code> (which is 
+     * the default), then the {@link BufferAllocators#direct() direct 
+     * buffer allocator} will be used.<br>
+     * <br>
+     * The returned assets will refer to these buffers. They are not 
+     * released by this reader, unless reading fails. See 
+     * {@link BufferAllocator} for details about the ownership of these
+     * buffers. Note that some consumers of the buffer data, for example,
+     * certain OpenGL bindings, may require direct buffers.<br>
+     * <br>
+     * This does not affect the data that is provided by a 
+     * {@link #setResourceFetcher(ResourceFetcher) resource fetcher}, 
+     * or the data of memory-mapped files.
+     * 
+     * @param bufferAllocator The {@link BufferAllocator}
+     */
+    public void setBufferAllocator(BufferAllocator bufferAllocator)
+    {
+        this.bufferAllocator = bufferAllocator;
+    }
+    
+    /**
+     * Returns the {@link BufferAllocator} for the binary data and the
+     * data of external references, or the direct allocator if no 
+     * allocator was set
+     * 
+     * @return The {@link BufferAllocator}
+     */
+    BufferAllocator getBufferAllocator()
+    {
+        if (bufferAllocator == null)
+        {
+            return BufferAllocators.direct();
+        }
+        return bufferAllocator;
     }
     
     /**
@@ -93,14 +236,31 @@ public final class GltfAssetReader
      */
     public GltfAsset read(URI uri) throws IOException
     {
+        ScopedBufferAllocator readAllocator = 
+            BufferAllocators.createScoped(getBufferAllocator());
         try (InputStream inputStream = uri.toURL().openStream())
         {
-            GltfAsset gltfAsset = readWithoutReferences(inputStream);
+            GltfAsset gltfAsset = 
+                readWithoutReferences(inputStream, readAllocator);
             URI baseUri = IO.getParent(uri);
-            GltfReferenceResolver.resolveAll(
-                gltfAsset.getReferences(), baseUri);
+            if (resourceFetcher != null)
+            {
+                GltfReferenceResolver.resolveAllWithFetcher(
+                    gltfAsset.getReferences(), baseUri, resourceFetcher);
+            }
+            else
+            {
+                resolveAll(gltfAsset, 
+                    UriResolvers.createBaseUriResolverWithAllocator(
+                        baseUri, readAllocator));
+            }
             return gltfAsset;
         }
+        catch (IOException | RuntimeException e)
+        {
+            readAllocator.close();
+            throw e;
+        }
     }
 
     /**
@@ -112,14 +272,124 @@ public final class GltfAssetReader
      */
     public GltfAsset read(Path path) throws IOException
     {
-        try (InputStream inputStream = path.toUri().toURL().openStream())
+        ScopedBufferAllocator readAllocator = 
+            BufferAllocators.createScoped(getBufferAllocator());
+        try
         {
-            GltfAsset gltfAsset = readWithoutReferences(inputStream);
+            GltfAsset gltfAsset = readWithoutReferences(path, readAllocator);
             Path basePath = IO.getParent(path);
+            if (resourceFetcher != null)
+            {
+                GltfReferenceResolver.resolveAllWithFetcher(
+                    gltfAsset.getReferences(), basePath.toUri(), 
+                    resourceFetcher);
+            }
+            else
+            {
+                resolveAll(gltfAsset, 
+                    UriResolvers.createBasePathResolverWithAllocator(
+                        basePath, readAllocator));
+            }
+            return gltfAsset;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            readAllocator.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Resolve all references of the given {@link GltfAsset} with the 
+     * given resolver, using the reference executor if it is not 
+     * <code>null</code>
+     * 
+     * @param gltfAsset The {@link GltfAsset}
+     * @param uriResolver The function for resolving a URI string
+     * into a byte buffer
+     * @throws IOException If the references are resolved with the 
+     * reference executor, and any of them could not be resolved
+     */
+    private void resolveAll(GltfAsset gltfAsset, 
+        Function<String, ByteBuffer> uriResolver) throws IOException
+    {
+        if (referenceExecutor != null)
+        {
+            GltfReferenceResolver.resolveAll(
+                gltfAsset.getReferences(), uriResolver, referenceExecutor);
+        }
+        else
+        {
             GltfReferenceResolver.resolveAll(
-                gltfAsset.getReferences(), basePath);
+                gltfAsset.getReferences(), uriResolver);
+        }
+    }
+    
+    /**
+     * Read the {@link GltfAsset} from the given path.<br>
+     * <br>
+     * In contrast to the {@link #read(Path)} method, this method will
+     * not resolve any external references.<br>
+     * <br>
+     * If {@link #setMemoryMapping(boolean) memory mapping} is enabled,
+     * then the file will be memory-mapped instead of being read.
+     * 
+     * @param path The path
+     * @return The {@link GltfAsset}
+     * @throws IOException If an IO error occurs
+     */
+    public GltfAsset readWithoutReferences(Path path) throws IOException
+    {
+        ScopedBufferAllocator readAllocator = 
+            BufferAllocators.createScoped(getBufferAllocator());
+        try
+        {
+            return readWithoutReferences(path, readAllocator);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            readAllocator.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Read the {@link GltfAsset} from the given path, without resolving
+     * external references. Unless {@link #setMemoryMapping(boolean) 
+     * memory mapping} is enabled, the file will be read into a buffer 
+     * that is allocated with the given {@link BufferAllocator}. If this 
+     * buffer is not used as the binary data of the asset, then it will
+     * be released before this method returns.
+     * 
+     * @param path The path
+     * @param bufferAllocator The {@link BufferAllocator}
+     * @return The {@link GltfAsset}
+     * @throws IOException If an IO error occurs
+     */
+    private GltfAsset readWithoutReferences(
+        Path path, BufferAllocator bufferAllocator) throws IOException
+    {
+        if (memoryMapping)
+        {
+            RawGltfData rawGltfData = RawGltfDataReader.readMapped(path);
+            return read(rawGltfData);
+        }
+        ByteBuffer data = Buffers.readFile(path, bufferAllocator);
+        boolean dataUsed = false;
+        try
+        {
+            RawGltfData rawGltfData = RawGltfDataReader.read(data);
+            GltfAsset gltfAsset = read(rawGltfData);
+            dataUsed = rawGltfData.getBinaryData() != null;
             return gltfAsset;
         }
+        finally
+        {
+            if (!dataUsed)
+            {
+                bufferAllocator.release(data);
+            }
+        }
     }
 
     /**
@@ -161,10 +431,55 @@ public final class GltfAssetReader
     public GltfAsset readWithoutReferences(InputStream inputStream) 
         throws IOException
     {
-        RawGltfData rawGltfData = RawGltfDataReader.read(inputStream);
+        ScopedBufferAllocator readAllocator = 
+            BufferAllocators.createScoped(getBufferAllocator());
+        try
+        {
+            return readWithoutReferences(inputStream, readAllocator);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            readAllocator.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Read the glTF asset from the given input stream, without resolving
+     * external references. The binary data of a binary glTF will be 
+     * stored in a buffer that is allocated with the given 
+     * {@link BufferAllocator}.
+     * 
+     * @param inputStream The input stream
+     * @param bufferAllocator The {@link BufferAllocator}
+     * @return The {@link GltfAsset}
+     * @throws IOException If an IO error occurred
+     */
+    private GltfAsset readWithoutReferences(InputStream inputStream, 
+        BufferAllocator bufferAllocator) throws IOException
+    {
+        RawGltfData rawGltfData = 
+            RawGltfDataReader.read(inputStream, bufferAllocator);
         return read(rawGltfData);
     }
 
+    /**
+     * Returns the {@link GltfJsonContext} for the current {@link JsonError}
+     * consumer, creating it if necessary
+     * 
+     * @return The {@link GltfJsonContext}
+     */
+    private GltfJsonContext getJsonContext()
+    {
+        GltfJsonContext result = jsonContext;
+        if (result == null)
+        {
+            result = GltfJsonContext.create(jsonErrorConsumer);
+            jsonContext = result;
+        }
+        return result;
+    }
+    
     /**
      * Read the {@link GltfAsset} from the given {@link RawGltfData}
      * 
@@ -175,32 +490,28 @@ public final class GltfAssetReader
     GltfAsset read(RawGltfData rawGltfData) throws IOException
     {
         GltfReader gltfReader = new GltfReader();
-        gltfReader.setJsonErrorConsumer(jsonErrorConsumer);        
+        gltfReader.setJsonContext(getJsonContext());
         ByteBuffer jsonData = rawGltfData.getJsonData();
-        try (InputStream jsonInputStream =
-            Buffers.createByteBufferInputStream(jsonData))
+        gltfReader.read(jsonData);
+        int majorVersion = gltfReader.getMajorVersion();
+        if (majorVersion == 1)
         {
-            gltfReader.read(jsonInputStream);
-            int majorVersion = gltfReader.getMajorVersion();
-            if (majorVersion == 1)
-            {
-                de.javagl.jgltf.impl.v1.GlTF gltfV1 = 
-                    gltfReader.getAsGltfV1();
-                return new GltfAssetV1(gltfV1, 
-                    rawGltfData.getBinaryData());
-            }
-            else if (majorVersion == 2)
-            {
-                de.javagl.jgltf.impl.v2.GlTF gltfV2 = 
-                    gltfReader.getAsGltfV2();
-                return new GltfAssetV2(gltfV2, 
-                    rawGltfData.getBinaryData());
-            }
-            else
-            {
-                throw new IOException(
-                    "Unsupported major version: " + majorVersion);
-            }
+            de.javagl.jgltf.impl.v1.GlTF gltfV1 = 
+                gltfReader.getAsGltfV1();
+            return new GltfAssetV1(gltfV1, 
+                rawGltfData.getBinaryData());
+        }
+        else if (majorVersion == 2)
+        {
+            de.javagl.jgltf.impl.v2.GlTF gltfV2 = 
+                gltfReader.getAsGltfV2();
+            return new GltfAssetV2(gltfV2, 
+                rawGltfData.getBinaryData());
+        }
+        else
+        {
+            throw new IOException(
+                "Unsupported major version: " + majorVersion);
         }
     }
     
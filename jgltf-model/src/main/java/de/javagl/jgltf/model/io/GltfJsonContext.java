@@ -0,0 +1,213 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2017 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * A class summarizing the pre-configured Jackson readers and writers that
+ * are used for reading and writing glTF JSON data.<br>
+ * <br>
+ * Creating and configuring a Jackson object mapper is expensive, and 
+ * the serializers and deserializers are cached inside the object mapper.
+ * Instances of this class are therefore intended to be created once and 
+ * then be reused. They are thread-safe, and may be shared between 
+ * multiple readers and writers.<br>
+ * <br>
+ * The JSON error handling is part of the configuration of the object
+ * mapper. So there is one instance for each {@link JsonError} consumer.
+ * The instances for the default consumers may be obtained with
+ * {@link #getDefault()} and {@link #create(Consumer)}.<br>
+ * <br>
+ * This class should not be considered as part of the API.
+ */
+public final class GltfJsonContext
+{
+    /**
+     * The default instance, which uses the 
+     * {@link JacksonUtils#loggingJsonErrorConsumer()} 
+     */
+    private static final GltfJsonContext DEFAULT = 
+        new GltfJsonContext(JacksonUtils.loggingJsonErrorConsumer());
+    
+    /**
+     * The instance that does not report any {@link JsonError}s
+     */
+    private static final GltfJsonContext SILENT = 
+        new GltfJsonContext(null);
+    
+    /**
+     * Returns the default instance, which prints log messages for
+     * all {@link JsonError}s 
+     * 
+     * @return The default instance
+     */
+    public static GltfJsonContext getDefault()
+    {
+        return DEFAULT;
+    }
+    
+    /**
+     * Returns an instance that passes all {@link JsonError}s to the 
+     * given consumer. If the given consumer is <code>null</code>, then 
+     * errors will not be reported.<br>
+     * <br>
+     * For the {@link JsonErrorConsumers#createLogging() logging consumer}
+     * and for <code>null</code>, this will return shared instances. For 
+     * all other consumers, a new instance will be created, which should
+     * then be reused by the caller.
+     * 
+     * @param jsonErrorConsumer The consumer for {@link JsonError}s
+     * @return The instance
+     */
+    public static GltfJsonContext create(
+        Consumer<? super JsonError> jsonErrorConsumer)
+    {
+        if (jsonErrorConsumer == null)
+        {
+            return SILENT;
+        }
+        if (jsonErrorConsumer == JacksonUtils.loggingJsonErrorConsumer())
+        {
+            return DEFAULT;
+        }
+        return new GltfJsonContext(jsonErrorConsumer);
+    }
+    
+    /**
+     * The consumer for {@link JsonError}s
+     */
+    private final Consumer<? super JsonError> jsonErrorConsumer;
+    
+    /**
+     * The object mapper. This is only used for creating the readers and
+     * writers, and may not be modified after construction.
+     */
+    private final ObjectMapper objectMapper;
+    
+    /**
+     * The reader for glTF 1.0
+     */
+    private final ObjectReader gltfReaderV1;
+    
+    /**
+     * The reader for glTF 2.0
+     */
+    private final ObjectReader gltfReaderV2;
+    
+    /**
+     * The writer for non-indented output
+     */
+    private final ObjectWriter writer;
+    
+    /**
+     * The writer for indented output
+     */
+    private final ObjectWriter indentingWriter;
+    
+    /**
+     * Creates a new instance
+     * 
+     * @param jsonErrorConsumer The consumer for {@link JsonError}s. If this 
+     * is <code>null</code>, then the errors will not be handled.
+     */
+    private GltfJsonContext(Consumer<? super JsonError> jsonErrorConsumer)
+    {
+        this.jsonErrorConsumer = jsonErrorConsumer;
+        this.objectMapper = 
+            JacksonUtils.createObjectMapper(jsonErrorConsumer);
+        this.gltfReaderV1 = 
+            objectMapper.readerFor(de.javagl.jgltf.impl.v1.GlTF.class);
+        this.gltfReaderV2 = 
+            objectMapper.readerFor(de.javagl.jgltf.impl.v2.GlTF.class);
+        this.writer = objectMapper.writer();
+        this.indentingWriter = 
+            objectMapper.writer(SerializationFeature.INDENT_OUTPUT);
+    }
+    
+    /**
+     * Returns the consumer for {@link JsonError}s that is used in this
+     * context. This may be <code>null</code>.
+     * 
+     * @return The consumer
+     */
+    public Consumer<? super JsonError> getJsonErrorConsumer()
+    {
+        return jsonErrorConsumer;
+    }
+    
+    /**
+     * Returns the factory for low-level JSON parsers and generators
+     * 
+     * @return The factory
+     */
+    public JsonFactory getJsonFactory()
+    {
+        return objectMapper.getFactory();
+    }
+    
+    /**
+     * Returns the reader for {@link de.javagl.jgltf.impl.v1.GlTF} objects
+     * 
+     * @return The reader
+     */
+    public ObjectReader getGltfReaderV1()
+    {
+        return gltfReaderV1;
+    }
+
+    /**
+     * Returns the reader for {@link de.javagl.jgltf.impl.v2.GlTF} objects
+     * 
+     * @return The reader
+     */
+    public ObjectReader getGltfReaderV2()
+    {
+        return gltfReaderV2;
+    }
+    
+    /**
+     * Returns the writer for glTF objects
+     * 
+     * @param indenting Whether the output should be indented
+     * @return The writer
+     */
+    public ObjectWriter getWriter(boolean indenting)
+    {
+        if (indenting)
+        {
+            return indentingWriter;
+        }
+        return writer;
+    }
+}
@@ -29,8 +29,17 @@ package de.javagl.jgltf.model.io;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 
 import de.javagl.jgltf.model.GltfModel;
 import de.javagl.jgltf.model.io.v1.GltfAssetV1;
@@ -44,17 +53,30 @@ import de.javagl.jgltf.model.v2.GltfModelCreatorV2;
 public final class GltfModelReader
 {
     /**
-     * The consumer for {@link JsonError} instances
+     * The {@link GltfAssetReader} that is used for reading the assets.
+     * It is reused for all models, so that the JSON readers that are
+     * created for the {@link JsonError} consumer are reused as well.
      */
-    private Consumer<? super JsonError> jsonErrorConsumer = 
-        JsonErrorConsumers.createLogging();
+    private final GltfAssetReader gltfAssetReader;
+    
+    /**
+     * Whether the data of external references should be loaded lazily
+     */
+    private boolean lazyReferences;
+    
+    /**
+     * The optional {@link ResourceFetcher} for external references
+     */
+    private ResourceFetcher resourceFetcher;
     
     /**
      * Default constructor
      */
     public GltfModelReader()
     {
-        // Default constructor
+        this.gltfAssetReader = new GltfAssetReader();
+        this.gltfAssetReader.setJsonErrorConsumer(
+            JsonErrorConsumers.createLogging());
     }
     
     /**
@@ -66,7 +88,93 @@ public final class GltfModelReader
     public void setJsonErrorConsumer(
         Consumer<? super JsonError> jsonErrorConsumer)
     {
-        this.jsonErrorConsumer = jsonErrorConsumer;
+        gltfAssetReader.setJsonErrorConsumer(jsonErrorConsumer);
+    }
+    
+    /**
+     * Set whether files that are read with {@link #read(Path)} should be
+     * memory-mapped. See {@link GltfAssetReader#setMemoryMapping(boolean)}
+     * for details. The default value is <code>false</code>.
+     * 
+     * @param memoryMapping Whether files should be memory-mapped
+     */
+    public void setMemoryMapping(boolean memoryMapping)
+    {
+        gltfAssetReader.setMemoryMapping(memoryMapping);
+    }
+    
+    /**
+     * Set the executor that should be used for resolving the external 
+     * references in {@link #read(URI)} and {@link #read(Path)}. See
+     * {@link GltfAssetReader#setReferenceExecutor(Executor)} for details.
+     * The default value is <code>null</code>, meaning that references
+     * will be resolved one after another.
+     * 
+     * @param referenceExecutor The executor
+     */
+    public void setReferenceExecutor(Executor referenceExecutor)
+    {
+        gltfAssetReader.setReferenceExecutor(referenceExecutor);
+    }
+    
+    /**
+     * Set the {@link ResourceFetcher} that should be used for fetching
+     * the data of external references. See 
+     * {@link GltfAssetReader#setResourceFetcher(ResourceFetcher)} for 
+     * details. The fetcher will also be used for loading the data of 
+     * {@link #setLazyReferences(boolean) lazy references}, and for the 
+     * references in {@link #readAsync(URI, Executor, LongConsumer)}. 
+     * The default value is <code>null</code>.
+     * 
+     * @param resourceFetcher The {@link ResourceFetcher}
+     */
+    public void setResourceFetcher(ResourceFetcher resourceFetcher)
+    {
+        this.resourceFetcher = resourceFetcher;
+        gltfAssetReader.setResourceFetcher(resourceFetcher);
+    }
+    
+    /**
+     * Set the {@link BufferAllocator} that should be used for allocating
+     * the buffers for the binary data and the data of external references.
+     * See {@link GltfAssetReader#setBufferAllocator(BufferAllocator)} for 
+     * details. The allocator will also be used for loading the data of 
+     * {@link #setLazyReferences(boolean) lazy references}, and for the 
+     * data in {@link #readAsync(URI, Executor, LongConsumer)}. 
+     * The default value is <code>null</code>, meaning that the 
+     * {@link BufferAllocators#direct() direct buffer allocator}
+     * will be used.
+     * 
+     * @param bufferAllocator The {@link BufferAllocator}
+     */
+    public void setBufferAllocator(BufferAllocator bufferAllocator)
+    {
+        gltfAssetReader.setBufferAllocator(bufferAllocator);
+    }
+    
+    /**
+     * Set whether the data of external references should be loaded 
+     * lazily in {@link #read(URI)} and {@link #read(Path)}.<br>
+     * <br>
+     * When this is <code>true</code>, then the data of buffers and images 
+     * that are stored in external resources will not be read when the
+     * model is read. Instead, it will be read when the 
+     * {@link de.javagl.jgltf.model.BufferModel#getBufferData() buffer data}
+     * or {@link de.javagl.jgltf.model.ImageModel#getImageData() image data}
+     * is accessed for the first time, and then be kept in a soft cache.
+     * See {@link GltfModelCreatorV2#create(GltfAssetV2, Function)} for 
+     * details. This allows inspecting the structure of large models 
+     * without reading their data. The default value is <code>false</code>.
+     * <br>
+     * <br>
+     * Note: This is only supported for glTF 2.0. The references of 
+     * glTF 1.0 assets will always be resolved eagerly.
+     * 
+     * @param lazyReferences Whether references should be loaded lazily
+     */
+    public void setLazyReferences(boolean lazyReferences)
+    {
+        this.lazyReferences = lazyReferences;
     }
     
     /**
@@ -78,8 +186,12 @@ public final class GltfModelReader
      */
     public GltfModel read(URI uri) throws IOException
     {
-        GltfAssetReader gltfAssetReader = new GltfAssetReader();
-        gltfAssetReader.setJsonErrorConsumer(jsonErrorConsumer);
+        if (lazyReferences)
+        {
+            GltfAsset gltfAsset = gltfAssetReader.readWithoutReferences(uri);
+            URI baseUri = IO.getParent(uri);
+            return createModel(gltfAsset, createUriResolver(baseUri));
+        }
         GltfAsset gltfAsset = gltfAssetReader.read(uri);
         return createModel(gltfAsset);
     }
@@ -93,12 +205,205 @@ public final class GltfModelReader
      */
     public GltfModel read(Path path) throws IOException
     {
-        GltfAssetReader gltfAssetReader = new GltfAssetReader();
-        gltfAssetReader.setJsonErrorConsumer(jsonErrorConsumer);
+        if (lazyReferences)
+        {
+            GltfAsset gltfAsset = gltfAssetReader.readWithoutReferences(path);
+            Path basePath = IO.getParent(path);
+            if (resourceFetcher != null)
+            {
+                return createModel(gltfAsset, 
+                    createUriResolver(basePath.toUri()));
+            }
+            return createModel(gltfAsset, 
+                UriResolvers.createBasePathResolverWithAllocator(
+                    basePath, gltfAssetReader.getBufferAllocator()));
+        }
         GltfAsset gltfAsset = gltfAssetReader.read(path);
         return createModel(gltfAsset);
     }
 
+    /**
+     * Creates the function that resolves URI strings against the given
+     * base URI, using the {@link ResourceFetcher} if it is not 
+     * <code>null</code>
+     * 
+     * @param baseUri The base URI
+     * @return The function
+     */
+    private Function<String, ByteBuffer> createUriResolver(URI baseUri)
+    {
+        if (resourceFetcher != null)
+        {
+            return UriResolvers.createBaseUriResolverWithFetcher(
+                baseUri, resourceFetcher);
+        }
+        return UriResolvers.createBaseUriResolverWithAllocator(
+            baseUri, gltfAssetReader.getBufferAllocator());
+    }
+
+    /**
+     * Asynchronously read the {@link GltfModel} from the given URI.<br>
+     * <br>
+     * This is the same as {@link #readAsync(URI, Executor, LongConsumer)}, 
+     * without a consumer for the progress.
+     * 
+     * @param uri The URI
+     * @param executor The executor that performs the reading steps
+     * @return The future that will be completed with the {@link GltfModel}
+     */
+    public CompletableFuture<GltfModel> readAsync(URI uri, Executor executor)
+    {
+        return readAsync(uri, executor, null);
+    }
+    
+    /**
+     * Asynchronously read the {@link GltfModel} from the given URI.<br>
+     * <br>
+     * The model will be read in several steps that are executed with the
+     * given executor: Reading the raw data, parsing the JSON, resolving 
+     * the external references (concurrently, as described in 
+     * {@link GltfReferenceResolver#resolveAllAsync}), and creating the 
+     * model. The threads of the executor are only used while these steps
+     * are executed, and no thread is blocked while waiting for the 
+     * results of a previous step.<br>
+     * <br>
+     * The given consumer, if it is not <code>null</code>, will be informed
+     * about the total number of bytes that have been read from the URI 
+     * and all external references. It may be called by multiple threads.
+     * If a {@link #setResourceFetcher(ResourceFetcher) resource fetcher}
+     * was set, then the external references will be fetched with this
+     * fetcher, and the consumer will only be informed about the bytes
+     * that have been read from the URI itself.
+     * <br>
+     * <br>
+     * If the returned future is cancelled, then the step that is currently
+     * executed will be aborted as soon as it reads further data, and no
+     * further steps will be executed. If any step fails, then the returned
+     * future will be completed exceptionally, with the exception that 
+     * caused the failure. If any external reference cannot be resolved,
+     * then this will be an <code>IOException</code>. The buffers that 
+     * have been allocated for the model until then will be released to
+     * the {@link #setBufferAllocator(BufferAllocator) buffer allocator}.
+     * 
+     * @param uri The URI
+     * @param executor The executor that performs the reading steps
+     * @param totalNumBytesReadConsumer The optional consumer for the total
+     * number of bytes that have been read
+     * @return The future that will be completed with the {@link GltfModel}
+     */
+    public CompletableFuture<GltfModel> readAsync(URI uri, Executor executor,
+        LongConsumer totalNumBytesReadConsumer)
+    {
+        Objects.requireNonNull(uri, "The uri may not be null");
+        Objects.requireNonNull(executor, "The executor may not be null");
+        
+        CompletableFuture<GltfModel> result = 
+            new CompletableFuture<GltfModel>();
+        AtomicLong totalNumBytesRead = new AtomicLong();
+        LongConsumer numBytesReadConsumer = numBytesRead ->
+        {
+            checkCancelled(result);
+            long total = totalNumBytesRead.addAndGet(numBytesRead);
+            if (totalNumBytesReadConsumer != null)
+            {
+                totalNumBytesReadConsumer.accept(total);
+            }
+        };
+        URI baseUri = IO.getParent(uri);
+        ScopedBufferAllocator readAllocator = BufferAllocators.createScoped(
+            gltfAssetReader.getBufferAllocator());
+        Function<String, ByteBuffer> uriResolver = 
+            UriResolvers.createBaseUriResolver(baseUri, numBytesReadConsumer,
+                readAllocator);
+        ResourceFetcher fetcher = resourceFetcher;
+        
+        CompletableFuture.supplyAsync(() -> 
+        {
+            checkCancelled(result);
+            try (InputStream inputStream = 
+                UriResolvers.createProgressInputStream(
+                    IO.createInputStream(uri), numBytesReadConsumer))
+            {
+                return RawGltfDataReader.read(inputStream, readAllocator);
+            }
+            catch (IOException e)
+            {
+                throw new CompletionException(e);
+            }
+        }, executor).thenApplyAsync(rawGltfData ->
+        {
+            checkCancelled(result);
+            try
+            {
+                return gltfAssetReader.read(rawGltfData);
+            }
+            catch (IOException e)
+            {
+                throw new CompletionException(e);
+            }
+        }, executor).thenComposeAsync(gltfAsset -> 
+        {
+            checkCancelled(result);
+            CompletableFuture<Void> referencesFuture;
+            if (fetcher != null)
+            {
+                referencesFuture = GltfReferenceResolver.resolveAllAsync(
+                    gltfAsset.getReferences(), baseUri, fetcher);
+            }
+            else
+            {
+                referencesFuture = GltfReferenceResolver.resolveAllAsync(
+                    gltfAsset.getReferences(), uriResolver, executor);
+            }
+            return referencesFuture.thenApply(v -> gltfAsset);
+        }, executor).thenApplyAsync(gltfAsset ->
+        {
+            checkCancelled(result);
+            try
+            {
+                return createModel(gltfAsset);
+            }
+            catch (IOException e)
+            {
+                throw new CompletionException(e);
+            }
+        }, executor).whenComplete((gltfModel, throwable) -> 
+        {
+            if (throwable != null)
+            {
+                readAllocator.close();
+                Throwable cause = throwable;
+                if (cause instanceof CompletionException && 
+                    cause.getCause() != null)
+                {
+                    cause = cause.getCause();
+                }
+                result.completeExceptionally(cause);
+            }
+            else
+            {
+                result.complete(gltfModel);
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Throws a <code>CancellationException</code> if the given future
+     * was cancelled
+     * 
+     * @param future The future
+     * @throws CancellationException If the future was cancelled
+     */
+    private static void checkCancelled(CompletableFuture<?> future)
+    {
+        if (future.isCancelled())
+        {
+            throw new CancellationException(
+                "The reading process was cancelled");
+        }
+    }
+
     /**
      * Read the {@link GltfModel} from the given URI. In contrast to the 
      * {@link #read(URI)} method, this method will not resolve any 
@@ -135,8 +440,6 @@ public final class GltfModelReader
     public GltfModel readWithoutReferences(InputStream inputStream) 
         throws IOException
     {
-        GltfAssetReader gltfAssetReader = new GltfAssetReader();
-        gltfAssetReader.setJsonErrorConsumer(jsonErrorConsumer);
         GltfAsset gltfAsset = 
             gltfAssetReader.readWithoutReferences(inputStream);
         return createModel(gltfAsset);
@@ -165,4 +468,28 @@ public final class GltfModelReader
             "The glTF asset has an unknown version: " + gltfAsset);
     }
     
+    /**
+     * Creates a {@link GltfModel} instance from the given {@link GltfAsset},
+     * where the data of external references is obtained lazily from the
+     * given resolver. For glTF 1.0 assets, the references will be resolved
+     * immediately.
+     * 
+     * @param gltfAsset The {@link GltfAsset}
+     * @param uriResolver The resolver for the external references
+     * @return The {@link GltfModel}
+     * @throws IOException If the given asset has an unknown version
+     */
+    private static GltfModel createModel(GltfAsset gltfAsset, 
+        Function<String, ByteBuffer> uriResolver) throws IOException
+    {
+        if (gltfAsset instanceof GltfAssetV2)
+        {
+            GltfAssetV2 gltfAssetV2 = (GltfAssetV2)gltfAsset;
+            return GltfModelCreatorV2.create(gltfAssetV2, uriResolver);
+        }
+        GltfReferenceResolver.resolveAll(
+            gltfAsset.getReferences(), uriResolver);
+        return createModel(gltfAsset);
+    }
+    
 }
@@ -30,7 +30,11 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Function;
 
+import de.javagl.jgltf.model.AccessorModel;
 import de.javagl.jgltf.model.GltfModel;
 import de.javagl.jgltf.model.io.v1.GltfModelWriterV1;
 import de.javagl.jgltf.model.io.v2.GltfModelWriterV2;
@@ -44,6 +48,17 @@ import de.javagl.jgltf.model.v1.GltfModelV1;
  */
 public class GltfModelWriter
 {
+    /**
+     * The maximum ratio of changed elements for the sparse encoding
+     */
+    private double sparseEncodingThreshold;
+    
+    /**
+     * The function that provides the base accessor for the sparse encoding
+     */
+    private Function<? super AccessorModel, ? extends AccessorModel> 
+        sparseEncodingBaseFunction;
+    
     /**
      * Default constructor
      */
@@ -51,6 +66,35 @@ public class GltfModelWriter
     {
         // Default constructor
     }
+    
+    /**
+     * Set the threshold for the sparse encoding of accessors in glTF 2.0
+     * models. See {@link GltfModelWriterV2#setSparseEncodingThreshold(double)}
+     * for details. The default value is 0.0, meaning that no sparse 
+     * encoding is applied. This setting is ignored for glTF 1.0 models.
+     * 
+     * @param sparseEncodingThreshold The threshold, in [0, 1]
+     */
+    public void setSparseEncodingThreshold(double sparseEncodingThreshold)
+    {
+        this.sparseEncodingThreshold = sparseEncodingThreshold;
+    }
+    
+    /**
+     * Set the function that returns the base accessor for the sparse 
+     * encoding of an accessor. See 
+     * {@link GltfModelWriterV2#setSparseEncodingBaseFunction(Function)}
+     * for details. The default value is <code>null</code>.
+     * 
+     * @param sparseEncodingBaseFunction The function
+     */
+    public void setSparseEncodingBaseFunction(
+        Function<? super AccessorModel, ? extends AccessorModel> 
+            sparseEncodingBaseFunction)
+    {
+        this.sparseEncodingBaseFunction = sparseEncodingBaseFunction;
+    }
+    
 
     /**
      * Write the given {@link GltfModel} to a file with the given name. 
@@ -92,7 +136,7 @@ public class GltfModelWriter
             return;
         }
         GltfModelWriterV2 gltfModelWriterV2 = 
-            new GltfModelWriterV2();
+            createGltfModelWriterV2();
         gltfModelWriterV2.write(gltfModel, file);
     }
     
@@ -107,9 +151,21 @@ public class GltfModelWriter
     public void writeBinary(GltfModel gltfModel, File file) 
         throws IOException
     {
-        try (OutputStream outputStream = new FileOutputStream(file))
+        if (gltfModel instanceof GltfModelV1)
+        {
+            try (OutputStream outputStream = new FileOutputStream(file))
+            {
+                writeBinary(gltfModel, outputStream);
+            }
+            return;
+        }
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), 
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING))
         {
-            writeBinary(gltfModel, outputStream);
+            GltfModelWriterV2 gltfModelWriterV2 = 
+                createGltfModelWriterV2();
+            gltfModelWriterV2.writeBinary(gltfModel, fileChannel);
         }
     }
     
@@ -134,7 +190,7 @@ public class GltfModelWriter
             return;
         }
         GltfModelWriterV2 gltfModelWriterV2 = 
-            new GltfModelWriterV2();
+            createGltfModelWriterV2();
         gltfModelWriterV2.writeBinary(gltfModel, outputStream);
     }
     
@@ -177,8 +233,21 @@ public class GltfModelWriter
             return;
         }
         GltfModelWriterV2 gltfModelWriterV2 = 
-            new GltfModelWriterV2();
+            createGltfModelWriterV2();
         gltfModelWriterV2.writeEmbedded(gltfModel, outputStream);
     }
+    
+    /**
+     * Create a {@link GltfModelWriterV2} with the settings of this writer
+     * 
+     * @return The {@link GltfModelWriterV2}
+     */
+    private GltfModelWriterV2 createGltfModelWriterV2()
+    {
+        GltfModelWriterV2 gltfModelWriterV2 = new GltfModelWriterV2();
+        gltfModelWriterV2.setSparseEncodingThreshold(sparseEncodingThreshold);
+        gltfModelWriterV2.setSparseEncodingBaseFunction(
+            sparseEncodingBaseFunction);
+        return gltfModelWriterV2;
+    }
 }
-
@@ -28,17 +28,24 @@ package de.javagl.jgltf.model.io;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.function.Consumer;
+import java.nio.ByteBuffer;
+import java.util.Objects;
 import java.util.logging.Logger;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * A class for reading the JSON for a glTF asset in a version-agnostic form.
  * It a allows determining the version of the glTF and returning it as 
  * a properly typed object - that is, as a {@link de.javagl.jgltf.impl.v1.GlTF}
  * or a {@link de.javagl.jgltf.impl.v2.GlTF}.<br>
+ * <br>
+ * The version is determined with a streaming parser that only looks for 
+ * the <code>asset.version</code> property, and the glTF is then bound 
+ * directly to the version-specific class, without creating an 
+ * intermediate JSON tree.
  */
 final class GltfReader
 {
@@ -49,57 +56,70 @@ final class GltfReader
         Logger.getLogger(GltfReader.class.getName());
 
     /**
-     * A consumer for {@link JsonError}s that may occur while reading
-     * the glTF JSON
+     * The {@link GltfJsonContext} that provides the JSON readers
      */
-    private Consumer<? super JsonError> jsonErrorConsumer = 
-        JacksonUtils.loggingJsonErrorConsumer();
+    private GltfJsonContext jsonContext = GltfJsonContext.getDefault();
     
     /**
-     * The Jackson object mapper
+     * The JSON data that was passed to the last call to {@link #read}
      */
-    private final ObjectMapper objectMapper;
+    private ByteBuffer jsonData;
     
     /**
-     * The root node that was read during the last call to {@link #read}
+     * The version that was determined during the last call to {@link #read}
      */
-    private JsonNode rootNode;
+    private String version;
     
     /**
      * Default constructor
      */
     GltfReader()
     {
-        objectMapper = 
-            JacksonUtils.createObjectMapper(jsonErrorConsumer);
+        // Default constructor
     }
     
     /**
-     * Set the given consumer to receive {@link JsonError}s that may 
-     * occur when the JSON part of the glTF is read
+     * Set the {@link GltfJsonContext} that provides the JSON readers. 
+     * The context also determines the consumer that receives the
+     * {@link JsonError}s that may occur when the JSON part of the 
+     * glTF is read.
      * 
-     * @param jsonErrorConsumer The consumer
+     * @param jsonContext The {@link GltfJsonContext}
      */
-    void setJsonErrorConsumer(
-        Consumer<? super JsonError> jsonErrorConsumer)
+    void setJsonContext(GltfJsonContext jsonContext)
     {
-        this.jsonErrorConsumer = jsonErrorConsumer;
+        this.jsonContext = Objects.requireNonNull(
+            jsonContext, "The jsonContext may not be null");
     }
     
     /**
-     * Read the JSON data from the given input stream. The caller is 
-     * responsible for closing the given stream. After this method
-     * has been called, the version of the glTF may be obtained with
-     * {@link #getVersion()}, and the actual asset may be obtained
-     * with {@link #getAsGltfV1()} or {@link #getAsGltfV2()}.
+     * Read the JSON data from the given buffer, starting at its current
+     * position, up to its limit. The position and limit of the given 
+     * buffer will not be modified. After this method has been called, 
+     * the version of the glTF may be obtained with {@link #getVersion()}, 
+     * and the actual asset may be obtained with {@link #getAsGltfV1()} 
+     * or {@link #getAsGltfV2()}.<br>
+     * <br>
+     * This method will only determine the version. The data will be
+     * parsed when one of the <code>getAsGltf</code> methods is called. 
+     * The given buffer may not be modified until then.
      * 
-     * @param inputStream The input stream
+     * @param jsonData The JSON data
      * @throws IOException If an IO error occurred
      */
-    void read(InputStream inputStream) throws IOException
+    void read(ByteBuffer jsonData) throws IOException
     {
-        JacksonUtils.configure(objectMapper, jsonErrorConsumer);
-        rootNode = objectMapper.readTree(inputStream);
+        this.jsonData = Buffers.createSlice(jsonData);
+        this.version = null;
+        try (InputStream inputStream = 
+            Buffers.createByteBufferInputStream(Buffers.createSlice(jsonData)))
+        {
+            try (JsonParser jsonParser = 
+                jsonContext.getJsonFactory().createParser(inputStream))
+            {
+                this.version = readVersion(jsonParser);
+            }
+        }
     }
     
     /**
@@ -110,11 +130,7 @@ final class GltfReader
      */
     String getVersion()
     {
-        if (rootNode == null)
-        {
-            return null;
-        }
-        return getVersion(rootNode);
+        return version;
     }
     
     /**
@@ -124,12 +140,12 @@ final class GltfReader
      */
     int getMajorVersion()
     {
-        if (rootNode == null)
+        if (version == null)
         {
             return 0;
         }
-        int version[] = VersionUtils.computeMajorMinorPatch(getVersion());
-        return version[0];
+        int versionNumbers[] = VersionUtils.computeMajorMinorPatch(version);
+        return versionNumbers[0];
     }
     
     /**
@@ -137,17 +153,12 @@ final class GltfReader
      * or <code>null</code> if no glTF was read yet.
      * 
      * @return The glTF.
-     * @throws IllegalArgumentException If the glTF that was read is not
+     * @throws IOException If the glTF that was read is not
      * a valid glTF 1.0
      */
-    de.javagl.jgltf.impl.v1.GlTF getAsGltfV1()
+    de.javagl.jgltf.impl.v1.GlTF getAsGltfV1() throws IOException
     {
-        if (rootNode == null)
-        {
-            return null;
-        }
-        return objectMapper.convertValue(rootNode, 
-            de.javagl.jgltf.impl.v1.GlTF.class);
+        return readAs(jsonContext.getGltfReaderV1());
     }
     
     /**
@@ -155,47 +166,85 @@ final class GltfReader
      * or <code>null</code> if no glTF was read yet.
      * 
      * @return The glTF.
-     * @throws IllegalArgumentException If the glTF that was read is not
+     * @throws IOException If the glTF that was read is not
      * a valid glTF 2.0
      */
-    de.javagl.jgltf.impl.v2.GlTF getAsGltfV2()
+    de.javagl.jgltf.impl.v2.GlTF getAsGltfV2() throws IOException
+    {
+        return readAs(jsonContext.getGltfReaderV2());
+    }
+    
+    /**
+     * Parse the JSON data that was passed to the last call to {@link #read}
+     * with the given reader, or return <code>null</code> if no glTF was 
+     * read yet.
+     * 
+     * @param <T> The type of the result
+     * @param objectReader The reader
+     * @return The result
+     * @throws IOException If the data cannot be parsed
+     */
+    private <T> T readAs(ObjectReader objectReader) throws IOException
     {
-        if (rootNode == null)
+        if (jsonData == null)
         {
             return null;
         }
-        return objectMapper.convertValue(rootNode, 
-            de.javagl.jgltf.impl.v2.GlTF.class);
+        try (InputStream inputStream = 
+            Buffers.createByteBufferInputStream(Buffers.createSlice(jsonData)))
+        {
+            return objectReader.readValue(inputStream);
+        }
     }
     
     /**
-     * Tries to obtain the <code>rootNode.asset.version</code> string. If
-     * either node is <code>null</code>, then <code>"1.0"</code> will be
-     * returned.
+     * Tries to obtain the <code>asset.version</code> string from the 
+     * given parser, which is assumed to be positioned before the root 
+     * object. All other properties will be skipped without being 
+     * parsed into objects. If either the <code>asset</code> or the 
+     * <code>version</code> is not found, then <code>"1.0"</code> 
+     * will be returned.
      * 
-     * @param rootNode The root node
+     * @param jsonParser The JSON parser
      * @return The version 
+     * @throws IOException If the JSON data cannot be parsed
      */
-    private static String getVersion(JsonNode rootNode)
+    private static String readVersion(JsonParser jsonParser) 
+        throws IOException
     {
-        JsonNode assetNode = rootNode.get("asset");
-        if (assetNode == null)
+        if (jsonParser.nextToken() != JsonToken.START_OBJECT)
         {
             return "1.0";
         }
-        JsonNode versionNode = assetNode.get("version");
-        if (versionNode == null)
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME)
         {
+            String rootFieldName = jsonParser.getCurrentName();
+            JsonToken rootValueToken = jsonParser.nextToken();
+            if (!"asset".equals(rootFieldName) ||
+                rootValueToken != JsonToken.START_OBJECT)
+            {
+                jsonParser.skipChildren();
+                continue;
+            }
+            while (jsonParser.nextToken() == JsonToken.FIELD_NAME)
+            {
+                String assetFieldName = jsonParser.getCurrentName();
+                JsonToken assetValueToken = jsonParser.nextToken();
+                if ("version".equals(assetFieldName))
+                {
+                    if (!assetValueToken.isScalarValue())
+                    {
+                        logger.warning("No valid 'version' property in " 
+                            + "'asset'. Assuming version 1.0");
+                        return "1.0";
+                    }
+                    return jsonParser.getValueAsString();
+                }
+                jsonParser.skipChildren();
+            }
             return "1.0";
         }
-        if (!versionNode.isValueNode())
-        {
-            logger.warning("No valid 'version' property in 'asset'. " + 
-                "Assuming version 1.0");
-            return "1.0";
-        }
-        return versionNode.asText();
+        return "1.0";
     }
     
-    
-}
\ No newline at end of file
+}
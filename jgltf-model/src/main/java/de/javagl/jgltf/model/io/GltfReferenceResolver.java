@@ -26,10 +26,22 @@
  */
 package de.javagl.jgltf.model.io;
 
+import java.io.IOException;
 import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.logging.Logger;
@@ -46,6 +58,12 @@ public class GltfReferenceResolver
     private static final Logger logger = 
         Logger.getLogger(GltfReferenceResolver.class.getName());
 
+    /**
+     * The maximum number of threads that are used by
+     * {@link #resolveAllParallel(Iterable, Function)}
+     */
+    private static final int MAX_DEFAULT_THREADS = 8;
+    
     /**
      * Calls {@link #resolve(GltfReference, Function)} with each 
      * {@link GltfReference} of the given list, resolving the
@@ -103,6 +121,480 @@ public class GltfReferenceResolver
         }
     }
     
+    /**
+     * Calls {@link #resolveAll(Iterable, Function, Executor)} with a 
+     * resolver that resolves the URIs of the references against the 
+     * given base URI
+     * 
+     * @param references The {@link GltfReference} objects
+     * @param baseUri The base URI that references will be resolved against
+     * @param executor The executor that will read the data
+     * @throws IOException If any of the references could not be resolved
+     */
+    public static void resolveAll(
+        Iterable<? extends GltfReference> references, URI baseUri,
+        Executor executor) throws IOException
+    {
+        Objects.requireNonNull(references, "The references may not be null");
+        Objects.requireNonNull(baseUri, "The baseUri may not be null");
+        Function<String, ByteBuffer> uriResolver = 
+            UriResolvers.createBaseUriResolver(baseUri);
+        resolveAll(references, uriResolver, executor);
+    }
+
+    /**
+     * Calls {@link #resolveAll(Iterable, Function, Executor)} with a 
+     * resolver that resolves the paths of the references against the 
+     * given base path
+     * 
+     * @param references The {@link GltfReference} objects
+     * @param basePath The base Path that references will be resolved against
+     * @param executor The executor that will read the data
+     * @throws IOException If any of the references could not be resolved
+     */
+    public static void resolveAll(
+        Iterable<? extends GltfReference> references, Path basePath,
+        Executor executor) throws IOException
+    {
+        Objects.requireNonNull(references, "The references may not be null");
+        Objects.requireNonNull(basePath, "The basePath may not be null");
+        Function<String, ByteBuffer> uriResolver = 
+            UriResolvers.createBasePathResolver(basePath);
+        resolveAll(references, uriResolver, executor);
+    }
+    
+    /**
+     * Calls {@link #resolveAll(Iterable, Function, Executor)} with an 
+     * executor service that uses a bounded number of threads, which is 
+     * shut down when all references have been resolved.
+     * 
+     * @param references The {@link GltfReference} objects
+     * @param uriResolver The function for resolving a URI string
+     * into a byte buffer
+     * @throws IOException If any of the references could not be resolved
+     */
+    public static void resolveAllParallel(
+        Iterable<? extends GltfReference> references, 
+        Function<? super String, ? extends ByteBuffer> uriResolver) 
+            throws IOException
+    {
+        Objects.requireNonNull(references, "The references may not be null");
+        int numThreads = Math.min(MAX_DEFAULT_THREADS, 
+            Runtime.getRuntime().availableProcessors());
+        ExecutorService executorService = 
+            Executors.newFixedThreadPool(numThreads, createThreadFactory());
+        try
+        {
+            resolveAll(references, uriResolver, executorService);
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+    
+    /**
+     * Resolve the given references concurrently.<br>
+     * <br>
+     * The data for all references will be read by passing the URIs of 
+     * the references to the given resolver function, using the given 
+     * executor. This method will block until all data was read. The 
+     * data will then be passed to the {@link GltfReference#getTarget() 
+     * targets} of the references, in the order of the given 
+     * references, in the calling thread.<br>
+     * <br>
+     * In contrast to {@link #resolveAll(Iterable, Function)}, this method 
+     * will throw an exception if a reference could not be resolved. The
+     * exception will contain information about all references that could
+     * not be resolved. The targets of all references that could be 
+     * resolved will still receive their data before the exception is 
+     * thrown.
+     * 
+     * @param references The {@link GltfReference} objects
+     * @param uriResolver The function for resolving a URI string
+     * into a byte buffer
+     * @param executor The executor that will read the data
+     * @throws IOException If any of the references could not be resolved,
+     * or the calling thread was interrupted while waiting for the data.
+     * If the calling thread was interrupted, then the reading of the
+     * data is cancelled, and no target receives any data.
+     */
+    public static void resolveAll(
+        Iterable<? extends GltfReference> references, 
+        Function<? super String, ? extends ByteBuffer> uriResolver,
+        Executor executor) throws IOException
+    {
+        Objects.requireNonNull(uriResolver, "The uriResolver may not be null");
+        Objects.requireNonNull(executor, "The executor may not be null");
+        List<GltfReference> referenceList = toList(references);
+        await(referenceList, 
+            supplyAll(referenceList, uriResolver, executor));
+    }
+    
+    /**
+     * Resolve the given references concurrently, by fetching the data
+     * from the given {@link ResourceFetcher}.<br>
+     * <br>
+     * This method will block until all data was fetched. Apart from that,
+     * it behaves like {@link #resolveAll(Iterable, Function, Executor)}.
+     * 
+     * @param references The {@link GltfReference} objects
+     * @param baseUri The base URI that references will be resolved against
+     * @param resourceFetcher The {@link ResourceFetcher}
+     * @throws IOException If any of the references could not be resolved,
+     * or the calling thread was interrupted while waiting for the data.
+     * If the calling thread was interrupted, then the futures that have
+     * been returned by the fetcher are cancelled, and no target receives 
+     * any data.
+     */
+    public static void resolveAllWithFetcher(
+        Iterable<? extends GltfReference> references, URI baseUri,
+        ResourceFetcher resourceFetcher) throws IOException
+    {
+        Objects.requireNonNull(baseUri, "The baseUri may not be null");
+        Objects.requireNonNull(resourceFetcher, 
+            "The resourceFetcher may not be null");
+        List<GltfReference> referenceList = toList(references);
+        await(referenceList, 
+            fetchAll(referenceList, baseUri, resourceFetcher));
+    }
+    
+    /**
+     * Wait for the given futures to complete, and pass their results
+     * to the targets of the given references in the calling thread, as 
+     * described in {@link #passToTargets(List, List)}. If the calling
+     * thread is interrupted while waiting, then all futures are 
+     * cancelled.
+     * 
+     * @param referenceList The {@link GltfReference} objects
+     * @param futures The futures, one for each reference
+     * @throws IOException If any future was completed exceptionally, 
+     * or the calling thread was interrupted while waiting 
+     */
+    private static void await(List<GltfReference> referenceList, 
+        List<CompletableFuture<ByteBuffer>> futures) throws IOException
+    {
+        CompletableFuture<Void> all = CompletableFuture.allOf(
+            futures.toArray(new CompletableFuture<?>[0]));
+        try
+        {
+            all.get();
+        }
+        catch (InterruptedException e)
+        {
+            for (CompletableFuture<ByteBuffer> future : futures)
+            {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new IOException(
+                "Interrupted while resolving references", e);
+        }
+        catch (ExecutionException e)
+        {
+            // The failures will be reported by passToTargets
+        }
+        try
+        {
+            passToTargets(referenceList, futures);
+        }
+        catch (CompletionException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+    
+    /**
+     * Resolve the given references asynchronously.<br>
+     * <br>
+     * The data for all references will be read by passing the URIs of 
+     * the references to the given resolver function, using the given 
+     * executor. When all data was read, it will be passed to the 
+     * {@link GltfReference#getTarget() targets} of the references, in 
+     * the order of the given references, and the returned future will
+     * be completed. The targets will be called by the thread that 
+     * completes the reading of the last reference.<br>
+     * <br>
+     * If any reference could not be resolved, then the returned future
+     * will be completed exceptionally, with an <code>IOException</code> 
+     * that contains information about all references that could not be 
+     * resolved. The targets of all references that could be resolved 
+     * will still receive their data.<br>
+     * <br>
+     * If the returned future is cancelled, then the futures for the 
+     * individual references are cancelled as well.
+     * 
+     * @param references The {@link GltfReference} objects
+     * @param uriResolver The function for resolving a URI string
+     * into a byte buffer
+     * @param executor The executor that will read the data
+     * @return The future that is completed when all references have
+     * been resolved
+     */
+    public static CompletableFuture<Void> resolveAllAsync(
+        Iterable<? extends GltfReference> references, 
+        Function<? super String, ? extends ByteBuffer> uriResolver,
+        Executor executor)
+    {
+        Objects.requireNonNull(uriResolver, "The uriResolver may not be null");
+        Objects.requireNonNull(executor, "The executor may not be null");
+        List<GltfReference> referenceList = toList(references);
+        return completeAll(referenceList, 
+            supplyAll(referenceList, uriResolver, executor));
+    }
+    
+    /**
+     * Returns a list containing the given references
+     * 
+     * @param references The {@link GltfReference} objects
+     * @return The list
+     * @throws NullPointerException If the given iterable is 
+     * <code>null</code> or contains <code>null</code> elements
+     */
+    private static List<GltfReference> toList(
+        Iterable<? extends GltfReference> references)
+    {
+        Objects.requireNonNull(references, "The references may not be null");
+        List<GltfReference> referenceList = new ArrayList<GltfReference>();
+        for (GltfReference reference : references) 
+        {
+            Objects.requireNonNull(reference, "The reference may not be null");
+            referenceList.add(reference);
+        }
+        return referenceList;
+    }
+    
+    /**
+     * Start reading the data for the given references, by passing their
+     * URIs to the given resolver function, using the given executor
+     * 
+     * @param referenceList The {@link GltfReference} objects
+     * @param uriResolver The function for resolving a URI string
+     * into a byte buffer
+     * @param executor The executor that will read the data
+     * @return The futures, one for each reference
+     */
+    private static List<CompletableFuture<ByteBuffer>> supplyAll(
+        List<GltfReference> referenceList, 
+        Function<? super String, ? extends ByteBuffer> uriResolver,
+        Executor executor)
+    {
+        List<CompletableFuture<ByteBuffer>> futures = 
+            new ArrayList<CompletableFuture<ByteBuffer>>();
+        for (GltfReference reference : referenceList) 
+        {
+            String uri = reference.getUri();
+            CompletableFuture<ByteBuffer> future = 
+                CompletableFuture.supplyAsync(
+                    () -> uriResolver.apply(uri), executor);
+            futures.add(future);
+        }
+        return futures;
+    }
+    
+    /**
+     * Resolve the given references asynchronously, by fetching the data
+     * from the given {@link ResourceFetcher}.<br>
+     * <br>
+     * The URIs of the references will be resolved against the given base
+     * URI, and the resulting absolute URIs will be passed to the given
+     * fetcher. Data URIs will be decoded directly. Apart from that, this
+     * method behaves like 
+     * {@link #resolveAllAsync(Iterable, Function, Executor)}.
+     * 
+     * @param references The {@link GltfReference} objects
+     * @param baseUri The base URI that references will be resolved against
+     * @param resourceFetcher The {@link ResourceFetcher}
+     * @return The future that is completed when all references have
+     * been resolved
+     */
+    public static CompletableFuture<Void> resolveAllAsync(
+        Iterable<? extends GltfReference> references, URI baseUri,
+        ResourceFetcher resourceFetcher)
+    {
+        Objects.requireNonNull(baseUri, "The baseUri may not be null");
+        Objects.requireNonNull(resourceFetcher, 
+            "The resourceFetcher may not be null");
+        List<GltfReference> referenceList = toList(references);
+        return completeAll(referenceList, 
+            fetchAll(referenceList, baseUri, resourceFetcher));
+    }
+    
+    /**
+     * Start fetching the data for the given references from the given
+     * {@link ResourceFetcher}, as described in 
+     * {@link #fetch(URI, String, ResourceFetcher)}
+     * 
+     * @param referenceList The {@link GltfReference} objects
+     * @param baseUri The base URI that references will be resolved against
+     * @param resourceFetcher The {@link ResourceFetcher}
+     * @return The futures, one for each reference
+     */
+    private static List<CompletableFuture<ByteBuffer>> fetchAll(
+        List<GltfReference> referenceList, URI baseUri,
+        ResourceFetcher resourceFetcher)
+    {
+        List<CompletableFuture<ByteBuffer>> futures = 
+            new ArrayList<CompletableFuture<ByteBuffer>>();
+        for (GltfReference reference : referenceList) 
+        {
+            String uri = reference.getUri();
+            futures.add(fetch(baseUri, uri, resourceFetcher));
+        }
+        return futures;
+    }
+    
+    /**
+     * Fetch the data for the given URI string, which is resolved against
+     * the given base URI, from the given {@link ResourceFetcher}. If the
+     * given string is a data URI string, then a future containing the
+     * decoded data will be returned.
+     * 
+     * @param baseUri The base URI
+     * @param uriString The URI string
+     * @param resourceFetcher The {@link ResourceFetcher}
+     * @return The future for the data
+     */
+    private static CompletableFuture<ByteBuffer> fetch(URI baseUri, 
+        String uriString, ResourceFetcher resourceFetcher)
+    {
+        try
+        {
+            if (IO.isDataUriString(uriString))
+            {
+                byte data[] = IO.readDataUri(uriString);
+                return CompletableFuture.completedFuture(
+                    Buffers.create(data));
+            }
+            URI absoluteUri = IO.makeAbsolute(baseUri, uriString);
+            return resourceFetcher.fetch(absoluteUri);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            CompletableFuture<ByteBuffer> future = 
+                new CompletableFuture<ByteBuffer>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+    
+    /**
+     * Returns a future that is completed when all the given futures are
+     * completed, and the results have been passed to the targets of the
+     * given references, as described in 
+     * {@link #passToTargets(List, List)}. If the returned future is
+     * cancelled, then the given futures are cancelled as well.
+     * 
+     * @param referenceList The {@link GltfReference} objects
+     * @param futures The futures, one for each reference
+     * @return The future
+     */
+    private static CompletableFuture<Void> completeAll(
+        List<GltfReference> referenceList, 
+        List<CompletableFuture<ByteBuffer>> futures)
+    {
+        CompletableFuture<Void> all = CompletableFuture.allOf(
+            futures.toArray(new CompletableFuture<?>[0]));
+        CompletableFuture<Void> result = all.handle((v, t) -> 
+        {
+            passToTargets(referenceList, futures);
+            return null;
+        });
+        result.whenComplete((v, t) -> 
+        {
+            if (result.isCancelled())
+            {
+                for (CompletableFuture<ByteBuffer> future : futures)
+                {
+                    future.cancel(true);
+                }
+            }
+        });
+        return result;
+    }
+    
+    /**
+     * Pass the results of the given futures to the targets of the given
+     * references. The futures must already be completed.
+     * 
+     * @param references The {@link GltfReference} objects
+     * @param futures The futures, one for each reference
+     * @throws CompletionException If any of the futures was completed 
+     * exceptionally, or with a <code>null</code> result. The cause of 
+     * this exception will be an <code>IOException</code> with 
+     * information about all references that could not be resolved. 
+     */
+    private static void passToTargets(List<GltfReference> references, 
+        List<CompletableFuture<ByteBuffer>> futures)
+    {
+        List<String> failedUris = new ArrayList<String>();
+        List<Throwable> causes = new ArrayList<Throwable>();
+        for (int i = 0; i < references.size(); i++)
+        {
+            GltfReference reference = references.get(i);
+            ByteBuffer byteBuffer = null;
+            try
+            {
+                byteBuffer = futures.get(i).getNow(null);
+            }
+            catch (CompletionException e)
+            {
+                causes.add(e.getCause());
+            }
+            catch (CancellationException e)
+            {
+                causes.add(e);
+            }
+            if (byteBuffer == null)
+            {
+                failedUris.add(reference.getUri());
+            }
+            else
+            {
+                Consumer<ByteBuffer> target = reference.getTarget();
+                target.accept(byteBuffer);
+            }
+        }
+        if (!failedUris.isEmpty())
+        {
+            IOException ioException = new IOException(
+                "Could not resolve " + failedUris.size() + " of "
+                + references.size() + " URIs: " + failedUris);
+            for (Throwable cause : causes)
+            {
+                ioException.addSuppressed(cause);
+            }
+            throw new CompletionException(ioException);
+        }
+    }
+    
+    /**
+     * Creates a thread factory for the threads that are used in 
+     * {@link #resolveAllParallel(Iterable, Function)}. The threads
+     * will be daemon threads, so that they do not prevent the 
+     * application from shutting down.
+     * 
+     * @return The thread factory
+     */
+    private static ThreadFactory createThreadFactory()
+    {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory delegate = Executors.defaultThreadFactory();
+        return runnable -> 
+        {
+            Thread thread = delegate.newThread(runnable);
+            thread.setName("GltfReferenceResolver-" 
+                + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+    
     /**
      * Pass the {@link GltfReference#getUri() URI} of the given 
      * {@link GltfReference} to the given resolver function, 
@@ -0,0 +1,345 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact summary of the metadata of a glTF asset, as it is returned
+ * by the {@link GltfSummaryReader}.<br>
+ * <br>
+ * The summary is obtained from the JSON part of the asset alone. It does
+ * not require the binary data or any external resources. It is 
+ * independent of the glTF version: The counts of top-level elements 
+ * are the sizes of the arrays (in glTF 2.0) or dictionaries (in 
+ * glTF 1.0) that are contained in the asset.
+ */
+public final class GltfSummary
+{
+    /**
+     * The version from the asset
+     */
+    private String version;
+    
+    /**
+     * The minimum version from the asset
+     */
+    private String minVersion;
+    
+    /**
+     * The generator from the asset
+     */
+    private String generator;
+    
+    /**
+     * The names of the extensions that are used
+     */
+    private List<String> extensionsUsed;
+    
+    /**
+     * The names of the extensions that are required
+     */
+    private List<String> extensionsRequired;
+    
+    /**
+     * The mapping from the names of top-level properties to the number 
+     * of elements that they contain
+     */
+    private final Map<String, Integer> counts;
+    
+    /**
+     * The component-wise minimum of the POSITION accessors
+     */
+    private double[] positionMin;
+    
+    /**
+     * The component-wise maximum of the POSITION accessors
+     */
+    private double[] positionMax;
+    
+    /**
+     * Whether the summary was read from a binary glTF
+     */
+    private boolean binary;
+    
+    /**
+     * Creates a new, empty summary
+     */
+    GltfSummary()
+    {
+        this.extensionsUsed = Collections.emptyList();
+        this.extensionsRequired = Collections.emptyList();
+        this.counts = new LinkedHashMap<String, Integer>();
+    }
+    
+    /**
+     * Set the version 
+     * 
+     * @param version The version
+     */
+    void setVersion(String version)
+    {
+        this.version = version;
+    }
+    
+    /**
+     * Returns the <code>asset.version</code>. For glTF 1.0 assets that
+     * do not contain a version, this will be <code>"1.0"</code>.
+     * 
+     * @return The version
+     */
+    public String getVersion()
+    {
+        return version;
+    }
+    
+    /**
+     * Set the minimum version 
+     * 
+     * @param minVersion The minimum version
+     */
+    void setMinVersion(String minVersion)
+    {
+        this.minVersion = minVersion;
+    }
+    
+    /**
+     * Returns the <code>asset.minVersion</code>, or <code>null</code> if
+     * the asset does not define a minimum version
+     * 
+     * @return The minimum version
+     */
+    public String getMinVersion()
+    {
+        return minVersion;
+    }
+    
+    /**
+     * Set the generator
+     * 
+     * @param generator The generator
+     */
+    void setGenerator(String generator)
+    {
+        this.generator = generator;
+    }
+    
+    /**
+     * Returns the <code>asset.generator</code>, or <code>null</code> if 
+     * the asset does not define a generator
+     * 
+     * @return The generator
+     */
+    public String getGenerator()
+    {
+        return generator;
+    }
+    
+    /**
+     * Set the names of the extensions that are used
+     * 
+     * @param extensionsUsed The extension names
+     */
+    void setExtensionsUsed(List<String> extensionsUsed)
+    {
+        this.extensionsUsed = Collections.unmodifiableList(extensionsUsed);
+    }
+    
+    /**
+     * Returns an unmodifiable list containing the names of the extensions
+     * that are used. This will never be <code>null</code>.
+     * 
+     * @return The extension names
+     */
+    public List<String> getExtensionsUsed()
+    {
+        return extensionsUsed;
+    }
+    
+    /**
+     * Set the names of the extensions that are required
+     * 
+     * @param extensionsRequired The extension names
+     */
+    void setExtensionsRequired(List<String> extensionsRequired)
+    {
+        this.extensionsRequired = 
+            Collections.unmodifiableList(extensionsRequired);
+    }
+    
+    /**
+     * Returns an unmodifiable list containing the names of the extensions
+     * that are required. This will never be <code>null</code>.
+     * 
+     * @return The extension names
+     */
+    public List<String> getExtensionsRequired()
+    {
+        return extensionsRequired;
+    }
+    
+    /**
+     * Set the number of elements of the given top-level property
+     * 
+     * @param propertyName The property name
+     * @param count The count
+     */
+    void setCount(String propertyName, int count)
+    {
+        counts.put(propertyName, count);
+    }
+    
+    /**
+     * Returns the number of elements in the top-level property with the
+     * given name, like <code>"nodes"</code> or <code>"materials"</code>.
+     * If the asset does not contain this property, then 0 is returned.
+     * 
+     * @param propertyName The property name
+     * @return The count
+     */
+    public int getCount(String propertyName)
+    {
+        Integer count = counts.get(propertyName);
+        if (count == null)
+        {
+            return 0;
+        }
+        return count;
+    }
+    
+    /**
+     * Returns the number of nodes
+     * 
+     * @return The number of nodes
+     */
+    public int getNodeCount()
+    {
+        return getCount("nodes");
+    }
+    
+    /**
+     * Returns the number of meshes
+     * 
+     * @return The number of meshes
+     */
+    public int getMeshCount()
+    {
+        return getCount("meshes");
+    }
+    
+    /**
+     * Returns the number of accessors
+     * 
+     * @return The number of accessors
+     */
+    public int getAccessorCount()
+    {
+        return getCount("accessors");
+    }
+    
+    /**
+     * Set the bounds of the POSITION accessors
+     * 
+     * @param positionMin The minimum
+     * @param positionMax The maximum
+     */
+    void setPositionBounds(double positionMin[], double positionMax[])
+    {
+        this.positionMin = positionMin;
+        this.positionMax = positionMax;
+    }
+    
+    /**
+     * Returns the component-wise minimum of the <code>min</code> values of
+     * all accessors that are used as the <code>POSITION</code> attribute 
+     * of a mesh primitive. This does not take into account any node 
+     * transforms. If there are no such accessors with a valid 3D 
+     * <code>min</code> value, then <code>null</code> is returned.
+     * 
+     * @return The minimum
+     */
+    public double[] getPositionMin()
+    {
+        if (positionMin == null)
+        {
+            return null;
+        }
+        return positionMin.clone();
+    }
+
+    /**
+     * Returns the component-wise maximum of the <code>max</code> values of
+     * all accessors that are used as the <code>POSITION</code> attribute 
+     * of a mesh primitive. This does not take into account any node 
+     * transforms. If there are no such accessors with a valid 3D 
+     * <code>max</code> value, then <code>null</code> is returned.
+     * 
+     * @return The maximum
+     */
+    public double[] getPositionMax()
+    {
+        if (positionMax == null)
+        {
+            return null;
+        }
+        return positionMax.clone();
+    }
+    
+    /**
+     * Set whether the summary was read from a binary glTF
+     * 
+     * @param binary Whether the summary was read from a binary glTF
+     */
+    void setBinary(boolean binary)
+    {
+        this.binary = binary;
+    }
+    
+    /**
+     * Returns whether this summary was read from a binary glTF
+     * 
+     * @return Whether this summary was read from a binary glTF
+     */
+    public boolean isBinary()
+    {
+        return binary;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "GltfSummary[" 
+            + "version=" + version + ","
+            + "generator=" + generator + ","
+            + "extensionsUsed=" + extensionsUsed + ","
+            + "counts=" + counts + ","
+            + "binary=" + binary + "]";
+    }
+}
@@ -0,0 +1,606 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+/**
+ * A class for reading a {@link GltfSummary} from glTF or binary glTF 
+ * data.<br>
+ * <br>
+ * In contrast to the {@link GltfAssetReader}, this class does not create
+ * the glTF objects. It only scans the JSON data, and collects the 
+ * information that is summarized in the {@link GltfSummary}. For binary 
+ * glTF data, only the header and the JSON chunk will be read, and the 
+ * binary data will be skipped. External references will not be 
+ * resolved.<br>
+ * <br>
+ * This is intended for quickly obtaining the metadata of a large number 
+ * of assets.
+ */
+public final class GltfSummaryReader
+{
+    /**
+     * The magic binary glTF header.
+     * This is an integer corresponding to the ASCII string <code>"glTF"</code>
+     */
+    private static final int MAGIC_BINARY_GLTF_HEADER = 0x46546C67;
+    
+    /**
+     * The version number indicating glTF 1.0
+     */
+    private static final int BINARY_GLTF_VERSION_1 = 1;
+    
+    /**
+     * The version number indicating glTF 2.0
+     */
+    private static final int BINARY_GLTF_VERSION_2 = 2;
+    
+    /**
+     * The content format of binary glTF 1.0 indicating JSON
+     */
+    private static final int CONTENT_FORMAT_JSON = 0;
+
+    /**
+     * The constant indicating JSON chunk type for glTF 2.0
+     * This is an integer corresponding to the ASCII string <code>"JSON"</code>
+     */
+    private static final int CHUNK_TYPE_JSON = 0x4E4F534A;
+    
+    /**
+     * The length of the part of a binary glTF that has to be read in
+     * order to obtain the length of the JSON data. For binary glTF 1.0,
+     * this is the header with the content length and content format.
+     * For binary glTF 2.0, this is the header and the header of the 
+     * JSON chunk. 
+     */
+    private static final int BINARY_GLTF_PREFIX_LENGTH = 20;
+    
+    /**
+     * Creates a new instance
+     */
+    public GltfSummaryReader()
+    {
+        // Default constructor
+    }
+    
+    /**
+     * Read the {@link GltfSummary} from the given path
+     * 
+     * @param path The path
+     * @return The {@link GltfSummary}
+     * @throws IOException If an IO error occurs, or the data is not
+     * valid glTF data
+     */
+    public GltfSummary read(Path path) throws IOException
+    {
+        try (InputStream inputStream = Files.newInputStream(path))
+        {
+            return read(inputStream);
+        }
+    }
+
+    /**
+     * Read the {@link GltfSummary} from the given URI
+     * 
+     * @param uri The URI
+     * @return The {@link GltfSummary}
+     * @throws IOException If an IO error occurs, or the data is not
+     * valid glTF data
+     */
+    public GltfSummary read(URI uri) throws IOException
+    {
+        try (InputStream inputStream = uri.toURL().openStream())
+        {
+            return read(inputStream);
+        }
+    }
+    
+    /**
+     * Read the {@link GltfSummary} from the given input stream. The 
+     * caller is responsible for closing the given stream.<br>
+     * <br>
+     * If the stream contains binary glTF data, then only the data up to 
+     * the end of the JSON data will be read from the stream. 
+     * 
+     * @param inputStream The input stream
+     * @return The {@link GltfSummary}
+     * @throws IOException If an IO error occurs, or the data is not
+     * valid glTF data
+     */
+    public GltfSummary read(InputStream inputStream) throws IOException
+    {
+        JsonFactory jsonFactory = 
+            GltfJsonContext.getDefault().getJsonFactory();
+        byte prefix[] = new byte[BINARY_GLTF_PREFIX_LENGTH];
+        int prefixLength = readPrefix(inputStream, prefix);
+        ByteBuffer header = ByteBuffer.wrap(prefix, 0, prefixLength);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (prefixLength == BINARY_GLTF_PREFIX_LENGTH && 
+            header.getInt(0) == MAGIC_BINARY_GLTF_HEADER)
+        {
+            int jsonLength = readJsonLength(header);
+            byte jsonData[] = new byte[jsonLength];
+            IO.read(inputStream, jsonData);
+            try (JsonParser jsonParser = jsonFactory.createParser(jsonData))
+            {
+                GltfSummary gltfSummary = readSummary(jsonParser);
+                gltfSummary.setBinary(true);
+                return gltfSummary;
+            }
+        }
+        InputStream jsonInputStream = new SequenceInputStream(
+            new ByteArrayInputStream(prefix, 0, prefixLength), inputStream);
+        try (JsonParser jsonParser = 
+            jsonFactory.createParser(jsonInputStream))
+        {
+            jsonParser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return readSummary(jsonParser);
+        }
+    }
+    
+    /**
+     * Read bytes from the given input stream into the given array, until
+     * the array is full or the end of the stream is reached
+     * 
+     * @param inputStream The input stream
+     * @param prefix The array
+     * @return The number of bytes that have been read
+     * @throws IOException If an IO error occurs
+     */
+    private static int readPrefix(InputStream inputStream, byte prefix[]) 
+        throws IOException
+    {
+        int length = 0;
+        while (length < prefix.length)
+        {
+            int read = inputStream.read(
+                prefix, length, prefix.length - length);
+            if (read == -1)
+            {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+    
+    /**
+     * Obtain the length of the JSON data from the given binary glTF 
+     * header data
+     * 
+     * @param header The header data
+     * @return The length of the JSON data
+     * @throws IOException If the header is not valid
+     */
+    private static int readJsonLength(ByteBuffer header) throws IOException
+    {
+        int version = header.getInt(4);
+        long jsonLength = Integer.toUnsignedLong(header.getInt(12));
+        int format = header.getInt(16);
+        if (version == BINARY_GLTF_VERSION_1)
+        {
+            if (format != CONTENT_FORMAT_JSON)
+            {
+                throw new IOException(
+                    "Expected content format 0 (JSON), but found " + format);
+            }
+        }
+        else if (version == BINARY_GLTF_VERSION_2)
+        {
+            if (format != CHUNK_TYPE_JSON)
+            {
+                throw new IOException("First chunk must be of type JSON ("
+                    + CHUNK_TYPE_JSON + "), but found " + format);
+            }
+        }
+        else
+        {
+            throw new IOException(
+                "Unknown binary glTF version: " + version);
+        }
+        if (jsonLength > Integer.MAX_VALUE)
+        {
+            throw new IOException(
+                "Invalid length of the JSON data: " + jsonLength);
+        }
+        return (int) jsonLength;
+    }
+    
+    /**
+     * Read the {@link GltfSummary} from the given parser
+     * 
+     * @param jsonParser The parser
+     * @return The {@link GltfSummary}
+     * @throws IOException If an IO error occurs, or the data is not
+     * a JSON object
+     */
+    private static GltfSummary readSummary(JsonParser jsonParser) 
+        throws IOException
+    {
+        if (jsonParser.nextToken() != JsonToken.START_OBJECT)
+        {
+            throw new IOException("The glTF data is not a JSON object");
+        }
+        GltfSummary gltfSummary = new GltfSummary();
+        gltfSummary.setVersion("1.0");
+        Set<String> positionAccessorKeys = new LinkedHashSet<String>();
+        Map<String, double[]> accessorMins = new HashMap<String, double[]>();
+        Map<String, double[]> accessorMaxs = new HashMap<String, double[]>();
+        forEachElement(jsonParser, (name, p) -> 
+        {
+            switch (name)
+            {
+                case "asset":
+                    readAsset(p, gltfSummary);
+                    break;
+                    
+                case "extensionsUsed":
+                    gltfSummary.setExtensionsUsed(readStrings(p));
+                    break;
+                    
+                case "extensionsRequired":
+                    gltfSummary.setExtensionsRequired(readStrings(p));
+                    break;
+                    
+                case "extensions":
+                case "extras":
+                    p.skipChildren();
+                    break;
+                    
+                case "meshes":
+                    gltfSummary.setCount(name, forEachElement(p, (k, m) -> 
+                        readPositionAccessorKeys(m, positionAccessorKeys)));
+                    break;
+                    
+                case "accessors":
+                    gltfSummary.setCount(name, forEachElement(p, (k, a) -> 
+                        readAccessorBounds(k, a, accessorMins, accessorMaxs)));
+                    break;
+
+                default:
+                    if (p.currentToken().isStructStart())
+                    {
+                        gltfSummary.setCount(name, forEachElement(p, 
+                            (k, e) -> e.skipChildren()));
+                    }
+                    break;
+            }
+        });
+        computePositionBounds(gltfSummary, 
+            positionAccessorKeys, accessorMins, accessorMaxs);
+        return gltfSummary;
+    }
+    
+    /**
+     * Read the version information from the asset object
+     * 
+     * @param jsonParser The parser, positioned at the start of the asset
+     * @param gltfSummary The {@link GltfSummary}
+     * @throws IOException If an IO error occurs
+     */
+    private static void readAsset(JsonParser jsonParser, 
+        GltfSummary gltfSummary) throws IOException
+    {
+        forEachElement(jsonParser, (name, p) -> 
+        {
+            if (!p.currentToken().isScalarValue())
+            {
+                p.skipChildren();
+            }
+            else if ("version".equals(name))
+            {
+                gltfSummary.setVersion(p.getText());
+            }
+            else if ("minVersion".equals(name))
+            {
+                gltfSummary.setMinVersion(p.getText());
+            }
+            else if ("generator".equals(name))
+            {
+                gltfSummary.setGenerator(p.getText());
+            }
+        });
+    }
+    
+    /**
+     * Read the keys of all accessors that are used as the POSITION 
+     * attribute in any primitive of the mesh
+     * 
+     * @param jsonParser The parser, positioned at the start of the mesh
+     * @param positionAccessorKeys The set that will receive the keys
+     * @throws IOException If an IO error occurs
+     */
+    private static void readPositionAccessorKeys(JsonParser jsonParser, 
+        Set<String> positionAccessorKeys) throws IOException
+    {
+        forEachElement(jsonParser, (meshFieldName, m) -> 
+        {
+            if (!"primitives".equals(meshFieldName))
+            {
+                m.skipChildren();
+                return;
+            }
+            forEachElement(m, (primitiveKey, p) -> 
+            {
+                forEachElement(p, (primitiveFieldName, a) -> 
+                {
+                    if (!"attributes".equals(primitiveFieldName))
+                    {
+                        a.skipChildren();
+                        return;
+                    }
+                    forEachElement(a, (attributeName, v) -> 
+                    {
+                        if ("POSITION".equals(attributeName) &&
+                            v.currentToken().isScalarValue())
+                        {
+                            positionAccessorKeys.add(v.getText());
+                        }
+                        v.skipChildren();
+                    });
+                });
+            });
+        });
+    }
+    
+    /**
+     * Read the <code>min</code> and <code>max</code> values of the 
+     * accessor, and store them under the given key
+     * 
+     * @param key The key of the accessor 
+     * @param jsonParser The parser, positioned at the start of the accessor
+     * @param accessorMins The mapping from keys to minimum values
+     * @param accessorMaxs The mapping from keys to maximum values
+     * @throws IOException If an IO error occurs
+     */
+    private static void readAccessorBounds(String key, JsonParser jsonParser,
+        Map<String, double[]> accessorMins, 
+        Map<String, double[]> accessorMaxs) throws IOException
+    {
+        forEachElement(jsonParser, (name, p) -> 
+        {
+            if ("min".equals(name))
+            {
+                accessorMins.put(key, readNumbers(p));
+            }
+            else if ("max".equals(name))
+            {
+                accessorMaxs.put(key, readNumbers(p));
+            }
+            else
+            {
+                p.skipChildren();
+            }
+        });
+    }
+    
+    /**
+     * Compute the bounds of all POSITION accessors, and store them in
+     * the given {@link GltfSummary}
+     * 
+     * @param gltfSummary The {@link GltfSummary}
+     * @param positionAccessorKeys The keys of the POSITION accessors
+     * @param accessorMins The mapping from keys to minimum values
+     * @param accessorMaxs The mapping from keys to maximum values
+     */
+    private static void computePositionBounds(GltfSummary gltfSummary,
+        Set<String> positionAccessorKeys, 
+        Map<String, double[]> accessorMins, 
+        Map<String, double[]> accessorMaxs)
+    {
+        double positionMin[] = null;
+        double positionMax[] = null;
+        for (String key : positionAccessorKeys)
+        {
+            double min[] = accessorMins.get(key);
+            double max[] = accessorMaxs.get(key);
+            if (min == null || min.length != 3 || 
+                max == null || max.length != 3)
+            {
+                continue;
+            }
+            if (positionMin == null)
+            {
+                positionMin = min.clone();
+                positionMax = max.clone();
+            }
+            else
+            {
+                for (int i = 0; i < 3; i++)
+                {
+                    positionMin[i] = Math.min(positionMin[i], min[i]);
+                    positionMax[i] = Math.max(positionMax[i], max[i]);
+                }
+            }
+        }
+        gltfSummary.setPositionBounds(positionMin, positionMax);
+    }
+    
+    /**
+     * Read the elements of the array at the current position as strings
+     * 
+     * @param jsonParser The parser, positioned at the start of the array
+     * @return The strings
+     * @throws IOException If an IO error occurs
+     */
+    private static List<String> readStrings(JsonParser jsonParser) 
+        throws IOException
+    {
+        List<String> strings = new ArrayList<String>();
+        forEachElement(jsonParser, (k, p) -> 
+        {
+            if (p.currentToken() == JsonToken.VALUE_STRING)
+            {
+                strings.add(p.getText());
+            }
+            p.skipChildren();
+        });
+        return strings;
+    }
+    
+    /**
+     * Read the elements of the array at the current position as numbers.
+     * Returns <code>null</code> if the array contains elements that are
+     * not numbers, or the current value is not an array.
+     * 
+     * @param jsonParser The parser, positioned at the start of the array
+     * @return The numbers
+     * @throws IOException If an IO error occurs
+     */
+    private static double[] readNumbers(JsonParser jsonParser) 
+        throws IOException
+    {
+        if (jsonParser.currentToken() != JsonToken.START_ARRAY)
+        {
+            jsonParser.skipChildren();
+            return null;
+        }
+        List<Double> numbers = new ArrayList<Double>();
+        boolean valid[] = { true };
+        forEachElement(jsonParser, (k, p) -> 
+        {
+            if (p.currentToken().isNumeric())
+            {
+                numbers.add(p.getDoubleValue());
+            }
+            else
+            {
+                valid[0] = false;
+                p.skipChildren();
+            }
+        });
+        if (!valid[0])
+        {
+            return null;
+        }
+        double result[] = new double[numbers.size()];
+        for (int i = 0; i < result.length; i++)
+        {
+            result[i] = numbers.get(i);
+        }
+        return result;
+    }
+    
+    /**
+     * Interface for a consumer of the elements of a JSON array or object
+     */
+    private interface ElementConsumer
+    {
+        /**
+         * Consume the element with the given key. When this method is 
+         * called, the given parser is positioned at the first token of 
+         * the element value. Implementations must consume the complete
+         * value, for example, by calling {@link JsonParser#skipChildren()}.
+         * 
+         * @param key The key, which is the index for array elements, and
+         * the field name for object fields
+         * @param jsonParser The parser
+         * @throws IOException If an IO error occurs
+         */
+        void accept(String key, JsonParser jsonParser) throws IOException;
+    }
+    
+    /**
+     * Pass all elements of the array or object at the current position
+     * of the given parser to the given consumer. If the parser is not
+     * positioned at the start of an array or object, then the current
+     * value will be skipped.
+     * 
+     * @param jsonParser The parser
+     * @param elementConsumer The consumer for the elements 
+     * @return The number of elements
+     * @throws IOException If an IO error occurs, or the end of the 
+     * input was reached unexpectedly
+     */
+    private static int forEachElement(JsonParser jsonParser, 
+        ElementConsumer elementConsumer) throws IOException
+    {
+        JsonToken token = jsonParser.currentToken();
+        int count = 0;
+        if (token == JsonToken.START_ARRAY)
+        {
+            while (nextToken(jsonParser) != JsonToken.END_ARRAY)
+            {
+                elementConsumer.accept(String.valueOf(count), jsonParser);
+                count++;
+            }
+        }
+        else if (token == JsonToken.START_OBJECT)
+        {
+            while (nextToken(jsonParser) == JsonToken.FIELD_NAME)
+            {
+                String name = jsonParser.getCurrentName();
+                nextToken(jsonParser);
+                elementConsumer.accept(name, jsonParser);
+                count++;
+            }
+        }
+        else
+        {
+            jsonParser.skipChildren();
+        }
+        return count;
+    }
+    
+    /**
+     * Move the given parser to the next token, and return this token
+     * 
+     * @param jsonParser The parser
+     * @return The next token
+     * @throws IOException If an IO error occurs, or the end of the 
+     * input was reached
+     */
+    private static JsonToken nextToken(JsonParser jsonParser) 
+        throws IOException
+    {
+        JsonToken token = jsonParser.nextToken();
+        if (token == null)
+        {
+            throw new IOException("Unexpected end of the JSON data");
+        }
+        return token;
+    }
+}
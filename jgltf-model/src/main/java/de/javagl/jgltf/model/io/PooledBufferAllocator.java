@@ -0,0 +1,216 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Implementation of a {@link BufferAllocator} that reuses buffers that
+ * have been released. See 
+ * {@link BufferAllocators#createPooled(BufferAllocator, int)} for details.
+ */
+final class PooledBufferAllocator implements BufferAllocator
+{
+    /**
+     * The delegate
+     */
+    private final BufferAllocator delegate;
+    
+    /**
+     * The maximum number of buffers that are kept
+     */
+    private final int maxPooledBuffers;
+    
+    /**
+     * The released buffers, by their power-of-two capacity. Access to 
+     * this map, to the {@link #backingBuffers} and to the 
+     * {@link #numPooledBuffers} is synchronized on this map.
+     */
+    private final Map<Integer, Deque<ByteBuffer>> pool;
+    
+    /**
+     * The mapping from the slices that have been returned by 
+     * {@link #allocate(int)} to the buffers that they are slices of.
+     * The slices are only referred to weakly: A slice that is never 
+     * released does not prevent the memory of its backing buffer
+     * from being garbage collected.
+     */
+    private final WeakBufferMap<ByteBuffer> backingBuffers;
+    
+    /**
+     * The number of buffers that are currently in the pool
+     */
+    private int numPooledBuffers;
+    
+    /**
+     * Creates a new instance
+     * 
+     * @param delegate The delegate
+     * @param maxPooledBuffers The maximum number of buffers that are kept
+     * @throws IllegalArgumentException If the given number is negative
+     */
+    PooledBufferAllocator(BufferAllocator delegate, int maxPooledBuffers)
+    {
+        this.delegate = Objects.requireNonNull(delegate, 
+            "The delegate may not be null");
+        if (maxPooledBuffers < 0)
+        {
+            throw new IllegalArgumentException(
+                "The maxPooledBuffers may not be negative, but is " 
+                + maxPooledBuffers);
+        }
+        this.maxPooledBuffers = maxPooledBuffers;
+        this.pool = new HashMap<Integer, Deque<ByteBuffer>>();
+        this.backingBuffers = new WeakBufferMap<ByteBuffer>();
+    }
+    
+    @Override
+    public ByteBuffer allocate(int capacity)
+    {
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException(
+                "The capacity may not be negative, but is " + capacity);
+        }
+        int bucketCapacity = computeBucketCapacity(capacity);
+        ByteBuffer backingBuffer = null;
+        synchronized (pool)
+        {
+            // Forget the backing buffers of slices that have been 
+            // garbage collected without being released
+            backingBuffers.expungeStaleEntries(b -> {});
+            Deque<ByteBuffer> buffers = pool.get(bucketCapacity);
+            if (buffers != null)
+            {
+                backingBuffer = buffers.pollFirst();
+                if (buffers.isEmpty())
+                {
+                    pool.remove(bucketCapacity);
+                }
+                numPooledBuffers--;
+            }
+        }
+        boolean reused = backingBuffer != null;
+        if (!reused)
+        {
+            backingBuffer = delegate.allocate(bucketCapacity);
+        }
+        backingBuffer.clear();
+        backingBuffer.limit(capacity);
+        ByteBuffer byteBuffer = backingBuffer.slice();
+        if (reused)
+        {
+            clear(byteBuffer);
+        }
+        synchronized (pool)
+        {
+            backingBuffers.put(byteBuffer, backingBuffer);
+        }
+        return byteBuffer;
+    }
+    
+    /**
+     * {@inheritDoc}<br>
+     * <br>
+     * Buffers that have not been returned by {@link #allocate(int)} will
+     * be passed to the delegate.<br>
+     * <br>
+     * Buffers that are never released (for example, the buffers of an 
+     * asset that was read successfully) are not kept alive by this 
+     * allocator. When they are garbage collected, then their backing
+     * buffers are not returned to the pool, and not released to the 
+     * delegate.
+     */
+    @Override
+    public void release(ByteBuffer byteBuffer)
+    {
+        ByteBuffer backingBuffer = null;
+        synchronized (pool)
+        {
+            backingBuffer = backingBuffers.remove(byteBuffer);
+            if (backingBuffer != null && numPooledBuffers < maxPooledBuffers)
+            {
+                Deque<ByteBuffer> buffers = pool.computeIfAbsent(
+                    backingBuffer.capacity(), 
+                    c -> new ArrayDeque<ByteBuffer>());
+                buffers.addFirst(backingBuffer);
+                numPooledBuffers++;
+                return;
+            }
+        }
+        if (backingBuffer == null)
+        {
+            delegate.release(byteBuffer);
+        }
+        else
+        {
+            delegate.release(backingBuffer);
+        }
+    }
+    
+    /**
+     * Computes the capacity of the buffer that is used for serving a 
+     * request for the given capacity. This is the smallest power of two 
+     * that is not smaller than the given capacity, or the given capacity
+     * itself, if this power of two cannot be represented as an 
+     * <code>int</code>.
+     * 
+     * @param capacity The requested capacity
+     * @return The capacity of the bucket
+     */
+    static int computeBucketCapacity(int capacity)
+    {
+        int highestOneBit = Integer.highestOneBit(capacity);
+        if (highestOneBit == capacity || highestOneBit == (1 << 30))
+        {
+            return capacity;
+        }
+        return highestOneBit << 1;
+    }
+    
+    /**
+     * Fill the given buffer with zeros, and reset its position and limit
+     * 
+     * @param byteBuffer The byte buffer
+     */
+    private static void clear(ByteBuffer byteBuffer)
+    {
+        byteBuffer.clear();
+        byte zeros[] = new byte[Math.min(byteBuffer.capacity(), 8192)];
+        while (byteBuffer.hasRemaining())
+        {
+            byteBuffer.put(zeros, 0, 
+                Math.min(zeros.length, byteBuffer.remaining()));
+        }
+        byteBuffer.clear();
+    }
+}
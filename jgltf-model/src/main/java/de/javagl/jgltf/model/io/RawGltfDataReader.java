@@ -31,6 +31,10 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import de.javagl.jgltf.model.io.v1.RawBinaryGltfDataReaderV1;
 import de.javagl.jgltf.model.io.v2.RawBinaryGltfDataReaderV2;
@@ -79,31 +83,206 @@ public class RawGltfDataReader
     public static RawGltfData read(InputStream inputStream) throws IOException
     {
         byte rawData[] = IO.readStream(inputStream);
-        if (rawData.length >= 8)
+        if (isBinaryGltf(rawData.length))
         {
             ByteBuffer data = 
                 ByteBuffer.wrap(rawData).order(ByteOrder.LITTLE_ENDIAN);
-            IntBuffer intData = data.asIntBuffer();
-            int magic = intData.get(0);
-            if (magic == MAGIC_BINARY_GLTF_HEADER)
+            RawGltfData rawGltfData = readBinaryGltf(data);
+            if (rawGltfData != null)
             {
-                int version = intData.get(1);
-                if (version == BINARY_GLTF_VERSION_1)
+                return rawGltfData;
+            }
+        }
+        // The JSON data is only parsed, so the array that was read 
+        // does not have to be copied into a new buffer
+        ByteBuffer jsonData = 
+            ByteBuffer.wrap(rawData).order(ByteOrder.LITTLE_ENDIAN);
+        return new RawGltfData(jsonData, null);
+    }
+    
+    /**
+     * Read the raw glTF data from the given input stream. The caller is
+     * responsible for closing the given stream.<br>
+     * <br>
+     * In contrast to {@link #read(InputStream)}, the data of a binary 
+     * glTF will be stored in a buffer that is allocated with the given
+     * {@link BufferAllocator}. The binary data of the returned 
+     * {@link RawGltfData} will be a slice of this buffer. If the data
+     * cannot be read, then the buffer will be released. The data of a
+     * JSON glTF is only parsed, and will not be stored in an allocated
+     * buffer.
+     * 
+     * @param inputStream The input stream
+     * @param bufferAllocator The {@link BufferAllocator}
+     * @return The {@link RawGltfData}
+     * @throws IOException If an IO error occurs
+     */
+    static RawGltfData read(InputStream inputStream, 
+        BufferAllocator bufferAllocator) throws IOException
+    {
+        byte rawData[] = IO.readStream(inputStream);
+        if (isBinaryGltf(rawData.length))
+        {
+            ByteBuffer header = 
+                ByteBuffer.wrap(rawData).order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt(0) == MAGIC_BINARY_GLTF_HEADER)
+            {
+                ByteBuffer data = Buffers.create(rawData, bufferAllocator);
+                try
                 {
-                    return RawBinaryGltfDataReaderV1.readBinaryGltf(data);
+                    return readBinaryGltf(data);
                 }
-                if (version == BINARY_GLTF_VERSION_2)
+                catch (IOException | RuntimeException e)
                 {
-                    return RawBinaryGltfDataReaderV2.readBinaryGltf(data);
+                    bufferAllocator.release(data);
+                    throw e;
                 }
-                throw new IOException(
-                    "Unknown binary glTF version: " + version);
             }
         }
-        ByteBuffer jsonData = Buffers.create(rawData);
+        ByteBuffer jsonData = 
+            ByteBuffer.wrap(rawData).order(ByteOrder.LITTLE_ENDIAN);
         return new RawGltfData(jsonData, null);
     }
     
+    /**
+     * Read the raw glTF data from the given file, by memory-mapping the
+     * file contents.<br>
+     * <br>
+     * In contrast to {@link #read(InputStream)}, the data will not be
+     * copied: The JSON data and the binary data of the returned 
+     * {@link RawGltfData} will be read-only slices of the mapped file. 
+     * The mapping remains valid until the buffers are garbage collected.<br>
+     * <br>
+     * For binary glTF 2.0 files, the JSON chunk and the BIN chunk will be
+     * mapped separately, so that the file may be larger than 2GB, as long
+     * as each chunk is smaller than 2GB.<br>
+     * <br>
+     * This method does <b>not</b> support buffers that are larger than 
+     * 2GB. The byte lengths and offsets in the glTF JSON and in the 
+     * {@link de.javagl.jgltf.model.BufferModel} are <code>int</code> 
+     * values, and the data of each buffer is stored in a single 
+     * <code>ByteBuffer</code>. Files that exceed these limits are 
+     * rejected with an <code>IOException</code>, instead of causing
+     * an arithmetic overflow.
+     * 
+     * @param path The path to the file
+     * @return The {@link RawGltfData}
+     * @throws IOException If an IO error occurs, or the file (or one of 
+     * the chunks of a binary glTF 2.0 file) is larger than 2GB and thus 
+     * cannot be mapped into a single buffer
+     */
+    public static RawGltfData readMapped(Path path) throws IOException
+    {
+        try (FileChannel fileChannel = 
+            FileChannel.open(path, StandardOpenOption.READ))
+        {
+            long size = fileChannel.size();
+            if (isBinaryGltf(size))
+            {
+                ByteBuffer header = ByteBuffer.allocate(8);
+                header.order(ByteOrder.LITTLE_ENDIAN);
+                while (header.hasRemaining())
+                {
+                    if (fileChannel.read(header, header.position()) < 0)
+                    {
+                        throw new IOException(
+                            "Unexpected end of file " + path);
+                    }
+                }
+                if (header.getInt(0) == MAGIC_BINARY_GLTF_HEADER && 
+                    header.getInt(4) == BINARY_GLTF_VERSION_2)
+                {
+                    return RawBinaryGltfDataReaderV2.readBinaryGltfMapped(
+                        fileChannel);
+                }
+            }
+            if (size > Integer.MAX_VALUE)
+            {
+                throw new IOException("The file " + path + " has a size of "
+                    + size + " bytes, which is too large to be mapped");
+            }
+            MappedByteBuffer mappedData = fileChannel.map(
+                FileChannel.MapMode.READ_ONLY, 0, size);
+            return read(mappedData);
+        }
+    }
+    
+    /**
+     * Read the raw glTF data from the given buffer. The buffer is assumed
+     * to contain the data of a complete glTF or binary glTF file, starting
+     * at position 0, up to its capacity.<br>
+     * <br>
+     * The data will not be copied. The JSON data and the binary data of 
+     * the returned {@link RawGltfData} will be slices of the given buffer.
+     * 
+     * @param data The data
+     * @return The {@link RawGltfData}
+     * @throws IOException If an IO error occurs
+     */
+    public static RawGltfData read(ByteBuffer data) throws IOException
+    {
+        ByteBuffer littleEndianData = data.duplicate();
+        littleEndianData.position(0);
+        littleEndianData.limit(littleEndianData.capacity());
+        littleEndianData.order(ByteOrder.LITTLE_ENDIAN);
+        if (isBinaryGltf(littleEndianData.capacity()))
+        {
+            RawGltfData rawGltfData = readBinaryGltf(littleEndianData);
+            if (rawGltfData != null)
+            {
+                return rawGltfData;
+            }
+        }
+        ByteBuffer jsonData = Buffers.createSlice(
+            littleEndianData, 0, littleEndianData.capacity());
+        return new RawGltfData(jsonData, null);
+    }
+    
+    /**
+     * Returns whether data with the given length may be binary glTF data,
+     * meaning that it is large enough to contain the magic header and
+     * the version number.
+     * 
+     * @param length The length of the data
+     * @return Whether the data may be binary glTF data
+     */
+    private static boolean isBinaryGltf(long length)
+    {
+        return length >= 8;
+    }
+    
+    /**
+     * Read the raw glTF data from the given buffer, which must have 
+     * little-endian byte order. If the buffer does not start with the 
+     * magic binary glTF header, then <code>null</code> is returned.
+     * 
+     * @param data The data
+     * @return The {@link RawGltfData}, or <code>null</code>
+     * @throws IOException If the data has an unknown binary glTF version,
+     * or cannot be read
+     */
+    private static RawGltfData readBinaryGltf(ByteBuffer data) 
+        throws IOException
+    {
+        IntBuffer intData = data.asIntBuffer();
+        int magic = intData.get(0);
+        if (magic != MAGIC_BINARY_GLTF_HEADER)
+        {
+            return null;
+        }
+        int version = intData.get(1);
+        if (version == BINARY_GLTF_VERSION_1)
+        {
+            return RawBinaryGltfDataReaderV1.readBinaryGltf(data);
+        }
+        if (version == BINARY_GLTF_VERSION_2)
+        {
+            return RawBinaryGltfDataReaderV2.readBinaryGltf(data);
+        }
+        throw new IOException(
+            "Unknown binary glTF version: " + version);
+    }
+    
     /**
      * Private constructor to prevent instantiation
      */
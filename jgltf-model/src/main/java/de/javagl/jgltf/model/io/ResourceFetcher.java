@@ -0,0 +1,55 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Interface for classes that can fetch the data of external resources.<br>
+ * <br>
+ * Instances of this interface may be passed to the 
+ * {@link GltfAssetReader#setResourceFetcher(ResourceFetcher)} method,
+ * in order to control how the external references of glTF assets are
+ * read. Instances may be created with the {@link ResourceFetchers} class.
+ */
+@FunctionalInterface
+public interface ResourceFetcher
+{
+    /**
+     * Fetch the data of the resource with the given absolute URI.<br>
+     * <br>
+     * The returned future will be completed with a buffer that contains
+     * the data of the resource, or completed exceptionally with an 
+     * <code>IOException</code> if the data cannot be read. 
+     * 
+     * @param uri The absolute URI
+     * @return The future that will be completed with the data
+     */
+    CompletableFuture<ByteBuffer> fetch(URI uri);
+}
@@ -0,0 +1,170 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Methods to create {@link ResourceFetcher} instances
+ */
+public class ResourceFetchers
+{
+    /**
+     * Creates a {@link ResourceFetcher} that reads the data from the 
+     * URL of the given URI, in the calling thread. The returned future
+     * will thus already be completed.
+     * 
+     * @return The {@link ResourceFetcher}
+     */
+    public static ResourceFetcher create()
+    {
+        return uri -> 
+        {
+            CompletableFuture<ByteBuffer> future = 
+                new CompletableFuture<ByteBuffer>();
+            try
+            {
+                future.complete(read(uri));
+            }
+            catch (IOException e)
+            {
+                future.completeExceptionally(e);
+            }
+            return future;
+        };
+    }
+    
+    /**
+     * Creates a {@link ResourceFetcher} that reads the data from the 
+     * URL of the given URI, using the given executor
+     * 
+     * @param executor The executor
+     * @return The {@link ResourceFetcher}
+     */
+    public static ResourceFetcher create(Executor executor)
+    {
+        Objects.requireNonNull(executor, "The executor may not be null");
+        return uri -> CompletableFuture.supplyAsync(() -> 
+        {
+            try
+            {
+                return read(uri);
+            }
+            catch (IOException e)
+            {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+    
+    /**
+     * Creates a {@link ResourceFetcher} that caches the data that is 
+     * fetched by the given delegate.<br>
+     * <br>
+     * This is the same as {@link #createCaching(ResourceFetcher, long, Path)}
+     * without a spill directory. Data that is evicted from the cache will 
+     * be fetched again from the delegate when it is requested again.
+     * 
+     * @param delegate The delegate {@link ResourceFetcher}
+     * @param maxCacheSize The maximum total size of the cached data, in 
+     * bytes
+     * @return The {@link ResourceFetcher}
+     * @throws IllegalArgumentException If the given size is negative
+     */
+    public static ResourceFetcher createCaching(
+        ResourceFetcher delegate, long maxCacheSize)
+    {
+        return createCaching(delegate, maxCacheSize, null);
+    }
+    
+    /**
+     * Creates a {@link ResourceFetcher} that caches the data that is 
+     * fetched by the given delegate.<br>
+     * <br>
+     * The data will be cached in memory, with the given absolute URI as
+     * the key. When the total size of the cached data exceeds the given
+     * maximum size, then the least recently used entries will be evicted
+     * from the cache. If the given spill directory is not <code>null</code>,
+     * then the evicted data will be written into files in this directory,
+     * and read from there when it is requested again. These files will 
+     * be deleted when the virtual machine terminates.<br>
+     * <br>
+     * When the same URI is requested concurrently, then the data will only
+     * be fetched once from the delegate, and all callers will receive the 
+     * same data.<br>
+     * <br>
+     * The buffers that are provided by the returned fetcher are read-only
+     * slices of the cached data. The returned fetcher is thread-safe, and 
+     * is intended to be shared between multiple readers.
+     * 
+     * @param delegate The delegate {@link ResourceFetcher}
+     * @param maxCacheSize The maximum total size of the data that is 
+     * cached in memory, in bytes
+     * @param spillDirectory The optional directory for storing data that
+     * was evicted from the in-memory cache
+     * @return The {@link ResourceFetcher}
+     * @throws IllegalArgumentException If the given size is negative
+     */
+    public static ResourceFetcher createCaching(
+        ResourceFetcher delegate, long maxCacheSize, Path spillDirectory)
+    {
+        return new CachingResourceFetcher(
+            delegate, maxCacheSize, spillDirectory);
+    }
+    
+    /**
+     * Read the data from the given URI into a direct byte buffer
+     * 
+     * @param uri The URI
+     * @return The byte buffer
+     * @throws IOException If an IO error occurs
+     */
+    private static ByteBuffer read(URI uri) throws IOException
+    {
+        try (InputStream inputStream = IO.createInputStream(uri))
+        {
+            byte data[] = IO.readStream(inputStream);
+            return Buffers.create(data);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ResourceFetchers()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
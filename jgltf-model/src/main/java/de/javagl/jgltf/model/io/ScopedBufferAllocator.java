@@ -0,0 +1,160 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A {@link BufferAllocator} that releases all buffers that have been 
+ * allocated with it when it is closed.<br>
+ * <br>
+ * Instances of this class are created with 
+ * {@link BufferAllocators#createScoped(BufferAllocator)}. They may be 
+ * used for tying the lifetime of the buffers to a certain scope, for 
+ * example, the processing of a single request:
+ * <pre><code>
+ * try (ScopedBufferAllocator allocator = 
+ *     BufferAllocators.createScoped(pooledAllocator))
+ * {
+ *     gltfModelReader.setBufferAllocator(allocator);
+ *     GltfModel gltfModel = gltfModelReader.read(path);
+ *     process(gltfModel);
+ * }
+ * </code></pre>
+ * When the delegate is a pooled allocator, the buffers will then be 
+ * reused in the next scope.<br>
+ * <br>
+ * This class is thread-safe.
+ */
+public final class ScopedBufferAllocator 
+    implements BufferAllocator, AutoCloseable
+{
+    /**
+     * The delegate
+     */
+    private final BufferAllocator delegate;
+    
+    /**
+     * The buffers that have been allocated and not released
+     */
+    private final Set<ByteBuffer> allocatedBuffers;
+    
+    /**
+     * Whether this allocator was closed
+     */
+    private boolean closed;
+    
+    /**
+     * Creates a new instance
+     * 
+     * @param delegate The delegate
+     */
+    ScopedBufferAllocator(BufferAllocator delegate)
+    {
+        this.delegate = Objects.requireNonNull(delegate, 
+            "The delegate may not be null");
+        this.allocatedBuffers = Collections.newSetFromMap(
+            new IdentityHashMap<ByteBuffer, Boolean>());
+    }
+    
+    /**
+     * {@inheritDoc}
+     * 
+     * @throws IllegalStateException If this allocator was already closed
+     */
+    @Override
+    public ByteBuffer allocate(int capacity)
+    {
+        ByteBuffer byteBuffer = delegate.allocate(capacity);
+        synchronized (allocatedBuffers)
+        {
+            if (closed)
+            {
+                delegate.release(byteBuffer);
+                throw new IllegalStateException(
+                    "The allocator was already closed");
+            }
+            allocatedBuffers.add(byteBuffer);
+        }
+        return byteBuffer;
+    }
+    
+    @Override
+    public void release(ByteBuffer byteBuffer)
+    {
+        boolean removed;
+        synchronized (allocatedBuffers)
+        {
+            removed = allocatedBuffers.remove(byteBuffer);
+        }
+        if (removed)
+        {
+            delegate.release(byteBuffer);
+        }
+    }
+    
+    /**
+     * Returns the number of buffers that have been allocated with this 
+     * allocator and not yet been released
+     * 
+     * @return The number of buffers
+     */
+    public int getNumAllocatedBuffers()
+    {
+        synchronized (allocatedBuffers)
+        {
+            return allocatedBuffers.size();
+        }
+    }
+    
+    /**
+     * Release all buffers that have been allocated with this allocator
+     * and not yet been released. These buffers may no longer be used
+     * after this method was called.
+     */
+    @Override
+    public void close()
+    {
+        List<ByteBuffer> buffers;
+        synchronized (allocatedBuffers)
+        {
+            closed = true;
+            buffers = new ArrayList<ByteBuffer>(allocatedBuffers);
+            allocatedBuffers.clear();
+        }
+        for (ByteBuffer byteBuffer : buffers)
+        {
+            delegate.release(byteBuffer);
+        }
+    }
+}
@@ -32,7 +32,9 @@ import java.net.URI;
 import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.util.Objects;
+import java.util.concurrent.CompletionException;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.logging.Logger;
 
 /**
@@ -61,10 +63,188 @@ public class UriResolvers
      */
     public static Function<String, ByteBuffer> createBaseUriResolver(
         URI baseUri)
+    {
+        return createBaseUriResolverWithAllocator(
+            baseUri, BufferAllocators.direct());
+    }
+    
+    /**
+     * Creates a function that resolves URI strings against the given 
+     * base URI, and returns a byte buffer containing the data from 
+     * the resulting URI.<br>
+     * <br>
+     * This is the same as {@link #createBaseUriResolver(URI)}, except
+     * that the byte buffers will be allocated with the given 
+     * {@link BufferAllocator}.
+     * 
+     * @param baseUri The base URI to resolve against
+     * @param bufferAllocator The {@link BufferAllocator}
+     * @return The function
+     */
+    public static Function<String, ByteBuffer> 
+        createBaseUriResolverWithAllocator(
+            URI baseUri, BufferAllocator bufferAllocator)
+    {
+        Objects.requireNonNull(baseUri, "The baseUri may not be null");
+        Objects.requireNonNull(bufferAllocator, 
+            "The bufferAllocator may not be null");
+        return reading(createBaseUriInputStreamFunction(baseUri), 
+            bufferAllocator);
+    }
+    
+    /**
+     * Creates a function that resolves URI strings against the given 
+     * base URI, and returns a byte buffer containing the data from 
+     * the resulting URI.<br>
+     * <br>
+     * This is the same as {@link #createBaseUriResolver(URI)}, except
+     * that the given consumer will be informed about the number of bytes
+     * that have been read, whenever a chunk of data was read. The 
+     * consumer may be called by multiple threads, if the returned 
+     * function is used by multiple threads.
+     * 
+     * @param baseUri The base URI to resolve against
+     * @param numBytesReadConsumer The consumer for the number of bytes
+     * that have been read
+     * @return The function
+     */
+    public static Function<String, ByteBuffer> createBaseUriResolver(
+        URI baseUri, LongConsumer numBytesReadConsumer)
+    {
+        return createBaseUriResolver(baseUri, numBytesReadConsumer, 
+            BufferAllocators.direct());
+    }
+    
+    /**
+     * Creates a function that resolves URI strings against the given 
+     * base URI, and returns a byte buffer containing the data from 
+     * the resulting URI.<br>
+     * <br>
+     * This is the same as {@link #createBaseUriResolver(URI, LongConsumer)},
+     * except that the byte buffers will be allocated with the given 
+     * {@link BufferAllocator}.
+     * 
+     * @param baseUri The base URI to resolve against
+     * @param numBytesReadConsumer The consumer for the number of bytes
+     * that have been read
+     * @param bufferAllocator The {@link BufferAllocator}
+     * @return The function
+     */
+    static Function<String, ByteBuffer> createBaseUriResolver(
+        URI baseUri, LongConsumer numBytesReadConsumer, 
+        BufferAllocator bufferAllocator)
     {
         Objects.requireNonNull(baseUri, "The baseUri may not be null");
+        Objects.requireNonNull(numBytesReadConsumer, 
+            "The numBytesReadConsumer may not be null");
         Function<String, InputStream> inputStreamFunction = 
-            new Function<String, InputStream>()
+            createBaseUriInputStreamFunction(baseUri);
+        return reading(uriString -> 
+        {
+            InputStream inputStream = inputStreamFunction.apply(uriString);
+            if (inputStream == null)
+            {
+                return null;
+            }
+            return createProgressInputStream(
+                inputStream, numBytesReadConsumer);
+        }, bufferAllocator);
+    }
+    
+    /**
+     * Creates a function that resolves URI strings against the given 
+     * base URI, and returns a byte buffer containing the data that is
+     * fetched from the resulting URI by the given {@link ResourceFetcher}.
+     * The function will block until the data has been fetched.<br>
+     * <br>
+     * Data URIs will be decoded directly, without being passed to the 
+     * fetcher.<br>
+     * <br>
+     * If the returned function cannot read the data, then it will print a
+     * warning and return <code>null</code>.
+     * 
+     * @param baseUri The base URI to resolve against
+     * @param resourceFetcher The {@link ResourceFetcher}
+     * @return The function
+     */
+    public static Function<String, ByteBuffer> 
+        createBaseUriResolverWithFetcher(
+            URI baseUri, ResourceFetcher resourceFetcher)
+    {
+        Objects.requireNonNull(baseUri, "The baseUri may not be null");
+        Objects.requireNonNull(resourceFetcher, 
+            "The resourceFetcher may not be null");
+        Function<String, ByteBuffer> dataUriResolver = 
+            reading(createBaseUriInputStreamFunction(baseUri));
+        return new Function<String, ByteBuffer>()
+        {
+            @Override
+            public ByteBuffer apply(String uriString)
+            {
+                if (IO.isDataUriString(uriString)) 
+                {
+                    return dataUriResolver.apply(uriString);
+                }
+                try
+                {
+                    URI absoluteUri = IO.makeAbsolute(baseUri, uriString);
+                    return resourceFetcher.fetch(absoluteUri).join();
+                }
+                catch (IOException | RuntimeException e)
+                {
+                    Throwable cause = e;
+                    if (e instanceof CompletionException && 
+                        e.getCause() != null)
+                    {
+                        cause = e.getCause();
+                    }
+                    logger.warning("Could not fetch data for URI " 
+                        + uriString + ":  " + cause.getMessage());
+                    return null;
+                }
+            }
+        };
+    }
+    
+    /**
+     * Creates a {@link ProgressInputStream} for the given input stream,
+     * which informs the given consumer about the number of bytes that 
+     * have been read, whenever a chunk of data was read.
+     * 
+     * @param inputStream The input stream
+     * @param numBytesReadConsumer The consumer for the number of bytes
+     * that have been read
+     * @return The {@link ProgressInputStream}
+     */
+    static ProgressInputStream createProgressInputStream(
+        InputStream inputStream, LongConsumer numBytesReadConsumer)
+    {
+        ProgressInputStream progressInputStream = 
+            new ProgressInputStream(inputStream);
+        long previousTotalNumBytesRead[] = { 0 };
+        progressInputStream.addTotalNumBytesReadConsumer(
+            totalNumBytesRead -> 
+            {
+                numBytesReadConsumer.accept(
+                    totalNumBytesRead - previousTotalNumBytesRead[0]);
+                previousTotalNumBytesRead[0] = totalNumBytesRead;
+            });
+        return progressInputStream;
+    }
+    
+    /**
+     * Creates a function that resolves URI strings against the given 
+     * base URI, and returns an input stream for the resulting URI. 
+     * If the input stream cannot be opened, then the function will 
+     * print a warning and return <code>null</code>.
+     * 
+     * @param baseUri The base URI to resolve against
+     * @return The function
+     */
+    private static Function<String, InputStream> 
+        createBaseUriInputStreamFunction(URI baseUri)
+    {
+        return new Function<String, InputStream>()
         {
             @Override
             public InputStream apply(String uriString)
@@ -82,7 +262,6 @@ public class UriResolvers
                 }
             }
         };
-        return reading(inputStreamFunction);
     }
 
     /**
@@ -93,6 +272,10 @@ public class UriResolvers
      * If one of the path strings that is given to the function is a data
      * URI string, then the data will be read from this data URI.<br>
      * <br>
+     * Files will be read directly into a buffer that has the size of 
+     * the file, so that files of up to 2GB can be read without creating 
+     * intermediate copies of the data.<br>
+     * <br>
      * If the returned function cannot read the data, then it will print a
      * warning and return <code>null</code>.
      *
@@ -101,9 +284,32 @@ public class UriResolvers
      */
     public static Function<String, ByteBuffer> createBasePathResolver(
         Path basePath)
+    {
+        return createBasePathResolverWithAllocator(
+            basePath, BufferAllocators.direct());
+    }
+    
+    /**
+     * Creates a function that resolves path strings against the given
+     * base path, and returns a byte buffer containing the data from
+     * the resulting path.<br>
+     * <br>
+     * This is the same as {@link #createBasePathResolver(Path)}, except
+     * that the byte buffers will be allocated with the given 
+     * {@link BufferAllocator}.
+     *
+     * @param basePath The base Path to resolve against
+     * @param bufferAllocator The {@link BufferAllocator}
+     * @return The function
+     */
+    public static Function<String, ByteBuffer> 
+        createBasePathResolverWithAllocator(
+            Path basePath, BufferAllocator bufferAllocator)
     {
         Objects.requireNonNull(basePath, "The basePath may not be null");
-        Function<String, InputStream> inputStreamFunction =
+        Objects.requireNonNull(bufferAllocator, 
+            "The bufferAllocator may not be null");
+        Function<String, InputStream> dataUriInputStreamFunction =
             new Function<String, InputStream>()
         {
             @Override
@@ -111,12 +317,7 @@ public class UriResolvers
             {
                 try
                 {
-                    if (IO.isDataUriString(uriString)) 
-                    {
-                        return IO.createInputStream(URI.create(uriString));
-                    }
-                    Path absolutePath = IO.makeAbsolute(basePath, uriString);
-                    return IO.createInputStream(absolutePath);
+                    return IO.createInputStream(URI.create(uriString));
                 }
                 catch (IOException e)
                 {
@@ -126,9 +327,32 @@ public class UriResolvers
                 }
             }
         };
-        return reading(inputStreamFunction);
+        Function<String, ByteBuffer> dataUriResolver = 
+            reading(dataUriInputStreamFunction, bufferAllocator);
+        return new Function<String, ByteBuffer>()
+        {
+            @Override
+            public ByteBuffer apply(String uriString)
+            {
+                if (IO.isDataUriString(uriString)) 
+                {
+                    return dataUriResolver.apply(uriString);
+                }
+                try
+                {
+                    Path absolutePath = IO.makeAbsolute(basePath, uriString);
+                    return Buffers.readFile(absolutePath, bufferAllocator);
+                }
+                catch (IOException e)
+                {
+                    logger.warning("Could not read data for URI " 
+                        + uriString + ":  " + e.getMessage());
+                    return null;
+                }
+            }
+        };
     }
-
+    
     /**
      * Create a function that maps a string to the input stream of a resource
      * of the given class.
@@ -162,8 +386,9 @@ public class UriResolvers
     
     /**
      * Returns a function that reads the data from the input stream that is
-     * provided by the given delegate, and returns this data as a direct
-     * byte buffer.<br>
+     * provided by the given delegate, and returns this data as a byte
+     * buffer that is allocated with the {@link BufferAllocators#direct()
+     * direct buffer allocator}.<br>
      * <br>
      * If the delegate returns <code>null</code>, or an input stream that
      * cannot be read, then the function will print a warning and return
@@ -174,6 +399,26 @@ public class UriResolvers
      */
     private static <T> Function<T, ByteBuffer> reading(
         Function<? super T, ? extends InputStream> inputStreamFunction)
+    {
+        return reading(inputStreamFunction, BufferAllocators.direct());
+    }
+    
+    /**
+     * Returns a function that reads the data from the input stream that is
+     * provided by the given delegate, and returns this data as a byte 
+     * buffer that is allocated with the given {@link BufferAllocator}.<br>
+     * <br>
+     * If the delegate returns <code>null</code>, or an input stream that
+     * cannot be read, then the function will print a warning and return
+     * <code>null</code>.
+     * 
+     * @param inputStreamFunction The input stream function
+     * @param bufferAllocator The {@link BufferAllocator}
+     * @return The function for reading the input stream data
+     */
+    private static <T> Function<T, ByteBuffer> reading(
+        Function<? super T, ? extends InputStream> inputStreamFunction,
+        BufferAllocator bufferAllocator)
     {
         return new Function<T, ByteBuffer>()
         {
@@ -188,7 +433,7 @@ public class UriResolvers
                         return null;
                     }
                     byte data[] = IO.readStream(inputStream);
-                    return Buffers.create(data);
+                    return Buffers.create(data, bufferAllocator);
                 }
                 catch (IOException e)
                 {
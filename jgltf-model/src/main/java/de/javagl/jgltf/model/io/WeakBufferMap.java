@@ -0,0 +1,154 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A map from <code>ByteBuffer</code> instances to values, where the 
+ * buffers are compared by identity, and only referred to weakly. The
+ * entries of buffers that have been garbage collected can be removed 
+ * with {@link #expungeStaleEntries(Consumer)}.<br>
+ * <br>
+ * This class is not thread-safe.
+ *
+ * @param <V> The value type
+ */
+final class WeakBufferMap<V>
+{
+    /**
+     * The weak reference to a buffer that is used as the key of an entry
+     */
+    private static final class Key extends WeakReference<ByteBuffer>
+    {
+        /**
+         * The identity hash code of the buffer
+         */
+        private final int hashCode;
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param byteBuffer The buffer
+         * @param queue The optional reference queue
+         */
+        Key(ByteBuffer byteBuffer, ReferenceQueue<ByteBuffer> queue)
+        {
+            super(byteBuffer, queue);
+            this.hashCode = System.identityHashCode(byteBuffer);
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+        
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (!(object instanceof Key))
+            {
+                return false;
+            }
+            ByteBuffer byteBuffer = get();
+            return byteBuffer != null && byteBuffer == ((Key) object).get();
+        }
+    }
+    
+    /**
+     * The entries
+     */
+    private final Map<Key, V> entries;
+    
+    /**
+     * The queue that receives the keys of buffers that have been 
+     * garbage collected
+     */
+    private final ReferenceQueue<ByteBuffer> queue;
+    
+    /**
+     * Creates a new instance
+     */
+    WeakBufferMap()
+    {
+        this.entries = new HashMap<Key, V>();
+        this.queue = new ReferenceQueue<ByteBuffer>();
+    }
+    
+    /**
+     * Store the given value for the given buffer
+     * 
+     * @param byteBuffer The buffer
+     * @param value The value
+     */
+    void put(ByteBuffer byteBuffer, V value)
+    {
+        entries.put(new Key(byteBuffer, queue), value);
+    }
+    
+    /**
+     * Remove the entry for the given buffer
+     * 
+     * @param byteBuffer The buffer
+     * @return The value, or <code>null</code> if there was no entry
+     * for the given buffer
+     */
+    V remove(ByteBuffer byteBuffer)
+    {
+        return entries.remove(new Key(byteBuffer, null));
+    }
+    
+    /**
+     * Remove all entries whose buffers have been garbage collected, and
+     * pass their values to the given consumer
+     * 
+     * @param consumer The consumer for the values
+     */
+    void expungeStaleEntries(Consumer<? super V> consumer)
+    {
+        Reference<? extends ByteBuffer> reference;
+        while ((reference = queue.poll()) != null)
+        {
+            V value = entries.remove(reference);
+            if (value != null)
+            {
+                consumer.accept(value);
+            }
+        }
+    }
+}
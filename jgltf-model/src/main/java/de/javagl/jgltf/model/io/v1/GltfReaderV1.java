@@ -30,10 +30,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.function.Consumer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import de.javagl.jgltf.impl.v1.GlTF;
-import de.javagl.jgltf.model.io.JacksonUtils;
+import de.javagl.jgltf.model.io.GltfJsonContext;
 import de.javagl.jgltf.model.io.JsonError;
 import de.javagl.jgltf.model.io.JsonErrorConsumers;
 
@@ -53,6 +51,12 @@ public final class GltfReaderV1
     private Consumer<? super JsonError> jsonErrorConsumer = 
         JsonErrorConsumers.createLogging();
     
+    /**
+     * The {@link GltfJsonContext} for the current {@link JsonError} consumer.
+     * This is created lazily, and reused for all glTFs that are read.
+     */
+    private GltfJsonContext jsonContext;
+    
     /**
      * Creates a new glTF reader
      */
@@ -71,6 +75,7 @@ public final class GltfReaderV1
         Consumer<? super JsonError> jsonErrorConsumer)
     {
         this.jsonErrorConsumer = jsonErrorConsumer;
+        this.jsonContext = null;
     }
     
     /**
@@ -82,9 +87,11 @@ public final class GltfReaderV1
      */
     public GlTF read(InputStream inputStream) throws IOException
     {
-        ObjectMapper objectMapper = 
-            JacksonUtils.createObjectMapper(jsonErrorConsumer);
-        GlTF gltf = objectMapper.readValue(inputStream, GlTF.class);
+        if (jsonContext == null)
+        {
+            jsonContext = GltfJsonContext.create(jsonErrorConsumer);
+        }
+        GlTF gltf = jsonContext.getGltfReaderV1().readValue(inputStream);
         return gltf;
     }
     
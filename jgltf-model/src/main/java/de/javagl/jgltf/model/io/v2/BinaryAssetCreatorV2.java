@@ -79,22 +79,12 @@ final class BinaryAssetCreatorV2
      */
     GltfAssetV2 create(GltfModel gltfModel)
     {
-        GlTF outputGltf = GltfCreatorV2.create(gltfModel);
-        
         // Create the new byte buffer for the data of the "binary_glTF" Buffer
         int binaryGltfBufferSize = 
             computeBinaryGltfBufferSize(gltfModel);
         ByteBuffer binaryGltfByteBuffer = 
             Buffers.create(binaryGltfBufferSize);
 
-        // Create the binary Buffer, 
-        Buffer binaryGltfBuffer = new Buffer();
-        binaryGltfBuffer.setByteLength(binaryGltfBufferSize);
-        outputGltf.setBuffers(Collections.singletonList(binaryGltfBuffer));
-
-        // Create a defensive copy of the original image list
-        List<Image> oldImages = copy(outputGltf.getImages());
-
         // Place the data from buffers and images into the new binary glTF 
         // buffer. The mappings from IDs to offsets inside the resulting 
         // buffer will be used to compute the offsets for the buffer views
@@ -112,6 +102,41 @@ final class BinaryAssetCreatorV2
             imageDatas, binaryGltfByteBuffer);
         binaryGltfByteBuffer.position(0);
 
+        GlTF outputGltf = createBinaryGltf(gltfModel, 
+            bufferOffsets, imageOffsets, binaryGltfBufferSize);
+        return new GltfAssetV2(outputGltf, binaryGltfByteBuffer);
+    }
+    
+    /**
+     * Create the {@link GlTF} for a binary glTF asset from the given 
+     * {@link GltfModel}. The resulting glTF will have a single 
+     * {@link Buffer} with the given byte length, and {@link BufferView}
+     * objects that refer to this buffer, assuming that the data of the
+     * buffers and images is placed in this buffer, at the given offsets.
+     * 
+     * @param gltfModel The {@link GltfModel}
+     * @param bufferOffsets The mapping from buffer indices to the offsets
+     * of the buffer data inside the binary glTF buffer
+     * @param imageOffsets The mapping from image indices to the offsets
+     * of the image data inside the binary glTF buffer
+     * @param binaryGltfBufferSize The size of the binary glTF buffer
+     * @return The {@link GlTF}
+     */
+    static GlTF createBinaryGltf(GltfModel gltfModel, 
+        Map<Integer, Integer> bufferOffsets, 
+        Map<Integer, Integer> imageOffsets, 
+        int binaryGltfBufferSize)
+    {
+        GlTF outputGltf = GltfCreatorV2.create(gltfModel);
+
+        // Create the binary Buffer, 
+        Buffer binaryGltfBuffer = new Buffer();
+        binaryGltfBuffer.setByteLength(binaryGltfBufferSize);
+        outputGltf.setBuffers(Collections.singletonList(binaryGltfBuffer));
+
+        // Create a defensive copy of the original image list
+        List<Image> oldImages = copy(outputGltf.getImages());
+
         // For all existing BufferViews, create new ones that are updated to 
         // refer to the new binary glTF buffer, with the appropriate offset
         List<BufferView> oldBufferViews = 
@@ -182,7 +207,7 @@ final class BinaryAssetCreatorV2
         {
             outputGltf.setBufferViews(newBufferViews);
         }
-        return new GltfAssetV2(outputGltf, binaryGltfByteBuffer);
+        return outputGltf;
     }
 
 
@@ -193,10 +218,12 @@ final class BinaryAssetCreatorV2
      * 
      * @param gltfModel The {@link GltfModel}
      * @return The total size for the binary glTF buffer
+     * @throws IllegalArgumentException If the total size is larger
+     * than 2GB
      */
     private static int computeBinaryGltfBufferSize(GltfModel gltfModel)
     {
-        int binaryGltfBufferSize = 0;
+        long binaryGltfBufferSize = 0;
         for (BufferModel bufferModel : gltfModel.getBufferModels())
         {
             ByteBuffer bufferData = bufferModel.getBufferData();
@@ -207,7 +234,13 @@ final class BinaryAssetCreatorV2
             ByteBuffer imageData = imageModel.getImageData();
             binaryGltfBufferSize += imageData.capacity();
         }
-        return binaryGltfBufferSize;
+        if (binaryGltfBufferSize > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException("The data of the model has "
+                + "a size of " + binaryGltfBufferSize + " bytes, which is "
+                + "too large for a binary glTF buffer");
+        }
+        return (int) binaryGltfBufferSize;
     }
 
     /**
@@ -26,18 +26,16 @@
  */
 package de.javagl.jgltf.model.io.v2;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.WritableByteChannel;
-import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import de.javagl.jgltf.impl.v2.GlTF;
-import de.javagl.jgltf.model.io.Buffers;
 import de.javagl.jgltf.model.io.GltfAssetWriter;
-import de.javagl.jgltf.model.io.GltfWriter;
 
 /**
  * A class for writing a glTF 2.0 asset in binary format to an output stream.
@@ -47,29 +45,6 @@ import de.javagl.jgltf.model.io.GltfWriter;
  */
 public final class GltfAssetWriterV2
 {
-    /**
-     * The magic binary glTF header.
-     * This is an integer corresponding to the ASCII string <code>"glTF"</code>
-     */
-    private static final int MAGIC_BINARY_GLTF_HEADER = 0x46546C67;
-    
-    /**
-     * The binary glTF version that is written by this writer
-     */
-    private static final int BINARY_GLTF_VERSION = 2;
-
-    /**
-     * The constant indicating JSON chunk type for glTF 2.0
-     * This is an integer corresponding to the ASCII string <code>"JSON"</code>
-     */
-    private static final int CHUNK_TYPE_JSON = 0x4E4F534A;
-    
-    /**
-     * The constant indicating BIN chunk type for glTF 2.0
-     * This is an integer corresponding to the ASCII string <code>"BIN"</code>
-     */
-    private static final int CHUNK_TYPE_BIN = 0x004E4942;
-    
     /**
      * Default constructor
      */
@@ -91,127 +66,17 @@ public final class GltfAssetWriterV2
     public void writeBinary(GltfAssetV2 gltfAsset, OutputStream outputStream) 
         throws IOException
     {
-        // Write the JSON representation of the glTF
         GlTF gltf = gltfAsset.getGltf();
-        byte jsonData[];
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
-        {
-            GltfWriter gltfWriter = new GltfWriter();
-            gltfWriter.setIndenting(false);
-            gltfWriter.write(gltf, baos);
-            jsonData = baos.toByteArray();
-        }
-        // Ensure 4-byte-alignment for the jsonData
-        if (jsonData.length % 4 != 0)
-        {
-            int oldLength = jsonData.length;
-            int padding = 4 - (oldLength % 4);
-            jsonData = Arrays.copyOf(jsonData, oldLength + padding);
-            for (int i = 0; i < padding; i++)
-            {
-                jsonData[oldLength + i] = ' ';
-            }
-        }
-        
-        // Obtain the binary data, and ensure it's 4-byte aligned
         ByteBuffer binaryData = gltfAsset.getBinaryData();
-        if (binaryData == null)
-        {
-            binaryData = ByteBuffer.wrap(new byte[0]);
-        }
-        if (binaryData.capacity() % 4 != 0)
+        List<ByteBuffer> regions = Collections.emptyList();
+        if (binaryData != null)
         {
-            int padding = 4 - (binaryData.capacity() % 4);
-            binaryData = 
-                Buffers.copyOf(binaryData, binaryData.capacity() + padding);
+            regions = Collections.singletonList(binaryData);
         }
-
-        // Create the JSON chunk data
-        ChunkData jsonChunkData = new ChunkData();
-        jsonChunkData.append(jsonData.length);
-        jsonChunkData.append(CHUNK_TYPE_JSON);
-        jsonChunkData.append(ByteBuffer.wrap(jsonData));
-        
-        // Create the BIN chunk data
-        ChunkData binChunkData = new ChunkData();
-        binChunkData.append(binaryData.capacity());
-        binChunkData.append(CHUNK_TYPE_BIN);
-        binChunkData.append(binaryData);
-        
-        // Create the header data
-        ChunkData headerData = new ChunkData();
-        headerData.append(MAGIC_BINARY_GLTF_HEADER);
-        headerData.append(BINARY_GLTF_VERSION);
-        int length = 12 + jsonData.length + 8 + binaryData.capacity() + 8;
-        headerData.append(length);
-        
-        // Finally, write the header, JSON and BIN data to the output stream 
         @SuppressWarnings("resource")
         WritableByteChannel writableByteChannel = 
             Channels.newChannel(outputStream);
-        writableByteChannel.write(headerData.get());
-        writableByteChannel.write(jsonChunkData.get());
-        writableByteChannel.write(binChunkData.get());
+        StreamingBinaryWriterV2.write(gltf, regions, writableByteChannel);
     }
-
-    /**
-     * Utility class for collecting the data of one binary glTF 2.0 chunk
-     */
-    private static class ChunkData
-    {
-        /**
-         * The stream that will collect the data
-         */
-        private ByteArrayOutputStream baos;
-        
-        /**
-         * Default constructor
-         */
-        ChunkData()
-        {
-            baos = new ByteArrayOutputStream();
-        }
-        
-        /**
-         * Append the given value to this data
-         * 
-         * @param value The value
-         * @throws IOException If an IO error occurs
-         */
-        void append(int value) throws IOException
-        {
-            baos.write((value >> 0) & 0xFF);
-            baos.write((value >> 8) & 0xFF);
-            baos.write((value >> 16) & 0xFF);
-            baos.write((value >> 24) & 0xFF);
-        }
-        
-        /**
-         * Append the given buffer to this data
-         * 
-         * @param buffer The buffer
-         * @throws IOException If an IO error occurs
-         */
-        void append(ByteBuffer buffer) throws IOException
-        {
-            @SuppressWarnings("resource")
-            WritableByteChannel writableByteChannel = 
-                Channels.newChannel(baos);
-            writableByteChannel.write(buffer.slice());
-        }
-        
-        /**
-         * Returns the chunk data as a (non-direct!) buffer
-         * 
-         * @return The chunk data
-         */
-        ByteBuffer get()
-        {
-            return ByteBuffer.wrap(baos.toByteArray());
-        }
-        
-    }
-    
-    
     
 }
@@ -29,8 +29,12 @@ package de.javagl.jgltf.model.io.v2;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.function.Function;
 
 import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.model.AccessorModel;
 import de.javagl.jgltf.model.GltfModel;
 import de.javagl.jgltf.model.io.GltfAssetWriter;
 import de.javagl.jgltf.model.io.GltfModelWriter;
@@ -44,6 +48,17 @@ import de.javagl.jgltf.model.io.GltfWriter;
  */
 public final class GltfModelWriterV2
 {
+    /**
+     * The maximum ratio of changed elements for the sparse encoding
+     */
+    private double sparseEncodingThreshold;
+    
+    /**
+     * The function that provides the base accessor for the sparse encoding
+     */
+    private Function<? super AccessorModel, ? extends AccessorModel> 
+        sparseEncodingBaseFunction;
+    
     /**
      * Default constructor
      */
@@ -52,6 +67,45 @@ public final class GltfModelWriterV2
         // Default constructor
     }
     
+    /**
+     * Set the threshold for the sparse encoding of accessors. If this is
+     * a positive value, then the accessors of morph targets, and the 
+     * accessors for which the {@link #setSparseEncodingBaseFunction(Function)
+     * sparse encoding base function} returns a base accessor, will be
+     * written as sparse accessors, if the ratio of their elements that 
+     * differ from the base (or from zero, for morph targets) is not 
+     * larger than the given threshold, and the sparse representation is
+     * smaller than the dense one. The default value is 0.0, meaning that
+     * no sparse encoding is applied.<br>
+     * <br>
+     * When an extension object refers to buffer views, then the buffer 
+     * views that are no longer used cannot be removed, and no sparse 
+     * encoding is applied.
+     * 
+     * @param sparseEncodingThreshold The threshold, in [0, 1]
+     */
+    public void setSparseEncodingThreshold(double sparseEncodingThreshold)
+    {
+        this.sparseEncodingThreshold = sparseEncodingThreshold;
+    }
+    
+    /**
+     * Set the function that returns the base accessor for the sparse 
+     * encoding of an accessor. See 
+     * {@link #setSparseEncodingThreshold(double)} for details. The 
+     * function may return <code>null</code> for accessors that should 
+     * not be encoded against a base accessor. The default value is
+     * <code>null</code>.
+     * 
+     * @param sparseEncodingBaseFunction The function
+     */
+    public void setSparseEncodingBaseFunction(
+        Function<? super AccessorModel, ? extends AccessorModel> 
+            sparseEncodingBaseFunction)
+    {
+        this.sparseEncodingBaseFunction = sparseEncodingBaseFunction;
+    }
+    
     /**
      * Write the given {@link GltfModel} to the given file. External
      * references of buffers and images that are given via the respective 
@@ -66,7 +120,8 @@ public final class GltfModelWriterV2
     public void write(GltfModel gltfModel, File file) 
         throws IOException
     {
-        GltfAssetV2 gltfAsset = GltfAssetsV2.createDefault(gltfModel);
+        GltfAssetV2 gltfAsset = 
+            GltfAssetsV2.createDefault(applySparseEncoding(gltfModel));
         GltfAssetWriter gltfAssetWriter = new GltfAssetWriter();
         gltfAssetWriter.write(gltfAsset, file);
     }
@@ -74,7 +129,9 @@ public final class GltfModelWriterV2
     /**
      * Write the given {@link GltfModel} as a binary glTF asset to the
      * given output stream. The caller is responsible for closing the 
-     * given stream.
+     * given stream.<br>
+     * <br>
+     * See {@link #writeBinary(GltfModel, WritableByteChannel)} for details.
      * 
      * @param gltfModel The {@link GltfModel}
      * @param outputStream The output stream
@@ -83,9 +140,32 @@ public final class GltfModelWriterV2
     public void writeBinary(GltfModel gltfModel, OutputStream outputStream) 
         throws IOException
     {
-        GltfAssetV2 gltfAsset = GltfAssetsV2.createBinary(gltfModel);
-        GltfAssetWriterV2 gltfAssetWriter = new GltfAssetWriterV2();
-        gltfAssetWriter.writeBinary(gltfAsset, outputStream);
+        @SuppressWarnings("resource")
+        WritableByteChannel writableByteChannel = 
+            Channels.newChannel(outputStream);
+        writeBinary(gltfModel, writableByteChannel);
+    }
+    
+    /**
+     * Write the given {@link GltfModel} as a binary glTF asset to the
+     * given channel. The caller is responsible for closing the given
+     * channel.<br>
+     * <br>
+     * The data of the buffers and images is written directly into the
+     * channel, without being combined into a single buffer first. If the
+     * channel is a <code>FileChannel</code>, then gathering writes will 
+     * be used. The data of each buffer and image will start at a 4-byte
+     * aligned offset in the binary chunk.
+     * 
+     * @param gltfModel The {@link GltfModel}
+     * @param channel The channel
+     * @throws IOException If an IO error occurs
+     */
+    public void writeBinary(GltfModel gltfModel, WritableByteChannel channel) 
+        throws IOException
+    {
+        StreamingBinaryWriterV2.write(
+            applySparseEncoding(gltfModel), channel);
     }
     
     /**
@@ -100,9 +180,30 @@ public final class GltfModelWriterV2
     public void writeEmbedded(GltfModel gltfModel, OutputStream outputStream) 
         throws IOException
     {
-        GltfAssetV2 gltfAsset = GltfAssetsV2.createEmbedded(gltfModel);
+        GltfAssetV2 gltfAsset = 
+            GltfAssetsV2.createEmbedded(applySparseEncoding(gltfModel));
         GltfWriter gltfWriter = new GltfWriter();
         GlTF gltf = gltfAsset.getGltf();
         gltfWriter.write(gltf, outputStream);
     }
+    
+    /**
+     * Apply the sparse encoding to the given {@link GltfModel}, if the
+     * {@link #setSparseEncodingThreshold(double) sparse encoding threshold}
+     * is positive. Otherwise, the given model is returned.
+     * 
+     * @param gltfModel The {@link GltfModel}
+     * @return The {@link GltfModel} that should be written
+     */
+    private GltfModel applySparseEncoding(GltfModel gltfModel)
+    {
+        if (sparseEncodingThreshold <= 0.0)
+        {
+            return gltfModel;
+        }
+        SparseAccessorEncoderV2 sparseAccessorEncoder = 
+            new SparseAccessorEncoderV2(
+                sparseEncodingThreshold, sparseEncodingBaseFunction);
+        return sparseAccessorEncoder.encode(gltfModel);
+    }
 }
@@ -30,9 +30,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.function.Consumer;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.model.io.GltfJsonContext;
 import de.javagl.jgltf.model.io.JacksonUtils;
 import de.javagl.jgltf.model.io.JsonError;
 
@@ -52,6 +51,12 @@ public final class GltfReaderV2
     private Consumer<? super JsonError> jsonErrorConsumer = 
         JacksonUtils.loggingJsonErrorConsumer();
     
+    /**
+     * The {@link GltfJsonContext} for the current {@link JsonError} consumer.
+     * This is created lazily, and reused for all glTFs that are read.
+     */
+    private GltfJsonContext jsonContext;
+    
     /**
      * Creates a new glTF reader
      */
@@ -70,6 +75,7 @@ public final class GltfReaderV2
         Consumer<? super JsonError> jsonErrorConsumer)
     {
         this.jsonErrorConsumer = jsonErrorConsumer;
+        this.jsonContext = null;
     }
     
     /**
@@ -81,9 +87,11 @@ public final class GltfReaderV2
      */
     public GlTF read(InputStream inputStream) throws IOException
     {
-        ObjectMapper objectMapper = 
-            JacksonUtils.createObjectMapper(jsonErrorConsumer);
-        GlTF gltf = objectMapper.readValue(inputStream, GlTF.class);
+        if (jsonContext == null)
+        {
+            jsonContext = GltfJsonContext.create(jsonErrorConsumer);
+        }
+        GlTF gltf = jsonContext.getGltfReaderV2().readValue(inputStream);
         return gltf;
     }
     
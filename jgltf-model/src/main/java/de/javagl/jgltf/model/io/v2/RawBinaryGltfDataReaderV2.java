@@ -28,6 +28,8 @@ package de.javagl.jgltf.model.io.v2;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
@@ -121,6 +123,163 @@ public class RawBinaryGltfDataReaderV2
         return new RawGltfData(jsonData, binData);
     }
     
+    /**
+     * Read the {@link RawGltfData} from the given file channel, which 
+     * provides the binary glTF 2.0 data.<br>
+     * <br>
+     * In contrast to {@link #readBinaryGltf(ByteBuffer)}, the file will
+     * not have to fit into a single buffer: Only the headers will be read, 
+     * and the data of the JSON and BIN chunks will be memory-mapped 
+     * separately. The offsets of the chunks inside the file are not 
+     * limited to 2GB, and only the size of each chunk is limited to 
+     * 2GB. The returned data will consist of read-only buffers.<br>
+     * <br>
+     * Since the BIN chunk becomes the data of a single buffer, the
+     * binary data is still limited to 2GB. The headers are read with
+     * <code>long</code> positions and unsigned lengths, so that larger
+     * chunks are rejected with an <code>IOException</code>, instead of
+     * causing an arithmetic overflow.
+     * 
+     * @param fileChannel The file channel
+     * @return The {@link RawGltfData}
+     * @throws IOException If an IO error occurs, one of the chunks is
+     * larger than 2GB, or the JSON chunk is empty
+     */
+    public static RawGltfData readBinaryGltfMapped(FileChannel fileChannel)
+        throws IOException
+    {
+        int headerLength = BINARY_GLTF_VERSION_2_HEADER_LENGTH_IN_BYTES;
+        long size = fileChannel.size();
+        if (size < headerLength)
+        {
+            throw new IOException("Expected header of size " + headerLength
+                + ", but only found " + size + " bytes");
+        }
+        ByteBuffer header = read(fileChannel, 0, headerLength);
+        long length = Integer.toUnsignedLong(header.getInt(8));
+        if (length > size)
+        {
+            throw new IOException(
+                "Data length is " + size + ", expected " + length);
+        }
+        if (length < size)
+        {
+            logger.info("Data length is " + size + ", expected "
+                + length + " - truncating");
+        }
+        
+        ByteBuffer jsonData = null;
+        ByteBuffer binData = null;
+        int numChunks = 0;
+        long offset = headerLength;
+        while (offset < length)
+        {
+            ByteBuffer chunkHeader = read(fileChannel, offset, 8);
+            long chunkLength = Integer.toUnsignedLong(chunkHeader.getInt(0));
+            int chunkType = chunkHeader.getInt(4);
+            offset += 8;
+            if (offset + chunkLength > length)
+            {
+                throw new IOException("The offset for the data of chunk "
+                    + numChunks + " is " + offset + ", its length is "
+                    + chunkLength + ", but " + (offset + chunkLength)
+                    + " is larger than the length of the data, which is only "
+                    + length);
+            }
+            if (numChunks == 0)
+            {
+                if (chunkType != CHUNK_TYPE_JSON)
+                {
+                    throw new IOException("First chunk must be of type JSON ("
+                        + CHUNK_TYPE_JSON + "), but found " + chunkType);
+                }
+                if (chunkLength == 0)
+                {
+                    throw new IOException("The JSON chunk is empty");
+                }
+                jsonData = map(fileChannel, offset, chunkLength);
+            }
+            else if (numChunks == 1)
+            {
+                if (chunkType != CHUNK_TYPE_BIN)
+                {
+                    throw new IOException("Second chunk must be of type BIN ("
+                        + CHUNK_TYPE_BIN + "), but found " + chunkType);
+                }
+                binData = map(fileChannel, offset, chunkLength);
+            }
+            offset += chunkLength;
+            numChunks++;
+        }
+        if (numChunks == 0)
+        {
+            throw new IOException(
+                "Found no chunks in binary glTF data");
+        }
+        return new RawGltfData(jsonData, binData);
+    }
+    
+    /**
+     * Read the specified range of the given file channel into a new 
+     * little-endian buffer
+     * 
+     * @param fileChannel The file channel
+     * @param position The position in the file
+     * @param length The length of the range
+     * @return The buffer
+     * @throws IOException If an IO error occurs
+     */
+    private static ByteBuffer read(FileChannel fileChannel, 
+        long position, int length) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining())
+        {
+            int n = fileChannel.read(buffer, position + buffer.position());
+            if (n < 0)
+            {
+                throw new IOException("Unexpected end of file at position " 
+                    + (position + buffer.position()));
+            }
+        }
+        buffer.position(0);
+        return buffer;
+    }
+    
+    /**
+     * Memory-map the specified range of the given file channel into a 
+     * read-only, little-endian buffer. If the length is 0, then an
+     * empty buffer is returned.
+     * 
+     * @param fileChannel The file channel
+     * @param position The position in the file
+     * @param length The length of the range
+     * @return The buffer
+     * @throws IOException If an IO error occurs, or the length is larger
+     * than 2GB
+     */
+    private static ByteBuffer map(FileChannel fileChannel, 
+        long position, long length) throws IOException
+    {
+        if (length == 0)
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(0).asReadOnlyBuffer();
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+        if (length > Integer.MAX_VALUE)
+        {
+            throw new IOException("The chunk at position " + position 
+                + " has a length of " + length + " bytes, which is too "
+                + "large to be mapped into a single buffer");
+        }
+        ByteBuffer buffer = fileChannel.map(
+            FileChannel.MapMode.READ_ONLY, position, length);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+    
     /**
      * A class representing a chunk in binary glTF 2.0
      */
@@ -0,0 +1,860 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io.v2;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import de.javagl.jgltf.impl.v2.Accessor;
+import de.javagl.jgltf.impl.v2.AccessorSparse;
+import de.javagl.jgltf.impl.v2.AccessorSparseIndices;
+import de.javagl.jgltf.impl.v2.AccessorSparseValues;
+import de.javagl.jgltf.impl.v2.Buffer;
+import de.javagl.jgltf.impl.v2.BufferView;
+import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.impl.v2.Image;
+import de.javagl.jgltf.model.AccessorByteData;
+import de.javagl.jgltf.model.AccessorData;
+import de.javagl.jgltf.model.AccessorDatas;
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.AccessorIntData;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.AccessorShortData;
+import de.javagl.jgltf.model.Accessors;
+import de.javagl.jgltf.model.ElementType;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.MeshModel;
+import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.Optionals;
+import de.javagl.jgltf.model.impl.UriStrings;
+import de.javagl.jgltf.model.io.JacksonUtils;
+import de.javagl.jgltf.model.v2.GltfModelCreatorV2;
+
+/**
+ * A class for converting accessors of a {@link GltfModel} into sparse 
+ * accessors before the model is written.<br>
+ * <br>
+ * The candidates for the sparse encoding are the accessors of all morph
+ * targets, which are compared against zero, and all accessors for which
+ * the base accessor function returns a base accessor. Only the elements 
+ * that differ from the base (compared bitwise) are stored. An accessor 
+ * is only encoded when the ratio of differing elements does not exceed 
+ * the given threshold, and the sparse representation is smaller than 
+ * the dense one.<br>
+ * <br>
+ * Buffer views that are no longer used after the encoding are removed, 
+ * and the sparse data is appended to the first buffer. Extension objects
+ * may refer to buffer views (for example, in EXT_structural_metadata or
+ * EXT_meshopt_compression), and these references cannot be updated 
+ * generically. Without removing the unused buffer views, the sparse
+ * data would only make the buffer larger. So when any extension object 
+ * contains a <code>bufferView</code> or <code>bufferViews</code> 
+ * property, then no accessor is encoded.
+ */
+final class SparseAccessorEncoderV2
+{
+    /**
+     * The maximum ratio of elements that may differ from the base
+     */
+    private final double maxChangedRatio;
+    
+    /**
+     * The optional function that provides the base accessor for an accessor
+     */
+    private final Function<? super AccessorModel, ? extends AccessorModel> 
+        baseAccessorModelFunction;
+    
+    /**
+     * The sparse indices and values data that will be appended to the
+     * buffer, each padded to a multiple of 4 bytes
+     */
+    private final List<ByteBuffer> sparseDatas;
+    
+    /**
+     * The buffer views for the sparse data. Their byte offsets are 
+     * relative to the start of the sparse data until the data is
+     * appended to the buffer.
+     */
+    private final List<BufferView> sparseBufferViews;
+    
+    /**
+     * The total number of bytes of the sparse data
+     */
+    private int sparseByteLength;
+    
+    /**
+     * Creates a new encoder
+     * 
+     * @param maxChangedRatio The maximum ratio of elements that may differ
+     * from the base accessor, in [0, 1]
+     * @param baseAccessorModelFunction The function that returns the base
+     * {@link AccessorModel} for an {@link AccessorModel}, or 
+     * <code>null</code> if the accessor should not be encoded against
+     * a base. May be <code>null</code>.
+     */
+    SparseAccessorEncoderV2(double maxChangedRatio, 
+        Function<? super AccessorModel, ? extends AccessorModel> 
+            baseAccessorModelFunction)
+    {
+        this.maxChangedRatio = maxChangedRatio;
+        this.baseAccessorModelFunction = baseAccessorModelFunction;
+        this.sparseDatas = new ArrayList<ByteBuffer>();
+        this.sparseBufferViews = new ArrayList<BufferView>();
+    }
+    
+    /**
+     * Encode the given {@link GltfModel}. If no accessor was converted 
+     * into a sparse accessor, then the given model is returned. 
+     * Otherwise, a new {@link GltfModel} is returned that contains 
+     * sparse accessors. The given model is not modified.
+     * 
+     * @param gltfModel The {@link GltfModel}
+     * @return The resulting {@link GltfModel}
+     */
+    GltfModel encode(GltfModel gltfModel)
+    {
+        Map<AccessorModel, AccessorModel> candidates = 
+            computeCandidates(gltfModel);
+        if (candidates.isEmpty())
+        {
+            return gltfModel;
+        }
+        List<AccessorModel> accessorModels = gltfModel.getAccessorModels();
+        Map<AccessorModel, Integer> accessorIndices = 
+            new IdentityHashMap<AccessorModel, Integer>();
+        for (int i = 0; i < accessorModels.size(); i++)
+        {
+            accessorIndices.put(accessorModels.get(i), i);
+        }
+        
+        GltfAssetV2 gltfAsset = GltfAssetsV2.createDefault(gltfModel);
+        GlTF gltf = gltfAsset.getGltf();
+        if (containsExtensionBufferViewReference(gltf))
+        {
+            return gltfModel;
+        }
+        List<Accessor> accessors = Optionals.of(gltf.getAccessors());
+        List<BufferView> bufferViews = 
+            new ArrayList<BufferView>(Optionals.of(gltf.getBufferViews()));
+        
+        Set<Integer> replacedBufferViewIndices = new HashSet<Integer>();
+        for (Entry<AccessorModel, AccessorModel> entry : candidates.entrySet())
+        {
+            AccessorModel accessorModel = entry.getKey();
+            AccessorModel baseAccessorModel = entry.getValue();
+            Integer index = accessorIndices.get(accessorModel);
+            Integer baseIndex = null;
+            if (baseAccessorModel != null)
+            {
+                baseIndex = accessorIndices.get(baseAccessorModel);
+                if (baseIndex == null)
+                {
+                    continue;
+                }
+            }
+            if (index == null)
+            {
+                continue;
+            }
+            Accessor accessor = accessors.get(index);
+            Accessor baseAccessor = 
+                baseIndex == null ? null : accessors.get(baseIndex);
+            Integer oldBufferViewIndex = accessor.getBufferView();
+            boolean encoded = encode(accessor, accessorModel, 
+                baseAccessor, baseAccessorModel, bufferViews);
+            if (encoded && oldBufferViewIndex != null)
+            {
+                replacedBufferViewIndices.add(oldBufferViewIndex);
+            }
+        }
+        if (replacedBufferViewIndices.isEmpty() && sparseDatas.isEmpty())
+        {
+            return gltfModel;
+        }
+        
+        Map<String, ByteBuffer> referenceDatas = 
+            new LinkedHashMap<String, ByteBuffer>(
+                gltfAsset.getReferenceDatas());
+        removeBufferViews(gltf, bufferViews, 
+            replacedBufferViewIndices, referenceDatas);
+        if (!sparseDatas.isEmpty())
+        {
+            appendSparseData(gltf, referenceDatas);
+        }
+        
+        GltfAssetV2 encodedGltfAsset = new GltfAssetV2(gltf, null);
+        for (Entry<String, ByteBuffer> entry : referenceDatas.entrySet())
+        {
+            encodedGltfAsset.putReferenceData(entry.getKey(), entry.getValue());
+        }
+        return GltfModelCreatorV2.create(encodedGltfAsset);
+    }
+    
+    /**
+     * Returns whether any extension object in the given {@link GlTF} 
+     * contains a <code>bufferView</code> or <code>bufferViews</code> 
+     * property, at any nesting level
+     * 
+     * @param gltf The {@link GlTF}
+     * @return Whether an extension may refer to a buffer view
+     */
+    private static boolean containsExtensionBufferViewReference(GlTF gltf)
+    {
+        JsonNode root = 
+            JacksonUtils.createObjectMapper().valueToTree(gltf);
+        return containsBufferViewReference(root, false);
+    }
+    
+    /**
+     * Returns whether the given node contains a <code>bufferView</code> 
+     * or <code>bufferViews</code> property inside of an 
+     * <code>extensions</code> object
+     * 
+     * @param node The node
+     * @param inExtension Whether the node is part of an extension object
+     * @return Whether the node contains a buffer view reference
+     */
+    private static boolean containsBufferViewReference(
+        JsonNode node, boolean inExtension)
+    {
+        if (node.isArray())
+        {
+            for (JsonNode element : node)
+            {
+                if (containsBufferViewReference(element, inExtension))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+        Iterator<Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext())
+        {
+            Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            if (inExtension && 
+                (name.equals("bufferView") || name.equals("bufferViews")))
+            {
+                return true;
+            }
+            boolean childInExtension = 
+                inExtension || name.equals("extensions");
+            if (containsBufferViewReference(
+                field.getValue(), childInExtension))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Compute the mapping from candidate accessors to their base accessors.
+     * The base accessor will be <code>null</code> for morph target 
+     * accessors that are encoded against zero. Accessors that are used
+     * as a base accessor will not be candidates themself.
+     * 
+     * @param gltfModel The {@link GltfModel}
+     * @return The mapping
+     */
+    private Map<AccessorModel, AccessorModel> computeCandidates(
+        GltfModel gltfModel)
+    {
+        Map<AccessorModel, AccessorModel> candidates = 
+            new LinkedHashMap<AccessorModel, AccessorModel>();
+        for (MeshModel meshModel : gltfModel.getMeshModels())
+        {
+            for (MeshPrimitiveModel meshPrimitiveModel : 
+                meshModel.getMeshPrimitiveModels())
+            {
+                for (Map<String, AccessorModel> target : 
+                    meshPrimitiveModel.getTargets())
+                {
+                    for (AccessorModel accessorModel : target.values())
+                    {
+                        candidates.put(accessorModel, null);
+                    }
+                }
+            }
+        }
+        if (baseAccessorModelFunction != null)
+        {
+            for (AccessorModel accessorModel : gltfModel.getAccessorModels())
+            {
+                AccessorModel baseAccessorModel = 
+                    baseAccessorModelFunction.apply(accessorModel);
+                if (baseAccessorModel != null && 
+                    baseAccessorModel != accessorModel)
+                {
+                    candidates.put(accessorModel, baseAccessorModel);
+                }
+            }
+        }
+        Set<AccessorModel> baseAccessorModels = Collections.newSetFromMap(
+            new IdentityHashMap<AccessorModel, Boolean>());
+        for (AccessorModel baseAccessorModel : candidates.values())
+        {
+            if (baseAccessorModel != null)
+            {
+                baseAccessorModels.add(baseAccessorModel);
+            }
+        }
+        candidates.keySet().removeAll(baseAccessorModels);
+        return candidates;
+    }
+    
+    /**
+     * Try to encode the given {@link Accessor} as a sparse accessor.
+     * If the accessor is encoded, then the given {@link Accessor} will
+     * be modified to refer to the buffer view of the base accessor (if
+     * any), and to the sparse data, and the buffer views for the sparse
+     * data will be added to the given list.
+     * 
+     * @param accessor The {@link Accessor}
+     * @param accessorModel The {@link AccessorModel}
+     * @param baseAccessor The base {@link Accessor}, or <code>null</code>
+     * @param baseAccessorModel The base {@link AccessorModel}, or 
+     * <code>null</code>
+     * @param bufferViews The list of all buffer views
+     * @return Whether the accessor was encoded
+     */
+    private boolean encode(Accessor accessor, AccessorModel accessorModel, 
+        Accessor baseAccessor, AccessorModel baseAccessorModel,
+        List<BufferView> bufferViews)
+    {
+        if (accessor.getSparse() != null || accessor.getBufferView() == null)
+        {
+            return false;
+        }
+        AccessorData accessorData = accessorModel.getAccessorData();
+        if (accessorData == null)
+        {
+            return false;
+        }
+        int componentType = accessorModel.getComponentType();
+        ElementType elementType = accessorModel.getElementType();
+        int count = accessorModel.getCount();
+        int numComponents = elementType.getNumComponents();
+        int componentSize = 
+            Accessors.getNumBytesForAccessorComponentType(componentType);
+        int elementSize = elementType.getByteStride(componentType);
+        if (elementSize != numComponents * componentSize)
+        {
+            // Matrices with column padding are not encoded
+            return false;
+        }
+        AccessorData baseAccessorData = null;
+        if (baseAccessor != null)
+        {
+            if (baseAccessor.getSparse() != null || 
+                baseAccessor.getBufferView() == null ||
+                baseAccessorModel.getComponentType() != componentType ||
+                baseAccessorModel.getElementType() != elementType ||
+                baseAccessorModel.getCount() != count)
+            {
+                return false;
+            }
+            baseAccessorData = baseAccessorModel.getAccessorData();
+            if (baseAccessorData == null)
+            {
+                return false;
+            }
+        }
+        
+        int changed[] = new int[count];
+        int numChanged = 0;
+        int maxChanged = (int)(maxChangedRatio * count);
+        for (int e = 0; e < count; e++)
+        {
+            if (!equalElements(accessorData, baseAccessorData, e))
+            {
+                if (numChanged >= maxChanged)
+                {
+                    return false;
+                }
+                changed[numChanged] = e;
+                numChanged++;
+            }
+        }
+        
+        if (numChanged > 0)
+        {
+            int indicesComponentType = 
+                computeIndicesComponentType(changed[numChanged - 1]);
+            int indicesByteLength = numChanged * 
+                Accessors.getNumBytesForAccessorComponentType(
+                    indicesComponentType);
+            int valuesByteLength = numChanged * elementSize;
+            int denseByteLength = count * elementSize;
+            if (indicesByteLength + valuesByteLength >= denseByteLength)
+            {
+                return false;
+            }
+            
+            ByteBuffer indicesData = ByteBuffer.allocate(
+                align(indicesByteLength)).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < numChanged; i++)
+            {
+                int index = changed[i];
+                if (indicesComponentType == 
+                    GltfConstants.GL_UNSIGNED_BYTE)
+                {
+                    indicesData.put((byte)index);
+                }
+                else if (indicesComponentType == 
+                    GltfConstants.GL_UNSIGNED_SHORT)
+                {
+                    indicesData.putShort((short)index);
+                }
+                else
+                {
+                    indicesData.putInt(index);
+                }
+            }
+            indicesData.position(0);
+            
+            ByteBuffer valuesData = ByteBuffer.allocate(
+                align(valuesByteLength)).order(ByteOrder.LITTLE_ENDIAN);
+            AccessorData sparseValuesData = AccessorDatas.create(
+                componentType, valuesData, 0, numChanged, elementType, null);
+            for (int i = 0; i < numChanged; i++)
+            {
+                copyElement(accessorData, changed[i], sparseValuesData, i);
+            }
+            
+            AccessorSparseIndices accessorSparseIndices = 
+                new AccessorSparseIndices();
+            accessorSparseIndices.setBufferView(addSparseBufferView(
+                bufferViews, indicesData, indicesByteLength));
+            accessorSparseIndices.setComponentType(indicesComponentType);
+            
+            AccessorSparseValues accessorSparseValues = 
+                new AccessorSparseValues();
+            accessorSparseValues.setBufferView(addSparseBufferView(
+                bufferViews, valuesData, valuesByteLength));
+            
+            AccessorSparse accessorSparse = new AccessorSparse();
+            accessorSparse.setCount(numChanged);
+            accessorSparse.setIndices(accessorSparseIndices);
+            accessorSparse.setValues(accessorSparseValues);
+            accessor.setSparse(accessorSparse);
+        }
+        if (baseAccessor != null)
+        {
+            accessor.setBufferView(baseAccessor.getBufferView());
+            accessor.setByteOffset(baseAccessor.getByteOffset());
+        }
+        else
+        {
+            accessor.setBufferView(null);
+            accessor.setByteOffset(null);
+        }
+        return true;
+    }
+    
+    /**
+     * Add a new {@link BufferView} for the given sparse data to the given
+     * list, and store the data so that it can later be appended to the
+     * buffer.
+     * 
+     * @param bufferViews The list of all buffer views
+     * @param data The data, with a size that is a multiple of 4
+     * @param byteLength The actual length of the data
+     * @return The index of the new {@link BufferView}
+     */
+    private int addSparseBufferView(List<BufferView> bufferViews, 
+        ByteBuffer data, int byteLength)
+    {
+        BufferView bufferView = new BufferView();
+        bufferView.setByteOffset(sparseByteLength);
+        bufferView.setByteLength(byteLength);
+        sparseDatas.add(data);
+        sparseBufferViews.add(bufferView);
+        sparseByteLength += data.capacity();
+        bufferViews.add(bufferView);
+        return bufferViews.size() - 1;
+    }
+    
+    /**
+     * Remove the buffer views with the given indices from the given 
+     * {@link GlTF}, if they are no longer referred to, update all 
+     * buffer view references accordingly, and remove the data of
+     * the removed buffer views from the buffers
+     * 
+     * @param gltf The {@link GlTF}
+     * @param bufferViews The list of all buffer views, including the
+     * buffer views for the sparse data
+     * @param candidateIndices The indices of buffer views that may have
+     * become unused
+     * @param referenceDatas The buffer datas, which will be updated
+     */
+    private static void removeBufferViews(GlTF gltf, 
+        List<BufferView> bufferViews, Set<Integer> candidateIndices,
+        Map<String, ByteBuffer> referenceDatas)
+    {
+        List<Accessor> accessors = Optionals.of(gltf.getAccessors());
+        List<Image> images = Optionals.of(gltf.getImages());
+        List<Buffer> buffers = Optionals.of(gltf.getBuffers());
+        
+        Set<Integer> usedIndices = new HashSet<Integer>();
+        for (Accessor accessor : accessors)
+        {
+            addIfNotNull(usedIndices, accessor.getBufferView());
+            AccessorSparse accessorSparse = accessor.getSparse();
+            if (accessorSparse != null)
+            {
+                addIfNotNull(usedIndices, 
+                    accessorSparse.getIndices().getBufferView());
+                addIfNotNull(usedIndices, 
+                    accessorSparse.getValues().getBufferView());
+            }
+        }
+        for (Image image : images)
+        {
+            addIfNotNull(usedIndices, image.getBufferView());
+        }
+        
+        Set<Integer> removedIndices = new HashSet<Integer>(candidateIndices);
+        removedIndices.removeAll(usedIndices);
+        
+        Set<Integer> affectedBufferIndices = new HashSet<Integer>();
+        int newIndices[] = new int[bufferViews.size()];
+        List<BufferView> newBufferViews = new ArrayList<BufferView>();
+        for (int i = 0; i < bufferViews.size(); i++)
+        {
+            BufferView bufferView = bufferViews.get(i);
+            if (removedIndices.contains(i))
+            {
+                newIndices[i] = -1;
+                affectedBufferIndices.add(bufferView.getBuffer());
+            }
+            else
+            {
+                newIndices[i] = newBufferViews.size();
+                newBufferViews.add(bufferView);
+            }
+        }
+        
+        for (Accessor accessor : accessors)
+        {
+            accessor.setBufferView(remap(newIndices, accessor.getBufferView()));
+            AccessorSparse accessorSparse = accessor.getSparse();
+            if (accessorSparse != null)
+            {
+                AccessorSparseIndices indices = accessorSparse.getIndices();
+                indices.setBufferView(remap(newIndices, indices.getBufferView()));
+                AccessorSparseValues values = accessorSparse.getValues();
+                values.setBufferView(remap(newIndices, values.getBufferView()));
+            }
+        }
+        for (Image image : images)
+        {
+            image.setBufferView(remap(newIndices, image.getBufferView()));
+        }
+        gltf.setBufferViews(newBufferViews.isEmpty() ? null : newBufferViews);
+        
+        for (Integer bufferIndex : affectedBufferIndices)
+        {
+            Buffer buffer = buffers.get(bufferIndex);
+            ByteBuffer oldData = referenceDatas.get(buffer.getUri());
+            ByteBuffer newData = compact(bufferIndex, newBufferViews, oldData);
+            buffer.setByteLength(newData.capacity());
+            referenceDatas.put(buffer.getUri(), newData);
+        }
+    }
+    
+    /**
+     * Create a new buffer data that only contains the data of the buffer
+     * views that refer to the buffer with the given index, and update the
+     * byte offsets of these buffer views accordingly. The data of each
+     * buffer view will start at a 4-byte aligned offset.
+     * 
+     * @param bufferIndex The buffer index
+     * @param bufferViews The buffer views
+     * @param oldData The old buffer data
+     * @return The new buffer data
+     */
+    private static ByteBuffer compact(int bufferIndex, 
+        List<BufferView> bufferViews, ByteBuffer oldData)
+    {
+        List<BufferView> keptBufferViews = new ArrayList<BufferView>();
+        for (BufferView bufferView : bufferViews)
+        {
+            Integer buffer = bufferView.getBuffer();
+            if (buffer != null && buffer == bufferIndex)
+            {
+                keptBufferViews.add(bufferView);
+            }
+        }
+        keptBufferViews.sort(Comparator.comparingInt(
+            bufferView -> Optionals.of(bufferView.getByteOffset(), 
+                bufferView.defaultByteOffset())));
+        
+        int newByteLength = 0;
+        for (BufferView bufferView : keptBufferViews)
+        {
+            newByteLength = align(newByteLength) + bufferView.getByteLength();
+        }
+        ByteBuffer newData = ByteBuffer.allocate(newByteLength);
+        int newByteOffset = 0;
+        for (BufferView bufferView : keptBufferViews)
+        {
+            newByteOffset = align(newByteOffset);
+            int oldByteOffset = Optionals.of(bufferView.getByteOffset(), 
+                bufferView.defaultByteOffset());
+            int byteLength = bufferView.getByteLength();
+            ByteBuffer slice = oldData.slice();
+            slice.position(oldByteOffset);
+            slice.limit(oldByteOffset + byteLength);
+            newData.position(newByteOffset);
+            newData.put(slice);
+            bufferView.setByteOffset(newByteOffset);
+            newByteOffset += byteLength;
+        }
+        newData.position(0);
+        return newData;
+    }
+    
+    /**
+     * Append the sparse data to the first buffer of the given 
+     * {@link GlTF}, creating a new buffer if necessary, and update
+     * the buffer views of the sparse data accordingly
+     * 
+     * @param gltf The {@link GlTF}
+     * @param referenceDatas The buffer datas, which will be updated
+     */
+    private void appendSparseData(GlTF gltf, 
+        Map<String, ByteBuffer> referenceDatas)
+    {
+        List<Buffer> buffers = Optionals.of(gltf.getBuffers());
+        Buffer buffer = null;
+        ByteBuffer oldData = null;
+        if (buffers.isEmpty())
+        {
+            buffer = new Buffer();
+            buffer.setUri(UriStrings.createBufferUriString(
+                referenceDatas.keySet()));
+            gltf.addBuffers(buffer);
+            oldData = ByteBuffer.allocate(0);
+        }
+        else
+        {
+            buffer = buffers.get(0);
+            oldData = referenceDatas.get(buffer.getUri());
+        }
+        int sparseByteOffset = align(oldData.capacity());
+        ByteBuffer newData = 
+            ByteBuffer.allocate(sparseByteOffset + sparseByteLength);
+        newData.put(oldData.slice());
+        newData.position(sparseByteOffset);
+        for (ByteBuffer sparseData : sparseDatas)
+        {
+            newData.put(sparseData.slice());
+        }
+        newData.position(0);
+        for (BufferView bufferView : sparseBufferViews)
+        {
+            bufferView.setBuffer(0);
+            bufferView.setByteOffset(
+                sparseByteOffset + bufferView.getByteOffset());
+        }
+        buffer.setByteLength(newData.capacity());
+        referenceDatas.put(buffer.getUri(), newData);
+    }
+    
+    /**
+     * Returns whether the element with the given index of the given 
+     * accessor data is bitwise equal to the corresponding element of
+     * the given base data. If the base data is <code>null</code>, then
+     * it returns whether all components of the element are zero.
+     * 
+     * @param data The {@link AccessorData}
+     * @param baseData The base {@link AccessorData}
+     * @param e The element index
+     * @return Whether the elements are equal
+     */
+    private static boolean equalElements(
+        AccessorData data, AccessorData baseData, int e)
+    {
+        int n = data.getNumComponentsPerElement();
+        for (int c = 0; c < n; c++)
+        {
+            if (componentBits(data, e, c) != 
+                (baseData == null ? 0 : componentBits(baseData, e, c)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Returns the raw bits of the specified component of the given 
+     * {@link AccessorData}, as an int value
+     * 
+     * @param data The {@link AccessorData}
+     * @param e The element index
+     * @param c The component index
+     * @return The bits
+     */
+    private static int componentBits(AccessorData data, int e, int c)
+    {
+        if (data instanceof AccessorFloatData)
+        {
+            AccessorFloatData floatData = (AccessorFloatData)data;
+            return Float.floatToRawIntBits(floatData.get(e, c));
+        }
+        if (data instanceof AccessorIntData)
+        {
+            AccessorIntData intData = (AccessorIntData)data;
+            return intData.get(e, c);
+        }
+        if (data instanceof AccessorShortData)
+        {
+            AccessorShortData shortData = (AccessorShortData)data;
+            return shortData.get(e, c);
+        }
+        AccessorByteData byteData = (AccessorByteData)data;
+        return byteData.get(e, c);
+    }
+    
+    /**
+     * Copy the specified element from the given source to the given 
+     * target. Both must have the same type.
+     * 
+     * @param source The source {@link AccessorData}
+     * @param sourceIndex The source element index
+     * @param target The target {@link AccessorData}
+     * @param targetIndex The target element index
+     */
+    private static void copyElement(AccessorData source, int sourceIndex, 
+        AccessorData target, int targetIndex)
+    {
+        int n = source.getNumComponentsPerElement();
+        for (int c = 0; c < n; c++)
+        {
+            if (source instanceof AccessorFloatData)
+            {
+                ((AccessorFloatData)target).set(targetIndex, c, 
+                    ((AccessorFloatData)source).get(sourceIndex, c));
+            }
+            else if (source instanceof AccessorIntData)
+            {
+                ((AccessorIntData)target).set(targetIndex, c, 
+                    ((AccessorIntData)source).get(sourceIndex, c));
+            }
+            else if (source instanceof AccessorShortData)
+            {
+                ((AccessorShortData)target).set(targetIndex, c, 
+                    ((AccessorShortData)source).get(sourceIndex, c));
+            }
+            else
+            {
+                ((AccessorByteData)target).set(targetIndex, c, 
+                    ((AccessorByteData)source).get(sourceIndex, c));
+            }
+        }
+    }
+    
+    /**
+     * Returns the smallest component type that can store the given 
+     * maximum index
+     * 
+     * @param maxIndex The maximum index
+     * @return The component type
+     */
+    private static int computeIndicesComponentType(int maxIndex)
+    {
+        if (maxIndex < 256)
+        {
+            return GltfConstants.GL_UNSIGNED_BYTE;
+        }
+        if (maxIndex < 65536)
+        {
+            return GltfConstants.GL_UNSIGNED_SHORT;
+        }
+        return GltfConstants.GL_UNSIGNED_INT;
+    }
+    
+    /**
+     * Returns the new index for the given buffer view index
+     * 
+     * @param newIndices The new indices
+     * @param index The old index, or <code>null</code>
+     * @return The new index, or <code>null</code>
+     */
+    private static Integer remap(int newIndices[], Integer index)
+    {
+        if (index == null)
+        {
+            return null;
+        }
+        return newIndices[index];
+    }
+    
+    /**
+     * Add the given value to the given set if it is not <code>null</code>
+     * 
+     * @param set The set
+     * @param value The value
+     */
+    private static void addIfNotNull(Set<Integer> set, Integer value)
+    {
+        if (value != null)
+        {
+            set.add(value);
+        }
+    }
+    
+    /**
+     * Returns the smallest multiple of 4 that is not smaller than the 
+     * given value
+     * 
+     * @param value The value
+     * @return The aligned value
+     */
+    private static int align(int value)
+    {
+        return (value + 3) & ~3;
+    }
+}
@@ -0,0 +1,445 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ *
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ *
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.jgltf.model.io.v2;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.model.BufferModel;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.ImageModel;
+import de.javagl.jgltf.model.io.GltfWriter;
+
+/**
+ * A class for writing binary glTF 2.0 data to a channel, without creating
+ * intermediate copies of the data.<br>
+ * <br>
+ * The lengths of all chunks are computed before anything is written.
+ * The JSON is then serialized directly into the channel, and the data
+ * of all buffers and images is written into the BIN chunk, one after
+ * another, with the padding being inserted on the fly. If the channel
+ * is a {@link GatheringByteChannel} (like a <code>FileChannel</code>),
+ * then the BIN chunk will be written with gathering writes.
+ */
+final class StreamingBinaryWriterV2
+{
+    /**
+     * The magic binary glTF header.
+     * This is an integer corresponding to the ASCII string <code>"glTF"</code>
+     */
+    private static final int MAGIC_BINARY_GLTF_HEADER = 0x46546C67;
+
+    /**
+     * The binary glTF version that is written by this writer
+     */
+    private static final int BINARY_GLTF_VERSION = 2;
+
+    /**
+     * The constant indicating JSON chunk type for glTF 2.0
+     * This is an integer corresponding to the ASCII string <code>"JSON"</code>
+     */
+    private static final int CHUNK_TYPE_JSON = 0x4E4F534A;
+
+    /**
+     * The constant indicating BIN chunk type for glTF 2.0
+     * This is an integer corresponding to the ASCII string <code>"BIN"</code>
+     */
+    private static final int CHUNK_TYPE_BIN = 0x004E4942;
+
+    /**
+     * The maximum size of the pieces that the buffers are split into
+     * for writing. Writing a heap buffer to a channel causes a temporary
+     * direct buffer to be allocated for its remaining bytes, so large
+     * buffers are written in pieces of this size.
+     */
+    private static final int MAX_PIECE_SIZE = 1 << 22;
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private StreamingBinaryWriterV2()
+    {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Write the given {@link GltfModel} as a binary glTF asset to the
+     * given channel. The caller is responsible for closing the given
+     * channel.<br>
+     * <br>
+     * The data of all buffers and images will be placed into the BIN
+     * chunk, each starting at a 4-byte aligned offset.
+     *
+     * @param gltfModel The {@link GltfModel}
+     * @param channel The channel
+     * @throws IOException If an IO error occurs, or the data of the
+     * model is too large for a binary glTF
+     */
+    static void write(GltfModel gltfModel, WritableByteChannel channel)
+        throws IOException
+    {
+        List<ByteBuffer> regions = new ArrayList<ByteBuffer>();
+        for (BufferModel bufferModel : gltfModel.getBufferModels())
+        {
+            regions.add(bufferModel.getBufferData());
+        }
+        for (ImageModel imageModel : gltfModel.getImageModels())
+        {
+            regions.add(imageModel.getImageData());
+        }
+        long offsets[] = computeAlignedOffsets(regions);
+        long binaryLength = offsets[regions.size()];
+        if (binaryLength > Integer.MAX_VALUE)
+        {
+            throw new IOException("The data of the model has a size of "
+                + binaryLength + " bytes, which is too large for a "
+                + "binary glTF buffer");
+        }
+
+        int numBuffers = gltfModel.getBufferModels().size();
+        Map<Integer, Integer> bufferOffsets =
+            new LinkedHashMap<Integer, Integer>();
+        Map<Integer, Integer> imageOffsets =
+            new LinkedHashMap<Integer, Integer>();
+        for (int i = 0; i < regions.size(); i++)
+        {
+            if (i < numBuffers)
+            {
+                bufferOffsets.put(i, (int) offsets[i]);
+            }
+            else
+            {
+                imageOffsets.put(i - numBuffers, (int) offsets[i]);
+            }
+        }
+        GlTF gltf = BinaryAssetCreatorV2.createBinaryGltf(
+            gltfModel, bufferOffsets, imageOffsets, (int) binaryLength);
+        write(gltf, regions, channel);
+    }
+
+    /**
+     * Write a binary glTF asset with the given {@link GlTF} to the given
+     * channel. The BIN chunk will contain the given buffers, each starting
+     * at a 4-byte aligned offset. The caller is responsible for closing
+     * the given channel.
+     *
+     * @param gltf The {@link GlTF}
+     * @param regions The buffers for the BIN chunk
+     * @param channel The channel
+     * @throws IOException If an IO error occurs, or the resulting
+     * binary glTF would be too large
+     */
+    static void write(GlTF gltf, List<? extends ByteBuffer> regions,
+        WritableByteChannel channel) throws IOException
+    {
+        GltfWriter gltfWriter = new GltfWriter();
+        gltfWriter.setIndenting(false);
+
+        // Compute the length of the JSON data by writing it into a stream
+        // that only counts the bytes
+        CountingOutputStream countingOutputStream =
+            new CountingOutputStream(null);
+        gltfWriter.write(gltf, countingOutputStream);
+        long jsonLength = countingOutputStream.getCount();
+        int jsonPadding = computePadding(jsonLength);
+
+        long offsets[] = computeAlignedOffsets(regions);
+        long binaryLength = offsets[regions.size()];
+
+        long length = 12 + 8 + jsonLength + jsonPadding + 8 + binaryLength;
+        if (length > 0xFFFFFFFFL)
+        {
+            throw new IOException("The binary glTF would have a size of "
+                + length + " bytes, which is larger than the maximum "
+                + "size of " + 0xFFFFFFFFL + " bytes");
+        }
+
+        // Write the header and the JSON chunk header
+        ByteBuffer header = createBuffer(12 + 8);
+        header.putInt(MAGIC_BINARY_GLTF_HEADER);
+        header.putInt(BINARY_GLTF_VERSION);
+        header.putInt((int) length);
+        header.putInt((int) (jsonLength + jsonPadding));
+        header.putInt(CHUNK_TYPE_JSON);
+        header.flip();
+        writeFully(channel, header);
+
+        // Write the JSON directly into the channel
+        @SuppressWarnings("resource")
+        OutputStream channelOutputStream = Channels.newOutputStream(channel);
+        CountingOutputStream jsonOutputStream =
+            new CountingOutputStream(channelOutputStream);
+        gltfWriter.write(gltf, jsonOutputStream);
+        if (jsonOutputStream.getCount() != jsonLength)
+        {
+            throw new IOException("Expected " + jsonLength
+                + " bytes of JSON data, but wrote "
+                + jsonOutputStream.getCount());
+        }
+
+        // Collect the JSON padding, the BIN chunk header, and all
+        // buffers with their padding, and write them
+        List<ByteBuffer> pieces = new ArrayList<ByteBuffer>();
+        ByteBuffer binHeader = createBuffer(jsonPadding + 8);
+        for (int i = 0; i < jsonPadding; i++)
+        {
+            binHeader.put((byte) ' ');
+        }
+        binHeader.putInt((int) binaryLength);
+        binHeader.putInt(CHUNK_TYPE_BIN);
+        binHeader.flip();
+        pieces.add(binHeader);
+        for (int i = 0; i < regions.size(); i++)
+        {
+            ByteBuffer region = regions.get(i);
+            if (region != null)
+            {
+                addPieces(region.slice(), pieces);
+            }
+            int padding = (int) (offsets[i + 1] - offsets[i]
+                - capacity(region));
+            if (padding > 0)
+            {
+                pieces.add(ByteBuffer.allocate(padding));
+            }
+        }
+        writeFully(channel, pieces.toArray(new ByteBuffer[0]));
+    }
+
+    /**
+     * Compute the offsets of the given buffers when they are placed
+     * one after another, each starting at a 4-byte aligned offset.
+     * The returned array will contain one additional element, namely
+     * the total (padded) size. Buffers that are <code>null</code> will
+     * be treated as empty buffers.
+     *
+     * @param regions The buffers
+     * @return The offsets
+     */
+    private static long[] computeAlignedOffsets(
+        List<? extends ByteBuffer> regions)
+    {
+        long offsets[] = new long[regions.size() + 1];
+        long offset = 0;
+        for (int i = 0; i < regions.size(); i++)
+        {
+            offsets[i] = offset;
+            long size = capacity(regions.get(i));
+            offset += size + computePadding(size);
+        }
+        offsets[regions.size()] = offset;
+        return offsets;
+    }
+
+    /**
+     * Returns the capacity of the given buffer, or 0 if the given buffer
+     * is <code>null</code>
+     *
+     * @param buffer The buffer
+     * @return The capacity
+     */
+    private static int capacity(ByteBuffer buffer)
+    {
+        if (buffer == null)
+        {
+            return 0;
+        }
+        return buffer.capacity();
+    }
+
+    /**
+     * Returns the number of bytes that have to be added to the given
+     * size in order to make it a multiple of 4
+     *
+     * @param size The size
+     * @return The padding
+     */
+    private static int computePadding(long size)
+    {
+        return (int) ((4 - (size % 4)) % 4);
+    }
+
+    /**
+     * Create a new little-endian heap buffer with the given size
+     *
+     * @param size The size
+     * @return The buffer
+     */
+    private static ByteBuffer createBuffer(int size)
+    {
+        return ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Add slices of the given buffer to the given list, each having at
+     * most a size of {@link #MAX_PIECE_SIZE}. Direct buffers will be
+     * added as they are.
+     *
+     * @param buffer The buffer
+     * @param pieces The list of pieces
+     */
+    private static void addPieces(ByteBuffer buffer, List<ByteBuffer> pieces)
+    {
+        if (buffer.isDirect())
+        {
+            pieces.add(buffer);
+            return;
+        }
+        int position = 0;
+        int size = buffer.remaining();
+        while (position < size)
+        {
+            int pieceSize = Math.min(MAX_PIECE_SIZE, size - position);
+            ByteBuffer piece = buffer.duplicate();
+            piece.position(position);
+            piece.limit(position + pieceSize);
+            pieces.add(piece.slice());
+            position += pieceSize;
+        }
+    }
+
+    /**
+     * Write all remaining bytes of the given buffers to the given channel.
+     * If the channel is a {@link GatheringByteChannel}, then gathering
+     * writes will be used.
+     *
+     * @param channel The channel
+     * @param buffers The buffers
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeFully(WritableByteChannel channel,
+        ByteBuffer ... buffers) throws IOException
+    {
+        if (channel instanceof GatheringByteChannel)
+        {
+            GatheringByteChannel gatheringByteChannel =
+                (GatheringByteChannel) channel;
+            int index = 0;
+            while (index < buffers.length)
+            {
+                gatheringByteChannel.write(
+                    buffers, index, buffers.length - index);
+                while (index < buffers.length &&
+                    !buffers[index].hasRemaining())
+                {
+                    index++;
+                }
+            }
+            return;
+        }
+        for (ByteBuffer buffer : buffers)
+        {
+            while (buffer.hasRemaining())
+            {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * An output stream that counts the bytes that are written to it, and
+     * passes them to an optional delegate. Closing this stream will only
+     * flush the delegate, but not close it.
+     */
+    private static class CountingOutputStream extends OutputStream
+    {
+        /**
+         * The optional delegate
+         */
+        private final OutputStream delegate;
+
+        /**
+         * The number of bytes that have been written
+         */
+        private long count;
+
+        /**
+         * Creates a new instance
+         *
+         * @param delegate The optional delegate
+         */
+        CountingOutputStream(OutputStream delegate)
+        {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Returns the number of bytes that have been written
+         *
+         * @return The number of bytes
+         */
+        long getCount()
+        {
+            return count;
+        }
+
+        @Override
+        public void write(int b) throws IOException
+        {
+            if (delegate != null)
+            {
+                delegate.write(b);
+            }
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException
+        {
+            if (delegate != null)
+            {
+                delegate.write(b, off, len);
+            }
+            count += len;
+        }
+
+        @Override
+        public void flush() throws IOException
+        {
+            if (delegate != null)
+            {
+                delegate.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            flush();
+        }
+    }
+}
@@ -66,7 +66,7 @@ import de.javagl.jgltf.impl.v1.TechniqueParameters;
 import de.javagl.jgltf.impl.v1.TechniqueStates;
 import de.javagl.jgltf.impl.v1.TechniqueStatesFunctions;
 import de.javagl.jgltf.impl.v1.Texture;
-import de.javagl.jgltf.model.AccessorData;
+import de.javagl.jgltf.model.AccessorBounds;
 import de.javagl.jgltf.model.AccessorDatas;
 import de.javagl.jgltf.model.AccessorModel;
 import de.javagl.jgltf.model.AnimationModel;
@@ -432,9 +432,12 @@ public class GltfCreatorV1
         accessor.setType(accessorModel.getElementType().toString());
         accessor.setByteStride(accessorModel.getByteStride());
         
-        AccessorData accessorData = accessorModel.getAccessorData();
-        accessor.setMax(AccessorDatas.computeMax(accessorData));
-        accessor.setMin(AccessorDatas.computeMin(accessorData));
+        // The bounds are computed from the current data, because the 
+        // cached bounds of the model do not reflect in-place changes
+        AccessorBounds accessorBounds = 
+            AccessorDatas.computeBounds(accessorModel.getAccessorData());
+        accessor.setMax(accessorBounds.createMaxNumbers());
+        accessor.setMin(accessorBounds.createMinNumbers());
         
         return accessor;
     }
@@ -38,6 +38,9 @@ import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import de.javagl.jgltf.impl.v2.Accessor;
+import de.javagl.jgltf.impl.v2.AccessorSparse;
+import de.javagl.jgltf.impl.v2.AccessorSparseIndices;
+import de.javagl.jgltf.impl.v2.AccessorSparseValues;
 import de.javagl.jgltf.impl.v2.Animation;
 import de.javagl.jgltf.impl.v2.AnimationChannel;
 import de.javagl.jgltf.impl.v2.AnimationChannelTarget;
@@ -63,9 +66,10 @@ import de.javagl.jgltf.impl.v2.Scene;
 import de.javagl.jgltf.impl.v2.Skin;
 import de.javagl.jgltf.impl.v2.Texture;
 import de.javagl.jgltf.impl.v2.TextureInfo;
-import de.javagl.jgltf.model.AccessorData;
+import de.javagl.jgltf.model.AccessorBounds;
 import de.javagl.jgltf.model.AccessorDatas;
 import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.AccessorSparseModel;
 import de.javagl.jgltf.model.AnimationModel;
 import de.javagl.jgltf.model.AssetModel;
 import de.javagl.jgltf.model.AnimationModel.Channel;
@@ -381,9 +385,64 @@ public class GltfCreatorV2
      */
     private Accessor createAccessor(AccessorModel accessorModel)
     {
-        Integer bufferViewIndex = 
-            bufferViewIndices.get(accessorModel.getBufferViewModel());
-        return createAccessor(accessorModel, bufferViewIndex);
+        AccessorSparseModel accessorSparseModel = 
+            accessorModel.getAccessorSparseModel();
+        if (accessorSparseModel == null)
+        {
+            Integer bufferViewIndex = 
+                bufferViewIndices.get(accessorModel.getBufferViewModel());
+            return createAccessor(accessorModel, bufferViewIndex);
+        }
+        
+        // For sparse accessors, the buffer view model of the accessor 
+        // model contains the dense data. The accessor refers to the 
+        // buffer view that contains the base data, if present
+        Integer bufferViewIndex = bufferViewIndices.get(
+            accessorSparseModel.getBaseBufferViewModel());
+        Accessor accessor = createAccessor(accessorModel, bufferViewIndex);
+        if (bufferViewIndex == null)
+        {
+            accessor.setByteOffset(null);
+        }
+        else
+        {
+            accessor.setByteOffset(accessorSparseModel.getBaseByteOffset());
+        }
+        accessor.setSparse(createAccessorSparse(accessorSparseModel));
+        return accessor;
+    }
+    
+    /**
+     * Create the {@link AccessorSparse} for the given 
+     * {@link AccessorSparseModel}
+     * 
+     * @param accessorSparseModel The {@link AccessorSparseModel}
+     * @return The {@link AccessorSparse}
+     */
+    private AccessorSparse createAccessorSparse(
+        AccessorSparseModel accessorSparseModel)
+    {
+        AccessorSparseIndices accessorSparseIndices = 
+            new AccessorSparseIndices();
+        accessorSparseIndices.setBufferView(bufferViewIndices.get(
+            accessorSparseModel.getIndicesBufferViewModel()));
+        accessorSparseIndices.setByteOffset(
+            accessorSparseModel.getIndicesByteOffset());
+        accessorSparseIndices.setComponentType(
+            accessorSparseModel.getIndicesComponentType());
+        
+        AccessorSparseValues accessorSparseValues = 
+            new AccessorSparseValues();
+        accessorSparseValues.setBufferView(bufferViewIndices.get(
+            accessorSparseModel.getValuesBufferViewModel()));
+        accessorSparseValues.setByteOffset(
+            accessorSparseModel.getValuesByteOffset());
+        
+        AccessorSparse accessorSparse = new AccessorSparse();
+        accessorSparse.setCount(accessorSparseModel.getCount());
+        accessorSparse.setIndices(accessorSparseIndices);
+        accessorSparse.setValues(accessorSparseValues);
+        return accessorSparse;
     }
     
     /**
@@ -409,9 +468,12 @@ public class GltfCreatorV2
         accessor.setNormalized(
             accessorModel.isNormalized() ? true : null);
         
-        AccessorData accessorData = accessorModel.getAccessorData();
-        accessor.setMax(AccessorDatas.computeMax(accessorData));
-        accessor.setMin(AccessorDatas.computeMin(accessorData));
+        // The bounds are computed from the current data, because the 
+        // cached bounds of the model do not reflect in-place changes
+        AccessorBounds accessorBounds = 
+            AccessorDatas.computeBounds(accessorModel.getAccessorData());
+        accessor.setMax(accessorBounds.createMaxNumbers());
+        accessor.setMin(accessorBounds.createMinNumbers());
         
         return accessor;
     }
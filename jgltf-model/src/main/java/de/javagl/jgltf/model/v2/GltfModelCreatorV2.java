@@ -33,7 +33,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.logging.Logger;
 
 import de.javagl.jgltf.impl.v2.GlTFChildOfRootProperty;
@@ -69,6 +70,7 @@ import de.javagl.jgltf.impl.v2.TextureInfo;
 import de.javagl.jgltf.model.AccessorData;
 import de.javagl.jgltf.model.AccessorDatas;
 import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.AccessorSparseModel;
 import de.javagl.jgltf.model.AnimationModel;
 import de.javagl.jgltf.model.AssetModel;
 import de.javagl.jgltf.model.AnimationModel.Channel;
@@ -88,10 +90,13 @@ import de.javagl.jgltf.model.NodeModel;
 import de.javagl.jgltf.model.Optionals;
 import de.javagl.jgltf.model.SceneModel;
 import de.javagl.jgltf.model.SkinModel;
+import de.javagl.jgltf.model.SparseAccessorData;
+import de.javagl.jgltf.model.Suppliers;
 import de.javagl.jgltf.model.TextureModel;
 import de.javagl.jgltf.model.impl.AbstractModelElement;
 import de.javagl.jgltf.model.impl.AbstractNamedModelElement;
 import de.javagl.jgltf.model.impl.DefaultAccessorModel;
+import de.javagl.jgltf.model.impl.DefaultAccessorSparseModel;
 import de.javagl.jgltf.model.impl.DefaultAnimationModel;
 import de.javagl.jgltf.model.impl.DefaultAssetModel;
 import de.javagl.jgltf.model.impl.DefaultAnimationModel.DefaultChannel;
@@ -144,6 +149,41 @@ public class GltfModelCreatorV2
         return gltfModel;
     }
     
+    /**
+     * Create the {@link GltfModel} for the given {@link GltfAssetV2}, 
+     * where the data of external references is loaded lazily.<br>
+     * <br>
+     * For buffers and images that refer to an external resource for
+     * which the given asset does not contain the 
+     * {@link GltfAsset#getReferenceData(String) reference data}, the 
+     * data will only be obtained from the given resolver when it is 
+     * accessed for the first time. The data will then be kept in a
+     * soft cache, so that it may be garbage collected and loaded again 
+     * when memory is running low. Similarly, the {@link AccessorData} 
+     * of accessors will only be created when it is accessed.<br>
+     * <br>
+     * The given resolver may, for example, be created with 
+     * {@link de.javagl.jgltf.model.io.UriResolvers#createBaseUriResolver(
+     * java.net.URI)}. It has to remain usable for as long as the model 
+     * is used. 
+     * 
+     * @param gltfAsset The {@link GltfAssetV2}
+     * @param uriResolver The function that receives a (relative) URI 
+     * string, and returns the data of the respective resource 
+     * @return The {@link GltfModel}
+     */
+    public static DefaultGltfModel create(GltfAssetV2 gltfAsset, 
+        Function<? super String, ? extends ByteBuffer> uriResolver)
+    {
+        DefaultGltfModel gltfModel = new DefaultGltfModel();
+        GltfModelCreatorV2 creator = 
+            new GltfModelCreatorV2(gltfAsset, gltfModel);
+        creator.lazyUriResolver = Objects.requireNonNull(uriResolver, 
+            "The uriResolver may not be null");
+        creator.create();
+        return gltfModel;
+    }
+    
     /**
      * The {@link GltfAsset} of the model
      */
@@ -159,6 +199,13 @@ public class GltfModelCreatorV2
      */
     private final DefaultGltfModel gltfModel;
     
+    /**
+     * The optional function for resolving the data of external references
+     * lazily. If this is <code>null</code>, then the data will be taken 
+     * from the {@link GltfAsset}.
+     */
+    private Function<? super String, ? extends ByteBuffer> lazyUriResolver;
+    
     /**
      * Creates a new model for the given glTF
      * 
@@ -521,7 +568,13 @@ public class GltfModelCreatorV2
             {
                 accessorModel.setByteStride(byteStride);
             }
-            accessorModel.setAccessorData(AccessorDatas.create(accessorModel));
+            // When the data is loaded lazily, the accessor data will be
+            // created when it is accessed for the first time
+            if (lazyUriResolver == null)
+            {
+                accessorModel.setAccessorData(
+                    AccessorDatas.create(accessorModel));
+            }
         }
         else
         {
@@ -543,7 +596,13 @@ public class GltfModelCreatorV2
     /**
      * Initialize the given {@link AccessorModel} by setting its 
      * {@link AccessorModel#getBufferViewModel() buffer view model}
-     * for the case that the accessor is sparse. 
+     * and its {@link AccessorModel#getSparseAccessorData() sparse
+     * accessor data} for the case that the accessor is sparse.<br>
+     * <br>
+     * Neither the sparse accessor data nor the dense data will be created 
+     * here. The sparse accessor data is created when it is accessed for
+     * the first time. The dense data is only created when the buffer 
+     * view data of the accessor is accessed for the first time.
      * 
      * @param accessorIndex The accessor index. Only used for constructing
      * the URI string of buffers that may have to be created internally 
@@ -553,61 +612,89 @@ public class GltfModelCreatorV2
     private void initSparseAccessorModel(int accessorIndex,
         Accessor accessor, DefaultAccessorModel accessorModel)
     {
+        accessorModel.setAccessorSparseModel(
+            createAccessorSparseModel(accessor));
+        
+        Supplier<SparseAccessorData> sparseAccessorDataSupplier = 
+            Suppliers.createCaching(() -> 
+                createSparseAccessorData(accessor, accessorModel));
+        accessorModel.setSparseAccessorDataSupplier(
+            sparseAccessorDataSupplier);
+        
         // When the (sparse!) Accessor already refers to a BufferView,
         // then this BufferView has to be replaced with a new one,
-        // to which the data substitution will be applied 
+        // which will receive the dense data 
         int count = accessorModel.getCount();
         int elementSizeInBytes = accessorModel.getPaddedElementSizeInBytes();
         int byteLength = elementSizeInBytes * count;
-        ByteBuffer bufferData = Buffers.create(byteLength);
-        String uriString = "buffer_for_accessor" + accessorIndex + ".bin";
+        Supplier<ByteBuffer> denseBufferDataSupplier = 
+            Suppliers.createCaching(() ->
+            {
+                logger.fine("Creating dense data for sparse accessor " 
+                    + accessorIndex);
+                
+                ByteBuffer bufferData = Buffers.create(byteLength);
+                AccessorData denseAccessorData = 
+                    AccessorDatas.create(accessorModel, bufferData);
+                SparseAccessorData sparseAccessorData = 
+                    sparseAccessorDataSupplier.get();
+                sparseAccessorData.writeInto(denseAccessorData);
+                return bufferData;
+            });
+        
+        DefaultBufferModel bufferModel = new DefaultBufferModel();
+        bufferModel.setUri("buffer_for_accessor" + accessorIndex + ".bin");
+        bufferModel.setBufferDataSupplier(denseBufferDataSupplier, byteLength);
+
         DefaultBufferViewModel denseBufferViewModel = 
-            createBufferViewModel(uriString, bufferData);
+            new DefaultBufferViewModel(null);
+        denseBufferViewModel.setByteOffset(0);
+        denseBufferViewModel.setByteLength(byteLength);
+        denseBufferViewModel.setBufferModel(bufferModel);
+        
         accessorModel.setBufferViewModel(denseBufferViewModel);
         accessorModel.setByteOffset(0);
+    }
+    
+    /**
+     * Create the {@link AccessorSparseModel} that describes the storage
+     * of the sparse data of the given {@link Accessor}
+     * 
+     * @param accessor The {@link Accessor}
+     * @return The {@link AccessorSparseModel}
+     */
+    private AccessorSparseModel createAccessorSparseModel(Accessor accessor)
+    {
+        AccessorSparse accessorSparse = accessor.getSparse();
+        AccessorSparseIndices accessorSparseIndices = 
+            accessorSparse.getIndices();
+        AccessorSparseValues accessorSparseValues = accessorSparse.getValues();
+        
+        DefaultAccessorSparseModel accessorSparseModel = 
+            new DefaultAccessorSparseModel();
+        accessorSparseModel.setCount(accessorSparse.getCount());
+        accessorSparseModel.setIndicesComponentType(
+            accessorSparseIndices.getComponentType());
+        accessorSparseModel.setIndicesBufferViewModel(
+            gltfModel.getBufferViewModel(
+                accessorSparseIndices.getBufferView()));
+        accessorSparseModel.setIndicesByteOffset(
+            Optionals.of(accessorSparseIndices.getByteOffset(), 0));
+        accessorSparseModel.setValuesBufferViewModel(
+            gltfModel.getBufferViewModel(
+                accessorSparseValues.getBufferView()));
+        accessorSparseModel.setValuesByteOffset(
+            Optionals.of(accessorSparseValues.getByteOffset(), 0));
         
         Integer bufferViewIndex = accessor.getBufferView();
         if (bufferViewIndex != null)
         {
-            // If the accessor refers to a BufferView, then the corresponding
-            // data serves as the basis for the initialization of the values, 
-            // before the sparse substitution is applied
-            Consumer<ByteBuffer> sparseSubstitutionCallback = denseByteBuffer -> 
-            {
-                logger.fine("Substituting sparse accessor data,"
-                    + " based on existing buffer view");
-                
-                DefaultBufferViewModel baseBufferViewModel = 
-                    gltfModel.getBufferViewModel(bufferViewIndex);
-                ByteBuffer baseBufferViewData = 
-                    baseBufferViewModel.getBufferViewData();
-                AccessorData baseAccessorData = AccessorDatas.create(
-                    accessorModel, baseBufferViewData);
-                AccessorData denseAccessorData = 
-                    AccessorDatas.create(accessorModel, bufferData);
-                substituteSparseAccessorData(accessor, accessorModel, 
-                    denseAccessorData, baseAccessorData); 
-            };
-            denseBufferViewModel.setSparseSubstitutionCallback(
-                sparseSubstitutionCallback);
-        }
-        else
-        {
-            // When the sparse accessor does not yet refer to a BufferView,
-            // then a new one is created, 
-            Consumer<ByteBuffer> sparseSubstitutionCallback = denseByteBuffer -> 
-            {
-                logger.fine("Substituting sparse accessor data, "
-                    + "without an existing buffer view");
-                
-                AccessorData denseAccessorData = 
-                    AccessorDatas.create(accessorModel, bufferData);
-                substituteSparseAccessorData(accessor, accessorModel, 
-                    denseAccessorData, null); 
-            };
-            denseBufferViewModel.setSparseSubstitutionCallback(
-                sparseSubstitutionCallback);
+            accessorSparseModel.setBaseBufferViewModel(
+                gltfModel.getBufferViewModel(bufferViewIndex));
+            accessorSparseModel.setBaseByteOffset(
+                Optionals.of(accessor.getByteOffset(), 0));
         }
+        return accessorSparseModel;
     }
     
     /**
@@ -638,23 +725,42 @@ public class GltfModelCreatorV2
     }
     
     /**
-     * Substitute the sparse accessor data in the given dense 
-     * {@link AccessorData} for the given {@link AccessorModel}
+     * Create the {@link SparseAccessorData} for the given {@link Accessor}, 
      * based on the sparse accessor data that is defined in the given 
-     * {@link Accessor}.
+     * {@link Accessor}.<br>
+     * <br>
+     * If the accessor refers to a {@link BufferView}, then the 
+     * corresponding data serves as the base data for all elements 
+     * that are not defined by the sparse values.
      * 
      * @param accessor The {@link Accessor}
      * @param accessorModel The {@link AccessorModel}
-     * @param denseAccessorData The dense {@link AccessorData}
-     * @param baseAccessorData The optional {@link AccessorData} that contains 
-     * the base data. If this is not <code>null</code>, then it will be used 
-     * to initialize the {@link AccessorData}, before the sparse data 
-     * substitution takes place
+     * @return The {@link SparseAccessorData}
      */
-    private void substituteSparseAccessorData(
-        Accessor accessor, AccessorModel accessorModel, 
-        AccessorData denseAccessorData, AccessorData baseAccessorData)
+    private SparseAccessorData createSparseAccessorData(
+        Accessor accessor, AccessorModel accessorModel)
     {
+        int componentType = accessorModel.getComponentType();
+        ElementType elementType = accessorModel.getElementType();
+        int numElements = accessorModel.getCount();
+        
+        AccessorData baseAccessorData = null;
+        Integer bufferViewIndex = accessor.getBufferView();
+        if (bufferViewIndex != null)
+        {
+            logger.fine("Creating sparse accessor data,"
+                + " based on existing buffer view");
+            
+            BufferViewModel baseBufferViewModel = 
+                gltfModel.getBufferViewModel(bufferViewIndex);
+            ByteBuffer baseBufferViewData = 
+                baseBufferViewModel.getBufferViewData();
+            int byteOffset = Optionals.of(accessor.getByteOffset(), 0);
+            baseAccessorData = AccessorDatas.create(componentType, 
+                baseBufferViewData, byteOffset, numElements, elementType, 
+                baseBufferViewModel.getByteStride());
+        }
+        
         AccessorSparse accessorSparse = accessor.getSparse();
         int count = accessorSparse.getCount();
         
@@ -664,14 +770,14 @@ public class GltfModelCreatorV2
             createSparseIndicesAccessorData(accessorSparseIndices, count);
         
         AccessorSparseValues accessorSparseValues = accessorSparse.getValues();
-        ElementType elementType = accessorModel.getElementType();
         AccessorData sparseValuesAccessorData =
             createSparseValuesAccessorData(accessorSparseValues, 
-                accessorModel.getComponentType(),
-                elementType, count);
+                componentType, elementType, count);
      
-        AccessorSparseUtils.substituteAccessorData(
-            denseAccessorData, 
+        return AccessorSparseUtils.createSparseAccessorData(
+            componentType,
+            elementType,
+            numElements,
             baseAccessorData, 
             sparseIndicesAccessorData, 
             sparseValuesAccessorData);
@@ -852,7 +958,18 @@ public class GltfModelCreatorV2
                     else
                     {
                         ByteBuffer bufferData = gltfAsset.getReferenceData(uri);
-                        bufferModel.setBufferData(bufferData);
+                        if (bufferData == null && lazyUriResolver != null)
+                        {
+                            int byteLength = 
+                                Optionals.of(buffer.getByteLength(), 0);
+                            bufferModel.setBufferDataSupplier(
+                                createLazyReferenceDataSupplier(uri), 
+                                byteLength);
+                        }
+                        else
+                        {
+                            bufferModel.setBufferData(bufferData);
+                        }
                     }
                 }
             }
@@ -1135,12 +1252,40 @@ public class GltfModelCreatorV2
                 else
                 {
                     ByteBuffer imageData = gltfAsset.getReferenceData(uri);
-                    imageModel.setImageData(imageData);
+                    if (imageData == null && lazyUriResolver != null)
+                    {
+                        imageModel.setImageDataSupplier(
+                            createLazyReferenceDataSupplier(uri));
+                    }
+                    else
+                    {
+                        imageModel.setImageData(imageData);
+                    }
                 }
             }
         }
     }
     
+    /**
+     * Create a supplier that obtains the data for the given URI string
+     * from the {@link #lazyUriResolver} when it is called for the first
+     * time, and keeps it in a soft cache
+     * 
+     * @param uriString The URI string
+     * @return The supplier
+     */
+    private Supplier<ByteBuffer> createLazyReferenceDataSupplier(
+        String uriString)
+    {
+        Function<? super String, ? extends ByteBuffer> uriResolver =
+            lazyUriResolver;
+        return Suppliers.createSoftCaching(() -> 
+        {
+            logger.fine("Lazily resolving " + uriString);
+            return uriResolver.apply(uriString);
+        });
+    }
+    
     /**
      * Initialize the {@link MaterialModel} instances
      */
@@ -0,0 +1,136 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import org.junit.Test;
+
+/**
+ * Tests for the bulk access methods of the {@link AccessorData} classes
+ */
+@SuppressWarnings("javadoc")
+public class TestAccessorDataBulkAccess
+{
+    private static AccessorFloatData createFloatData(
+        int numElements, Integer byteStride)
+    {
+        int stride = byteStride == null ? 12 : byteStride;
+        ByteBuffer byteBuffer = ByteBuffer.allocate(4 + numElements * stride)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        AccessorFloatData data = (AccessorFloatData) AccessorDatas.create(
+            GltfConstants.GL_FLOAT, byteBuffer, 4, numElements,
+            ElementType.VEC3, byteStride);
+        for (int i = 0; i < data.getTotalNumComponents(); i++)
+        {
+            data.set(i, i * 0.5f);
+        }
+        return data;
+    }
+
+    @Test
+    public void testFloatPacked()
+    {
+        AccessorFloatData data = createFloatData(5, null);
+        assertTrue(data.isPacked());
+
+        float actual[] = new float[8];
+        data.readElements(1, 2, actual, 1);
+        assertArrayEquals(
+            new float[] { 0.0f, 1.5f, 2.0f, 2.5f, 3.0f, 3.5f, 4.0f, 0.0f },
+            actual, 0.0f);
+
+        data.writeElements(4, 1, new float[] { -1.0f, -2.0f, -3.0f }, 0);
+        assertEquals(-2.0f, data.get(4, 1), 0.0f);
+
+        FloatBuffer floatBuffer = data.asFloatBuffer();
+        assertEquals(15, floatBuffer.capacity());
+        assertEquals(1.5f, floatBuffer.get(3), 0.0f);
+        assertEquals(-3.0f, floatBuffer.get(14), 0.0f);
+    }
+
+    @Test
+    public void testFloatStrided()
+    {
+        AccessorFloatData data = createFloatData(5, 16);
+        assertFalse(data.isPacked());
+
+        float actual[] = new float[6];
+        data.readElements(3, 2, actual, 0);
+        for (int i = 0; i < actual.length; i++)
+        {
+            assertEquals(data.get(9 + i), actual[i], 0.0f);
+        }
+
+        data.writeElements(0, 2, new float[] { 1, 2, 3, 4, 5, 6 }, 0);
+        assertEquals(4.0f, data.get(1, 0), 0.0f);
+        assertEquals(6.0f, data.get(1, 2), 0.0f);
+        assertEquals(4.5f, data.get(3, 0), 0.0f);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFloatStridedView()
+    {
+        createFloatData(2, 16).asFloatBuffer();
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testReadElementsOutOfRange()
+    {
+        createFloatData(2, null).readElements(1, 2, new float[6], 0);
+    }
+
+    @Test
+    public void testMatrixPaddingMat2Byte()
+    {
+        byte mat[] = new byte[]
+        {
+            1, 2, -1, -1,
+            3, 4, -1, -1,
+            2, 3, -1, -1,
+            4, 5, -1, -1,
+        };
+        AccessorByteData data = (AccessorByteData) AccessorDatas.create(
+            GltfConstants.GL_BYTE, ByteBuffer.wrap(mat), 0,
+            2, ElementType.MAT2, null);
+        assertFalse(data.isPacked());
+
+        byte actual[] = new byte[8];
+        data.readElements(0, 2, actual, 0);
+        assertArrayEquals(new byte[] { 1, 2, 3, 4, 2, 3, 4, 5 }, actual);
+    }
+
+    @Test
+    public void testShortAndIntPacked()
+    {
+        ByteBuffer shortBuffer = ByteBuffer.allocate(12)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        AccessorShortData shortData = (AccessorShortData) AccessorDatas.create(
+            GltfConstants.GL_UNSIGNED_SHORT, shortBuffer, 0, 6,
+            ElementType.SCALAR, null);
+        shortData.writeElements(0, 6, new short[] { 1, 2, 3, 4, 5, -1 }, 0);
+        assertEquals(65535, shortData.getInt(5));
+        assertEquals(3, shortData.asShortBuffer().get(2));
+
+        ByteBuffer intBuffer = ByteBuffer.allocate(24)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        AccessorIntData intData = (AccessorIntData) AccessorDatas.create(
+            GltfConstants.GL_UNSIGNED_INT, intBuffer, 0, 3,
+            ElementType.VEC2, null);
+        intData.writeElements(1, 2, new int[] { 7, 8, 9, 10 }, 0);
+        int actual[] = new int[6];
+        intData.readElements(0, 3, actual, 0);
+        assertArrayEquals(new int[] { 0, 0, 7, 8, 9, 10 }, actual);
+        assertEquals(10, intData.asIntBuffer().get(5));
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.impl.v2.Accessor;
+import de.javagl.jgltf.model.impl.DefaultAccessorModel;
+import de.javagl.jgltf.model.v2.GltfCreatorV2;
+
+/**
+ * Tests for the {@link AccessorStatistics}
+ */
+@SuppressWarnings("javadoc")
+public class TestAccessorStatistics
+{
+    @Test
+    public void testFloatStatistics()
+    {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(4 * 2 * 4)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        AccessorFloatData data = (AccessorFloatData) AccessorDatas.create(
+            GltfConstants.GL_FLOAT, byteBuffer, 0, 4, ElementType.VEC2, null);
+        data.writeElements(0, 4, new float[] 
+        { 
+            1.0f, -2.0f, 
+            3.0f, Float.NaN, 
+            -1.0f, 5.0f, 
+            Float.POSITIVE_INFINITY, 0.5f 
+        }, 0);
+        
+        AccessorStatistics statistics = AccessorStatistics.compute(data);
+        assertArrayEquals(new double[] { -1.0, -2.0 }, 
+            statistics.getMin(), 0.0);
+        assertArrayEquals(new double[] { Double.POSITIVE_INFINITY, 5.0 }, 
+            statistics.getMax(), 0.0);
+        assertArrayEquals(new double[] { Double.POSITIVE_INFINITY, 3.5 }, 
+            statistics.getSum(), 0.0);
+        assertEquals(1, statistics.getNaNCount());
+        assertEquals(1, statistics.getInfiniteCount());
+        assertArrayEquals(new Number[] { -1.0f, -2.0f }, 
+            statistics.getMinNumbers());
+    }
+    
+    @Test
+    public void testUnsignedAndNormalized()
+    {
+        byte values[] = new byte[] { 0, (byte) 200, (byte) 255, 10 };
+        AccessorByteData data = (AccessorByteData) AccessorDatas.create(
+            GltfConstants.GL_UNSIGNED_BYTE, ByteBuffer.wrap(values), 0, 
+            4, ElementType.SCALAR, null);
+        AccessorStatistics statistics = AccessorStatistics.compute(data);
+        assertArrayEquals(new Number[] { 0 }, statistics.getMinNumbers());
+        assertArrayEquals(new Number[] { 255 }, statistics.getMaxNumbers());
+        assertArrayEquals(new double[] { 1.0 }, 
+            statistics.getNormalizedMax(), 0.0);
+        
+        ByteBuffer intBuffer = ByteBuffer.allocate(8)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        intBuffer.putInt(0, -1);
+        intBuffer.putInt(4, 7);
+        AccessorIntData intData = (AccessorIntData) AccessorDatas.create(
+            GltfConstants.GL_UNSIGNED_INT, intBuffer, 0, 
+            2, ElementType.SCALAR, null);
+        assertArrayEquals(new Number[] { 4294967295L }, 
+            AccessorStatistics.compute(intData).getMaxNumbers());
+    }
+    
+    @Test
+    public void testBounds()
+    {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(3 * 4)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        AccessorFloatData data = (AccessorFloatData) AccessorDatas.create(
+            GltfConstants.GL_FLOAT, byteBuffer, 0, 3, ElementType.SCALAR, null);
+        data.writeElements(0, 3, new float[] { 2.5f, -1.5f, 0.0f }, 0);
+        AccessorBounds bounds = AccessorDatas.computeBounds(data);
+        assertTrue(bounds.isFloat());
+        assertEquals(1, bounds.getNumComponents());
+        assertArrayEquals(new float[] { -1.5f }, bounds.getFloatMin(), 0.0f);
+        assertArrayEquals(new float[] { 2.5f }, bounds.getFloatMax(), 0.0f);
+        assertArrayEquals(new Number[] { 2.5f }, bounds.createMaxNumbers());
+        
+        ByteBuffer intBuffer = ByteBuffer.allocate(8)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        intBuffer.putInt(0, -1);
+        intBuffer.putInt(4, 7);
+        AccessorIntData intData = (AccessorIntData) AccessorDatas.create(
+            GltfConstants.GL_UNSIGNED_INT, intBuffer, 0, 
+            2, ElementType.SCALAR, null);
+        AccessorBounds intBounds = AccessorDatas.computeBounds(intData);
+        assertFalse(intBounds.isFloat());
+        assertArrayEquals(new long[] { 7L }, intBounds.getLongMin());
+        assertArrayEquals(new long[] { 4294967295L }, intBounds.getLongMax());
+        assertEquals(4294967295.0, intBounds.getMax(0), 0.0);
+        
+        short values[] = new short[] { -3, 4 };
+        ByteBuffer shortBuffer = ByteBuffer.allocate(4)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        shortBuffer.asShortBuffer().put(values);
+        AccessorData shortData = AccessorDatas.create(
+            GltfConstants.GL_SHORT, shortBuffer, 0, 2, ElementType.SCALAR, null);
+        AccessorBounds shortBounds = AccessorDatas.computeBounds(shortData);
+        assertEquals(short.class, shortBounds.getComponentDataType());
+        assertArrayEquals(new Number[] { -3 }, shortBounds.createMinNumbers());
+    }
+    
+    @Test
+    public void testCreatedAccessorUsesCurrentData()
+    {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(2 * 4)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        AccessorFloatData data = (AccessorFloatData) AccessorDatas.create(
+            GltfConstants.GL_FLOAT, byteBuffer, 0, 2, ElementType.SCALAR, null);
+        data.writeElements(0, 2, new float[] { 1.0f, 2.0f }, 0);
+        DefaultAccessorModel accessorModel = new DefaultAccessorModel(
+            GltfConstants.GL_FLOAT, 2, ElementType.SCALAR);
+        accessorModel.setAccessorData(data);
+        assertArrayEquals(new Number[] { 2.0f }, accessorModel.getMax());
+        
+        data.set(1, 0, 5.0f);
+        Accessor accessor = GltfCreatorV2.createAccessor(accessorModel, 0);
+        assertArrayEquals(new Number[] { 5.0f }, accessor.getMax());
+        assertArrayEquals(new Number[] { 1.0f }, accessor.getMin());
+    }
+    
+    @Test
+    public void testParallelMatchesSequential()
+    {
+        int numElements = 300001;
+        ByteBuffer byteBuffer = ByteBuffer.allocateDirect(numElements * 6)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        AccessorShortData data = (AccessorShortData) AccessorDatas.create(
+            GltfConstants.GL_SHORT, byteBuffer, 0, 
+            numElements, ElementType.VEC3, null);
+        for (int e = 0; e < numElements; e++)
+        {
+            data.set(e, 0, (short) (e % 1000));
+            data.set(e, 1, (short) -(e % 3000));
+            data.set(e, 2, (short) (e & 0x7FFF));
+        }
+        AccessorStatistics sequential = 
+            AccessorStatistics.compute(data, null);
+        AccessorStatistics parallel = 
+            AccessorStatistics.compute(data, new ForkJoinPool(4));
+        assertArrayEquals(sequential.getMin(), parallel.getMin(), 0.0);
+        assertArrayEquals(sequential.getMax(), parallel.getMax(), 0.0);
+        assertArrayEquals(sequential.getSum(), parallel.getSum(), 0.0);
+        assertArrayEquals(new double[] { 0, -2999, 0 }, 
+            sequential.getMin(), 0.0);
+        assertArrayEquals(new double[] { 999, 0, 32767 }, 
+            sequential.getMax(), 0.0);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.io.GltfModelReader;
+
+/**
+ * Tests for the {@link BoundingBoxes} class
+ */
+@SuppressWarnings("javadoc")
+public class TestBoundingBoxes
+{
+    private static GltfModel readBox() throws IOException
+    {
+        Path path = Paths.get(
+            "./src/test/resources/testModels/v2/testBox/glTF/Box.gltf");
+        return new GltfModelReader().read(path);
+    }
+    
+    @Test
+    public void testBoxBoundingBox() throws IOException
+    {
+        GltfModel gltfModel = readBox();
+        float expected[] = { -0.5f, -0.5f, -0.5f, 0.5f, 0.5f, 0.5f };
+        assertArrayEquals(expected, 
+            BoundingBoxes.computeBoundingBoxMinMax(gltfModel), 1e-6f);
+        assertArrayEquals(expected, 
+            BoundingBoxes.computeBoundingBoxMinMax(gltfModel, true), 1e-6f);
+        assertArrayEquals(expected, 
+            BoundingBoxes.computeBoundingBoxMinMax(gltfModel, true, null), 
+            1e-6f);
+    }
+    
+    @Test
+    public void testTransformedBoundingBox() throws IOException
+    {
+        GltfModel gltfModel = readBox();
+        NodeModel root = gltfModel.getNodeModels().get(0);
+        NodeModel child = gltfModel.getNodeModels().get(1);
+        float angle = (float) Math.toRadians(45.0);
+        root.setMatrix(null);
+        root.setRotation(new float[] { 
+            0.0f, 0.0f, (float) Math.sin(angle / 2), 
+            (float) Math.cos(angle / 2) });
+        child.setTranslation(new float[] { 0.0f, 0.0f, 2.0f });
+        
+        float d = (float) Math.sqrt(0.5);
+        float expected[] = { -d, -d, 1.5f, d, d, 2.5f };
+        ForkJoinPool pools[] = { null, ForkJoinPool.commonPool() };
+        for (ForkJoinPool pool : pools)
+        {
+            assertArrayEquals(expected, BoundingBoxes.computeBoundingBoxMinMax(
+                gltfModel, false, pool), 1e-5f);
+            assertArrayEquals(expected, BoundingBoxes.computeBoundingBoxMinMax(
+                gltfModel, true, pool), 1e-5f);
+        }
+    }
+}
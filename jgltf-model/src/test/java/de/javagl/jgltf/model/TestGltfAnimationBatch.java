@@ -0,0 +1,90 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.AnimationModel.Interpolation;
+import de.javagl.jgltf.model.impl.DefaultAccessorModel;
+import de.javagl.jgltf.model.impl.DefaultAnimationModel;
+import de.javagl.jgltf.model.impl.DefaultAnimationModel.DefaultChannel;
+import de.javagl.jgltf.model.impl.DefaultAnimationModel.DefaultSampler;
+import de.javagl.jgltf.model.impl.DefaultNodeModel;
+
+/**
+ * Tests for the {@link GltfAnimationBatch}
+ */
+@SuppressWarnings("javadoc")
+public class TestGltfAnimationBatch
+{
+    private static AccessorModel createAccessor(
+        ElementType elementType, float values[])
+    {
+        int count = values.length / elementType.getNumComponents();
+        ByteBuffer byteBuffer = ByteBuffer.allocate(values.length * 4)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        AccessorFloatData data = (AccessorFloatData) AccessorDatas.create(
+            GltfConstants.GL_FLOAT, byteBuffer, 0, count, elementType, null);
+        data.writeElements(0, count, values, 0);
+        DefaultAccessorModel accessorModel = new DefaultAccessorModel(
+            GltfConstants.GL_FLOAT, count, elementType);
+        accessorModel.setAccessorData(data);
+        return accessorModel;
+    }
+    
+    @Test
+    public void testTranslationAnimation()
+    {
+        DefaultNodeModel nodeModel = new DefaultNodeModel();
+        nodeModel.setScale(new float[] { 2.0f, 2.0f, 2.0f });
+        
+        AccessorModel input = createAccessor(ElementType.SCALAR, 
+            new float[] { 0.0f, 1.0f, 2.0f });
+        AccessorModel output = createAccessor(ElementType.VEC3, 
+            new float[] { 0, 0, 0,  1, 2, 3,  1, 2, 5 });
+        DefaultAnimationModel animationModel = new DefaultAnimationModel();
+        animationModel.addChannel(new DefaultChannel(
+            new DefaultSampler(input, Interpolation.LINEAR, output), 
+            nodeModel, "translation"));
+        
+        GltfAnimationBatch batch = GltfAnimationBatch.create(
+            Collections.singletonList(animationModel));
+        assertEquals(Collections.singletonList(nodeModel), 
+            batch.getNodeModels());
+        assertEquals(-1, batch.getWeightsOffset(0));
+        assertEquals(2.0f, batch.getEndTimeS(), 0.0f);
+        
+        batch.update(1.5f);
+        float expected[] = 
+        { 
+            1.0f, 2.0f, 4.0f, 
+            0.0f, 0.0f, 0.0f, 1.0f, 
+            2.0f, 2.0f, 2.0f 
+        };
+        assertArrayEquals(expected, batch.getTransformBuffer(), 1e-6f);
+        
+        assertNull(nodeModel.getTranslation());
+        batch.applyToNodeModels();
+        float translation[] = nodeModel.getTranslation();
+        assertArrayEquals(new float[] { 1.0f, 2.0f, 4.0f }, translation, 1e-6f);
+        assertNull(nodeModel.getRotation());
+        
+        batch.update(0.5f);
+        batch.applyToNodeModels();
+        assertArrayEquals(new float[] { 0.5f, 1.0f, 1.5f }, 
+            nodeModel.getTranslation(), 1e-6f);
+        float matrix[] = nodeModel.computeGlobalTransform(null);
+        assertEquals(0.5f, matrix[12], 1e-6f);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.impl.DefaultNodeModel;
+
+/**
+ * Tests for the caching of global transforms in the 
+ * {@link DefaultNodeModel}
+ */
+@SuppressWarnings("javadoc")
+public class TestNodeModelTransformCache
+{
+    @Test
+    public void testChangesArePropagatedToDescendants()
+    {
+        DefaultNodeModel root = new DefaultNodeModel();
+        DefaultNodeModel child = new DefaultNodeModel();
+        DefaultNodeModel grandChild = new DefaultNodeModel();
+        root.addChild(child);
+        child.addChild(grandChild);
+        child.setScale(new float[] { 2.0f, 2.0f, 2.0f });
+        grandChild.setTranslation(new float[] { 1.0f, 0.0f, 0.0f });
+        
+        assertTranslation(2.0f, 0.0f, 0.0f, grandChild);
+        
+        root.setTranslation(new float[] { 0.0f, 3.0f, 0.0f });
+        assertTranslation(2.0f, 3.0f, 0.0f, grandChild);
+        assertTranslation(0.0f, 3.0f, 0.0f, child);
+        
+        child.setScale(null);
+        assertTranslation(1.0f, 3.0f, 0.0f, grandChild);
+    }
+    
+    @Test
+    public void testModifiedArrayIsUsedWhenSetAgain()
+    {
+        DefaultNodeModel root = new DefaultNodeModel();
+        DefaultNodeModel child = new DefaultNodeModel();
+        root.addChild(child);
+        float translation[] = { 1.0f, 2.0f, 3.0f };
+        root.setTranslation(translation);
+        assertTranslation(1.0f, 2.0f, 3.0f, child);
+        
+        translation[0] = 4.0f;
+        root.setTranslation(translation);
+        assertTranslation(4.0f, 2.0f, 3.0f, child);
+    }
+    
+    @Test
+    public void testInPlaceModificationWithInvalidate()
+    {
+        DefaultNodeModel root = new DefaultNodeModel();
+        DefaultNodeModel child = new DefaultNodeModel();
+        root.addChild(child);
+        root.setTranslation(new float[] { 1.0f, 2.0f, 3.0f });
+        assertTranslation(1.0f, 2.0f, 3.0f, child);
+        
+        root.getTranslation()[0] = 4.0f;
+        root.invalidate();
+        assertTranslation(4.0f, 2.0f, 3.0f, child);
+    }
+    
+    @Test
+    public void testInPlaceModificationWithoutInvalidate()
+    {
+        DefaultNodeModel root = new DefaultNodeModel();
+        DefaultNodeModel child = new DefaultNodeModel();
+        root.addChild(child);
+        root.setTranslation(new float[] { 1.0f, 2.0f, 3.0f });
+        child.setScale(new float[] { 1.0f, 1.0f, 1.0f });
+        assertTranslation(1.0f, 2.0f, 3.0f, child);
+        
+        root.getTranslation()[0] = 4.0f;
+        assertTranslation(4.0f, 2.0f, 3.0f, child);
+        
+        child.getScale()[0] = 2.0f;
+        float globalTransform[] = child.computeGlobalTransform(null);
+        assertArrayEquals(new float[] { 2.0f, 0.0f, 0.0f }, 
+            new float[] { globalTransform[0], globalTransform[1], 
+                globalTransform[2] }, 0.0f);
+    }
+    
+    @Test
+    public void testCopyDoesNotShareArrays()
+    {
+        DefaultNodeModel original = new DefaultNodeModel();
+        original.setTranslation(new float[] { 1.0f, 2.0f, 3.0f });
+        original.setWeights(new float[] { 0.5f });
+        DefaultNodeModel copy = new DefaultNodeModel(original);
+        assertTranslation(1.0f, 2.0f, 3.0f, copy);
+        
+        original.getTranslation()[0] = 4.0f;
+        original.getWeights()[0] = 1.0f;
+        original.invalidate();
+        assertTranslation(4.0f, 2.0f, 3.0f, original);
+        assertTranslation(1.0f, 2.0f, 3.0f, copy);
+        assertArrayEquals(new float[] { 0.5f }, copy.getWeights(), 0.0f);
+    }
+    
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException
+    {
+        DefaultNodeModel root = new DefaultNodeModel();
+        DefaultNodeModel child = new DefaultNodeModel();
+        root.addChild(child);
+        child.setTranslation(new float[] { 0.0f, 1.0f, 0.0f });
+        int numUpdates = 10000;
+        Thread animationThread = new Thread(() -> 
+        {
+            for (int i = 1; i <= numUpdates; i++)
+            {
+                root.setTranslation(new float[] { i, 0.0f, 0.0f });
+            }
+        });
+        animationThread.start();
+        while (animationThread.isAlive())
+        {
+            float globalTransform[] = child.computeGlobalTransform(null);
+            assertArrayEquals(new float[] { 0.0f, 1.0f, 0.0f }, new float[] 
+                { 0.0f, globalTransform[13], globalTransform[14] }, 0.0f);
+        }
+        animationThread.join();
+        assertTranslation(numUpdates, 1.0f, 0.0f, child);
+    }
+    
+    @Test
+    public void testReparenting()
+    {
+        DefaultNodeModel rootA = new DefaultNodeModel();
+        rootA.setTranslation(new float[] { 1.0f, 0.0f, 0.0f });
+        DefaultNodeModel rootB = new DefaultNodeModel();
+        rootB.setTranslation(new float[] { 0.0f, 1.0f, 0.0f });
+        DefaultNodeModel child = new DefaultNodeModel();
+        rootA.addChild(child);
+        assertTranslation(1.0f, 0.0f, 0.0f, child);
+        
+        rootB.addChild(child);
+        assertTranslation(0.0f, 1.0f, 0.0f, child);
+    }
+    
+    @Test
+    public void testCachedTransformMatchesDirectComputation()
+    {
+        DefaultNodeModel nodes[] = new DefaultNodeModel[20];
+        for (int i = 0; i < nodes.length; i++)
+        {
+            nodes[i] = new DefaultNodeModel();
+            nodes[i].setTranslation(new float[] { i, -i, 0.5f * i });
+            float angle = 0.1f * i;
+            nodes[i].setRotation(new float[] { 
+                0.0f, (float) Math.sin(angle), 0.0f, (float) Math.cos(angle) });
+            nodes[i].setScale(new float[] { 1.1f, 0.9f, 1.0f });
+            if (i > 0)
+            {
+                nodes[i - 1].addChild(nodes[i]);
+            }
+        }
+        for (int pass = 0; pass < 2; pass++)
+        {
+            DefaultNodeModel leaf = nodes[nodes.length - 1];
+            float expected[] = computeGlobalTransformDirectly(leaf);
+            float actual[] = leaf.computeGlobalTransform(null);
+            assertArrayEquals(expected, actual, 1e-3f);
+            
+            nodes[5].setTranslation(new float[] { 0.0f, 10.0f, 0.0f });
+        }
+    }
+    
+    private static float[] computeGlobalTransformDirectly(NodeModel nodeModel)
+    {
+        float result[] = new float[16];
+        MathUtils.setIdentity4x4(result);
+        NodeModel currentNode = nodeModel;
+        while (currentNode != null)
+        {
+            float local[] = DefaultNodeModel.computeLocalTransform(
+                currentNode, null);
+            MathUtils.mul4x4(local, result, result);
+            currentNode = currentNode.getParent();
+        }
+        return result;
+    }
+    
+    private static void assertTranslation(
+        float x, float y, float z, NodeModel nodeModel)
+    {
+        float globalTransform[] = nodeModel.computeGlobalTransform(null);
+        assertArrayEquals(new float[] { x, y, z }, 
+            new float[] { globalTransform[12], globalTransform[13], 
+                globalTransform[14] }, 0.0f);
+    }
+}
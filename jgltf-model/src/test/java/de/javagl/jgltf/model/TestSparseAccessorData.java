@@ -0,0 +1,125 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.io.GltfModelReader;
+
+/**
+ * Tests for the {@link SparseAccessorData}
+ */
+@SuppressWarnings("javadoc")
+public class TestSparseAccessorData
+{
+    private static AccessorFloatData createFloatData(float... values)
+    {
+        ByteBuffer byteBuffer = ByteBuffer.allocate(values.length * 4)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        byteBuffer.asFloatBuffer().put(values);
+        return new AccessorFloatData(GltfConstants.GL_FLOAT, byteBuffer, 0,
+            values.length, ElementType.SCALAR, null);
+    }
+
+    @Test
+    public void testSparseAccessorDataWithBase()
+    {
+        AccessorFloatData base = createFloatData(1, 2, 3, 4, 5);
+        AccessorFloatData values = createFloatData(20, 40);
+        SparseAccessorData sparse = new SparseAccessorData(
+            GltfConstants.GL_FLOAT, ElementType.SCALAR, 5, base, 
+            new int[] { 1, 3 }, values);
+
+        assertEquals(2, sparse.getNumSparseElements());
+        assertEquals(-1, sparse.getSparseIndex(0));
+        assertEquals(1, sparse.getSparseIndex(3));
+        float expected[] = { 1, 20, 3, 40, 5 };
+        for (int e = 0; e < expected.length; e++)
+        {
+            assertEquals(expected[e], sparse.getFloat(e, 0), 0.0f);
+        }
+        AccessorFloatData dense = 
+            (AccessorFloatData) sparse.createDenseAccessorData();
+        for (int e = 0; e < expected.length; e++)
+        {
+            assertEquals(expected[e], dense.get(e, 0), 0.0f);
+        }
+        assertEquals(dense.createByteBuffer(), sparse.createByteBuffer());
+    }
+
+    @Test
+    public void testSparseAccessorDataWithoutBase()
+    {
+        AccessorFloatData values = createFloatData(20, 40);
+        SparseAccessorData sparse = new SparseAccessorData(
+            GltfConstants.GL_FLOAT, ElementType.SCALAR, 4, null, 
+            new int[] { 0, 2 }, values);
+        float expected[] = { 20, 0, 40, 0 };
+        for (int e = 0; e < expected.length; e++)
+        {
+            assertEquals(expected[e], sparse.getFloat(e, 0), 0.0f);
+        }
+    }
+
+    @Test
+    public void testUnsortedIndicesWithDuplicates()
+    {
+        AccessorFloatData values = createFloatData(30, 10, 31);
+        SparseAccessorData sparse = new SparseAccessorData(
+            GltfConstants.GL_FLOAT, ElementType.SCALAR, 4, null, 
+            new int[] { 3, 1, 3 }, values);
+        assertEquals(2, sparse.getNumSparseElements());
+        assertEquals(1, sparse.getSparseElementIndex(0));
+        assertEquals(3, sparse.getSparseElementIndex(1));
+        assertEquals(10, sparse.getFloat(1, 0), 0.0f);
+        assertEquals(31, sparse.getFloat(3, 0), 0.0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidIndex()
+    {
+        AccessorFloatData values = createFloatData(10);
+        new SparseAccessorData(GltfConstants.GL_FLOAT, ElementType.SCALAR, 
+            4, null, new int[] { 4 }, values);
+    }
+
+    @Test
+    public void testReadSparseAccessors() throws IOException 
+    {
+        Path inputFile = Paths.get(
+            "./src/test/resources/testModels/v2/testSparseAccessor.gltf");
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        GltfModel gltfModel = gltfModelReader.read(inputFile.toUri());
+
+        float expected[][] = 
+        {
+            { 1, 10, 3, 30 },
+            { 0, 10, 0, 30 },
+        };
+        for (int i = 0; i < expected.length; i++)
+        {
+            AccessorModel accessorModel = gltfModel.getAccessorModels().get(i);
+            SparseAccessorData sparse = accessorModel.getSparseAccessorData();
+            assertNotNull(sparse);
+            AccessorFloatData dense = 
+                (AccessorFloatData) accessorModel.getAccessorData();
+            for (int e = 0; e < expected[i].length; e++)
+            {
+                assertEquals(expected[i][e], sparse.getFloat(e, 0), 0.0f);
+                assertEquals(expected[i][e], dense.get(e, 0), 0.0f);
+            }
+        }
+    }
+}
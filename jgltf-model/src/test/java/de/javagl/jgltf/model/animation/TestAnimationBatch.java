@@ -0,0 +1,168 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.animation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link AnimationBatch}, comparing its results to the 
+ * results of {@link Animation} instances
+ */
+@SuppressWarnings("javadoc")
+public class TestAnimationBatch
+{
+    private static float[] createTimes(Random random, int numKeys)
+    {
+        float timesS[] = new float[numKeys];
+        float t = random.nextFloat();
+        for (int i = 0; i < numKeys; i++)
+        {
+            timesS[i] = t;
+            t += 0.1f + random.nextFloat();
+        }
+        return timesS;
+    }
+    
+    private static float[][] createValues(
+        Random random, int numValues, int numComponents, boolean normalize)
+    {
+        float values[][] = new float[numValues][numComponents];
+        for (int i = 0; i < numValues; i++)
+        {
+            float lengthSquared = 0.0f;
+            for (int c = 0; c < numComponents; c++)
+            {
+                values[i][c] = random.nextFloat() * 2.0f - 1.0f;
+                lengthSquared += values[i][c] * values[i][c];
+            }
+            if (normalize)
+            {
+                float length = (float) Math.sqrt(lengthSquared);
+                for (int c = 0; c < numComponents; c++)
+                {
+                    values[i][c] /= length;
+                }
+            }
+        }
+        return values;
+    }
+    
+    private static float[] flatten(float values[][])
+    {
+        int n = values[0].length;
+        float result[] = new float[values.length * n];
+        for (int i = 0; i < values.length; i++)
+        {
+            System.arraycopy(values[i], 0, result, i * n, n);
+        }
+        return result;
+    }
+    
+    private static float[] evaluate(Animation animation, float timeS)
+    {
+        float result[][] = new float[1][];
+        AnimationListener listener = 
+            (a, t, values) -> result[0] = values.clone();
+        animation.addAnimationListener(listener);
+        animation.update(timeS);
+        animation.removeAnimationListener(listener);
+        return result[0];
+    }
+    
+    @Test
+    public void testBatchMatchesAnimations()
+    {
+        Random random = new Random(0);
+        AnimationBatch batch = new AnimationBatch();
+        List<Animation> animations = new ArrayList<Animation>();
+        List<Integer> outputOffsets = new ArrayList<Integer>();
+        int outputSize = 0;
+        for (InterpolatorType type : InterpolatorType.values())
+        {
+            for (int numKeys = 1; numKeys < 8; numKeys++)
+            {
+                boolean cubic = type == InterpolatorType.CUBICSPLINE || 
+                    type == InterpolatorType.CUBICSPLINE_QUATERNION;
+                boolean quaternion = type == InterpolatorType.SLERP ||
+                    type == InterpolatorType.CUBICSPLINE_QUATERNION;
+                int numComponents = quaternion ? 4 : 1 + random.nextInt(5);
+                float timesS[] = createTimes(random, numKeys);
+                float values[][] = createValues(random, 
+                    cubic ? numKeys * 3 : numKeys, numComponents, quaternion);
+                animations.add(new Animation(timesS, values, type));
+                outputOffsets.add(outputSize);
+                batch.addChannel(timesS, flatten(values), numComponents, 
+                    type, outputSize);
+                outputSize += numComponents;
+            }
+        }
+        assertEquals(outputSize, batch.getMinimumOutputSize());
+        float output[] = new float[outputSize];
+        
+        // Coherent playback, followed by random jumps
+        List<Float> timesS = new ArrayList<Float>();
+        for (float t = -1.0f; t < batch.getEndTimeS() + 1.0f; t += 0.05f)
+        {
+            timesS.add(t);
+        }
+        for (int i = 0; i < 100; i++)
+        {
+            timesS.add(random.nextFloat() * (batch.getEndTimeS() + 2) - 1);
+        }
+        for (float timeS : timesS)
+        {
+            batch.evaluate(timeS, output, null);
+            for (int i = 0; i < animations.size(); i++)
+            {
+                float expected[] = evaluate(animations.get(i), timeS);
+                int offset = outputOffsets.get(i);
+                for (int c = 0; c < expected.length; c++)
+                {
+                    assertEquals(expected[c], output[offset + c], 1e-5f);
+                }
+            }
+        }
+    }
+    
+    @Test
+    public void testParallelEvaluation()
+    {
+        Random random = new Random(1);
+        AnimationBatch batch = new AnimationBatch();
+        int numChannels = 10000;
+        for (int i = 0; i < numChannels; i++)
+        {
+            float timesS[] = createTimes(random, 10);
+            float values[][] = createValues(random, 10, 3, false);
+            batch.addChannel(timesS, flatten(values), 3, 
+                InterpolatorType.LINEAR, i * 3);
+        }
+        float serial[] = new float[numChannels * 3];
+        float parallel[] = new float[numChannels * 3];
+        for (float t = 0.0f; t < 10.0f; t += 0.5f)
+        {
+            batch.evaluate(t, serial, null);
+            batch.evaluate(t, parallel, ForkJoinPool.commonPool());
+            assertArrayEquals(serial, parallel, 0.0f);
+        }
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNumberOfValues()
+    {
+        AnimationBatch batch = new AnimationBatch();
+        batch.addChannel(new float[] { 0.0f, 1.0f }, new float[] { 0.0f }, 
+            1, InterpolatorType.LINEAR, 0);
+    }
+}
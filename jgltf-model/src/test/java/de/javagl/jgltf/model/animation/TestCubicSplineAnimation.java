@@ -0,0 +1,119 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.animation;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for {@link Animation} instances with cubic spline interpolation
+ */
+@SuppressWarnings("javadoc")
+public class TestCubicSplineAnimation
+{
+    private static float[] evaluate(Animation animation, float timeS)
+    {
+        float result[][] = new float[1][];
+        AnimationListener listener = 
+            (a, t, values) -> result[0] = values.clone();
+        animation.addAnimationListener(listener);
+        animation.update(timeS);
+        animation.removeAnimationListener(listener);
+        return result[0];
+    }
+    
+    private static float hermite(float v0, float b0, float a1, float v1, 
+        float dt, float s)
+    {
+        float s2 = s * s;
+        float s3 = s2 * s;
+        return (2 * s3 - 3 * s2 + 1) * v0 
+            + dt * (s3 - 2 * s2 + s) * b0
+            + (-2 * s3 + 3 * s2) * v1 
+            + dt * (s3 - s2) * a1;
+    }
+    
+    @Test
+    public void testScalarSpline()
+    {
+        float timesS[] = { 0.0f, 1.0f, 3.0f };
+        float values[][] = 
+        {
+            { 0.0f }, { 1.0f }, { 2.0f },
+            { -1.0f }, { 4.0f }, { 0.5f },
+            { 3.0f }, { -2.0f }, { 0.0f },
+        };
+        Animation animation = new Animation(
+            timesS, values, InterpolatorType.CUBICSPLINE);
+        
+        assertEquals(1.0f, evaluate(animation, -1.0f)[0], 1e-6f);
+        assertEquals(1.0f, evaluate(animation, 0.0f)[0], 1e-6f);
+        assertEquals(4.0f, evaluate(animation, 1.0f)[0], 1e-6f);
+        assertEquals(-2.0f, evaluate(animation, 3.0f)[0], 1e-6f);
+        assertEquals(-2.0f, evaluate(animation, 5.0f)[0], 1e-6f);
+        
+        for (float s = 0.0f; s <= 1.0f; s += 0.125f)
+        {
+            float expected0 = hermite(1.0f, 2.0f, -1.0f, 4.0f, 1.0f, s);
+            assertEquals(expected0, evaluate(animation, s)[0], 1e-5f);
+            float expected1 = hermite(4.0f, 0.5f, 3.0f, -2.0f, 2.0f, s);
+            assertEquals(expected1, 
+                evaluate(animation, 1.0f + 2.0f * s)[0], 1e-5f);
+        }
+    }
+    
+    @Test
+    public void testWeightsSpline()
+    {
+        float timesS[] = { 0.0f, 2.0f };
+        float values[][] = 
+        {
+            { 0.0f, 0.0f }, { 0.0f, 1.0f }, { 0.0f, 0.0f },
+            { 0.0f, 0.0f }, { 1.0f, 0.0f }, { 0.0f, 0.0f },
+        };
+        Animation animation = new Animation(
+            timesS, values, InterpolatorType.CUBICSPLINE);
+        assertArrayEquals(new float[] { 0.5f, 0.5f }, 
+            evaluate(animation, 1.0f), 1e-6f);
+    }
+    
+    @Test
+    public void testQuaternionSplineIsNormalized()
+    {
+        float h = (float) Math.sqrt(0.5);
+        float timesS[] = { 0.0f, 1.0f };
+        float values[][] = 
+        {
+            { 0.0f, 0.0f, 0.0f, 0.0f }, 
+            { 0.0f, 0.0f, 0.0f, 1.0f }, 
+            { 0.0f, 0.0f, 1.0f, 0.0f },
+            { 0.0f, 0.0f, 1.0f, 0.0f }, 
+            { 0.0f, 0.0f, h, h }, 
+            { 0.0f, 0.0f, 0.0f, 0.0f },
+        };
+        Animation animation = new Animation(
+            timesS, values, InterpolatorType.CUBICSPLINE_QUATERNION);
+        for (float t = 0.0f; t <= 1.0f; t += 0.1f)
+        {
+            float q[] = evaluate(animation, t);
+            float length = (float) Math.sqrt(
+                q[0] * q[0] + q[1] * q[1] + q[2] * q[2] + q[3] * q[3]);
+            assertEquals(1.0f, length, 1e-6f);
+        }
+        assertArrayEquals(new float[] { 0.0f, 0.0f, h, h }, 
+            evaluate(animation, 1.0f), 1e-6f);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidNumberOfValues()
+    {
+        float timesS[] = { 0.0f, 1.0f };
+        float values[][] = { { 0.0f }, { 1.0f } };
+        new Animation(timesS, values, InterpolatorType.CUBICSPLINE);
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.bvh;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.AccessorDatas;
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.ElementType;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.NodeModel;
+import de.javagl.jgltf.model.impl.DefaultAccessorModel;
+import de.javagl.jgltf.model.impl.DefaultMeshModel;
+import de.javagl.jgltf.model.impl.DefaultMeshPrimitiveModel;
+import de.javagl.jgltf.model.impl.DefaultNodeModel;
+import de.javagl.jgltf.model.impl.DefaultSceneModel;
+
+/**
+ * Tests for the {@link SceneBvh}, comparing its results to brute-force
+ * computations
+ */
+@SuppressWarnings("javadoc")
+public class TestSceneBvh
+{
+    private static final int NUM_TRIANGLES = 2000;
+    
+    private DefaultSceneModel sceneModel;
+    private DefaultNodeModel root;
+    private DefaultNodeModel child;
+    private float localVertices[];
+    
+    private void createScene()
+    {
+        Random random = new Random(0);
+        localVertices = new float[NUM_TRIANGLES * 9];
+        for (int t = 0; t < NUM_TRIANGLES; t++)
+        {
+            float cx = random.nextFloat() * 10.0f;
+            float cy = random.nextFloat() * 10.0f;
+            float cz = random.nextFloat() * 10.0f;
+            for (int v = 0; v < 3; v++)
+            {
+                localVertices[t * 9 + v * 3 + 0] = cx + random.nextFloat();
+                localVertices[t * 9 + v * 3 + 1] = cy + random.nextFloat();
+                localVertices[t * 9 + v * 3 + 2] = cz + random.nextFloat();
+            }
+        }
+        int numVertices = NUM_TRIANGLES * 3;
+        ByteBuffer byteBuffer = ByteBuffer.allocate(numVertices * 3 * 4)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        AccessorFloatData data = (AccessorFloatData) AccessorDatas.create(
+            GltfConstants.GL_FLOAT, byteBuffer, 0, numVertices, 
+            ElementType.VEC3, null);
+        data.writeElements(0, numVertices, localVertices, 0);
+        DefaultAccessorModel positions = new DefaultAccessorModel(
+            GltfConstants.GL_FLOAT, numVertices, ElementType.VEC3);
+        positions.setAccessorData(data);
+        
+        DefaultMeshPrimitiveModel meshPrimitiveModel = 
+            new DefaultMeshPrimitiveModel(GltfConstants.GL_TRIANGLES);
+        meshPrimitiveModel.putAttribute("POSITION", positions);
+        DefaultMeshModel meshModel = new DefaultMeshModel();
+        meshModel.addMeshPrimitiveModel(meshPrimitiveModel);
+        
+        root = new DefaultNodeModel();
+        root.addMeshModel(meshModel);
+        child = new DefaultNodeModel();
+        child.addMeshModel(meshModel);
+        child.setTranslation(new float[] { 5.0f, 0.0f, 0.0f });
+        root.addChild(child);
+        sceneModel = new DefaultSceneModel();
+        sceneModel.addNode(root);
+    }
+    
+    private float[] computeWorldVertices(NodeModel nodeModel)
+    {
+        float m[] = nodeModel.computeGlobalTransform(null);
+        float result[] = new float[localVertices.length];
+        for (int i = 0; i < localVertices.length; i += 3)
+        {
+            float x = localVertices[i + 0];
+            float y = localVertices[i + 1];
+            float z = localVertices[i + 2];
+            result[i + 0] = m[0] * x + m[4] * y + m[ 8] * z + m[12];
+            result[i + 1] = m[1] * x + m[5] * y + m[ 9] * z + m[13];
+            result[i + 2] = m[2] * x + m[6] * y + m[10] * z + m[14];
+        }
+        return result;
+    }
+    
+    private void checkQueries(SceneBvh bvh)
+    {
+        float worldVertices[][] = 
+        {
+            computeWorldVertices(root),
+            computeWorldVertices(child)
+        };
+        NodeModel nodeModels[] = { root, child };
+        Random random = new Random(1);
+        for (int i = 0; i < 200; i++)
+        {
+            float origin[] = randomPoint(random, -5.0f, 20.0f);
+            float target[] = randomPoint(random, 0.0f, 15.0f);
+            float direction[] = new float[3];
+            for (int c = 0; c < 3; c++)
+            {
+                direction[c] = target[c] - origin[c];
+            }
+            float expected = Float.POSITIVE_INFINITY;
+            for (float vertices[] : worldVertices)
+            {
+                for (int t = 0; t < NUM_TRIANGLES; t++)
+                {
+                    float d = Intersections.intersectRayTriangle(
+                        origin, direction, vertices, t * 9);
+                    if (d >= 0.0f && d < expected)
+                    {
+                        expected = d;
+                    }
+                }
+            }
+            BvhHit hit = bvh.raycast(origin, direction, Float.MAX_VALUE);
+            if (expected == Float.POSITIVE_INFINITY)
+            {
+                assertNull(hit);
+            }
+            else
+            {
+                assertNotNull(hit);
+                assertEquals(expected, hit.getDistance(), 1e-5f);
+            }
+        }
+        
+        float closest[] = new float[3];
+        for (int i = 0; i < 50; i++)
+        {
+            float point[] = randomPoint(random, -5.0f, 20.0f);
+            float expected = Float.POSITIVE_INFINITY;
+            for (float vertices[] : worldVertices)
+            {
+                for (int t = 0; t < NUM_TRIANGLES; t++)
+                {
+                    Intersections.closestPointOnTriangle(
+                        point, vertices, t * 9, closest);
+                    float dx = closest[0] - point[0];
+                    float dy = closest[1] - point[1];
+                    float dz = closest[2] - point[2];
+                    expected = Math.min(expected, dx * dx + dy * dy + dz * dz);
+                }
+            }
+            BvhHit hit = bvh.findNearest(point);
+            assertEquals((float) Math.sqrt(expected), hit.getDistance(), 1e-4f);
+        }
+        
+        for (int i = 0; i < 20; i++)
+        {
+            float min[] = randomPoint(random, 0.0f, 12.0f);
+            float max[] = new float[3];
+            for (int c = 0; c < 3; c++)
+            {
+                max[c] = min[c] + random.nextFloat() * 3.0f;
+            }
+            Set<String> expected = new TreeSet<String>();
+            for (int n = 0; n < nodeModels.length; n++)
+            {
+                for (int t = 0; t < NUM_TRIANGLES; t++)
+                {
+                    if (Intersections.overlapsTriangleBox(
+                        worldVertices[n], t * 9, min, max))
+                    {
+                        expected.add(n + ":" + t);
+                    }
+                }
+            }
+            Set<String> actual = new TreeSet<String>();
+            for (BvhHit hit : bvh.queryBox(min, max))
+            {
+                int n = hit.getNodeModel() == root ? 0 : 1;
+                actual.add(n + ":" + hit.getTriangleIndex());
+            }
+            assertEquals(expected, actual);
+        }
+    }
+    
+    private static float[] randomPoint(Random random, float min, float max)
+    {
+        float result[] = new float[3];
+        for (int c = 0; c < 3; c++)
+        {
+            result[c] = min + random.nextFloat() * (max - min);
+        }
+        return result;
+    }
+    
+    @Test
+    public void testQueries()
+    {
+        createScene();
+        SceneBvh bvh = SceneBvh.create(sceneModel);
+        assertEquals(2 * NUM_TRIANGLES, bvh.getNumTriangles());
+        checkQueries(bvh);
+        checkQueries(SceneBvh.create(sceneModel, null));
+    }
+    
+    @Test
+    public void testRefit()
+    {
+        createScene();
+        SceneBvh bvh = SceneBvh.create(sceneModel);
+        assertFalse(bvh.refit());
+        child.setTranslation(new float[] { 0.0f, 7.0f, -3.0f });
+        assertTrue(bvh.refit());
+        checkQueries(bvh);
+        assertFalse(bvh.refit());
+    }
+    
+    @Test
+    public void testQuantizedPositions()
+    {
+        // A triangle with normalized SHORT positions, as created with
+        // KHR_mesh_quantization, and UNSIGNED_BYTE indices
+        ByteBuffer positionsBuffer = ByteBuffer.allocate(3 * 3 * 2)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        positionsBuffer.asShortBuffer().put(new short[] 
+        { 
+            0, 0, 0, 
+            32767, 0, 0, 
+            0, 32767, 0 
+        });
+        DefaultAccessorModel positions = new DefaultAccessorModel(
+            GltfConstants.GL_SHORT, 3, ElementType.VEC3);
+        positions.setNormalized(true);
+        positions.setAccessorData(AccessorDatas.create(
+            GltfConstants.GL_SHORT, positionsBuffer, 0, 3, 
+            ElementType.VEC3, null));
+        DefaultAccessorModel indices = new DefaultAccessorModel(
+            GltfConstants.GL_UNSIGNED_BYTE, 3, ElementType.SCALAR);
+        indices.setAccessorData(AccessorDatas.create(
+            GltfConstants.GL_UNSIGNED_BYTE, 
+            ByteBuffer.wrap(new byte[] { 0, 1, 2 }), 0, 3, 
+            ElementType.SCALAR, null));
+        
+        DefaultMeshPrimitiveModel meshPrimitiveModel = 
+            new DefaultMeshPrimitiveModel(GltfConstants.GL_TRIANGLES);
+        meshPrimitiveModel.putAttribute("POSITION", positions);
+        meshPrimitiveModel.setIndices(indices);
+        DefaultMeshModel meshModel = new DefaultMeshModel();
+        meshModel.addMeshPrimitiveModel(meshPrimitiveModel);
+        DefaultNodeModel nodeModel = new DefaultNodeModel();
+        nodeModel.setScale(new float[] { 4.0f, 4.0f, 4.0f });
+        nodeModel.addMeshModel(meshModel);
+        DefaultSceneModel quantizedSceneModel = new DefaultSceneModel();
+        quantizedSceneModel.addNode(nodeModel);
+        
+        SceneBvh bvh = SceneBvh.create(quantizedSceneModel);
+        assertEquals(1, bvh.getNumTriangles());
+        BvhHit hit = bvh.raycast(new float[] { 1.0f, 1.0f, 5.0f }, 
+            new float[] { 0.0f, 0.0f, -1.0f }, Float.MAX_VALUE);
+        assertNotNull(hit);
+        assertEquals(5.0f, hit.getDistance(), 1e-5f);
+        assertNull(bvh.raycast(new float[] { 3.0f, 3.0f, 5.0f }, 
+            new float[] { 0.0f, 0.0f, -1.0f }, Float.MAX_VALUE));
+    }
+    
+    @Test
+    public void testFrustum()
+    {
+        createScene();
+        SceneBvh bvh = SceneBvh.create(sceneModel);
+        
+        // A frustum containing everything, and one containing nothing 
+        float allPlanes[] = { 1.0f, 0.0f, 0.0f, 100.0f };
+        float nonePlanes[] = { 1.0f, 0.0f, 0.0f, -100.0f };
+        assertEquals(2 * NUM_TRIANGLES, bvh.queryFrustum(allPlanes).size());
+        assertTrue(bvh.queryFrustum(nonePlanes).isEmpty());
+        
+        // The half space x >= 12 only contains triangles of the child
+        float halfSpace[] = { 1.0f, 0.0f, 0.0f, -12.0f };
+        List<BvhHit> hits = bvh.queryFrustum(halfSpace);
+        assertFalse(hits.isEmpty());
+        for (BvhHit hit : hits)
+        {
+            assertEquals(child, hit.getNodeModel());
+        }
+    }
+}
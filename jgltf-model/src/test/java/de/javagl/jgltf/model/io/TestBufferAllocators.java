@@ -0,0 +1,261 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.BufferModel;
+import de.javagl.jgltf.model.GltfModel;
+
+/**
+ * Tests for the {@link BufferAllocators}
+ */
+@SuppressWarnings("javadoc")
+public class TestBufferAllocators
+{
+    private static final Path INPUT_FILE = Paths.get(
+        "./src/test/resources/testModels/v2/testBox/glTF/Box.gltf");
+
+    private static final Path BINARY_INPUT_FILE = Paths.get(
+        "./src/test/resources/testModels/v2/testBox/glTF-Binary/Box.glb");
+
+    @Test
+    public void testReadWithAccountingAllocator() throws IOException
+    {
+        AccountingBufferAllocator allocator = 
+            BufferAllocators.createAccounting(BufferAllocators.heap(), 0);
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        gltfModelReader.setBufferAllocator(allocator);
+        GltfModel gltfModel = gltfModelReader.read(INPUT_FILE);
+        
+        BufferModel bufferModel = gltfModel.getBufferModels().get(0);
+        ByteBuffer bufferData = bufferModel.getBufferData();
+        assertFalse(bufferData.isDirect());
+        assertEquals(bufferModel.getByteLength(), 
+            allocator.getBytesInFlight());
+        // The JSON file is read with the allocator, and released after
+        // it was parsed, before the external buffer is read
+        long expectedPeak = Math.max(
+            bufferModel.getByteLength(), Files.size(INPUT_FILE));
+        assertEquals(expectedPeak, allocator.getPeakBytesInFlight());
+    }
+    
+    @Test(expected = IllegalStateException.class)
+    public void testReadWithExceededLimit() throws IOException
+    {
+        AccountingBufferAllocator allocator = 
+            BufferAllocators.createAccounting(BufferAllocators.heap(), 100);
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        gltfModelReader.setBufferAllocator(allocator);
+        gltfModelReader.read(INPUT_FILE);
+    }
+    
+    @Test
+    public void testReadBinaryWithAccountingAllocator() throws IOException
+    {
+        AccountingBufferAllocator allocator = 
+            BufferAllocators.createAccounting(BufferAllocators.heap(), 0);
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        gltfModelReader.setBufferAllocator(allocator);
+        GltfModel gltfModel = gltfModelReader.read(BINARY_INPUT_FILE);
+        
+        ByteBuffer bufferData = 
+            gltfModel.getBufferModels().get(0).getBufferData();
+        assertFalse(bufferData.isDirect());
+        assertEquals(Files.size(BINARY_INPUT_FILE), 
+            allocator.getBytesInFlight());
+    }
+    
+    @Test
+    public void testReadWithDefaultAllocatorIsDirect() throws IOException
+    {
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        GltfModel gltfModel = gltfModelReader.read(BINARY_INPUT_FILE);
+        ByteBuffer bufferData = 
+            gltfModel.getBufferModels().get(0).getBufferData();
+        assertTrue(bufferData.isDirect());
+    }
+    
+    @Test
+    public void testReadMultipleWithScopedBudget() throws IOException
+    {
+        long budget = Files.size(BINARY_INPUT_FILE);
+        AccountingBufferAllocator accounting = 
+            BufferAllocators.createAccounting(BufferAllocators.heap(), budget);
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        for (int i = 0; i < 3; i++)
+        {
+            try (ScopedBufferAllocator scoped = 
+                BufferAllocators.createScoped(accounting))
+            {
+                gltfModelReader.setBufferAllocator(scoped);
+                gltfModelReader.read(BINARY_INPUT_FILE);
+                assertEquals(budget, accounting.getBytesInFlight());
+            }
+            assertEquals(0, accounting.getBytesInFlight());
+        }
+    }
+    
+    @Test
+    public void testFailedReadReleasesBuffers() throws IOException
+    {
+        Path file = Files.createTempFile("invalid", ".glb");
+        try
+        {
+            byte data[] = Files.readAllBytes(BINARY_INPUT_FILE);
+            // Break the JSON chunk, which starts after the 20 header bytes
+            data[20] = (byte) '#';
+            Files.write(file, data);
+            AccountingBufferAllocator allocator = 
+                BufferAllocators.createAccounting(BufferAllocators.heap(), 0);
+            GltfAssetReader gltfAssetReader = new GltfAssetReader();
+            gltfAssetReader.setBufferAllocator(allocator);
+            try
+            {
+                gltfAssetReader.read(file);
+            }
+            catch (IOException e)
+            {
+                // Expected
+            }
+            assertEquals(data.length, allocator.getTotalBytesAllocated());
+            assertEquals(0, allocator.getBytesInFlight());
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+    
+    @Test
+    public void testPooledAndScoped()
+    {
+        AccountingBufferAllocator accounting = 
+            BufferAllocators.createAccounting(BufferAllocators.direct(), 0);
+        BufferAllocator pooled = 
+            BufferAllocators.createPooled(accounting, 4);
+        
+        try (ScopedBufferAllocator scoped = 
+            BufferAllocators.createScoped(pooled))
+        {
+            ByteBuffer first = scoped.allocate(16);
+            first.put(3, (byte) 42);
+            scoped.allocate(32);
+            assertEquals(2, scoped.getNumAllocatedBuffers());
+        }
+        assertEquals(48, accounting.getBytesInFlight());
+        
+        ByteBuffer second = pooled.allocate(16);
+        assertTrue(second.isDirect());
+        assertEquals(0, second.get(3));
+        assertEquals(16, second.remaining());
+        assertEquals(16, second.capacity());
+        assertEquals(48, accounting.getTotalBytesAllocated());
+    }
+    
+    @Test
+    public void testPooledPowerOfTwoBuckets()
+    {
+        AccountingBufferAllocator accounting = 
+            BufferAllocators.createAccounting(BufferAllocators.heap(), 0);
+        BufferAllocator pooled = 
+            BufferAllocators.createPooled(accounting, 4);
+        
+        ByteBuffer first = pooled.allocate(20);
+        assertEquals(20, first.capacity());
+        assertEquals(32, accounting.getBytesInFlight());
+        first.put(19, (byte) 42);
+        pooled.release(first);
+        
+        ByteBuffer second = pooled.allocate(30);
+        assertEquals(30, second.capacity());
+        assertEquals(0, second.get(19));
+        assertEquals(32, accounting.getTotalBytesAllocated());
+        
+        pooled.allocate(33);
+        assertEquals(96, accounting.getTotalBytesAllocated());
+    }
+    
+    @Test
+    public void testAccountingIgnoresForeignBuffers()
+    {
+        AccountingBufferAllocator accounting = 
+            BufferAllocators.createAccounting(BufferAllocators.heap(), 0);
+        ByteBuffer own = accounting.allocate(16);
+        accounting.release(ByteBuffer.allocate(100));
+        assertEquals(16, accounting.getBytesInFlight());
+        accounting.release(own);
+        accounting.release(own);
+        assertEquals(0, accounting.getBytesInFlight());
+    }
+    
+    @Test
+    public void testUnreleasedBuffersAreNotKeptAlive() 
+        throws InterruptedException
+    {
+        // Buffers that are never released (like the buffers of models 
+        // that have been read successfully) must not accumulate in the 
+        // pool or in the budget of the accounting allocator
+        int capacity = 1 << 20;
+        AccountingBufferAllocator accounting = 
+            BufferAllocators.createAccounting(
+                BufferAllocators.heap(), 4 * capacity);
+        BufferAllocator pooled = 
+            BufferAllocators.createPooled(accounting, 4);
+        for (int i = 0; i < 32; i++)
+        {
+            ByteBuffer byteBuffer = allocateWithRetry(pooled, capacity);
+            assertEquals(capacity, byteBuffer.capacity());
+        }
+        assertEquals(32L * capacity, accounting.getTotalBytesAllocated());
+    }
+    
+    private static ByteBuffer allocateWithRetry(
+        BufferAllocator allocator, int capacity) throws InterruptedException
+    {
+        int attempt = 0;
+        while (true)
+        {
+            try
+            {
+                return allocator.allocate(capacity);
+            }
+            catch (IllegalStateException e)
+            {
+                if (attempt >= 50)
+                {
+                    throw e;
+                }
+                attempt++;
+                System.gc();
+                Thread.sleep(10);
+            }
+        }
+    }
+    
+    @Test
+    public void testComputeBucketCapacity()
+    {
+        assertEquals(0, PooledBufferAllocator.computeBucketCapacity(0));
+        assertEquals(1, PooledBufferAllocator.computeBucketCapacity(1));
+        assertEquals(4, PooledBufferAllocator.computeBucketCapacity(3));
+        assertEquals(1024, PooledBufferAllocator.computeBucketCapacity(1000));
+        assertEquals(1 << 30, 
+            PooledBufferAllocator.computeBucketCapacity(1 << 30));
+        assertEquals((1 << 30) + 1, 
+            PooledBufferAllocator.computeBucketCapacity((1 << 30) + 1));
+    }
+}
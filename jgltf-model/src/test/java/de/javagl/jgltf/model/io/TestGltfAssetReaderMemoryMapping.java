@@ -0,0 +1,141 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.BufferModel;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.io.v2.RawBinaryGltfDataReaderV2;
+
+/**
+ * Tests for reading binary glTF assets with the memory mapping option
+ * of the {@link GltfAssetReader}
+ */
+@SuppressWarnings("javadoc")
+public class TestGltfAssetReaderMemoryMapping
+{
+    @Test
+    public void testReadBinaryV2MemoryMapped() throws IOException
+    {
+        Path inputFile = Paths.get(
+            "./src/test/resources/testModels/v2/testBox/glTF-Binary/Box.glb");
+
+        GltfAssetReader gltfAssetReader = new GltfAssetReader();
+        GltfAsset expectedAsset = gltfAssetReader.read(inputFile);
+
+        gltfAssetReader.setMemoryMapping(true);
+        GltfAsset actualAsset = gltfAssetReader.read(inputFile);
+
+        ByteBuffer expectedBinaryData = expectedAsset.getBinaryData();
+        ByteBuffer actualBinaryData = actualAsset.getBinaryData();
+        assertTrue(actualBinaryData.isReadOnly());
+        assertEquals(expectedBinaryData, actualBinaryData);
+    }
+
+    @Test
+    public void testReadModelsMemoryMapped() throws IOException
+    {
+        String basePath = "./src/test/resources/testModels/";
+        Path inputFiles[] =
+        {
+            Paths.get(basePath, "v1/testBox/glTF-Binary/Box.glb"),
+            Paths.get(basePath, "v2/testBox/glTF-Binary/Box.glb"),
+            Paths.get(basePath, "v2/testBox/glTF/Box.gltf"),
+        };
+        for (Path inputFile : inputFiles)
+        {
+            GltfModelReader gltfModelReader = new GltfModelReader();
+            GltfModel expectedModel = gltfModelReader.read(inputFile);
+
+            gltfModelReader.setMemoryMapping(true);
+            GltfModel actualModel = gltfModelReader.read(inputFile);
+
+            assertEquals(expectedModel.getBufferModels().size(),
+                actualModel.getBufferModels().size());
+            for (int i = 0; i < expectedModel.getBufferModels().size(); i++)
+            {
+                BufferModel expectedBufferModel =
+                    expectedModel.getBufferModels().get(i);
+                BufferModel actualBufferModel =
+                    actualModel.getBufferModels().get(i);
+                assertEquals(expectedBufferModel.getBufferData(),
+                    actualBufferModel.getBufferData());
+            }
+        }
+    }
+
+    @Test
+    public void testReadBinaryV2MemoryMappedEmptyBinChunk() throws IOException
+    {
+        String json = "{\"asset\":{\"version\":\"2.0\"}}";
+        Path file = writeGlb(json.getBytes(StandardCharsets.UTF_8));
+        try (FileChannel fileChannel =
+            FileChannel.open(file, StandardOpenOption.READ))
+        {
+            RawGltfData rawGltfData =
+                RawBinaryGltfDataReaderV2.readBinaryGltfMapped(fileChannel);
+            ByteBuffer binaryData = rawGltfData.getBinaryData();
+            assertEquals(0, binaryData.capacity());
+            assertEquals(ByteOrder.LITTLE_ENDIAN, binaryData.order());
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadBinaryV2MemoryMappedEmptyJsonChunk() throws IOException
+    {
+        Path file = writeGlb(new byte[0]);
+        try (FileChannel fileChannel =
+            FileChannel.open(file, StandardOpenOption.READ))
+        {
+            RawBinaryGltfDataReaderV2.readBinaryGltfMapped(fileChannel);
+        }
+        finally
+        {
+            Files.delete(file);
+        }
+    }
+
+    private static Path writeGlb(byte json[]) throws IOException
+    {
+        int jsonLength = (json.length + 3) & ~3;
+        int length = 12 + 8 + jsonLength + 8;
+        ByteBuffer glb = ByteBuffer.allocate(length);
+        glb.order(ByteOrder.LITTLE_ENDIAN);
+        glb.putInt(0x46546C67);
+        glb.putInt(2);
+        glb.putInt(length);
+        glb.putInt(jsonLength);
+        glb.putInt(0x4E4F534A);
+        glb.put(json);
+        for (int i = json.length; i < jsonLength; i++)
+        {
+            glb.put((byte) ' ');
+        }
+        glb.putInt(0);
+        glb.putInt(0x004E4942);
+        Path file = Files.createTempFile("emptyChunk", ".glb");
+        Files.write(file, glb.array());
+        return file;
+    }
+}
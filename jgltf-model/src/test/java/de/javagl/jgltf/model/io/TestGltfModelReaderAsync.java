@@ -0,0 +1,76 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.GltfModel;
+
+/**
+ * Tests for {@link GltfModelReader#readAsync}
+ */
+@SuppressWarnings("javadoc")
+public class TestGltfModelReaderAsync
+{
+    private static final String BOX_PATH = 
+        "./src/test/resources/testModels/v2/testBox/glTF/Box.gltf";
+    
+    @Test
+    public void testReadAsync() throws Exception
+    {
+        URI uri = Paths.get(BOX_PATH).toUri();
+        AtomicLong totalNumBytesRead = new AtomicLong();
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try
+        {
+            CompletableFuture<GltfModel> future = 
+                gltfModelReader.readAsync(uri, executorService, 
+                    t -> totalNumBytesRead.accumulateAndGet(t, Math::max));
+            GltfModel gltfModel = future.get();
+            assertEquals(648, 
+                gltfModel.getBufferModels().get(0).getByteLength());
+            
+            // The size of the Box.gltf and the Box0.bin file
+            assertEquals(1720 + 648, totalNumBytesRead.get());
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void testReadAsyncCancelled()
+    {
+        URI uri = Paths.get(BOX_PATH).toUri();
+        Deque<Runnable> tasks = new ArrayDeque<Runnable>();
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        CompletableFuture<GltfModel> future = 
+            gltfModelReader.readAsync(uri, tasks::add);
+        future.cancel(true);
+        int numExecutedTasks = 0;
+        while (!tasks.isEmpty())
+        {
+            tasks.poll().run();
+            numExecutedTasks++;
+        }
+        assertTrue(future.isCancelled());
+        assertEquals(1, numExecutedTasks);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.BufferModel;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.io.v2.GltfAssetV2;
+import de.javagl.jgltf.model.v2.GltfModelCreatorV2;
+
+/**
+ * Tests for reading glTF models where the external references are 
+ * loaded lazily
+ */
+@SuppressWarnings("javadoc")
+public class TestGltfModelReaderLazyReferences
+{
+    private static final Path INPUT_FILE = Paths.get(
+        "./src/test/resources/testModels/v2/testBox/glTF/Box.gltf");
+    
+    @Test
+    public void testReferencesAreOnlyResolvedOnAccess() throws IOException
+    {
+        GltfAssetReader gltfAssetReader = new GltfAssetReader();
+        GltfAssetV2 gltfAsset = (GltfAssetV2) 
+            gltfAssetReader.readWithoutReferences(INPUT_FILE);
+        
+        AtomicInteger counter = new AtomicInteger();
+        Function<String, ByteBuffer> delegate = 
+            UriResolvers.createBasePathResolver(IO.getParent(INPUT_FILE));
+        GltfModel gltfModel = GltfModelCreatorV2.create(gltfAsset, uri -> 
+        {
+            counter.incrementAndGet();
+            return delegate.apply(uri);
+        });
+        
+        assertEquals(2, gltfModel.getNodeModels().size());
+        assertEquals(1, gltfModel.getBufferModels().size());
+        BufferModel bufferModel = gltfModel.getBufferModels().get(0);
+        assertEquals(648, bufferModel.getByteLength());
+        assertEquals(0, counter.get());
+        
+        ByteBuffer bufferData = bufferModel.getBufferData();
+        assertNotNull(bufferData);
+        assertEquals(648, bufferData.capacity());
+        assertEquals(1, counter.get());
+        
+        for (AccessorModel accessorModel : gltfModel.getAccessorModels())
+        {
+            assertNotNull(accessorModel.getAccessorData());
+        }
+        assertEquals(1, counter.get());
+    }
+
+    @Test
+    public void testLazyModelDataEqualsEagerModelData() throws IOException
+    {
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        GltfModel expectedModel = gltfModelReader.read(INPUT_FILE);
+        
+        gltfModelReader.setLazyReferences(true);
+        GltfModel actualModel = gltfModelReader.read(INPUT_FILE);
+        
+        List<BufferModel> expectedBufferModels = 
+            expectedModel.getBufferModels();
+        List<BufferModel> actualBufferModels = 
+            actualModel.getBufferModels();
+        assertEquals(expectedBufferModels.size(), actualBufferModels.size());
+        for (int i = 0; i < expectedBufferModels.size(); i++)
+        {
+            assertEquals(expectedBufferModels.get(i).getBufferData(), 
+                actualBufferModels.get(i).getBufferData());
+        }
+        
+        List<AccessorModel> expectedAccessorModels = 
+            expectedModel.getAccessorModels();
+        List<AccessorModel> actualAccessorModels = 
+            actualModel.getAccessorModels();
+        for (int i = 0; i < expectedAccessorModels.size(); i++)
+        {
+            AccessorModel expectedAccessorModel = 
+                expectedAccessorModels.get(i);
+            AccessorModel actualAccessorModel = 
+                actualAccessorModels.get(i);
+            assertEquals(
+                expectedAccessorModel.getAccessorData().createByteBuffer(), 
+                actualAccessorModel.getAccessorData().createByteBuffer());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.impl.v2.Asset;
+import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.io.v2.GltfAssetV2;
+
+/**
+ * Tests for writing binary glTF 2.0 data without intermediate copies
+ */
+@SuppressWarnings("javadoc")
+public class TestGltfModelWriterV2Streaming
+{
+    @Test
+    public void testUnalignedBinaryDataIsPadded() throws IOException
+    {
+        GlTF gltf = new GlTF();
+        Asset asset = new Asset();
+        asset.setVersion("2.0");
+        gltf.setAsset(asset);
+        ByteBuffer binaryData = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5 });
+        GltfAssetV2 gltfAsset = new GltfAssetV2(gltf, binaryData);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        GltfAssetWriter gltfAssetWriter = new GltfAssetWriter();
+        gltfAssetWriter.writeBinary(gltfAsset, baos);
+        byte data[] = baos.toByteArray();
+
+        ByteBuffer header = 
+            ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0, data.length % 4);
+        assertEquals(data.length, header.getInt(8));
+        int jsonChunkLength = header.getInt(12);
+        assertEquals(0, jsonChunkLength % 4);
+        int binChunkLength = header.getInt(20 + jsonChunkLength);
+        assertEquals(8, binChunkLength);
+
+        GltfAssetReader gltfAssetReader = new GltfAssetReader();
+        GltfAsset readAsset = gltfAssetReader.readWithoutReferences(
+            new ByteArrayInputStream(data));
+        ByteBuffer readBinaryData = readAsset.getBinaryData();
+        assertEquals(8, readBinaryData.capacity());
+        for (int i = 0; i < 5; i++)
+        {
+            assertEquals(i + 1, readBinaryData.get(i));
+        }
+        assertEquals(0, readBinaryData.get(5));
+    }
+
+    @Test
+    public void testWriteBinaryToFileChannel() throws IOException
+    {
+        String basePath = "./src/test/resources/testModels/v2/";
+        Path inputFile = Paths.get(basePath, "testBox/glTF/Box.gltf");
+        Path outputPath = Paths.get(basePath,
+            "testBox/output-glTF-to-glTF-Binary");
+        Files.createDirectories(outputPath);
+        Path outputFile = Paths.get(outputPath.toString(), "BoxStreamed.glb");
+
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        GltfModel expectedModel = gltfModelReader.read(inputFile);
+
+        GltfModelWriter gltfModelWriter = new GltfModelWriter();
+        gltfModelWriter.writeBinary(expectedModel, outputFile.toFile());
+
+        GltfModel actualModel = gltfModelReader.read(outputFile);
+
+        List<AccessorModel> expectedAccessorModels =
+            expectedModel.getAccessorModels();
+        List<AccessorModel> actualAccessorModels =
+            actualModel.getAccessorModels();
+        assertEquals(expectedAccessorModels.size(),
+            actualAccessorModels.size());
+        for (int i = 0; i < expectedAccessorModels.size(); i++)
+        {
+            AccessorModel expectedAccessorModel =
+                expectedAccessorModels.get(i);
+            AccessorModel actualAccessorModel =
+                actualAccessorModels.get(i);
+            assertEquals(
+                expectedAccessorModel.getAccessorData().createByteBuffer(),
+                actualAccessorModel.getAccessorData().createByteBuffer());
+        }
+    }
+}
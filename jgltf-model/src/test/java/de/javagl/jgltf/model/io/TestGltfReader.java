@@ -0,0 +1,75 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link GltfReader} class, which determines the version
+ * with a streaming parser and then binds the JSON directly to the 
+ * version-specific glTF class.
+ */
+@SuppressWarnings("javadoc")
+public class TestGltfReader
+{
+    private static ByteBuffer createJsonData(String jsonString)
+    {
+        return Buffers.create(jsonString.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    @Test
+    public void testVersionAfterOtherProperties() throws IOException
+    {
+        GltfReader gltfReader = new GltfReader();
+        gltfReader.read(createJsonData(
+            "{ \"nodes\": [ { \"name\": \"a\", \"children\": [ 1 ] }, {} ],"
+            + "\"asset\": { \"generator\": \"x\", \"version\": \"2.0\" } }"));
+        assertEquals("2.0", gltfReader.getVersion());
+        assertEquals(2, gltfReader.getMajorVersion());
+        de.javagl.jgltf.impl.v2.GlTF gltf = gltfReader.getAsGltfV2();
+        assertNotNull(gltf);
+        assertEquals(2, gltf.getNodes().size());
+        assertEquals("a", gltf.getNodes().get(0).getName());
+    }
+    
+    @Test
+    public void testMissingVersion() throws IOException
+    {
+        GltfReader gltfReader = new GltfReader();
+        gltfReader.read(createJsonData(
+            "{ \"asset\": { \"generator\": \"x\" } }"));
+        assertEquals("1.0", gltfReader.getVersion());
+        
+        gltfReader.read(createJsonData("{ \"scenes\": {} }"));
+        assertEquals("1.0", gltfReader.getVersion());
+    }
+    
+    @Test
+    public void testJsonErrorsAreReported() throws IOException
+    {
+        List<JsonError> jsonErrors = new ArrayList<JsonError>();
+        GltfReader gltfReader = new GltfReader();
+        gltfReader.setJsonContext(GltfJsonContext.create(jsonErrors::add));
+        gltfReader.read(createJsonData(
+            "{ \"asset\": { \"version\": \"2.0\" }, "
+            + "\"nodes\": [ { \"unknownProperty\": 1 } ] }"));
+        gltfReader.getAsGltfV2();
+        assertEquals(1, jsonErrors.size());
+        assertEquals("Unknown property: unknownProperty", 
+            jsonErrors.get(0).getMessage());
+        assertEquals(".nodes..unknownProperty", 
+            jsonErrors.get(0).getJsonPathString());
+    }
+}
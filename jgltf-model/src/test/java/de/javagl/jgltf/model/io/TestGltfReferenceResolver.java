@@ -0,0 +1,185 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.GltfModel;
+
+/**
+ * Tests for resolving references concurrently with the 
+ * {@link GltfReferenceResolver}
+ */
+@SuppressWarnings("javadoc")
+public class TestGltfReferenceResolver
+{
+    @Test
+    public void testResolveAllWithExecutor() throws IOException
+    {
+        int numReferences = 50;
+        ByteBuffer results[] = new ByteBuffer[numReferences];
+        List<GltfReference> references = new ArrayList<GltfReference>();
+        for (int i = 0; i < numReferences; i++)
+        {
+            int index = i;
+            references.add(new GltfReference("buffer " + i, 
+                String.valueOf(i), b -> results[index] = b));
+        }
+        Function<String, ByteBuffer> uriResolver = uri -> 
+        {
+            ByteBuffer byteBuffer = Buffers.create(4);
+            byteBuffer.putInt(0, Integer.parseInt(uri));
+            return byteBuffer;
+        };
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try
+        {
+            GltfReferenceResolver.resolveAll(
+                references, uriResolver, executorService);
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+        for (int i = 0; i < numReferences; i++)
+        {
+            assertEquals(i, results[i].getInt(0));
+        }
+    }
+    
+    @Test
+    public void testResolveAllParallelAggregatesFailures()
+    {
+        ByteBuffer results[] = new ByteBuffer[3];
+        List<GltfReference> references = new ArrayList<GltfReference>();
+        references.add(new GltfReference("a", "a", b -> results[0] = b));
+        references.add(new GltfReference("b", "b", b -> results[1] = b));
+        references.add(new GltfReference("c", "c", b -> results[2] = b));
+        Function<String, ByteBuffer> uriResolver = uri -> 
+        {
+            if (uri.equals("b"))
+            {
+                return null;
+            }
+            if (uri.equals("c"))
+            {
+                throw new IllegalStateException("Failed");
+            }
+            return Buffers.create(1);
+        };
+        try
+        {
+            GltfReferenceResolver.resolveAllParallel(references, uriResolver);
+            fail("Expected an IOException");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage().contains("[b, c]"));
+            assertEquals(1, e.getSuppressed().length);
+        }
+        assertEquals(1, results[0].capacity());
+        assertNull(results[1]);
+        assertNull(results[2]);
+    }
+    
+    @Test
+    public void testTargetsAreCalledInCallingThread() throws IOException
+    {
+        Thread callingThread = Thread.currentThread();
+        List<Thread> targetThreads = new ArrayList<Thread>();
+        List<GltfReference> references = new ArrayList<GltfReference>();
+        for (int i = 0; i < 10; i++)
+        {
+            references.add(new GltfReference("buffer " + i, 
+                String.valueOf(i), 
+                b -> targetThreads.add(Thread.currentThread())));
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try
+        {
+            GltfReferenceResolver.resolveAll(
+                references, uri -> Buffers.create(1), executorService);
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+        assertEquals(10, targetThreads.size());
+        for (Thread targetThread : targetThreads)
+        {
+            assertSame(callingThread, targetThread);
+        }
+    }
+    
+    @Test
+    public void testInterruptCancelsFetching()
+    {
+        List<CompletableFuture<ByteBuffer>> futures = 
+            new ArrayList<CompletableFuture<ByteBuffer>>();
+        ResourceFetcher resourceFetcher = uri -> 
+        {
+            CompletableFuture<ByteBuffer> future = 
+                new CompletableFuture<ByteBuffer>();
+            futures.add(future);
+            return future;
+        };
+        List<GltfReference> references = new ArrayList<GltfReference>();
+        references.add(new GltfReference("a", "a", b -> fail()));
+        references.add(new GltfReference("b", "b", b -> fail()));
+        Thread.currentThread().interrupt();
+        try
+        {
+            GltfReferenceResolver.resolveAllWithFetcher(references, 
+                URI.create("http://www.example.com/"), resourceFetcher);
+            fail("Expected an IOException");
+        }
+        catch (IOException e)
+        {
+            assertTrue(Thread.interrupted());
+        }
+        assertEquals(2, futures.size());
+        for (CompletableFuture<ByteBuffer> future : futures)
+        {
+            assertTrue(future.isCancelled());
+        }
+    }
+    
+    @Test
+    public void testReadModelWithReferenceExecutor() throws IOException
+    {
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try
+        {
+            gltfModelReader.setReferenceExecutor(executorService);
+            GltfModel gltfModel = gltfModelReader.read(Paths.get(
+                "./src/test/resources/testModels/v2/testBox/glTF/Box.gltf"));
+            assertEquals(648, 
+                gltfModel.getBufferModels().get(0).getByteLength());
+        }
+        finally
+        {
+            executorService.shutdown();
+        }
+    }
+}
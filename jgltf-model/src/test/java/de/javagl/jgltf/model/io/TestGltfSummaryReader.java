@@ -0,0 +1,97 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link GltfSummaryReader}
+ */
+@SuppressWarnings("javadoc")
+public class TestGltfSummaryReader
+{
+    private static final String BASE_PATH = "./src/test/resources/testModels/";
+
+    @Test
+    public void testReadSummaries() throws IOException
+    {
+        String fileNames[] =
+        {
+            "v1/testBox/glTF/Box.gltf",
+            "v1/testBox/glTF-Binary/Box.glb",
+            "v1/testBox/glTF-Embedded/Box.gltf",
+            "v2/testBox/glTF/Box.gltf",
+            "v2/testBox/glTF-Binary/Box.glb",
+            "v2/testBox/glTF-Embedded/Box.gltf",
+        };
+        GltfSummaryReader gltfSummaryReader = new GltfSummaryReader();
+        for (String fileName : fileNames)
+        {
+            Path path = Paths.get(BASE_PATH, fileName);
+            GltfSummary gltfSummary = gltfSummaryReader.read(path);
+
+            String expectedVersion =
+                fileName.startsWith("v1") ? "1.0" : "2.0";
+            assertEquals(expectedVersion, gltfSummary.getVersion());
+            assertEquals(fileName.endsWith(".glb"), gltfSummary.isBinary());
+            if (fileName.equals("v1/testBox/glTF-Binary/Box.glb"))
+            {
+                assertEquals(Arrays.asList("KHR_binary_glTF"),
+                    gltfSummary.getExtensionsUsed());
+            }
+            else
+            {
+                assertTrue(gltfSummary.getExtensionsUsed().isEmpty());
+            }
+            assertEquals(2, gltfSummary.getNodeCount());
+            assertEquals(1, gltfSummary.getMeshCount());
+            assertEquals(3, gltfSummary.getAccessorCount());
+            assertEquals(1, gltfSummary.getCount("materials"));
+            assertEquals(0, gltfSummary.getCount("animations"));
+            assertArrayEquals(new double[] { -0.5, -0.5, -0.5 },
+                gltfSummary.getPositionMin(), 0.0);
+            assertArrayEquals(new double[] { 0.5, 0.5, 0.5 },
+                gltfSummary.getPositionMax(), 0.0);
+        }
+    }
+
+    @Test
+    public void testReadMinimalSummary() throws IOException
+    {
+        String json = "{ \"extras\": { \"nodes\": [ 1, 2 ] }, "
+            + "\"extensionsUsed\": [ \"KHR_example\" ], "
+            + "\"scene\": 0, "
+            + "\"asset\": { \"generator\": \"test\", \"version\": \"2.0\" } }";
+        byte data[] = json.getBytes(StandardCharsets.UTF_8);
+        GltfSummaryReader gltfSummaryReader = new GltfSummaryReader();
+        try (InputStream inputStream = new ByteArrayInputStream(data))
+        {
+            GltfSummary gltfSummary = gltfSummaryReader.read(inputStream);
+            assertEquals("2.0", gltfSummary.getVersion());
+            assertEquals("test", gltfSummary.getGenerator());
+            assertEquals(Arrays.asList("KHR_example"),
+                gltfSummary.getExtensionsUsed());
+            assertEquals(0, gltfSummary.getNodeCount());
+            assertFalse(gltfSummary.isBinary());
+            assertNull(gltfSummary.getPositionMin());
+            assertNull(gltfSummary.getPositionMax());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.model.BufferModel;
+import de.javagl.jgltf.model.GltfModel;
+
+/**
+ * Tests for the {@link ResourceFetchers}
+ */
+@SuppressWarnings("javadoc")
+public class TestResourceFetchers
+{
+    private static final String BASE_PATH = "./src/test/resources/testModels/";
+
+    @Test
+    public void testConcurrentFetchesAreDeduplicated()
+    {
+        AtomicInteger fetchCounter = new AtomicInteger();
+        CompletableFuture<ByteBuffer> pending =
+            new CompletableFuture<ByteBuffer>();
+        ResourceFetcher delegate = uri ->
+        {
+            fetchCounter.incrementAndGet();
+            return pending;
+        };
+        ResourceFetcher fetcher =
+            ResourceFetchers.createCaching(delegate, 1024);
+
+        URI uri = URI.create("http://example.com/data.bin");
+        CompletableFuture<ByteBuffer> f0 = fetcher.fetch(uri);
+        CompletableFuture<ByteBuffer> f1 = fetcher.fetch(uri);
+        assertEquals(1, fetchCounter.get());
+
+        pending.complete(Buffers.create(new byte[] { 1, 2, 3, 4 }));
+        assertEquals(4, f0.join().capacity());
+        assertEquals(4, f1.join().capacity());
+        assertTrue(f0.join().isReadOnly());
+
+        // Served from the cache
+        assertEquals(3, fetcher.fetch(uri).join().get(2));
+        assertEquals(1, fetchCounter.get());
+    }
+
+    @Test
+    public void testEvictionAndSpill() throws IOException
+    {
+        AtomicInteger fetchCounter = new AtomicInteger();
+        ResourceFetcher delegate = uri ->
+        {
+            fetchCounter.incrementAndGet();
+            byte data[] = new byte[10];
+            data[0] = (byte) uri.getPath().length();
+            return CompletableFuture.completedFuture(Buffers.create(data));
+        };
+        URI a = URI.create("http://example.com/a.bin");
+        URI bb = URI.create("http://example.com/bb.bin");
+
+        ResourceFetcher caching =
+            ResourceFetchers.createCaching(delegate, 15);
+        caching.fetch(a).join();
+        caching.fetch(bb).join();
+        caching.fetch(a).join();
+        assertEquals(3, fetchCounter.get());
+
+        fetchCounter.set(0);
+        Path spillDirectory = Files.createTempDirectory("jgltf-spill");
+        ResourceFetcher spilling =
+            ResourceFetchers.createCaching(delegate, 15, spillDirectory);
+        spilling.fetch(a).join();
+        spilling.fetch(bb).join();
+        ByteBuffer spilled = spilling.fetch(a).join();
+        assertEquals(2, fetchCounter.get());
+        assertEquals(10, spilled.capacity());
+        assertEquals(a.getPath().length(), spilled.get(0));
+    }
+
+    @Test
+    public void testFailedFetchIsNotCached()
+    {
+        AtomicInteger fetchCounter = new AtomicInteger();
+        ResourceFetcher delegate = uri ->
+        {
+            fetchCounter.incrementAndGet();
+            CompletableFuture<ByteBuffer> future =
+                new CompletableFuture<ByteBuffer>();
+            future.completeExceptionally(new IOException("Not found"));
+            return future;
+        };
+        ResourceFetcher fetcher =
+            ResourceFetchers.createCaching(delegate, 1024);
+        URI uri = URI.create("http://example.com/missing.bin");
+        assertTrue(fetcher.fetch(uri).isCompletedExceptionally());
+        assertTrue(fetcher.fetch(uri).isCompletedExceptionally());
+        assertEquals(2, fetchCounter.get());
+    }
+
+    @Test
+    public void testReadModelsWithSharedFetcher() throws IOException
+    {
+        AtomicInteger fetchCounter = new AtomicInteger();
+        ResourceFetcher reading = ResourceFetchers.create();
+        ResourceFetcher counting = uri ->
+        {
+            fetchCounter.incrementAndGet();
+            return reading.fetch(uri);
+        };
+        ResourceFetcher fetcher =
+            ResourceFetchers.createCaching(counting, 1 << 20);
+
+        Path inputFile = Paths.get(BASE_PATH, "v2/testBox/glTF/Box.gltf");
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        GltfModel expectedModel = gltfModelReader.read(inputFile);
+
+        gltfModelReader.setResourceFetcher(fetcher);
+        GltfModel model0 = gltfModelReader.read(inputFile);
+        GltfModel model1 = gltfModelReader.read(inputFile.toUri());
+        assertEquals(1, fetchCounter.get());
+
+        List<BufferModel> expectedBufferModels =
+            expectedModel.getBufferModels();
+        for (GltfModel actualModel : new GltfModel[] { model0, model1 })
+        {
+            List<BufferModel> actualBufferModels =
+                actualModel.getBufferModels();
+            assertEquals(expectedBufferModels.size(),
+                actualBufferModels.size());
+            for (int i = 0; i < expectedBufferModels.size(); i++)
+            {
+                assertEquals(expectedBufferModels.get(i).getBufferData(),
+                    actualBufferModels.get(i).getBufferData());
+            }
+        }
+
+        GltfAssetReader gltfAssetReader = new GltfAssetReader();
+        gltfAssetReader.setResourceFetcher(fetcher);
+        GltfAsset gltfAsset = gltfAssetReader.read(inputFile);
+        assertEquals(1, fetchCounter.get());
+        assertEquals(1, gltfAsset.getReferenceDatas().size());
+    }
+}
@@ -0,0 +1,288 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import de.javagl.jgltf.impl.v2.Accessor;
+import de.javagl.jgltf.impl.v2.Asset;
+import de.javagl.jgltf.impl.v2.Buffer;
+import de.javagl.jgltf.impl.v2.BufferView;
+import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.impl.v2.Mesh;
+import de.javagl.jgltf.impl.v2.MeshPrimitive;
+import de.javagl.jgltf.model.AccessorModel;
+import de.javagl.jgltf.model.AccessorSparseModel;
+import de.javagl.jgltf.model.GltfConstants;
+import de.javagl.jgltf.model.GltfModel;
+import de.javagl.jgltf.model.io.v2.GltfAssetV2;
+import de.javagl.jgltf.model.v2.GltfCreatorV2;
+import de.javagl.jgltf.model.v2.GltfModelCreatorV2;
+
+/**
+ * Tests for the sparse encoding of accessors when writing glTF 2.0 models
+ */
+@SuppressWarnings("javadoc")
+public class TestSparseAccessorEncoding
+{
+    private static final int COUNT = 100;
+
+    @Test
+    public void testMorphTargetIsEncodedAgainstZero() throws IOException
+    {
+        GltfModel gltfModel = createMorphModel();
+
+        byte plainData[] = writeBinary(gltfModel, new GltfModelWriter());
+        GltfModelWriter gltfModelWriter = new GltfModelWriter();
+        gltfModelWriter.setSparseEncodingThreshold(0.1);
+        byte sparseData[] = writeBinary(gltfModel, gltfModelWriter);
+        assertTrue(sparseData.length < plainData.length);
+
+        GltfModel readModel = readBinary(sparseData);
+        AccessorModel target = readModel.getAccessorModels().get(1);
+        AccessorSparseModel accessorSparseModel =
+            target.getAccessorSparseModel();
+        assertNotNull(accessorSparseModel);
+        assertEquals(3, accessorSparseModel.getCount());
+        assertEquals(GltfConstants.GL_UNSIGNED_BYTE,
+            accessorSparseModel.getIndicesComponentType());
+        assertNull(accessorSparseModel.getBaseBufferViewModel());
+        assertDataEquals(gltfModel, readModel);
+    }
+
+    @Test
+    public void testAccessorIsEncodedAgainstBase() throws IOException
+    {
+        GltfModel gltfModel = createMorphModel();
+        List<AccessorModel> accessorModels = gltfModel.getAccessorModels();
+        AccessorModel base = accessorModels.get(0);
+        AccessorModel modified = accessorModels.get(2);
+
+        GltfModelWriter gltfModelWriter = new GltfModelWriter();
+        gltfModelWriter.setSparseEncodingThreshold(0.1);
+        gltfModelWriter.setSparseEncodingBaseFunction(
+            a -> a == modified ? base : null);
+        GltfModel readModel =
+            readBinary(writeBinary(gltfModel, gltfModelWriter));
+
+        List<AccessorModel> readAccessorModels = readModel.getAccessorModels();
+        AccessorSparseModel accessorSparseModel =
+            readAccessorModels.get(2).getAccessorSparseModel();
+        assertNotNull(accessorSparseModel);
+        assertEquals(2, accessorSparseModel.getCount());
+        assertEquals(readAccessorModels.get(0).getBufferViewModel(),
+            accessorSparseModel.getBaseBufferViewModel());
+        assertNull(readAccessorModels.get(0).getAccessorSparseModel());
+        assertDataEquals(gltfModel, readModel);
+    }
+
+    @Test
+    public void testThresholdIsRespected() throws IOException
+    {
+        GltfModel gltfModel = createMorphModel();
+        GltfModelWriter gltfModelWriter = new GltfModelWriter();
+        gltfModelWriter.setSparseEncodingThreshold(0.01);
+        GltfModel readModel =
+            readBinary(writeBinary(gltfModel, gltfModelWriter));
+        for (AccessorModel accessorModel : readModel.getAccessorModels())
+        {
+            assertNull(accessorModel.getAccessorSparseModel());
+        }
+        assertDataEquals(gltfModel, readModel);
+    }
+
+    @Test
+    public void testSparseAccessorRoundTrip() throws IOException
+    {
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        GltfModel gltfModel = gltfModelReader.read(Paths.get(
+            "./src/test/resources/testModels/v2/testSparseAccessor.gltf"));
+        GlTF gltf = GltfCreatorV2.create(gltfModel);
+        List<Accessor> accessors = gltf.getAccessors();
+        assertNotNull(accessors.get(0).getSparse());
+        assertNotNull(accessors.get(0).getBufferView());
+        assertNotNull(accessors.get(1).getSparse());
+        assertNull(accessors.get(1).getBufferView());
+
+        GltfModel readModel = readBinary(
+            writeBinary(gltfModel, new GltfModelWriter()));
+        assertDataEquals(gltfModel, readModel);
+    }
+
+    @Test
+    public void testExtensionBufferViewReferencesAreKept() throws IOException
+    {
+        byte extensionData[] = { 1, 2, 3, 4, 5, 6, 7, 8 };
+        GltfModel gltfModel = createMorphModel(extensionData, true);
+
+        GltfModelWriter gltfModelWriter = new GltfModelWriter();
+        gltfModelWriter.setSparseEncodingThreshold(0.1);
+        byte encoded[] = writeBinary(gltfModel, gltfModelWriter);
+        GltfModel readModel = readBinary(encoded);
+
+        AccessorModel target = readModel.getAccessorModels().get(1);
+        assertNull(target.getAccessorSparseModel());
+        assertDataEquals(gltfModel, readModel);
+        byte dense[] = writeBinary(gltfModel, new GltfModelWriter());
+        assertEquals(dense.length, encoded.length);
+
+        Map<?, ?> extension =
+            (Map<?, ?>) readModel.getExtensions().get("EXT_test");
+        int bufferViewIndex = ((Number) extension.get("bufferView")).intValue();
+        assertEquals(3, bufferViewIndex);
+        ByteBuffer bufferViewData = readModel.getBufferViewModels()
+            .get(bufferViewIndex).getBufferViewData();
+        assertEquals(ByteBuffer.wrap(extensionData), bufferViewData);
+    }
+
+    @Test
+    public void testExtensionWithoutBufferViewReferences() throws IOException
+    {
+        byte extensionData[] = { 1, 2, 3, 4, 5, 6, 7, 8 };
+        GltfModel gltfModel = createMorphModel(extensionData, false);
+
+        GltfModelWriter gltfModelWriter = new GltfModelWriter();
+        gltfModelWriter.setSparseEncodingThreshold(0.1);
+        byte encoded[] = writeBinary(gltfModel, gltfModelWriter);
+        GltfModel readModel = readBinary(encoded);
+
+        AccessorModel target = readModel.getAccessorModels().get(1);
+        assertNotNull(target.getAccessorSparseModel());
+        assertDataEquals(gltfModel, readModel);
+        byte dense[] = writeBinary(gltfModel, new GltfModelWriter());
+        assertTrue(encoded.length < dense.length);
+    }
+
+    private static GltfModel createMorphModel()
+    {
+        return createMorphModel(null, false);
+    }
+
+    private static GltfModel createMorphModel(
+        byte extensionData[], boolean extensionRefersToBufferView)
+    {
+        int extensionLength =
+            extensionData == null ? 0 : extensionData.length;
+        ByteBuffer data = ByteBuffer.allocate(
+            3 * COUNT * 3 * 4 + extensionLength)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < COUNT * 3; i++)
+        {
+            data.putFloat(i);
+        }
+        for (int i = 0; i < COUNT * 3; i++)
+        {
+            boolean changed = i == 3 || i == 151 || i == 299;
+            data.putFloat(changed ? 0.5f : 0.0f);
+        }
+        for (int i = 0; i < COUNT * 3; i++)
+        {
+            boolean changed = i == 10 || i == 200;
+            data.putFloat(changed ? -1.0f : i);
+        }
+        if (extensionData != null)
+        {
+            data.put(extensionData);
+        }
+        data.position(0);
+
+        GlTF gltf = new GlTF();
+        Asset asset = new Asset();
+        asset.setVersion("2.0");
+        gltf.setAsset(asset);
+        Buffer buffer = new Buffer();
+        buffer.setByteLength(data.capacity());
+        gltf.addBuffers(buffer);
+        for (int i = 0; i < 3; i++)
+        {
+            BufferView bufferView = new BufferView();
+            bufferView.setBuffer(0);
+            bufferView.setByteOffset(i * COUNT * 3 * 4);
+            bufferView.setByteLength(COUNT * 3 * 4);
+            gltf.addBufferViews(bufferView);
+
+            Accessor accessor = new Accessor();
+            accessor.setBufferView(i);
+            accessor.setComponentType(GltfConstants.GL_FLOAT);
+            accessor.setCount(COUNT);
+            accessor.setType("VEC3");
+            gltf.addAccessors(accessor);
+        }
+        if (extensionData != null)
+        {
+            BufferView bufferView = new BufferView();
+            bufferView.setBuffer(0);
+            bufferView.setByteOffset(3 * COUNT * 3 * 4);
+            bufferView.setByteLength(extensionLength);
+            gltf.addBufferViews(bufferView);
+            String key = 
+                extensionRefersToBufferView ? "bufferView" : "value";
+            gltf.addExtensions("EXT_test",
+                Collections.singletonMap(key, 3));
+            gltf.addExtensionsUsed("EXT_test");
+        }
+        MeshPrimitive meshPrimitive = new MeshPrimitive();
+        meshPrimitive.addAttributes("POSITION", 0);
+        Map<String, Integer> target = new LinkedHashMap<String, Integer>();
+        target.put("POSITION", 1);
+        meshPrimitive.setTargets(Collections.singletonList(target));
+        Mesh mesh = new Mesh();
+        mesh.addPrimitives(meshPrimitive);
+        gltf.addMeshes(mesh);
+        return GltfModelCreatorV2.create(new GltfAssetV2(gltf, data));
+    }
+
+    private static byte[] writeBinary(
+        GltfModel gltfModel, GltfModelWriter gltfModelWriter) 
+            throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        gltfModelWriter.writeBinary(gltfModel, baos);
+        return baos.toByteArray();
+    }
+
+    private static GltfModel readBinary(byte data[]) throws IOException
+    {
+        GltfModelReader gltfModelReader = new GltfModelReader();
+        return gltfModelReader.readWithoutReferences(
+            new ByteArrayInputStream(data));
+    }
+
+    private static void assertDataEquals(
+        GltfModel expectedModel, GltfModel actualModel)
+    {
+        List<AccessorModel> expectedAccessorModels =
+            expectedModel.getAccessorModels();
+        List<AccessorModel> actualAccessorModels =
+            actualModel.getAccessorModels();
+        assertEquals(expectedAccessorModels.size(),
+            actualAccessorModels.size());
+        for (int i = 0; i < expectedAccessorModels.size(); i++)
+        {
+            assertEquals(
+                expectedAccessorModels.get(i).getAccessorData()
+                    .createByteBuffer(),
+                actualAccessorModels.get(i).getAccessorData()
+                    .createByteBuffer());
+        }
+    }
+}
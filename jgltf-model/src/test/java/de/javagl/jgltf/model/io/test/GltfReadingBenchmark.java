@@ -0,0 +1,135 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.model.io.GltfAssetReader;
+import de.javagl.jgltf.model.io.JacksonUtils;
+
+/**
+ * A simple benchmark that compares reading a large, synthetic glTF JSON 
+ * by first building a JSON tree and then converting it into a 
+ * {@link GlTF}, to reading it with the {@link GltfAssetReader}, which
+ * binds the JSON directly to the {@link GlTF}.<br>
+ * <br>
+ * This is not a rigorous benchmark. It only gives a rough idea of the
+ * timing differences.
+ */
+public class GltfReadingBenchmark
+{
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     * @throws IOException If an IO error occurs
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int numElements = 100000;
+        byte jsonData[] = createJsonData(numElements);
+        System.out.println("Reading glTF with " + numElements
+            + " nodes and accessors, " + jsonData.length + " bytes");
+        
+        int runs = 10;
+        for (int i = 0; i < runs; i++)
+        {
+            long beforeTree = System.nanoTime();
+            readWithTree(jsonData);
+            long afterTree = System.nanoTime();
+            
+            long beforeDirect = System.nanoTime();
+            readDirect(jsonData);
+            long afterDirect = System.nanoTime();
+            
+            System.out.printf(Locale.ENGLISH,
+                "Run %2d: tree %8.2f ms, direct %8.2f ms%n", i,
+                (afterTree - beforeTree) / 1e6, 
+                (afterDirect - beforeDirect) / 1e6);
+        }
+    }
+    
+    /**
+     * Read the given glTF JSON data by first building a JSON tree, and
+     * then converting it into a {@link GlTF}
+     * 
+     * @param jsonData The JSON data
+     * @return The {@link GlTF}
+     * @throws IOException If an IO error occurs
+     */
+    private static GlTF readWithTree(byte jsonData[]) throws IOException
+    {
+        ObjectMapper objectMapper = JacksonUtils.createObjectMapper();
+        try (InputStream inputStream = new ByteArrayInputStream(jsonData))
+        {
+            JsonNode rootNode = objectMapper.readTree(inputStream);
+            return objectMapper.convertValue(rootNode, GlTF.class);
+        }
+    }
+
+    /**
+     * Read the given glTF JSON data with a {@link GltfAssetReader}
+     * 
+     * @param jsonData The JSON data
+     * @return The {@link GlTF}
+     * @throws IOException If an IO error occurs
+     */
+    private static GlTF readDirect(byte jsonData[]) throws IOException
+    {
+        GltfAssetReader gltfAssetReader = new GltfAssetReader();
+        try (InputStream inputStream = new ByteArrayInputStream(jsonData))
+        {
+            return (GlTF) gltfAssetReader.readWithoutReferences(
+                inputStream).getGltf();
+        }
+    }
+    
+    /**
+     * Create the JSON data for a glTF 2.0 asset with the given number of
+     * nodes and accessors
+     * 
+     * @param numElements The number of elements
+     * @return The JSON data
+     */
+    private static byte[] createJsonData(int numElements)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"asset\":{\"version\":\"2.0\"},");
+        sb.append("\"nodes\":[");
+        for (int i = 0; i < numElements; i++)
+        {
+            if (i > 0)
+            {
+                sb.append(",");
+            }
+            sb.append("{\"name\":\"node" + i + "\",");
+            sb.append("\"translation\":[" + i + ",1.5,2.5],");
+            sb.append("\"rotation\":[0,0,0,1]}");
+        }
+        sb.append("],");
+        sb.append("\"accessors\":[");
+        for (int i = 0; i < numElements; i++)
+        {
+            if (i > 0)
+            {
+                sb.append(",");
+            }
+            sb.append("{\"bufferView\":0,\"componentType\":5126,");
+            sb.append("\"count\":" + (i + 1) + ",\"type\":\"VEC3\",");
+            sb.append("\"min\":[-1.0,-1.0,-1.0],\"max\":[1.0,1.0,1.0]}");
+        }
+        sb.append("]}");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
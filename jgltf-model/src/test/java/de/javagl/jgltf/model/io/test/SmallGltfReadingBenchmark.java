@@ -0,0 +1,136 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.io.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import de.javagl.jgltf.impl.v2.GlTF;
+import de.javagl.jgltf.model.io.GltfAssetReader;
+import de.javagl.jgltf.model.io.GltfJsonContext;
+import de.javagl.jgltf.model.io.JacksonUtils;
+
+/**
+ * A simple benchmark that compares reading many small glTF JSON files
+ * with a new object mapper for each file, to reading them with a single
+ * {@link GltfAssetReader}, which reuses the readers of its
+ * {@link GltfJsonContext}.<br>
+ * <br>
+ * This is not a rigorous benchmark. It only gives a rough idea of the
+ * timing differences.
+ */
+public class SmallGltfReadingBenchmark
+{
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     * @throws IOException If an IO error occurs
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int numFiles = 5000;
+        List<byte[]> jsonDatas = new ArrayList<byte[]>();
+        for (int i = 0; i < numFiles; i++)
+        {
+            jsonDatas.add(createJsonData(i));
+        }
+        System.out.println("Reading " + numFiles + " small glTF files");
+        
+        int runs = 10;
+        for (int i = 0; i < runs; i++)
+        {
+            long beforeNew = System.nanoTime();
+            for (byte jsonData[] : jsonDatas)
+            {
+                readWithNewObjectMapper(jsonData);
+            }
+            long afterNew = System.nanoTime();
+            
+            long beforeShared = System.nanoTime();
+            GltfAssetReader gltfAssetReader = new GltfAssetReader();
+            for (byte jsonData[] : jsonDatas)
+            {
+                readWithShared(gltfAssetReader, jsonData);
+            }
+            long afterShared = System.nanoTime();
+            
+            System.out.printf(Locale.ENGLISH,
+                "Run %2d: new object mappers %8.2f ms, "
+                + "shared context %8.2f ms%n", i,
+                (afterNew - beforeNew) / 1e6, 
+                (afterShared - beforeShared) / 1e6);
+        }
+    }
+    
+    /**
+     * Read the given glTF JSON data with a new object mapper
+     * 
+     * @param jsonData The JSON data
+     * @return The {@link GlTF}
+     * @throws IOException If an IO error occurs
+     */
+    private static GlTF readWithNewObjectMapper(byte jsonData[]) 
+        throws IOException
+    {
+        ObjectMapper objectMapper = JacksonUtils.createObjectMapper();
+        try (InputStream inputStream = new ByteArrayInputStream(jsonData))
+        {
+            return objectMapper.readValue(inputStream, GlTF.class);
+        }
+    }
+
+    /**
+     * Read the given glTF JSON data with the given {@link GltfAssetReader}
+     * 
+     * @param gltfAssetReader The {@link GltfAssetReader}
+     * @param jsonData The JSON data
+     * @return The {@link GlTF}
+     * @throws IOException If an IO error occurs
+     */
+    private static GlTF readWithShared(
+        GltfAssetReader gltfAssetReader, byte jsonData[]) throws IOException
+    {
+        try (InputStream inputStream = new ByteArrayInputStream(jsonData))
+        {
+            return (GlTF) gltfAssetReader.readWithoutReferences(
+                inputStream).getGltf();
+        }
+    }
+    
+    /**
+     * Create the JSON data for a small glTF 2.0 asset
+     * 
+     * @param index The index of the asset
+     * @return The JSON data
+     */
+    private static byte[] createJsonData(int index)
+    {
+        String jsonString = "{"
+            + "\"asset\":{\"version\":\"2.0\"},"
+            + "\"scenes\":[{\"nodes\":[0]}],"
+            + "\"nodes\":[{\"name\":\"node" + index + "\",\"mesh\":0}],"
+            + "\"meshes\":[{\"primitives\":[{\"attributes\":"
+            + "{\"POSITION\":0},\"indices\":1}]}],"
+            + "\"buffers\":[{\"byteLength\":42,\"uri\":\"data.bin\"}],"
+            + "\"bufferViews\":[{\"buffer\":0,\"byteLength\":36},"
+            + "{\"buffer\":0,\"byteOffset\":36,\"byteLength\":6}],"
+            + "\"accessors\":["
+            + "{\"bufferView\":0,\"componentType\":5126,\"count\":3,"
+            + "\"type\":\"VEC3\",\"min\":[0,0,0],\"max\":[1,1,0]},"
+            + "{\"bufferView\":1,\"componentType\":5123,\"count\":3,"
+            + "\"type\":\"SCALAR\"}]"
+            + "}";
+        return jsonString.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+
+import de.javagl.jgltf.model.AccessorDatas;
+import de.javagl.jgltf.model.AccessorFloatData;
+import de.javagl.jgltf.model.ElementType;
+import de.javagl.jgltf.model.GltfConstants;
+
+/**
+ * A simple benchmark that compares reading the data of a large 
+ * {@link AccessorFloatData} component by component, to reading it with
+ * the bulk {@link AccessorFloatData#readElements} method, for packed 
+ * and for strided data.<br>
+ * <br>
+ * This is not a rigorous benchmark. It only gives a rough idea of the
+ * timing differences.
+ */
+public class AccessorDataBenchmark
+{
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     */
+    public static void main(String[] args)
+    {
+        int numElements = 5000000;
+        AccessorFloatData packed = createData(numElements, 12);
+        AccessorFloatData strided = createData(numElements, 32);
+        float target[] = new float[numElements * 3];
+        System.out.println("Reading " + numElements + " VEC3 elements");
+        
+        int runs = 10;
+        for (int i = 0; i < runs; i++)
+        {
+            double packedSingle = readSingle(packed, target);
+            double packedBulk = readBulk(packed, target);
+            double stridedSingle = readSingle(strided, target);
+            double stridedBulk = readBulk(strided, target);
+            System.out.printf(Locale.ENGLISH,
+                "Run %2d: packed single %8.2f ms, bulk %8.2f ms, "
+                + "strided single %8.2f ms, bulk %8.2f ms%n", i, 
+                packedSingle, packedBulk, stridedSingle, stridedBulk);
+        }
+    }
+    
+    /**
+     * Read the given data component by component into the given array
+     * 
+     * @param data The data
+     * @param target The target array
+     * @return The duration, in milliseconds
+     */
+    private static double readSingle(AccessorFloatData data, float target[])
+    {
+        long before = System.nanoTime();
+        int n = data.getTotalNumComponents();
+        for (int i = 0; i < n; i++)
+        {
+            target[i] = data.get(i);
+        }
+        long after = System.nanoTime();
+        return (after - before) / 1e6;
+    }
+    
+    /**
+     * Read the given data into the given array, with a bulk operation
+     * 
+     * @param data The data
+     * @param target The target array
+     * @return The duration, in milliseconds
+     */
+    private static double readBulk(AccessorFloatData data, float target[])
+    {
+        long before = System.nanoTime();
+        data.readElements(0, data.getNumElements(), target, 0);
+        long after = System.nanoTime();
+        return (after - before) / 1e6;
+    }
+    
+    /**
+     * Create an {@link AccessorFloatData} for VEC3 elements, with the 
+     * given byte stride, in a direct byte buffer
+     * 
+     * @param numElements The number of elements
+     * @param byteStride The byte stride
+     * @return The data
+     */
+    private static AccessorFloatData createData(
+        int numElements, int byteStride)
+    {
+        ByteBuffer byteBuffer = ByteBuffer
+            .allocateDirect(numElements * byteStride)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        AccessorFloatData data = (AccessorFloatData) AccessorDatas.create(
+            GltfConstants.GL_FLOAT, byteBuffer, 0, numElements, 
+            ElementType.VEC3, byteStride);
+        for (int e = 0; e < numElements; e++)
+        {
+            data.set(e, 0, e);
+            data.set(e, 1, e * 0.5f);
+            data.set(e, 2, -e);
+        }
+        return data;
+    }
+}
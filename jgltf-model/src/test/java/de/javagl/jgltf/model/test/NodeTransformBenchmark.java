@@ -0,0 +1,168 @@
+/*
+ * www.javagl.de - JglTF
+ *
+ * Copyright 2015-2020 Marco Hutter - http://www.javagl.de
+ */
+package de.javagl.jgltf.model.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import de.javagl.jgltf.model.MathUtils;
+import de.javagl.jgltf.model.NodeModel;
+import de.javagl.jgltf.model.impl.DefaultNodeModel;
+
+/**
+ * A simple benchmark that compares the computation of the global 
+ * transforms of all nodes in synthetic hierarchies, using the cached
+ * transforms of the {@link DefaultNodeModel}, to the computation by
+ * walking the parent chain of each node.<br>
+ * <br>
+ * In each simulated frame, the translation of a few nodes is modified 
+ * (as it would be done by an animation), and the global transforms of 
+ * all nodes are computed (as it would be done by a renderer).<br>
+ * <br>
+ * This is not a rigorous benchmark. It only gives a rough idea of the
+ * timing differences.
+ */
+public class NodeTransformBenchmark
+{
+    /**
+     * The entry point of this benchmark
+     * 
+     * @param args Not used
+     */
+    public static void main(String[] args)
+    {
+        int numNodes = 50000;
+        int depth = 20;
+        runBenchmark("Deep", createHierarchy(numNodes, depth));
+        runBenchmark("Wide", createHierarchy(numNodes, 2));
+    }
+    
+    /**
+     * Run the benchmark for the given nodes
+     * 
+     * @param name The name of the hierarchy
+     * @param nodes The nodes
+     */
+    private static void runBenchmark(String name, List<DefaultNodeModel> nodes)
+    {
+        System.out.println(name + " hierarchy with " + nodes.size() + " nodes");
+        float result[] = new float[16];
+        int frames = 10;
+        int runs = 10;
+        for (int i = 0; i < runs; i++)
+        {
+            long before = System.nanoTime();
+            for (int f = 0; f < frames; f++)
+            {
+                animate(nodes, f);
+                for (DefaultNodeModel node : nodes)
+                {
+                    node.computeGlobalTransform(result);
+                }
+            }
+            long after = System.nanoTime();
+            double cachedMs = (after - before) / 1e6 / frames;
+            
+            before = System.nanoTime();
+            for (int f = 0; f < frames; f++)
+            {
+                animate(nodes, f);
+                for (DefaultNodeModel node : nodes)
+                {
+                    computeGlobalTransformDirectly(node, result);
+                }
+            }
+            after = System.nanoTime();
+            double directMs = (after - before) / 1e6 / frames;
+            
+            System.out.printf(Locale.ENGLISH,
+                "Run %2d: cached %8.2f ms per frame, "
+                + "direct %8.2f ms per frame%n", i, cachedMs, directMs);
+        }
+    }
+    
+    /**
+     * Modify the translation of every 100th node
+     * 
+     * @param nodes The nodes
+     * @param frame The frame number
+     */
+    private static void animate(List<DefaultNodeModel> nodes, int frame)
+    {
+        for (int i = 0; i < nodes.size(); i += 100)
+        {
+            DefaultNodeModel node = nodes.get(i);
+            float translation[] = node.getTranslation();
+            translation[0] = frame * 0.01f;
+            node.setTranslation(translation);
+        }
+    }
+    
+    /**
+     * Compute the global transform of the given node, by multiplying 
+     * the local transforms of all nodes in the parent chain
+     * 
+     * @param nodeModel The node
+     * @param result The result
+     */
+    private static void computeGlobalTransformDirectly(
+        NodeModel nodeModel, float result[])
+    {
+        float local[] = new float[16];
+        MathUtils.setIdentity4x4(result);
+        NodeModel currentNode = nodeModel;
+        while (currentNode != null)
+        {
+            currentNode.computeLocalTransform(local);
+            MathUtils.mul4x4(local, result, result);
+            currentNode = currentNode.getParent();
+        }
+    }
+    
+    /**
+     * Create a hierarchy with the given number of nodes, consisting of
+     * chains of nodes with the given depth that are attached to a 
+     * common root node
+     * 
+     * @param numNodes The number of nodes
+     * @param depth The depth of the hierarchy
+     * @return The nodes, in depth-first order
+     */
+    private static List<DefaultNodeModel> createHierarchy(
+        int numNodes, int depth)
+    {
+        List<DefaultNodeModel> nodes = new ArrayList<DefaultNodeModel>();
+        DefaultNodeModel root = createNode(0);
+        nodes.add(root);
+        DefaultNodeModel parent = root;
+        while (nodes.size() < numNodes)
+        {
+            DefaultNodeModel node = createNode(nodes.size());
+            parent.addChild(node);
+            nodes.add(node);
+            parent = nodes.size() % (depth - 1) == 0 ? root : node;
+        }
+        return nodes;
+    }
+    
+    /**
+     * Create a node with a translation, rotation and scale
+     * 
+     * @param index The index of the node
+     * @return The node
+     */
+    private static DefaultNodeModel createNode(int index)
+    {
+        DefaultNodeModel node = new DefaultNodeModel();
+        node.setTranslation(new float[] { 0.0f, 0.1f, 0.0f });
+        float angle = index * 0.001f;
+        node.setRotation(new float[] { 
+            0.0f, (float) Math.sin(angle), 0.0f, (float) Math.cos(angle) });
+        node.setScale(new float[] { 1.0f, 1.0f, 1.0f });
+        return node;
+    }
+}
@@ -49,6 +49,7 @@ import de.javagl.jgltf.model.MeshPrimitiveModel;
 import de.javagl.jgltf.model.Optionals;
 import de.javagl.jgltf.model.creation.GltfModelBuilder;
 import de.javagl.jgltf.model.creation.MeshPrimitiveBuilder;
+import de.javagl.jgltf.model.creation.MeshPrimitiveOptimizer;
 import de.javagl.jgltf.model.impl.DefaultMeshModel;
 import de.javagl.jgltf.model.impl.DefaultMeshPrimitiveModel;
 import de.javagl.jgltf.model.impl.DefaultNodeModel;
@@ -117,6 +118,12 @@ public class ObjGltfModelCreator
      */
     private boolean oneMeshPerPrimitive = false;
     
+    /**
+     * Whether the mesh primitives should be optimized with the
+     * {@link MeshPrimitiveOptimizer}
+     */
+    private boolean optimizingMeshPrimitives = false;
+    
     /**
      * Default constructor
      */
@@ -200,6 +207,21 @@ public class ObjGltfModelCreator
         this.oneMeshPerPrimitive = oneMeshPerPrimitive;
     }
     
+    /**
+     * Set whether the mesh primitives should be optimized with the
+     * {@link MeshPrimitiveOptimizer}. This will merge the vertices that
+     * are duplicated for the faces that they belong to, and reorder the
+     * triangles and vertices for rendering. The component type of the 
+     * indices will then be determined by the optimizer, based on the 
+     * number of vertices.
+     * 
+     * @param optimizingMeshPrimitives The flag
+     */
+    public void setOptimizingMeshPrimitives(boolean optimizingMeshPrimitives)
+    {
+        this.optimizingMeshPrimitives = optimizingMeshPrimitives;
+    }
+    
     /**
      * Create a {@link GltfModel} from the OBJ file with the given URI
      * 
@@ -318,6 +340,11 @@ public class ObjGltfModelCreator
         Map<String, Mtl> mtls = Optionals.of(mtlsMap);
         List<DefaultMeshPrimitiveModel> meshPrimitives = 
             createMeshPrimitives(obj, mtls);
+        if (optimizingMeshPrimitives)
+        {
+            logger.log(level, "Optimizing MeshPrimitives");
+            meshPrimitives.replaceAll(MeshPrimitiveOptimizer::optimize);
+        }
         
         DefaultSceneModel scene = new DefaultSceneModel();
 
@@ -44,6 +44,7 @@ import de.javagl.jgltf.model.gl.ProgramModel;
 import de.javagl.jgltf.model.gl.ShaderModel;
 import de.javagl.jgltf.model.image.PixelData;
 import de.javagl.jgltf.model.image.PixelDatas;
+import de.javagl.jgltf.model.io.Buffers;
 
 /**
  * A class maintaining the data for rendering a glTF with OpenGL.<br>
@@ -314,6 +315,13 @@ class GltfRenderData
         
         Integer byteLength = bufferViewModel.getByteLength();
         ByteBuffer bufferViewData = bufferViewModel.getBufferViewData();
+        if (!bufferViewData.isDirect())
+        {
+            // The data may have been read with a heap buffer allocator,
+            // but the GL bindings may require a direct buffer
+            bufferViewData = Buffers.copyOf(
+                bufferViewData, bufferViewData.capacity());
+        }
         int target = Optionals.of(
             bufferViewModel.getTarget(), GltfConstants.GL_ARRAY_BUFFER);
         int glBufferView = glContext.createGlBufferView(
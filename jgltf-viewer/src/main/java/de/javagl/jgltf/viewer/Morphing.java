@@ -39,6 +39,7 @@ import de.javagl.jgltf.model.AccessorModel;
 import de.javagl.jgltf.model.BufferModel;
 import de.javagl.jgltf.model.BufferViewModel;
 import de.javagl.jgltf.model.MeshPrimitiveModel;
+import de.javagl.jgltf.model.SparseAccessorData;
 
 /**
  * Utility methods and classes related to morphing.
@@ -71,9 +72,10 @@ class Morphing
         private final AccessorModel baseAccessorModel;
         
         /**
-         * The accessor data of the morph targets 
+         * The accessor data of the morph targets. Each element is either
+         * an {@link AccessorFloatData} or a {@link SparseAccessorData}
          */
-        private final List<AccessorFloatData> targetAccessorFloatDatas;
+        private final List<AccessorData> targetAccessorDatas;
 
         /**
          * Creates a new isntance
@@ -86,18 +88,19 @@ class Morphing
          * called
          * @param baseAccessorModel The base {@link AccessorModel} for the 
          * attribute
-         * @param targetAccessorFloatDatas The {@link AccessorFloatData} 
-         * elements that have been obtained from the morph target accessors
+         * @param targetAccessorDatas The {@link AccessorFloatData} or 
+         * {@link SparseAccessorData} elements that have been obtained 
+         * from the morph target accessors
          */
         private MorphableAttribute(AccessorModel morphedAccessorModel,
             AccessorModel baseAccessorModel,
-            Collection<? extends AccessorFloatData> targetAccessorFloatDatas)
+            Collection<? extends AccessorData> targetAccessorDatas)
         {
             this.baseAccessorModel = baseAccessorModel;
             this.morphedAccessorModel = morphedAccessorModel;
-            this.targetAccessorFloatDatas = 
+            this.targetAccessorDatas = 
                 Collections.unmodifiableList(
-                    new ArrayList<AccessorFloatData>(targetAccessorFloatDatas));
+                    new ArrayList<AccessorData>(targetAccessorDatas));
         }
 
         /**
@@ -122,7 +125,7 @@ class Morphing
          */
         int getNumTargets()
         {
-            return targetAccessorFloatDatas.size();
+            return targetAccessorDatas.size();
         }
         
         /**
@@ -141,7 +144,7 @@ class Morphing
             combine3D(
                 morphedAccessorData, 
                 baseAccessorData, 
-                targetAccessorFloatDatas, 
+                targetAccessorDatas, 
                 weights);
         }
     }
@@ -232,25 +235,40 @@ class Morphing
             meshPrimitiveModel.getAttributes();
         AccessorModel baseAccessorModel = meshPrimitiveAttributes.get(semantic);
         
-        List<AccessorFloatData> targetAccessorFloatDatas = 
-            new ArrayList<AccessorFloatData>();
+        List<AccessorData> targetAccessorDatas = 
+            new ArrayList<AccessorData>();
         List<Map<String, AccessorModel>> morphTargets =
             meshPrimitiveModel.getTargets();
         for (Map<String, AccessorModel> morphTarget : morphTargets)
         {
             AccessorModel targetAccessorModel = morphTarget.get(semantic);
-            AccessorData targetAccessorData = 
-                targetAccessorModel.getAccessorData();
-            AccessorFloatData targetAccessorFloatData = 
-                (AccessorFloatData)targetAccessorData;
-            targetAccessorFloatDatas.add(targetAccessorFloatData);
+            
+            // Sparse morph targets without base data are used directly,
+            // so that only the elements that are actually affected by 
+            // the target have to be processed, and the dense data
+            // does not have to be created
+            SparseAccessorData targetSparseAccessorData =
+                targetAccessorModel.getSparseAccessorData();
+            if (targetSparseAccessorData != null &&
+                targetSparseAccessorData.getBaseAccessorData() == null)
+            {
+                targetAccessorDatas.add(targetSparseAccessorData);
+            }
+            else
+            {
+                AccessorData targetAccessorData = 
+                    targetAccessorModel.getAccessorData();
+                AccessorFloatData targetAccessorFloatData = 
+                    (AccessorFloatData)targetAccessorData;
+                targetAccessorDatas.add(targetAccessorFloatData);
+            }
         }
         
         AccessorModel instantiatedAccessorModel =
             AccessorModelCreation.instantiate(baseAccessorModel, 
                 "buffer_for_morphed_attribute_" + semantic + ".bin");
         return new MorphableAttribute(instantiatedAccessorModel,
-            baseAccessorModel, targetAccessorFloatDatas);
+            baseAccessorModel, targetAccessorDatas);
     }
     
     /**
@@ -260,7 +278,10 @@ class Morphing
      * <pre><code>
      *  morphed = base + targets[i] * weights[i]  (for all i)
      * </code></pre>
-     * assuming that the elements of the accessors are at least 3D vectors. 
+     * assuming that the elements of the accessors are at least 3D vectors.
+     * Each target is either an {@link AccessorFloatData} or a 
+     * {@link SparseAccessorData} without base data. The sparse targets
+     * are only applied to the elements that they actually define.
      * 
      * @param morphed The morphed accessor data
      * @param base The base accessor data
@@ -269,7 +290,7 @@ class Morphing
      */
     private static void combine3D(
         AccessorFloatData morphed, AccessorFloatData base,
-        List<? extends AccessorFloatData> targets, float weights[])
+        List<? extends AccessorData> targets, float weights[])
     {
         // The number of components is fixed to be 3 here: Accessors that 
         // refer to tangents may have 4 components, but the values that 
@@ -285,14 +306,38 @@ class Morphing
                 float r = base.get(e, c);
                 for (int i = 0; i < weights.length; i++)
                 {
-                    float w = weights[i];
-                    AccessorFloatData target = targets.get(i);
-                    float d = target.get(e, c);
-                    r += w * d;
+                    AccessorData target = targets.get(i);
+                    if (target instanceof AccessorFloatData)
+                    {
+                        float w = weights[i];
+                        AccessorFloatData targetFloatData =
+                            (AccessorFloatData)target;
+                        float d = targetFloatData.get(e, c);
+                        r += w * d;
+                    }
                 }
                 morphed.set(e, c, r);
             }
         }
+        for (int i = 0; i < weights.length; i++)
+        {
+            float w = weights[i];
+            AccessorData target = targets.get(i);
+            if (w != 0.0f && target instanceof SparseAccessorData)
+            {
+                SparseAccessorData sparseTarget = (SparseAccessorData)target;
+                int numSparseElements = sparseTarget.getNumSparseElements();
+                for (int s = 0; s < numSparseElements; s++)
+                {
+                    int e = sparseTarget.getSparseElementIndex(s);
+                    for (int c = 0; c < numComponents; c++)
+                    {
+                        float d = sparseTarget.getSparseFloat(s, c);
+                        morphed.set(e, c, morphed.get(e, c) + w * d);
+                    }
+                }
+            }
+        }
     }
 
 